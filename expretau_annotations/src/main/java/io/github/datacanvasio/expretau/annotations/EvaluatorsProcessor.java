@@ -22,20 +22,22 @@ import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.CodeBlock;
 import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
 import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
 import org.apache.commons.lang3.StringUtils;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Random;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -65,8 +67,13 @@ import javax.tools.Diagnostic;
 @SupportedSourceVersion(SourceVersion.RELEASE_8)
 public class EvaluatorsProcessor extends AbstractProcessor {
     private static final String EVALUATOR_EVAL_METHOD = "eval";
+    private static final String EVALUATOR_CALC_METHOD = "calc";
     private static final String EVALUATOR_TYPE_CODE_METHOD = "typeCode";
+    private static final String EVALUATOR_IS_PRIMITIVE_METHOD = "isPrimitive";
+    private static final String EVAL_PRIMITIVE_METHOD_PREFIX = "eval";
     private static final String EVALUATORS_VAR = "evaluators";
+    private static final String EVAL_BATCH_METHOD = "evalBatch";
+    private static final String EVAL_FILTER_METHOD = "evalFilter";
 
     @Nonnull
     private static String getSimpleName(@Nonnull TypeName type) {
@@ -132,11 +139,23 @@ public class EvaluatorsProcessor extends AbstractProcessor {
         return "Universal";
     }
 
+    /**
+     * Create the {@code serialVersionUID} field of a generated class. The value is a 64-bit FNV-1a hash of the
+     * qualified class name, so it is stable between builds and serialized forms are compatible.
+     *
+     * @param qualifiedName the qualified name of the generated class
+     * @return the field spec
+     */
     @Nonnull
-    private static FieldSpec serialVersionUid() {
+    private static FieldSpec serialVersionUid(@Nonnull String qualifiedName) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < qualifiedName.length(); ++i) {
+            hash ^= qualifiedName.charAt(i);
+            hash *= 0x100000001b3L;
+        }
         return FieldSpec.builder(TypeName.LONG, "serialVersionUID")
             .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
-            .initializer("$LL", new Random().nextLong())
+            .initializer("$LL", hash)
             .build();
     }
 
@@ -180,64 +199,59 @@ public class EvaluatorsProcessor extends AbstractProcessor {
     }
 
     @Nonnull
-    private static CodeBlock codeConvertPara(
-        @Nonnull String paraName,
-        int paraIndex,
+    private static TypeName unboxIfPossible(@Nonnull TypeName type) {
+        if (type.isBoxedPrimitive()) {
+            return type.unbox();
+        }
+        return type;
+    }
+
+    @Nonnull
+    private static CodeBlock codeConvertValue(
+        @Nonnull String valueName,
         @Nonnull TypeName required,
         @Nonnull TypeName actual
     ) {
-        CodeBlock.Builder builder = CodeBlock.builder();
-        boolean converted = false;
+        TypeName requiredPrimitive = unboxIfPossible(required);
         if (required.equals(TypeName.get(BigDecimal.class))) {
-            if (actual.equals(TypeName.get(Double.class))
-                || actual.equals(TypeName.get(Long.class))
-                || actual.equals(TypeName.get(Integer.class))
+            if (actual.equals(TypeName.DOUBLE)
+                || actual.equals(TypeName.LONG)
+                || actual.equals(TypeName.INT)
             ) {
-                builder.add("$T.valueOf(($T) $L[$L])", BigDecimal.class, actual, paraName, paraIndex);
-                converted = true;
+                return CodeBlock.of("$T.valueOf($L)", BigDecimal.class, valueName);
             }
-        } else if (required.equals(TypeName.get(Double.class))
-            || required.equals(TypeName.DOUBLE)
+        } else if (requiredPrimitive.equals(TypeName.DOUBLE)
+            || requiredPrimitive.equals(TypeName.LONG)
+            || requiredPrimitive.equals(TypeName.INT)
         ) {
-            if (actual.equals(TypeName.get(BigDecimal.class))
-                || actual.equals(TypeName.get(Long.class))
-                || actual.equals(TypeName.get(Integer.class))
-            ) {
-                builder.add("(($T) $L[$L]).doubleValue()", actual, paraName, paraIndex);
-                converted = true;
+            if (actual.equals(TypeName.get(BigDecimal.class))) {
+                return CodeBlock.of("$L.$LValue()", valueName, requiredPrimitive);
             }
-        } else if (required.equals(TypeName.get(Long.class))
-            || required.equals(TypeName.LONG)
-        ) {
-            if (actual.equals((TypeName.get(BigDecimal.class)))
-                || actual.equals(TypeName.get(Integer.class))
-                || actual.equals(TypeName.get(Double.class))
-            ) {
-                builder.add("(($T) $L[$L]).longValue()", actual, paraName, paraIndex);
-                converted = true;
-            }
-        } else if (required.equals(TypeName.get(Integer.class))
-            || required.equals(TypeName.INT)
-        ) {
-            if (actual.equals(TypeName.get(BigDecimal.class))
-                || actual.equals(TypeName.get(Double.class))
-                || actual.equals(TypeName.get(Long.class))
-            ) {
-                builder.add("(($T) $L[$L]).intValue()", actual, paraName, paraIndex);
-                converted = true;
+            if (actual.isPrimitive() && !actual.equals(requiredPrimitive)) {
+                return CodeBlock.of("($T) $L", requiredPrimitive, valueName);
             }
         }
-        if (!converted) {
-            builder.add("($T) $L[$L]", required, paraName, paraIndex);
+        return CodeBlock.of("$L", valueName);
+    }
+
+    @Nonnull
+    private static String calcParaName(int index) {
+        return "value" + index;
+    }
+
+    @Nonnull
+    private static List<ParameterSpec> calcParas(@Nonnull List<TypeName> newParas) {
+        List<ParameterSpec> calcParas = new ArrayList<>(newParas.size());
+        for (int i = 0; i < newParas.size(); i++) {
+            calcParas.add(ParameterSpec.builder(unboxIfPossible(newParas.get(i)), calcParaName(i)).build());
         }
-        return builder.build();
+        return calcParas;
     }
 
     @Nonnull
-    private static CodeBlock codeEvalParas(
+    private static CodeBlock codeCalcParas(
         @Nonnull EvaluatorsInfo info,
         String methodName,
-        String evalMethodParaName,
         @Nonnull List<TypeName> paras,
         List<TypeName> newParas
     ) {
@@ -248,13 +262,214 @@ public class EvaluatorsProcessor extends AbstractProcessor {
             if (addComma) {
                 codeBuilder.add(", ");
             }
-            codeBuilder.add(codeConvertPara(evalMethodParaName, i, paras.get(i), newParas.get(i)));
+            codeBuilder.add(codeConvertValue(
+                calcParaName(i),
+                paras.get(i),
+                unboxIfPossible(newParas.get(i))
+            ));
+            addComma = true;
+        }
+        codeBuilder.add(");\n");
+        return codeBuilder.build();
+    }
+
+    @Nonnull
+    private static CodeBlock codeEvalParas(
+        String evalMethodParaName,
+        @Nonnull List<TypeName> newParas
+    ) {
+        CodeBlock.Builder codeBuilder = CodeBlock.builder();
+        codeBuilder.add("return $L(", EVALUATOR_CALC_METHOD);
+        boolean addComma = false;
+        for (int i = 0; i < newParas.size(); i++) {
+            if (addComma) {
+                codeBuilder.add(", ");
+            }
+            codeBuilder.add("($T) $L[$L]", unboxIfPossible(newParas.get(i)), evalMethodParaName, i);
             addComma = true;
         }
         codeBuilder.add(");\n");
         return codeBuilder.build();
     }
 
+    @Nonnull
+    private static CodeBlock codeEvalValues(
+        @Nonnull List<? extends VariableElement> evalMethodParas,
+        @Nonnull List<TypeName> newParas
+    ) {
+        CodeBlock.Builder codeBuilder = CodeBlock.builder();
+        codeBuilder.add("return $L(", EVALUATOR_CALC_METHOD);
+        boolean addComma = false;
+        for (int i = 0; i < newParas.size(); i++) {
+            if (addComma) {
+                codeBuilder.add(", ");
+            }
+            codeBuilder.add("($T) $L", unboxIfPossible(newParas.get(i)), evalMethodParas.get(i).getSimpleName());
+            addComma = true;
+        }
+        codeBuilder.add(");\n");
+        return codeBuilder.build();
+    }
+
+    @Nullable
+    private static String evalPrimitiveMethodName(@Nonnull TypeName type) {
+        if (type.equals(TypeName.INT)) {
+            return EVAL_PRIMITIVE_METHOD_PREFIX + "Int";
+        } else if (type.equals(TypeName.LONG)) {
+            return EVAL_PRIMITIVE_METHOD_PREFIX + "Long";
+        } else if (type.equals(TypeName.DOUBLE)) {
+            return EVAL_PRIMITIVE_METHOD_PREFIX + "Double";
+        } else if (type.equals(TypeName.BOOLEAN)) {
+            return EVAL_PRIMITIVE_METHOD_PREFIX + "Boolean";
+        }
+        return null;
+    }
+
+    @Nonnull
+    private static CodeBlock codeEvalPrimitiveParas(
+        String evalMethodParaName,
+        String etxParaName,
+        @Nonnull List<TypeName> newParas
+    ) {
+        CodeBlock.Builder codeBuilder = CodeBlock.builder();
+        codeBuilder.add("return $L(", EVALUATOR_CALC_METHOD);
+        boolean addComma = false;
+        for (int i = 0; i < newParas.size(); i++) {
+            if (addComma) {
+                codeBuilder.add(", ");
+            }
+            TypeName type = unboxIfPossible(newParas.get(i));
+            String evalMethod = evalPrimitiveMethodName(type);
+            if (evalMethod != null) {
+                codeBuilder.add("$L[$L].$L($L)", evalMethodParaName, i, evalMethod, etxParaName);
+            } else {
+                codeBuilder.add("($T) $L[$L].eval($L)", type, evalMethodParaName, i, etxParaName);
+            }
+            addComma = true;
+        }
+        codeBuilder.add(");\n");
+        return codeBuilder.build();
+    }
+
+    @Nonnull
+    private static String columnArrayGetterName(@Nonnull TypeName type) {
+        if (type.equals(TypeName.INT)) {
+            return "getInts";
+        } else if (type.equals(TypeName.LONG)) {
+            return "getLongs";
+        } else if (type.equals(TypeName.DOUBLE)) {
+            return "getDoubles";
+        } else if (type.equals(TypeName.BOOLEAN)) {
+            return "getBooleans";
+        }
+        return "getObjects";
+    }
+
+    @Nonnull
+    private static CodeBlock codeGetColumnArrays(String parasName, @Nonnull List<TypeName> newParas) {
+        CodeBlock.Builder codeBuilder = CodeBlock.builder();
+        // Primitive columns are accessed as arrays, so that the loop is simple enough to be vectorized by the JIT.
+        for (int i = 0; i < newParas.size(); i++) {
+            TypeName type = unboxIfPossible(newParas.get(i));
+            if (type.isPrimitive()) {
+                codeBuilder.addStatement(
+                    "$T[] $L = $L[$L].$L()",
+                    type,
+                    calcParaName(i),
+                    parasName,
+                    i,
+                    columnArrayGetterName(type)
+                );
+            }
+        }
+        return codeBuilder.build();
+    }
+
+    @Nonnull
+    private static CodeBlock codeCalcRow(String parasName, @Nonnull List<TypeName> newParas) {
+        CodeBlock.Builder codeBuilder = CodeBlock.builder();
+        codeBuilder.add("$L(", EVALUATOR_CALC_METHOD);
+        boolean addComma = false;
+        for (int i = 0; i < newParas.size(); i++) {
+            if (addComma) {
+                codeBuilder.add(", ");
+            }
+            TypeName type = unboxIfPossible(newParas.get(i));
+            if (type.isPrimitive()) {
+                codeBuilder.add("$L[i]", calcParaName(i));
+            } else {
+                // The column may be primitive if the type is generalized to Object.
+                codeBuilder.add("($T) $L[$L].get(i)", type, parasName, i);
+            }
+            addComma = true;
+        }
+        codeBuilder.add(")");
+        return codeBuilder.build();
+    }
+
+    @Nonnull
+    private static CodeBlock codeEvalBatch(
+        @Nonnull List<? extends VariableElement> evalBatchParas,
+        @Nonnull List<TypeName> newParas,
+        @Nonnull TypeName returnType
+    ) {
+        String parasName = evalBatchParas.get(0).getSimpleName().toString();
+        String selName = evalBatchParas.get(1).getSimpleName().toString();
+        String sizeName = evalBatchParas.get(2).getSimpleName().toString();
+        String outName = evalBatchParas.get(3).getSimpleName().toString();
+        CodeBlock.Builder codeBuilder = CodeBlock.builder();
+        codeBuilder.add(codeGetColumnArrays(parasName, newParas));
+        codeBuilder.addStatement(
+            "$T[] results = $L.$L()",
+            returnType.isPrimitive() ? returnType : TypeName.OBJECT,
+            outName,
+            columnArrayGetterName(returnType)
+        );
+        CodeBlock calc = codeCalcRow(parasName, newParas);
+        codeBuilder.beginControlFlow("if ($L == null)", selName);
+        codeBuilder.beginControlFlow("for (int i = 0; i < $L; ++i)", sizeName);
+        codeBuilder.addStatement("results[i] = $L", calc);
+        codeBuilder.endControlFlow();
+        codeBuilder.nextControlFlow("else");
+        codeBuilder.beginControlFlow("for (int k = 0; k < $L; ++k)", sizeName);
+        codeBuilder.addStatement("int i = $L[k]", selName);
+        codeBuilder.addStatement("results[i] = $L", calc);
+        codeBuilder.endControlFlow();
+        codeBuilder.endControlFlow();
+        return codeBuilder.build();
+    }
+
+    @Nonnull
+    private static CodeBlock codeEvalFilter(
+        @Nonnull List<? extends VariableElement> evalFilterParas,
+        @Nonnull List<TypeName> newParas
+    ) {
+        String parasName = evalFilterParas.get(0).getSimpleName().toString();
+        String selName = evalFilterParas.get(1).getSimpleName().toString();
+        String sizeName = evalFilterParas.get(2).getSimpleName().toString();
+        String outName = evalFilterParas.get(3).getSimpleName().toString();
+        CodeBlock.Builder codeBuilder = CodeBlock.builder();
+        codeBuilder.add(codeGetColumnArrays(parasName, newParas));
+        codeBuilder.addStatement("int count = 0");
+        CodeBlock calc = codeCalcRow(parasName, newParas);
+        codeBuilder.beginControlFlow("if ($L == null)", selName);
+        codeBuilder.beginControlFlow("for (int i = 0; i < $L; ++i)", sizeName);
+        codeBuilder.beginControlFlow("if ($L)", calc);
+        codeBuilder.addStatement("$L[count++] = i", outName);
+        codeBuilder.endControlFlow();
+        codeBuilder.endControlFlow();
+        codeBuilder.nextControlFlow("else");
+        codeBuilder.beginControlFlow("for (int k = 0; k < $L; ++k)", sizeName);
+        codeBuilder.addStatement("int i = $L[k]", selName);
+        codeBuilder.beginControlFlow("if ($L)", calc);
+        codeBuilder.addStatement("$L[count++] = i", outName);
+        codeBuilder.endControlFlow();
+        codeBuilder.endControlFlow();
+        codeBuilder.endControlFlow();
+        codeBuilder.addStatement("return count");
+        return codeBuilder.build();
+    }
+
     @Nonnull
     private static CodeBlock codeCreateEvaluatorKey(
         TypeElement evaluatorKey,
@@ -274,6 +489,83 @@ public class EvaluatorsProcessor extends AbstractProcessor {
         return builder.build();
     }
 
+    /**
+     * Resolve the EvaluatorKey for specified parameter types, in the same order as {@code EvaluatorKey.generalize()}.
+     *
+     * @param typeCodes the type codes of parameters, {@code null} for types not used in any key
+     * @param keyIndex  the map of type codes of EvaluatorKeys to their indices
+     * @return the index of the resolved key, or {@code -1} for the universal evaluator
+     */
+    private static int resolveEvaluatorKey(
+        @Nonnull List<Integer> typeCodes,
+        @Nonnull Map<List<Integer>, Integer> keyIndex
+    ) {
+        int arity = typeCodes.size();
+        int objectTypeCode = ProcessorUtils.typeCode(TypeName.OBJECT);
+        for (int mask = 0; mask < (1 << arity); ++mask) {
+            List<Integer> key = new ArrayList<>(arity);
+            for (int i = 0; i < arity; ++i) {
+                // The first parameter is the most significant.
+                key.add((mask & (1 << (arity - 1 - i))) != 0 ? Integer.valueOf(objectTypeCode) : typeCodes.get(i));
+            }
+            Integer index = keyIndex.get(key);
+            if (index != null) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    @Nonnull
+    private static CodeBlock codeInitDispatch(
+        TypeElement evaluatorKey,
+        @Nonnull Collection<EvaluatorInfo> evaluatorInfos
+    ) {
+        List<List<Integer>> keys = evaluatorInfos.stream()
+            .map(EvaluatorInfo::getParaTypeNames)
+            .map(ts -> ts.stream().map(ProcessorUtils::typeCode).collect(Collectors.toList()))
+            .sorted(Comparator.comparing(Object::toString))
+            .collect(Collectors.toList());
+        List<Integer> types = keys.stream()
+            .flatMap(List::stream)
+            .distinct()
+            .sorted()
+            .collect(Collectors.toList());
+        CodeBlock.Builder builder = CodeBlock.builder();
+        builder.addStatement("initDispatchTypes($L)", StringUtils.join(types, ", "));
+        int localOrdinalCount = types.size() + 1;
+        Map<Integer, List<List<Integer>>> keysByArity = keys.stream()
+            .collect(Collectors.groupingBy(List::size, TreeMap::new, Collectors.toList()));
+        for (Map.Entry<Integer, List<List<Integer>>> entry : keysByArity.entrySet()) {
+            int arity = entry.getKey();
+            List<List<Integer>> arityKeys = entry.getValue();
+            Map<List<Integer>, Integer> keyIndex = new HashMap<>();
+            List<CodeBlock> keyCodes = new ArrayList<>(arityKeys.size());
+            for (List<Integer> key : arityKeys) {
+                keyIndex.put(key, keyIndex.size());
+                keyCodes.add(CodeBlock.of("$T.of($L)", evaluatorKey, StringUtils.join(key, ", ")));
+            }
+            int tableSize = (int) Math.pow(localOrdinalCount, arity);
+            List<CodeBlock> indices = new ArrayList<>(tableSize);
+            for (int cell = 0; cell < tableSize; ++cell) {
+                List<Integer> typeCodes = new ArrayList<>(arity);
+                for (int i = arity - 1, rest = cell; i >= 0; --i, rest /= localOrdinalCount) {
+                    int localOrdinal = rest % localOrdinalCount;
+                    typeCodes.add(0, localOrdinal < types.size() ? types.get(localOrdinal) : null);
+                }
+                indices.add(CodeBlock.of("$L", resolveEvaluatorKey(typeCodes, keyIndex)));
+            }
+            builder.addStatement(
+                "initDispatchTable($L, new $T[]{$L}, new int[]{$L})",
+                arity,
+                evaluatorKey,
+                CodeBlock.join(keyCodes, ",$W"),
+                CodeBlock.join(indices, ",$W")
+            );
+        }
+        return builder.build();
+    }
+
     private List<TypeElement> findSuperTypes(@Nonnull TypeElement element) {
         return processingEnv.getTypeUtils().directSupertypes(element.asType()).stream()
             .filter(i -> i.getKind() == TypeKind.DECLARED)
@@ -357,21 +649,17 @@ public class EvaluatorsProcessor extends AbstractProcessor {
         @Nonnull EvaluatorsInfo info,
         String className,
         @Nonnull TypeElement base,
-        @Nonnull MethodSpec evalSpec,
-        MethodSpec typeCodeSpec
+        @Nonnull List<MethodSpec> methodSpecs
     ) {
         TypeSpec.Builder builder = TypeSpec.classBuilder(className)
             .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
-            .addField(serialVersionUid())
-            .addMethod(evalSpec);
+            .addField(serialVersionUid(info.getPackageName() + "." + className))
+            .addMethods(methodSpecs);
         if (base.getKind().isInterface()) {
             builder.addSuperinterface(base.asType());
         } else {
             builder.superclass(base.asType());
         }
-        if (typeCodeSpec != null) {
-            builder.addMethod(typeCodeSpec);
-        }
         String packageName = info.getPackageName();
         ProcessorUtils.saveSourceFile(processingEnv, packageName, builder.build());
         processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
@@ -412,23 +700,88 @@ public class EvaluatorsProcessor extends AbstractProcessor {
         }
         String paraName = evalMethod.getParameters().get(0).getSimpleName().toString();
         TypeName returnType = TypeName.get(element.getReturnType()).box();
-        MethodSpec evalSpec = MethodSpec.overriding(evalMethod)
-            .returns(returnType)
-            .addCode(codeEvalParas(info, methodName, paraName, paras, newParas))
+        // The static `calc` method has typed parameters, so that it can be called without boxing.
+        MethodSpec calcSpec = MethodSpec.methodBuilder(EVALUATOR_CALC_METHOD)
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .returns(TypeName.get(element.getReturnType()))
+            .addParameters(calcParas(newParas))
+            .addExceptions(element.getThrownTypes().stream().map(TypeName::get).collect(Collectors.toList()))
+            .addCode(codeCalcParas(info, methodName, paras, newParas))
             .build();
+        List<MethodSpec> methodSpecs = new ArrayList<>();
+        methodSpecs.add(calcSpec);
+        methodSpecs.add(MethodSpec.overriding(evalMethod)
+            .returns(returnType)
+            .addCode(codeEvalParas(paraName, newParas))
+            .build());
+        // Entries with fixed arity, so that the values need not to be wrapped into an array.
+        ExecutableElement evalValuesMethod = getOverridingMethod(
+            evaluatorBase,
+            EVALUATOR_EVAL_METHOD,
+            Collections.nCopies(newParas.size(), TypeName.OBJECT)
+        );
+        if (evalValuesMethod != null) {
+            methodSpecs.add(MethodSpec.overriding(evalValuesMethod)
+                .returns(returnType)
+                .addCode(codeEvalValues(evalValuesMethod.getParameters(), newParas))
+                .build());
+        }
+        // Evaluate parameters by their primitive accessors and return a primitive value, if the result is primitive.
+        String evalPrimitiveMethodName = evalPrimitiveMethodName(TypeName.get(element.getReturnType()));
+        if (evalPrimitiveMethodName != null) {
+            ExecutableElement evalPrimitiveMethod = getOverridingMethod(evaluatorBase, evalPrimitiveMethodName, null);
+            if (evalPrimitiveMethod != null) {
+                methodSpecs.add(MethodSpec.overriding(evalPrimitiveMethod)
+                    .addCode(codeEvalPrimitiveParas(
+                        evalPrimitiveMethod.getParameters().get(0).getSimpleName().toString(),
+                        evalPrimitiveMethod.getParameters().get(1).getSimpleName().toString(),
+                        newParas
+                    ))
+                    .build());
+            }
+            ExecutableElement isPrimitiveMethod = getOverridingMethod(
+                evaluatorBase,
+                EVALUATOR_IS_PRIMITIVE_METHOD,
+                null
+            );
+            if (isPrimitiveMethod != null) {
+                methodSpecs.add(MethodSpec.overriding(isPrimitiveMethod)
+                    .addStatement("return true")
+                    .build());
+            }
+        }
+        // Evaluate a batch of values in a loop over the columns.
+        ExecutableElement evalBatchMethod = getOverridingMethod(evaluatorBase, EVAL_BATCH_METHOD, null);
+        if (evalBatchMethod != null) {
+            methodSpecs.add(MethodSpec.overriding(evalBatchMethod)
+                .addCode(codeEvalBatch(
+                    evalBatchMethod.getParameters(),
+                    newParas,
+                    unboxIfPossible(TypeName.get(element.getReturnType()))
+                ))
+                .build());
+        }
+        // Filter by a predicate without storing the results.
+        if (TypeName.get(element.getReturnType()).equals(TypeName.BOOLEAN)) {
+            ExecutableElement evalFilterMethod = getOverridingMethod(evaluatorBase, EVAL_FILTER_METHOD, null);
+            if (evalFilterMethod != null) {
+                methodSpecs.add(MethodSpec.overriding(evalFilterMethod)
+                    .addCode(codeEvalFilter(evalFilterMethod.getParameters(), newParas))
+                    .build());
+            }
+        }
         ExecutableElement typeCodeMethod = getOverridingMethod(
             evaluatorBase,
             EVALUATOR_TYPE_CODE_METHOD,
             null
         );
-        MethodSpec typeCodeSpec = null;
         if (typeCodeMethod != null) {
-            typeCodeSpec = MethodSpec.overriding(typeCodeMethod)
+            methodSpecs.add(MethodSpec.overriding(typeCodeMethod)
                 .addStatement("return $L", ProcessorUtils.typeCode(returnType))
-                .build();
+                .build());
         }
         String className = getClassName(evaluatorName, newParas);
-        generateEvaluatorClassFile(info, className, evaluatorBase, evalSpec, typeCodeSpec);
+        generateEvaluatorClassFile(info, className, evaluatorBase, methodSpecs);
         // must copy newParas, it is volatile.
         evaluatorMap.put(
             evaluatorKey,
@@ -502,11 +855,12 @@ public class EvaluatorsProcessor extends AbstractProcessor {
             initBuilder.addStatement("$L.put($T.UNIVERSAL, new $T(this))",
                 EVALUATORS_VAR, evaluatorKey, ClassName.get(universalEvaluator)
             );
+            initBuilder.add(codeInitDispatch(evaluatorKey, evaluatorMap.values()));
             ClassName className = ClassName.get(packageName, getFactoryClassName(m));
             TypeSpec typeSpec = TypeSpec.classBuilder(className)
                 .superclass(TypeName.get(evaluatorFactory.asType()))
                 .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
-                .addField(serialVersionUid())
+                .addField(serialVersionUid(className.reflectionName()))
                 .addField(FieldSpec.builder(className, ProcessorUtils.INSTANCE_VAR_NAME)
                     .addModifiers(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
                     .initializer("new $T()", className)
@@ -47,6 +47,9 @@ public class GenerateTypeCodesProcessor extends AbstractProcessor {
     private static final String CLASS_NAME = "TypeCode";
     private static final String LOOKUP_VAR = "codeName";
     private static final String GET_NAME_METHOD = "nameOf";
+    private static final String GET_ORDINAL_METHOD = "ordinalOf";
+    private static final String ORDINAL_COUNT_VAR = "ORDINAL_COUNT";
+    private static final String UNKNOWN_ORDINAL_VAR = "UNKNOWN_ORDINAL";
 
     @Override
     public Set<String> getSupportedAnnotationTypes() {
@@ -97,7 +100,11 @@ public class GenerateTypeCodesProcessor extends AbstractProcessor {
                                 .build()
                         );
                     CodeBlock.Builder initCodeBuilder = CodeBlock.builder();
+                    // Ordinals are dense, so they can be used as array indices.
+                    CodeBlock.Builder ordinalCodeBuilder = CodeBlock.builder()
+                        .beginControlFlow("switch (code)");
                     GenerateTypeCodes.TypeCode[] typeCodes = generateTypeCodes.value();
+                    int ordinal = 0;
                     for (GenerateTypeCodes.TypeCode typeCode : typeCodes) {
                         String name = typeCode.name();
                         int code = ProcessorUtils.typeCode(typeCode.type());
@@ -106,7 +113,25 @@ public class GenerateTypeCodesProcessor extends AbstractProcessor {
                             .initializer("$L", code)
                             .build());
                         initCodeBuilder.addStatement("$L.put($L, $S)", LOOKUP_VAR, code, name);
+                        ordinalCodeBuilder.add("case $L:\n", name)
+                            .indent()
+                            .addStatement("return $L", ordinal++)
+                            .unindent();
                     }
+                    ordinalCodeBuilder.add("default:\n")
+                        .indent()
+                        .addStatement("return $L", UNKNOWN_ORDINAL_VAR)
+                        .unindent()
+                        .endControlFlow();
+                    classBuilder
+                        .addField(FieldSpec.builder(TypeName.INT, ORDINAL_COUNT_VAR)
+                            .addModifiers(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                            .initializer("$L", ordinal)
+                            .build())
+                        .addField(FieldSpec.builder(TypeName.INT, UNKNOWN_ORDINAL_VAR)
+                            .addModifiers(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                            .initializer("$L", ORDINAL_COUNT_VAR)
+                            .build());
                     classBuilder
                         .addMethod(MethodSpec.constructorBuilder()
                             .addModifiers(Modifier.PRIVATE)
@@ -117,6 +142,12 @@ public class GenerateTypeCodesProcessor extends AbstractProcessor {
                             .addParameter(TypeName.INT, "code")
                             .returns(String.class)
                             .addStatement("return $L.get(code)", LOOKUP_VAR)
+                            .build())
+                        .addMethod(MethodSpec.methodBuilder(GET_ORDINAL_METHOD)
+                            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                            .addParameter(TypeName.INT, "code")
+                            .returns(TypeName.INT)
+                            .addCode(ordinalCodeBuilder.build())
                             .build());
                     ProcessorUtils.saveSourceFile(processingEnv, packageName, classBuilder.build());
                 }
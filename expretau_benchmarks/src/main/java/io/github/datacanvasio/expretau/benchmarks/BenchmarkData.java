@@ -0,0 +1,109 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.benchmarks;
+
+import io.github.datacanvasio.expretau.runtime.schema.DataFormat;
+import io.github.datacanvasio.expretau.runtime.schema.RtSchemaRoot;
+import io.github.datacanvasio.expretau.schema.SchemaParser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+
+/**
+ * The schema and the representative expressions used by the benchmarks.
+ */
+public final class BenchmarkData {
+    public static final String SCHEMA_FILE = "/benchmark_vars.yml";
+
+    /**
+     * Representative expressions by categories, which are the values of {@code @Param("category")}.
+     */
+    public static final Map<String, String> EXPRS;
+
+    private static final String[] TEMPLATES = {
+        "a + %d > b * %d.5",
+        "toUpperCase(d) = 'S%d' or e startsWith 'S%d'",
+        "arrA[%d] - a < %d",
+        "not c and a * %d < %d or b / 2 >= a",
+        "(a + %d) * (b - %d) / 3",
+    };
+
+    static {
+        Map<String, String> exprs = new LinkedHashMap<>();
+        exprs.put("numeric", "(a + 3) * b - a / 2.0 + abs(a - 100)");
+        exprs.put("string", "toUpperCase(trim(d)) + substring(e, 1, 3)");
+        exprs.put("relational", "a * 2 >= b");
+        exprs.put("logical", "a > 100 and b < 0.5 or not c and d != e");
+        exprs.put("index", "arrA[0] + arrA[1] * 2");
+        exprs.put("map", "mapA['c'] = 'foo'");
+        exprs.put("universal", "mapA.a + mapA.b");
+        EXPRS = Collections.unmodifiableMap(exprs);
+    }
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Load the schema of the benchmark data.
+     *
+     * @return the RtSchemaRoot
+     * @throws IOException if failed to read the schema file
+     */
+    @Nonnull
+    public static RtSchemaRoot loadSchemaRoot() throws IOException {
+        try (InputStream is = BenchmarkData.class.getResourceAsStream(SCHEMA_FILE)) {
+            return SchemaParser.get(DataFormat.fromExtension(SCHEMA_FILE)).parse(is);
+        }
+    }
+
+    /**
+     * Get the expression of a category.
+     *
+     * @param category the category
+     * @return the expression
+     */
+    @Nonnull
+    public static String exprOf(String category) {
+        String expr = EXPRS.get(category);
+        if (expr == null) {
+            throw new IllegalArgumentException("Unknown category \"" + category + "\".");
+        }
+        return expr;
+    }
+
+    /**
+     * Create a corpus of distinct expressions of various shapes, to benchmark parsing of unseen inputs.
+     *
+     * @param size the number of expressions
+     * @return the expressions
+     */
+    @Nonnull
+    public static List<String> corpus(int size) {
+        List<String> corpus = new ArrayList<>(size);
+        for (int i = 0; i < size; ++i) {
+            corpus.add(String.format(TEMPLATES[i % TEMPLATES.length], i % 4, i));
+        }
+        return corpus;
+    }
+}
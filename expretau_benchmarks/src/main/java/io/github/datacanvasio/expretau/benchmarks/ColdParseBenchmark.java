@@ -0,0 +1,87 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.benchmarks;
+
+import io.github.datacanvasio.expretau.antlr4.ExpretauLexer;
+import io.github.datacanvasio.expretau.antlr4.ExpretauParser;
+import io.github.datacanvasio.expretau.exception.ExpretauParseException;
+import io.github.datacanvasio.expretau.parser.ExpretauCompiler;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing the first expressions after the DFA caches of the ANTLR lexer and parser are cleared, with or without
+ * {@link ExpretauCompiler#warmUp()} before. This is the latency seen by the first requests after a service starts.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(3)
+@State(Scope.Benchmark)
+public class ColdParseBenchmark {
+    @Param({"false", "true"})
+    public boolean warmUp;
+    @Param({"100"})
+    public int size;
+
+    private List<String> corpus;
+
+    // The DFA caches are static, so clearing those of new instances clears those used by the compiler.
+    private static void clearDfa() {
+        ExpretauLexer lexer = new ExpretauLexer(CharStreams.fromString(""));
+        lexer.getInterpreter().clearDFA();
+        new ExpretauParser(new CommonTokenStream(lexer)).getInterpreter().clearDFA();
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        corpus = BenchmarkData.corpus(size);
+    }
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        clearDfa();
+        if (warmUp) {
+            ExpretauCompiler.ANTLR.warmUp();
+        }
+    }
+
+    @Benchmark
+    public void parseFirst(Blackhole blackhole) throws ExpretauParseException {
+        for (String input : corpus) {
+            blackhole.consume(ExpretauCompiler.ANTLR.parse(input));
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.benchmarks;
+
+import io.github.datacanvasio.expretau.Expr;
+import io.github.datacanvasio.expretau.exception.ExpretauCompileException;
+import io.github.datacanvasio.expretau.parser.ExpretauCompiler;
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+import io.github.datacanvasio.expretau.runtime.schema.RtSchema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compiling a parsed expression in the benchmark schema.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CompileBenchmark {
+    @Param({"numeric", "string", "relational", "logical", "index", "map", "universal"})
+    public String category;
+
+    private Expr expr;
+    private RtSchema schema;
+
+    @Setup
+    public void setup() throws Exception {
+        schema = BenchmarkData.loadSchemaRoot().getSchema();
+        expr = ExpretauCompiler.INS.parse(BenchmarkData.exprOf(category));
+    }
+
+    @Benchmark
+    public RtExpr compile() throws ExpretauCompileException {
+        return expr.compileIn(schema);
+    }
+}
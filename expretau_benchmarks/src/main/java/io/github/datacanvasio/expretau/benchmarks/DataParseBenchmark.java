@@ -0,0 +1,76 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.github.datacanvasio.expretau.runtime.schema.DataParser;
+import io.github.datacanvasio.expretau.runtime.schema.RtData;
+import io.github.datacanvasio.expretau.runtime.schema.RtSchemaRoot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing generated records serialized in JSON or YAML into RtData. The score is the time per record.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DataParseBenchmark {
+    private static final int RECORDS = 256;
+
+    @Param({"json", "yaml"})
+    public String format;
+
+    private DataParser parser;
+    private String[] texts;
+
+    @Setup
+    public void setup() throws Exception {
+        RtSchemaRoot schemaRoot = BenchmarkData.loadSchemaRoot();
+        parser = ("yaml".equals(format) ? DataParser.yaml() : DataParser.json()).schema(schemaRoot);
+        RtData[] datum = new RecordGenerator(schemaRoot, 42L).next(RECORDS);
+        texts = new String[RECORDS];
+        for (int i = 0; i < RECORDS; ++i) {
+            texts[i] = parser.serialize(datum[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public void parse(Blackhole blackhole) throws JsonProcessingException {
+        for (String text : texts) {
+            blackhole.consume(parser.parse(text));
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.benchmarks;
+
+import io.github.datacanvasio.expretau.parser.ExpretauCompiler;
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+import io.github.datacanvasio.expretau.runtime.codegen.RtBytecodeCompiler;
+import io.github.datacanvasio.expretau.runtime.exception.FailGetEvaluator;
+import io.github.datacanvasio.expretau.runtime.schema.RtData;
+import io.github.datacanvasio.expretau.runtime.schema.RtSchemaRoot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluating a compiled expression on generated records, by walking the tree or by the generated bytecode. The score
+ * is the time per record.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EvalBenchmark {
+    private static final int RECORDS = 1024;
+
+    @Param({"tree", "bytecode"})
+    public String mode;
+    @Param({"numeric", "string", "relational", "logical", "index", "map", "universal"})
+    public String category;
+
+    private RtExpr rtExpr;
+    private RtData[] datum;
+
+    @Setup
+    public void setup() throws Exception {
+        RtSchemaRoot schemaRoot = BenchmarkData.loadSchemaRoot();
+        RtExpr compiled = ExpretauCompiler.INS.parse(BenchmarkData.exprOf(category)).compileIn(schemaRoot.getSchema());
+        rtExpr = "bytecode".equals(mode) ? RtBytecodeCompiler.INS.compile(compiled) : compiled;
+        datum = new RecordGenerator(schemaRoot, 42L).next(RECORDS);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public void eval(Blackhole blackhole) throws FailGetEvaluator {
+        for (RtData data : datum) {
+            blackhole.consume(rtExpr.eval(data));
+        }
+    }
+}
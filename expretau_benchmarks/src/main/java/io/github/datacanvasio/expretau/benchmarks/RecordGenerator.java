@@ -0,0 +1,159 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.benchmarks;
+
+import io.github.datacanvasio.expretau.runtime.TypeCode;
+import io.github.datacanvasio.expretau.runtime.schema.RtData;
+import io.github.datacanvasio.expretau.runtime.schema.RtSchemaLeaf;
+import io.github.datacanvasio.expretau.runtime.schema.RtSchemaRoot;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Generate random records of an {@link RtSchemaRoot}. The values are reproducible with the same seed.
+ *
+ * <p>Strings have at least 3 characters and arrays have 2 to 5 elements. Maps have keys {@code "a"} (a long),
+ * {@code "b"} (a double) and {@code "c"} (a string), and lists have longs, so that they can be used in expressions.
+ */
+public final class RecordGenerator {
+    private static final String[] WORDS = {"foo", "bar", " baz ", "Quux", "S12", "S23"};
+
+    private final RtSchemaRoot schemaRoot;
+    private final RtSchemaLeaf[] leaves;
+    private final Random random;
+
+    /**
+     * Create a RecordGenerator.
+     *
+     * @param schemaRoot the schema of the records
+     * @param seed       the seed of the random values
+     */
+    public RecordGenerator(@Nonnull RtSchemaRoot schemaRoot, long seed) {
+        this.schemaRoot = schemaRoot;
+        this.leaves = schemaRoot.getLeaves();
+        this.random = new Random(seed);
+    }
+
+    private String nextString() {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    private int nextLength() {
+        return 2 + random.nextInt(4);
+    }
+
+    @Nullable
+    private Object valueOf(int typeCode) {
+        switch (typeCode) {
+            case TypeCode.INTEGER:
+                return random.nextInt(200);
+            case TypeCode.LONG:
+                return (long) random.nextInt(200);
+            case TypeCode.DOUBLE:
+                return random.nextDouble() * 200.0;
+            case TypeCode.BOOLEAN:
+                return random.nextBoolean();
+            case TypeCode.STRING:
+                return nextString();
+            case TypeCode.DECIMAL:
+                return BigDecimal.valueOf(random.nextInt(20000), 2);
+            case TypeCode.INTEGER_ARRAY:
+                Integer[] integers = new Integer[nextLength()];
+                for (int i = 0; i < integers.length; ++i) {
+                    integers[i] = random.nextInt(200);
+                }
+                return integers;
+            case TypeCode.LONG_ARRAY:
+                Long[] longs = new Long[nextLength()];
+                for (int i = 0; i < longs.length; ++i) {
+                    longs[i] = (long) random.nextInt(200);
+                }
+                return longs;
+            case TypeCode.DOUBLE_ARRAY:
+                Double[] doubles = new Double[nextLength()];
+                for (int i = 0; i < doubles.length; ++i) {
+                    doubles[i] = random.nextDouble() * 200.0;
+                }
+                return doubles;
+            case TypeCode.STRING_ARRAY:
+                String[] strings = new String[nextLength()];
+                for (int i = 0; i < strings.length; ++i) {
+                    strings[i] = nextString();
+                }
+                return strings;
+            case TypeCode.BOOLEAN_ARRAY:
+                Boolean[] booleans = new Boolean[nextLength()];
+                for (int i = 0; i < booleans.length; ++i) {
+                    booleans[i] = random.nextBoolean();
+                }
+                return booleans;
+            case TypeCode.LIST:
+                List<Object> list = new ArrayList<>();
+                for (int i = nextLength(); i > 0; --i) {
+                    list.add((long) random.nextInt(200));
+                }
+                return list;
+            case TypeCode.MAP:
+                Map<String, Object> map = new HashMap<>(4);
+                map.put("a", (long) random.nextInt(200));
+                map.put("b", random.nextDouble() * 200.0);
+                map.put("c", nextString());
+                return map;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Generate a record.
+     *
+     * @return the record
+     */
+    @Nonnull
+    public RtData next() {
+        RtData data = new RtData(schemaRoot.getMaxIndex());
+        for (RtSchemaLeaf leaf : leaves) {
+            if (leaf != null) {
+                data.set(leaf.getIndex(), valueOf(leaf.getTypeCode()));
+            }
+        }
+        return data;
+    }
+
+    /**
+     * Generate records.
+     *
+     * @param count the number of records
+     * @return the records
+     */
+    @Nonnull
+    public RtData[] next(int count) {
+        RtData[] datum = new RtData[count];
+        for (int i = 0; i < count; ++i) {
+            datum[i] = next();
+        }
+        return datum;
+    }
+}
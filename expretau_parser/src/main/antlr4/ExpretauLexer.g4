@@ -32,6 +32,7 @@ CONTAINS        : 'contains' ;
 MATCHES         : 'matches' ;
 
 ID              : (ALPHA | '_' | '$') (ALPHA | DIGIT | '_' )* ;
+PARAM           : ':' (ALPHA | '_') (ALPHA | DIGIT | '_' )* ;
 
 WS              : [ \t]+ -> skip ;
 NL              : ('\r'? '\n')+ -> skip ;
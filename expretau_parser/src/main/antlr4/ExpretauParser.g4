@@ -11,6 +11,7 @@ expr : INT                                                           # Int
      | STR                                                           # Str
      | BOOL                                                          # Bool
      | ID                                                            # Var
+     | PARAM                                                         # Param
      | '(' expr ')'                                                  # Pars
      | fun=ID '(' (expr (',' expr) *) ? ')'                          # Fun
      | expr '.' ID                                                   # StrIndex
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau;
+
+import io.github.datacanvasio.expretau.exception.DynamicDispatchException;
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.function.Consumer;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Options of compiling an Expr into an RtExpr.
+ *
+ * <p>By default, an op whose operands are not typed at compiling (e.g. members of a map without schema) chooses its
+ * evaluator by the types of values at runtime, which is much slower. {@link #STRICT} makes such compiling fail, and
+ * {@link #warning(Consumer)} reports them, both with suggestions of cast functions to make them type-specialized.
+ */
+public final class CompileOptions {
+    public static final CompileOptions DEFAULT = new CompileOptions(Typing.DYNAMIC, null);
+    public static final CompileOptions STRICT = new CompileOptions(Typing.STRICT, null);
+
+    @Getter
+    @Nonnull
+    private final Typing typing;
+    @Nullable
+    private final Consumer<DynamicDispatchWarning> warningListener;
+
+    private CompileOptions(@Nonnull Typing typing, @Nullable Consumer<DynamicDispatchWarning> warningListener) {
+        this.typing = typing;
+        this.warningListener = warningListener;
+    }
+
+    /**
+     * Create CompileOptions which report the ops dispatched at runtime to a listener, without failing.
+     *
+     * @param warningListener the listener
+     * @return the CompileOptions
+     */
+    @Nonnull
+    public static CompileOptions warning(@Nonnull Consumer<DynamicDispatchWarning> warningListener) {
+        return new CompileOptions(Typing.WARNING, warningListener);
+    }
+
+    /**
+     * Check a compiled RtExpr by these options.
+     *
+     * @param rtExpr the RtExpr
+     * @return the RtExpr
+     * @throws DynamicDispatchException if the typing is {@link Typing#STRICT} and any op is dispatched at runtime
+     */
+    @Nonnull
+    RtExpr check(@Nonnull RtExpr rtExpr) throws DynamicDispatchException {
+        if (typing == Typing.DYNAMIC) {
+            return rtExpr;
+        }
+        List<DynamicDispatchWarning> warnings = DynamicDispatchWarning.collect(rtExpr);
+        if (warnings.isEmpty()) {
+            return rtExpr;
+        }
+        if (typing == Typing.STRICT) {
+            throw new DynamicDispatchException(warnings);
+        }
+        if (warningListener != null) {
+            warnings.forEach(warningListener);
+        }
+        return rtExpr;
+    }
+
+    public enum Typing {
+        /**
+         * Ops are dispatched by the types of values at runtime if their types are not known at compiling.
+         */
+        DYNAMIC,
+        /**
+         * Same as {@link #DYNAMIC}, but each op dispatched at runtime is reported as a
+         * {@link DynamicDispatchWarning}.
+         */
+        WARNING,
+        /**
+         * Compiling fails if any op would be dispatched at runtime.
+         */
+        STRICT,
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau;
+
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+import io.github.datacanvasio.expretau.runtime.TypeCode;
+import io.github.datacanvasio.expretau.runtime.evaluator.base.Evaluator;
+import io.github.datacanvasio.expretau.runtime.evaluator.base.EvaluatorFactory;
+import io.github.datacanvasio.expretau.runtime.evaluator.base.EvaluatorKey;
+import io.github.datacanvasio.expretau.runtime.evaluator.base.UniversalEvaluator;
+import io.github.datacanvasio.expretau.runtime.exception.FailGetEvaluator;
+import io.github.datacanvasio.expretau.runtime.op.RtEvaluatorOp;
+import io.github.datacanvasio.expretau.runtime.op.RtOp;
+import io.github.datacanvasio.expretau.runtime.profile.RtProfiler;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+
+/**
+ * An op in a compiled RtExpr which chooses its evaluator by the types of values at runtime, because the types of its
+ * operands are not known at compiling, or the combination is not supported. Such an op is much slower than a
+ * type-specialized one.
+ *
+ * <p>The warning suggests the cast functions which make the op type-specialized if applied to the operands of unknown
+ * types (or, if all the types are known, to any one operand).
+ */
+public final class DynamicDispatchWarning {
+    // The cast functions, by the type codes of their results.
+    private static final int[] CAST_TYPE_CODES = {
+        TypeCode.INTEGER, TypeCode.LONG, TypeCode.DOUBLE, TypeCode.DECIMAL, TypeCode.STRING,
+    };
+    private static final String[] CAST_FUNS = {"int", "long", "double", "decimal", "string"};
+
+    @Getter
+    @Nonnull
+    private final EvaluatorFactory factory;
+    /**
+     * The descriptions of the operands.
+     */
+    @Getter
+    @Nonnull
+    private final List<String> operands;
+    /**
+     * The names of types of the operands.
+     */
+    @Getter
+    @Nonnull
+    private final List<String> operandTypes;
+    /**
+     * The indices of the operands to be cast.
+     */
+    @Getter
+    @Nonnull
+    private final List<Integer> castOperands;
+    /**
+     * The names of cast functions, each of which makes the op type-specialized if applied to the operands in
+     * {@link #castOperands}. Empty if no cast function helps.
+     */
+    @Getter
+    @Nonnull
+    private final List<String> casts;
+
+    private DynamicDispatchWarning(
+        @Nonnull EvaluatorFactory factory,
+        @Nonnull List<String> operands,
+        @Nonnull List<String> operandTypes,
+        @Nonnull List<Integer> castOperands,
+        @Nonnull List<String> casts
+    ) {
+        this.factory = factory;
+        this.operands = operands;
+        this.operandTypes = operandTypes;
+        this.castOperands = castOperands;
+        this.casts = casts;
+    }
+
+    /**
+     * Find all the ops dispatched at runtime in an RtExpr tree.
+     *
+     * @param rtExpr the RtExpr
+     * @return the warnings, inner ops first
+     */
+    @Nonnull
+    static List<DynamicDispatchWarning> collect(@Nonnull RtExpr rtExpr) {
+        List<DynamicDispatchWarning> warnings = new ArrayList<>();
+        collect(rtExpr, warnings);
+        return warnings;
+    }
+
+    private static void collect(@Nonnull RtExpr rtExpr, @Nonnull List<DynamicDispatchWarning> warnings) {
+        if (!(rtExpr instanceof RtOp)) {
+            return;
+        }
+        for (RtExpr para : ((RtOp) rtExpr).getParas()) {
+            collect(para, warnings);
+        }
+        if (rtExpr instanceof RtEvaluatorOp) {
+            Evaluator evaluator = ((RtEvaluatorOp) rtExpr).getEvaluator();
+            if (evaluator instanceof UniversalEvaluator) {
+                warnings.add(of(((UniversalEvaluator) evaluator).getFactory(), ((RtOp) rtExpr).getParas()));
+            }
+        }
+    }
+
+    private static boolean isSpecialized(@Nonnull EvaluatorFactory factory, int[] typeCodes) {
+        try {
+            return !(factory.getEvaluator(EvaluatorKey.of(typeCodes)) instanceof UniversalEvaluator);
+        } catch (FailGetEvaluator e) {
+            return false;
+        }
+    }
+
+    @Nonnull
+    private static List<String> castsFor(
+        @Nonnull EvaluatorFactory factory,
+        @Nonnull int[] typeCodes,
+        @Nonnull List<Integer> castOperands
+    ) {
+        List<String> casts = new ArrayList<>();
+        for (int i = 0; i < CAST_TYPE_CODES.length; ++i) {
+            int[] castTypeCodes = Arrays.copyOf(typeCodes, typeCodes.length);
+            for (int index : castOperands) {
+                castTypeCodes[index] = CAST_TYPE_CODES[i];
+            }
+            if (isSpecialized(factory, castTypeCodes)) {
+                casts.add(CAST_FUNS[i]);
+            }
+        }
+        return casts;
+    }
+
+    @Nonnull
+    private static DynamicDispatchWarning of(@Nonnull EvaluatorFactory factory, @Nonnull RtExpr[] paras) {
+        int[] typeCodes = Arrays.stream(paras).mapToInt(RtExpr::typeCode).toArray();
+        List<Integer> unknown = new ArrayList<>();
+        for (int i = 0; i < typeCodes.length; ++i) {
+            if (typeCodes[i] == TypeCode.OBJECT) {
+                unknown.add(i);
+            }
+        }
+        List<Integer> castOperands = unknown;
+        List<String> casts = castsFor(factory, typeCodes, castOperands);
+        // All the types are known, try to cast one of them.
+        for (int i = 0; unknown.isEmpty() && casts.isEmpty() && i < typeCodes.length; ++i) {
+            castOperands = Collections.singletonList(i);
+            casts = castsFor(factory, typeCodes, castOperands);
+        }
+        if (casts.isEmpty()) {
+            castOperands = Collections.emptyList();
+        }
+        return new DynamicDispatchWarning(
+            factory,
+            Arrays.stream(paras).map(RtProfiler::labelOf).collect(Collectors.toList()),
+            Arrays.stream(typeCodes).mapToObj(DynamicDispatchWarning::typeName).collect(Collectors.toList()),
+            castOperands,
+            casts
+        );
+    }
+
+    @Nonnull
+    private static String typeName(int typeCode) {
+        String name = TypeCode.INS.nameOf(typeCode);
+        return name != null ? name : Integer.toString(typeCode);
+    }
+
+    /**
+     * Get the name of the op, which is the name of the factory without suffix "EvaluatorFactory".
+     *
+     * @return the name
+     */
+    @Nonnull
+    public String getOpName() {
+        String name = factory.getClass().getSimpleName();
+        String suffix = "EvaluatorFactory";
+        return name.endsWith(suffix) ? name.substring(0, name.length() - suffix.length()) : name;
+    }
+
+    /**
+     * Get the message of this warning, including the suggestion.
+     *
+     * @return the message
+     */
+    @Nonnull
+    public String getMessage() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(getOpName()).append('(').append(String.join(", ", operandTypes))
+            .append(") is dispatched at runtime");
+        if (casts.isEmpty()) {
+            return builder.append(", and no cast function helps.").toString();
+        }
+        builder.append(", cast ");
+        builder.append(castOperands.stream()
+            .map(i -> "operand " + i + " (" + operands.get(i) + ")")
+            .collect(Collectors.joining(" and ")));
+        builder.append(" with ").append(casts.stream().map(c -> c + "()").collect(Collectors.joining(" or ")));
+        if (castOperands.stream().anyMatch(i -> operandTypes.get(i).equals("OBJECT"))) {
+            builder.append(", or declare the type in the schema");
+        }
+        return builder.append('.').toString();
+    }
+
+    @Nonnull
+    @Override
+    public String toString() {
+        return getMessage();
+    }
+}
@@ -33,4 +33,20 @@ public interface Expr {
      */
     @Nonnull
     RtExpr compileIn(@Nullable CompileContext ctx) throws ExpretauCompileException;
+
+    /**
+     * Get an RtExpr by compiling this Expr in a specified CompileContext, with specified CompileOptions.
+     *
+     * @param ctx     the CompileContext
+     * @param options the CompileOptions
+     * @return the RtExpr
+     * @throws ExpretauCompileException if something is wrong when compiling, or the RtExpr is rejected by the options
+     */
+    @Nonnull
+    default RtExpr compileIn(
+        @Nullable CompileContext ctx,
+        @Nonnull CompileOptions options
+    ) throws ExpretauCompileException {
+        return options.check(compileIn(ctx));
+    }
 }
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau;
+
+import io.github.datacanvasio.expretau.exception.ExpretauCompileException;
+import io.github.datacanvasio.expretau.runtime.CompileContext;
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+import io.github.datacanvasio.expretau.runtime.optimizer.RtCseOptimizer;
+import io.github.datacanvasio.expretau.runtime.optimizer.RtExprSet;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * A list of Exprs to be compiled and evaluated together.
+ */
+@RequiredArgsConstructor
+public final class ExprSet {
+    @Getter
+    @Nonnull
+    private final List<Expr> exprs;
+
+    /**
+     * Get an RtExprSet by compiling all the Exprs in a specified CompileContext. Identical variables, constants and
+     * sub-expressions are shared among the Exprs, and each of them is evaluated at most once per evaluating.
+     *
+     * @param ctx the CompileContext
+     * @return the RtExprSet
+     * @throws ExpretauCompileException if something is wrong when compiling
+     */
+    @Nonnull
+    public RtExprSet compileIn(@Nullable CompileContext ctx) throws ExpretauCompileException {
+        RtExpr[] rtExprs = new RtExpr[exprs.size()];
+        for (int i = 0; i < rtExprs.length; ++i) {
+            rtExprs[i] = exprs.get(i).compileIn(ctx);
+        }
+        return RtCseOptimizer.INS.optimize(rtExprs);
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau;
+
+import io.github.datacanvasio.expretau.exception.ExpretauCompileException;
+import io.github.datacanvasio.expretau.runtime.EvalContext;
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+import io.github.datacanvasio.expretau.runtime.exception.FailGetEvaluator;
+import io.github.datacanvasio.expretau.runtime.var.ParamEvalContext;
+import io.github.datacanvasio.expretau.runtime.var.RtBoundExpr;
+import io.github.datacanvasio.expretau.var.ParamCompileContext;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * An Expr with bind parameters compiled once, which can be bound to many sets of parameter values.
+ */
+public final class PreparedExpr {
+    @Getter
+    @Nonnull
+    private final RtExpr rtExpr;
+    @Getter
+    @Nonnull
+    private final List<String> paramNames;
+    private final int[] paramTypeCodes;
+
+    private PreparedExpr(@Nonnull RtExpr rtExpr, @Nonnull List<String> paramNames, int[] paramTypeCodes) {
+        this.rtExpr = rtExpr;
+        this.paramNames = paramNames;
+        this.paramTypeCodes = paramTypeCodes;
+    }
+
+    /**
+     * Compile an Expr with the bind parameters declared in a ParamCompileContext.
+     *
+     * @param expr the Expr
+     * @param ctx  the ParamCompileContext
+     * @return the PreparedExpr
+     * @throws ExpretauCompileException if errors occurred in compiling
+     */
+    @Nonnull
+    public static PreparedExpr of(
+        @Nonnull Expr expr,
+        @Nonnull ParamCompileContext ctx
+    ) throws ExpretauCompileException {
+        int[] typeCodes = new int[ctx.size()];
+        for (int i = 0; i < typeCodes.length; ++i) {
+            typeCodes[i] = ctx.getParamTypeCode(i);
+        }
+        return new PreparedExpr(expr.compileIn(ctx), ctx.getNames(), typeCodes);
+    }
+
+    /**
+     * Bind parameter values, given in the order of declaring.
+     *
+     * @param values the values
+     * @return the bound RtExpr
+     */
+    @Nonnull
+    public RtExpr bind(@Nonnull Object... values) {
+        if (values.length != paramTypeCodes.length) {
+            throw new IllegalArgumentException(
+                "Expected " + paramTypeCodes.length + " parameter values, but got " + values.length + "."
+            );
+        }
+        Object[] converted = new Object[values.length];
+        for (int i = 0; i < values.length; ++i) {
+            converted[i] = ParamEvalContext.toType(values[i], paramTypeCodes[i]);
+        }
+        return new RtBoundExpr(rtExpr, converted);
+    }
+
+    /**
+     * Bind parameter values, given by their names.
+     *
+     * @param values the map of parameter names to values
+     * @return the bound RtExpr
+     */
+    @Nonnull
+    public RtExpr bind(@Nonnull Map<String, ?> values) {
+        Object[] array = new Object[paramNames.size()];
+        for (int i = 0; i < array.length; ++i) {
+            String name = paramNames.get(i);
+            if (!values.containsKey(name)) {
+                throw new IllegalArgumentException("No value is given for parameter \":" + name + "\".");
+            }
+            array[i] = values.get(name);
+        }
+        return bind(array);
+    }
+
+    /**
+     * Evaluate with parameter values in a specified EvalContext.
+     *
+     * @param etx    the EvalContext
+     * @param values the parameter values, in the order of declaring
+     * @return the result
+     * @throws FailGetEvaluator if there is no appropriate Evaluator
+     */
+    public Object eval(@Nullable EvalContext etx, @Nonnull Object... values) throws FailGetEvaluator {
+        return bind(values).eval(etx);
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.exception;
+
+import io.github.datacanvasio.expretau.DynamicDispatchWarning;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+
+public class DynamicDispatchException extends ExpretauCompileException {
+    private static final long serialVersionUID = -2374620853817440981L;
+
+    @Getter
+    private final transient List<DynamicDispatchWarning> warnings;
+
+    /**
+     * Exception thrown when there are ops dispatched at runtime in compiling with strict typing.
+     *
+     * @param warnings the warnings of the ops
+     */
+    public DynamicDispatchException(@Nonnull List<DynamicDispatchWarning> warnings) {
+        super(warnings.stream().map(DynamicDispatchWarning::getMessage).collect(Collectors.joining("\n")));
+        this.warnings = warnings;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.op;
+
+import io.github.datacanvasio.expretau.exception.ExpretauCompileException;
+import io.github.datacanvasio.expretau.runtime.CompileContext;
+import io.github.datacanvasio.expretau.runtime.RtConst;
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+import io.github.datacanvasio.expretau.runtime.TypeCode;
+import io.github.datacanvasio.expretau.runtime.op.RtOp;
+import io.github.datacanvasio.expretau.runtime.op.logical.RtAndOp;
+import io.github.datacanvasio.expretau.runtime.op.logical.RtOrOp;
+import lombok.RequiredArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.annotation.Nonnull;
+
+/**
+ * The Op of {@code and} or {@code or}, which is simplified in compiling if a parameter is a boolean constant. Only the
+ * constant on the left side can short-cut the op, so that the parameters are evaluated as without simplification.
+ * Nested ops of the same kind are flattened into one op with more parameters.
+ */
+@RequiredArgsConstructor
+public class AndOrOp extends Op {
+    private final boolean isAnd;
+
+    private static boolean isConst(@Nonnull RtExpr rtExpr, boolean value) {
+        return rtExpr instanceof RtConst && Boolean.valueOf(value).equals(((RtConst) rtExpr).getValue());
+    }
+
+    @Nonnull
+    @Override
+    public RtExpr compileIn(CompileContext ctx) throws ExpretauCompileException {
+        RtExpr[] rtExprArray = compileExprArray(ctx);
+        // `false and x` is `false`, `true or x` is `true`.
+        if (isConst(rtExprArray[0], !isAnd)) {
+            return rtExprArray[0];
+        }
+        // `true and x` and `x and true` are `x`, `false or x` and `x or false` are `x`.
+        if (isConst(rtExprArray[0], isAnd) && rtExprArray[1].typeCode() == TypeCode.BOOLEAN) {
+            return rtExprArray[1];
+        }
+        if (isConst(rtExprArray[1], isAnd) && rtExprArray[0].typeCode() == TypeCode.BOOLEAN) {
+            return rtExprArray[0];
+        }
+        return evalConst(flatten(rtExprArray));
+    }
+
+    @Nonnull
+    private RtExpr[] flatten(@Nonnull RtExpr[] rtExprArray) {
+        Class<?> rtOpClass = isAnd ? RtAndOp.class : RtOrOp.class;
+        List<RtExpr> paras = new ArrayList<>();
+        for (RtExpr rtExpr : rtExprArray) {
+            if (rtExpr.getClass() == rtOpClass) {
+                paras.addAll(Arrays.asList(((RtOp) rtExpr).getParas()));
+            } else {
+                paras.add(rtExpr);
+            }
+        }
+        return paras.toArray(new RtExpr[0]);
+    }
+
+    @Override
+    protected RtOp createRtOp(RtExpr[] rtExprArray) {
+        return isAnd ? new RtAndOp(rtExprArray) : new RtOrOp(rtExprArray);
+    }
+}
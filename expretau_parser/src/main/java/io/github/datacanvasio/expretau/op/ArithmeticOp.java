@@ -0,0 +1,162 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.op;
+
+import io.github.datacanvasio.expretau.Expr;
+import io.github.datacanvasio.expretau.exception.ExpretauCompileException;
+import io.github.datacanvasio.expretau.runtime.CompileContext;
+import io.github.datacanvasio.expretau.runtime.RtConst;
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+import io.github.datacanvasio.expretau.runtime.TypeCode;
+import io.github.datacanvasio.expretau.runtime.evaluator.base.EvaluatorFactory;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import javax.annotation.Nonnull;
+
+/**
+ * A binary arithmetic Op which is simplified in compiling. The identity element on the right side (or either side if
+ * commutative) is removed. Chains of a commutative op on integers are re-associated, so that all the constants are
+ * folded into one. Doubles are never re-associated, for the results may be different in rounding.
+ */
+public class ArithmeticOp extends OpWithEvaluator {
+    private final long identity;
+    private final double doubleIdentity;
+    private final boolean commutative;
+
+    /**
+     * Create an ArithmeticOp.
+     *
+     * @param factory        the EvaluatorFactory
+     * @param identity       the identity element for integers
+     * @param doubleIdentity the identity element for doubles, must be exactly the identity including the sign of zero
+     * @param commutative    if the op is commutative and associative on integers
+     */
+    public ArithmeticOp(EvaluatorFactory factory, long identity, double doubleIdentity, boolean commutative) {
+        super(factory);
+        this.identity = identity;
+        this.doubleIdentity = doubleIdentity;
+        this.commutative = commutative;
+    }
+
+    private static boolean isIntegral(int typeCode) {
+        return typeCode == TypeCode.INTEGER || typeCode == TypeCode.LONG;
+    }
+
+    private boolean isIdentity(@Nonnull RtExpr rtExpr, int typeCode) {
+        if (!(rtExpr instanceof RtConst)) {
+            return false;
+        }
+        Object value = ((RtConst) rtExpr).getValue();
+        boolean isIntegralValue = value instanceof Integer || value instanceof Long;
+        if (isIntegral(typeCode)) {
+            return isIntegralValue && ((Number) value).longValue() == identity;
+        } else if (typeCode == TypeCode.DOUBLE && (isIntegralValue || value instanceof Double)) {
+            return Double.valueOf(((Number) value).doubleValue()).equals(doubleIdentity);
+        }
+        return false;
+    }
+
+    private boolean isSameOp(Expr expr) {
+        return expr instanceof ArithmeticOp && ((ArithmeticOp) expr).getFactory() == getFactory();
+    }
+
+    private void collectOperands(@Nonnull Expr[] exprs, List<Expr> operands) {
+        for (Expr expr : exprs) {
+            if (isSameOp(expr)) {
+                collectOperands(((ArithmeticOp) expr).exprArray, operands);
+            } else {
+                operands.add(expr);
+            }
+        }
+    }
+
+    @Nonnull
+    private RtExpr simplify(@Nonnull RtExpr[] rtExprArray) throws ExpretauCompileException {
+        RtExpr rtExpr = evalConst(rtExprArray);
+        int typeCode = rtExpr.typeCode();
+        // The type of the result must not be changed by removing the identity element.
+        if (rtExprArray[0].typeCode() == typeCode && isIdentity(rtExprArray[1], typeCode)) {
+            return rtExprArray[0];
+        }
+        if (commutative && rtExprArray[1].typeCode() == typeCode && isIdentity(rtExprArray[0], typeCode)) {
+            return rtExprArray[1];
+        }
+        return rtExpr;
+    }
+
+    /**
+     * Build the chain in its original shape from the compiled operands.
+     */
+    @Nonnull
+    private RtExpr rebuild(@Nonnull Expr[] exprs, Iterator<RtExpr> operands) throws ExpretauCompileException {
+        RtExpr[] rtExprArray = new RtExpr[exprs.length];
+        for (int i = 0; i < exprs.length; ++i) {
+            if (isSameOp(exprs[i])) {
+                rtExprArray[i] = rebuild(((ArithmeticOp) exprs[i]).exprArray, operands);
+            } else {
+                rtExprArray[i] = operands.next();
+            }
+        }
+        return simplify(rtExprArray);
+    }
+
+    private static boolean isReassociable(@Nonnull List<RtExpr> operands) {
+        int typeCode = operands.get(0).typeCode();
+        return isIntegral(typeCode) && operands.stream().allMatch(e -> e.typeCode() == typeCode);
+    }
+
+    @Nonnull
+    private RtExpr reassociate(@Nonnull List<RtExpr> operands) throws ExpretauCompileException {
+        RtExpr rtConst = null;
+        RtExpr result = null;
+        for (RtExpr rtExpr : operands) {
+            if (rtExpr instanceof RtConst) {
+                rtConst = rtConst != null ? evalConst(new RtExpr[]{rtConst, rtExpr}) : rtExpr;
+            } else {
+                result = result != null ? evalConst(new RtExpr[]{result, rtExpr}) : rtExpr;
+            }
+        }
+        if (result == null) {
+            return rtConst;
+        }
+        if (rtConst == null || isIdentity(rtConst, result.typeCode())) {
+            return result;
+        }
+        return evalConst(new RtExpr[]{result, rtConst});
+    }
+
+    @Nonnull
+    @Override
+    public RtExpr compileIn(CompileContext ctx) throws ExpretauCompileException {
+        if (!commutative) {
+            return simplify(compileExprArray(ctx));
+        }
+        List<Expr> operands = new ArrayList<>();
+        collectOperands(exprArray, operands);
+        List<RtExpr> rtOperands = new ArrayList<>(operands.size());
+        for (Expr operand : operands) {
+            rtOperands.add(operand.compileIn(ctx));
+        }
+        if (isReassociable(rtOperands)) {
+            return reassociate(rtOperands);
+        }
+        return rebuild(exprArray, rtOperands.iterator());
+    }
+}
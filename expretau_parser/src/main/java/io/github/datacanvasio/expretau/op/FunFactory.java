@@ -44,8 +44,8 @@ import io.github.datacanvasio.expretau.runtime.op.string.RtToUpperCaseOp;
 import io.github.datacanvasio.expretau.runtime.op.string.RtTrimOp;
 import org.antlr.v4.runtime.misc.ParseCancellationException;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import javax.annotation.Nonnull;
@@ -56,7 +56,7 @@ public final class FunFactory {
     private final Map<String, Supplier<Op>> funSuppliers;
 
     private FunFactory() {
-        funSuppliers = new HashMap<>(64);
+        funSuppliers = new ConcurrentHashMap<>(64);
         // Mathematical
         registerEvaluator("abs", AbsEvaluatorFactory.INS);
         registerEvaluator("sin", SinEvaluatorFactory.INS);
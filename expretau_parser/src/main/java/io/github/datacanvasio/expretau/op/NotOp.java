@@ -0,0 +1,50 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.op;
+
+import io.github.datacanvasio.expretau.exception.ExpretauCompileException;
+import io.github.datacanvasio.expretau.runtime.CompileContext;
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+import io.github.datacanvasio.expretau.runtime.TypeCode;
+import io.github.datacanvasio.expretau.runtime.op.RtOp;
+import io.github.datacanvasio.expretau.runtime.op.logical.RtNotOp;
+
+import javax.annotation.Nonnull;
+
+/**
+ * The Op of {@code not}. Double negation of a boolean is removed in compiling.
+ */
+public class NotOp extends Op {
+    @Nonnull
+    @Override
+    public RtExpr compileIn(CompileContext ctx) throws ExpretauCompileException {
+        RtExpr[] rtExprArray = compileExprArray(ctx);
+        if (rtExprArray[0] instanceof RtNotOp) {
+            RtExpr para = ((RtNotOp) rtExprArray[0]).getParas()[0];
+            if (para.typeCode() == TypeCode.BOOLEAN) {
+                return para;
+            }
+        }
+        return evalConst(rtExprArray);
+    }
+
+    @Override
+    protected RtOp createRtOp(RtExpr[] rtExprArray) {
+        return new RtNotOp(rtExprArray);
+    }
+}
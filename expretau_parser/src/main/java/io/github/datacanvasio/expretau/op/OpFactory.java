@@ -29,9 +29,6 @@ import io.github.datacanvasio.expretau.runtime.evaluator.relational.GtEvaluatorF
 import io.github.datacanvasio.expretau.runtime.evaluator.relational.LeEvaluatorFactory;
 import io.github.datacanvasio.expretau.runtime.evaluator.relational.LtEvaluatorFactory;
 import io.github.datacanvasio.expretau.runtime.evaluator.relational.NeEvaluatorFactory;
-import io.github.datacanvasio.expretau.runtime.op.logical.RtAndOp;
-import io.github.datacanvasio.expretau.runtime.op.logical.RtNotOp;
-import io.github.datacanvasio.expretau.runtime.op.logical.RtOrOp;
 import io.github.datacanvasio.expretau.runtime.op.string.RtContainsOp;
 import io.github.datacanvasio.expretau.runtime.op.string.RtEndsWithOp;
 import io.github.datacanvasio.expretau.runtime.op.string.RtMatchesOp;
@@ -58,7 +55,7 @@ public final class OpFactory {
             case ExpretauParser.SUB:
                 return new OpWithEvaluator(NegEvaluatorFactory.INS);
             case ExpretauParser.NOT:
-                return new RtOpWrapper(RtNotOp::new);
+                return new NotOp();
             default:
                 throw new ParseCancellationException("Invalid operator type: " + type);
         }
@@ -74,13 +71,13 @@ public final class OpFactory {
     public static Op getBinary(int type) {
         switch (type) {
             case ExpretauParser.ADD:
-                return new OpWithEvaluator(AddEvaluatorFactory.INS);
+                return new ArithmeticOp(AddEvaluatorFactory.INS, 0L, -0.0, true);
             case ExpretauParser.SUB:
-                return new OpWithEvaluator(SubEvaluatorFactory.INS);
+                return new ArithmeticOp(SubEvaluatorFactory.INS, 0L, 0.0, false);
             case ExpretauParser.MUL:
-                return new OpWithEvaluator(MulEvaluatorFactory.INS);
+                return new ArithmeticOp(MulEvaluatorFactory.INS, 1L, 1.0, true);
             case ExpretauParser.DIV:
-                return new OpWithEvaluator(DivEvaluatorFactory.INS);
+                return new ArithmeticOp(DivEvaluatorFactory.INS, 1L, 1.0, false);
             case ExpretauParser.LT:
                 return new OpWithEvaluator(LtEvaluatorFactory.INS);
             case ExpretauParser.LE:
@@ -94,9 +91,9 @@ public final class OpFactory {
             case ExpretauParser.NE:
                 return new OpWithEvaluator(NeEvaluatorFactory.INS);
             case ExpretauParser.AND:
-                return new RtOpWrapper(RtAndOp::new);
+                return new AndOrOp(true);
             case ExpretauParser.OR:
-                return new RtOpWrapper(RtOrOp::new);
+                return new AndOrOp(false);
             case ExpretauParser.STARTSWITH:
                 return new RtOpWrapper(RtStartsWithOp::new);
             case ExpretauParser.ENDSWITH:
@@ -20,21 +20,28 @@ import io.github.datacanvasio.expretau.runtime.RtExpr;
 import io.github.datacanvasio.expretau.runtime.evaluator.base.Evaluator;
 import io.github.datacanvasio.expretau.runtime.evaluator.base.EvaluatorFactory;
 import io.github.datacanvasio.expretau.runtime.evaluator.base.EvaluatorKey;
+import io.github.datacanvasio.expretau.runtime.evaluator.base.UniversalEvaluator;
 import io.github.datacanvasio.expretau.runtime.exception.FailGetEvaluator;
 import io.github.datacanvasio.expretau.runtime.op.RtEvaluatorOp;
 import io.github.datacanvasio.expretau.runtime.op.RtOp;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 
 import java.util.Arrays;
 
 @RequiredArgsConstructor
 public class OpWithEvaluator extends Op {
+    @Getter
     private final EvaluatorFactory factory;
 
     @Override
     protected RtOp createRtOp(RtExpr[] rtExprArray) throws FailGetEvaluator {
         int[] typeCodes = Arrays.stream(rtExprArray).mapToInt(RtExpr::typeCode).toArray();
         Evaluator evaluator = factory.getEvaluator(EvaluatorKey.of(typeCodes));
-        return new RtEvaluatorOp(evaluator, rtExprArray);
+        if (evaluator instanceof UniversalEvaluator) {
+            // Each call site has its own inline cache.
+            evaluator = ((UniversalEvaluator) evaluator).forCallSite();
+        }
+        return RtEvaluatorOp.of(evaluator, rtExprArray);
     }
 }
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.parser;
+
+import io.github.datacanvasio.expretau.antlr4.ExpretauLexer;
+import io.github.datacanvasio.expretau.runtime.TypeCode;
+import io.github.datacanvasio.expretau.value.Str;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.Token;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Lift the literals out of an expression string, replacing them by bind parameters, so that expressions differing only
+ * in literals share one template.
+ *
+ * <p>Only the lexer is run. Literals in brackets ({@code a[0]}) are kept, for they are used to resolve variables in
+ * compiling. The parameters are named by their types and positions, like {@code :_l0}, {@code :_d1} and {@code :_s2},
+ * so templates with literals of different types are different.
+ */
+final class AutoParameterizer {
+    private AutoParameterizer() {
+    }
+
+    @Nonnull
+    private static String nameOf(int typeCode, int slot) {
+        char prefix = typeCode == TypeCode.LONG ? 'l' : typeCode == TypeCode.DOUBLE ? 'd' : 's';
+        return "_" + prefix + slot;
+    }
+
+    /**
+     * Parameterize an expression string.
+     *
+     * @param input the expression string
+     * @return the template and the lifted values, or {@code null} if the input cannot be lexed or contains parameters
+     */
+    @Nullable
+    static Parameterized parameterize(@Nonnull String input) {
+        ExpretauLexer lexer = new ExpretauLexer(CharStreams.fromString(input));
+        boolean[] failed = {false};
+        lexer.removeErrorListeners();
+        lexer.addErrorListener(new BaseErrorListener() {
+            @Override
+            public void syntaxError(
+                Recognizer<?, ?> recognizer,
+                Object offendingSymbol,
+                int line,
+                int charPositionInLine,
+                String msg,
+                RecognitionException exception
+            ) {
+                failed[0] = true;
+            }
+        });
+        List<? extends Token> tokens = lexer.getAllTokens();
+        if (failed[0]) {
+            return null;
+        }
+        StringBuilder builder = new StringBuilder(input.length());
+        List<Object> values = new ArrayList<>();
+        List<Integer> typeCodes = new ArrayList<>();
+        int depth = 0;
+        for (Token token : tokens) {
+            if (builder.length() > 0) {
+                builder.append(' ');
+            }
+            Object value = null;
+            int typeCode = TypeCode.OBJECT;
+            switch (token.getType()) {
+                case ExpretauLexer.PARAM:
+                    return null;
+                case ExpretauLexer.LBRCK:
+                    ++depth;
+                    break;
+                case ExpretauLexer.RBRCK:
+                    --depth;
+                    break;
+                case ExpretauLexer.INT:
+                    value = Long.parseLong(token.getText());
+                    typeCode = TypeCode.LONG;
+                    break;
+                case ExpretauLexer.REAL:
+                    value = Double.parseDouble(token.getText());
+                    typeCode = TypeCode.DOUBLE;
+                    break;
+                case ExpretauLexer.STR:
+                    value = Str.fromLiteral(token.getText()).getValue();
+                    typeCode = TypeCode.STRING;
+                    break;
+                default:
+                    break;
+            }
+            if (value != null && depth == 0) {
+                builder.append(':').append(nameOf(typeCode, values.size()));
+                values.add(value);
+                typeCodes.add(typeCode);
+            } else {
+                builder.append(token.getText());
+            }
+        }
+        return new Parameterized(
+            builder.toString(),
+            values.toArray(),
+            typeCodes.stream().mapToInt(Integer::intValue).toArray()
+        );
+    }
+
+    @RequiredArgsConstructor
+    static final class Parameterized {
+        @Getter
+        private final String template;
+        @Getter
+        private final Object[] values;
+        @Getter
+        private final int[] typeCodes;
+
+        /**
+         * Get the name of a parameter.
+         *
+         * @param slot the position of the parameter
+         * @return the name (without the leading {@code :})
+         */
+        @Nonnull
+        String getName(int slot) {
+            return nameOf(typeCodes[slot], slot);
+        }
+    }
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.parser;
+
+import io.github.datacanvasio.expretau.exception.ExpretauCompileException;
+import io.github.datacanvasio.expretau.exception.ExpretauParseException;
+import io.github.datacanvasio.expretau.runtime.CompileContext;
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+import io.github.datacanvasio.expretau.runtime.schema.RtSchemaRoot;
+import io.github.datacanvasio.expretau.runtime.var.RtBoundExpr;
+import io.github.datacanvasio.expretau.var.ParamCompileContext;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * A bounded cache of compiled RtExprs, keyed by the normalized expression strings and the fingerprints of the
+ * {@link RtSchemaRoot}s they are compiled in, so that repeated expressions are not parsed and compiled again.
+ *
+ * <p>The cache is split into segments, each of which is an LRU map guarded by its own lock. Both the number of entries
+ * and the total weight (the length of the normalized expression strings) are bounded. The parsing and compiling are
+ * done out of the lock, so concurrent misses of the same key may compile it more than once, but only one result is
+ * kept.
+ */
+public final class ExprCache {
+    private static final int SEGMENT_COUNT = 16;
+
+    private final Segment[] segments;
+    private final boolean autoParameterize;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * Create an ExprCache.
+     *
+     * @param maximumSize   the maximum number of entries
+     * @param maximumWeight the maximum total length of the cached expression strings
+     */
+    public ExprCache(int maximumSize, long maximumWeight) {
+        this(maximumSize, maximumWeight, false);
+    }
+
+    /**
+     * Create an ExprCache, optionally lifting the literals (except those in brackets) out of expression strings before
+     * looking up, so that expressions differing only in literals share one compiled RtExpr with bind parameters.
+     *
+     * @param maximumSize       the maximum number of entries
+     * @param maximumWeight     the maximum total length of the cached expression strings
+     * @param autoParameterize {@code true} to lift literals
+     */
+    public ExprCache(int maximumSize, long maximumWeight, boolean autoParameterize) {
+        this.autoParameterize = autoParameterize;
+        if (maximumSize <= 0 || maximumWeight <= 0) {
+            throw new IllegalArgumentException("The maximum size and weight of an ExprCache must be positive.");
+        }
+        int segmentCount = Math.min(SEGMENT_COUNT, maximumSize);
+        segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; ++i) {
+            segments[i] = new Segment(
+                (maximumSize + segmentCount - 1) / segmentCount,
+                (maximumWeight + segmentCount - 1) / segmentCount
+            );
+        }
+    }
+
+    /**
+     * Normalize an expression string, by trimming it and collapsing whitespaces out of string literals.
+     *
+     * @param input the expression string
+     * @return the normalized string
+     */
+    @Nonnull
+    static String normalize(@Nonnull String input) {
+        StringBuilder builder = new StringBuilder(input.length());
+        char quote = 0;
+        boolean space = false;
+        for (int i = 0; i < input.length(); ++i) {
+            char ch = input.charAt(i);
+            if (quote != 0) {
+                builder.append(ch);
+                if (ch == '\\' && i + 1 < input.length()) {
+                    builder.append(input.charAt(++i));
+                } else if (ch == quote) {
+                    quote = 0;
+                }
+            } else if (Character.isWhitespace(ch)) {
+                space = builder.length() > 0;
+            } else {
+                if (space) {
+                    builder.append(' ');
+                    space = false;
+                }
+                builder.append(ch);
+                if (ch == '\'' || ch == '"') {
+                    quote = ch;
+                }
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Get the RtExpr of an expression string compiled in a specified RtSchemaRoot, parsing and compiling it if it is
+     * not in the cache. If literals are lifted, the returned RtExpr is the cached one bound to the literal values.
+     *
+     * @param input      the expression string
+     * @param schemaRoot the RtSchemaRoot, can be {@code null} if there are no variables in the expression
+     * @return the RtExpr
+     * @throws ExpretauParseException   if errors occurred in parsing
+     * @throws ExpretauCompileException if errors occurred in compiling
+     */
+    @Nonnull
+    public RtExpr get(
+        @Nonnull String input,
+        @Nullable RtSchemaRoot schemaRoot
+    ) throws ExpretauParseException, ExpretauCompileException {
+        long fingerprint = schemaRoot != null ? schemaRoot.getFingerprint() : 0L;
+        CompileContext ctx = schemaRoot != null ? schemaRoot.getSchema() : null;
+        AutoParameterizer.Parameterized parameterized = autoParameterize ? AutoParameterizer.parameterize(input) : null;
+        if (parameterized == null || parameterized.getValues().length == 0) {
+            return get(new Key(normalize(input), fingerprint), ctx);
+        }
+        ParamCompileContext paramCtx = new ParamCompileContext(ctx);
+        for (int i = 0; i < parameterized.getTypeCodes().length; ++i) {
+            paramCtx.declare(parameterized.getName(i), parameterized.getTypeCodes()[i]);
+        }
+        RtExpr rtExpr = get(new Key(parameterized.getTemplate(), fingerprint), paramCtx);
+        return new RtBoundExpr(rtExpr, parameterized.getValues());
+    }
+
+    @Nonnull
+    private RtExpr get(@Nonnull Key key, @Nullable CompileContext ctx)
+        throws ExpretauParseException, ExpretauCompileException {
+        Segment segment = segments[(key.hashCode() & Integer.MAX_VALUE) % segments.length];
+        RtExpr rtExpr = segment.get(key);
+        if (rtExpr != null) {
+            hitCount.increment();
+            return rtExpr;
+        }
+        missCount.increment();
+        rtExpr = ExpretauCompiler.INS.parse(key.text).compileIn(ctx);
+        return segment.put(key, rtExpr);
+    }
+
+    /**
+     * Remove all the entries.
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * Get the statistics of this cache.
+     *
+     * @return the statistics
+     */
+    @Nonnull
+    public ExprCacheStats getStats() {
+        long size = 0;
+        long weight = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.map.size();
+                weight += segment.weight;
+            }
+        }
+        return new ExprCacheStats(hitCount.sum(), missCount.sum(), evictionCount.sum(), size, weight);
+    }
+
+    private static final class Key {
+        private final String text;
+        private final long fingerprint;
+        private final int hash;
+
+        private Key(String text, long fingerprint) {
+            this.text = text;
+            this.fingerprint = fingerprint;
+            hash = 31 * text.hashCode() + Long.hashCode(fingerprint);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return fingerprint == other.fingerprint && text.equals(other.text);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private final class Segment {
+        private final int maximumSize;
+        private final long maximumWeight;
+        private final LinkedHashMap<Key, RtExpr> map = new LinkedHashMap<>(16, 0.75f, true);
+        private long weight = 0;
+
+        private Segment(int maximumSize, long maximumWeight) {
+            this.maximumSize = maximumSize;
+            this.maximumWeight = maximumWeight;
+        }
+
+        @Nullable
+        private synchronized RtExpr get(Key key) {
+            return map.get(key);
+        }
+
+        @Nonnull
+        private synchronized RtExpr put(Key key, @Nonnull RtExpr rtExpr) {
+            RtExpr old = map.get(key);
+            if (old != null) {
+                return old;
+            }
+            map.put(key, rtExpr);
+            weight += key.text.length();
+            Iterator<Map.Entry<Key, RtExpr>> it = map.entrySet().iterator();
+            // Evict the least recently used entries, but keep the new one even if it is overweight by itself.
+            while ((map.size() > maximumSize || weight > maximumWeight) && map.size() > 1) {
+                Key eldest = it.next().getKey();
+                it.remove();
+                weight -= eldest.text.length();
+                evictionCount.increment();
+            }
+            return Objects.requireNonNull(map.get(key));
+        }
+
+        private synchronized void clear() {
+            map.clear();
+            weight = 0;
+        }
+    }
+}
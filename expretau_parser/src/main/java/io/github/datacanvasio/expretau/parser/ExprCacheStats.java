@@ -0,0 +1,54 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.parser;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The statistics of an {@link ExprCache}.
+ */
+@RequiredArgsConstructor
+public final class ExprCacheStats {
+    @Getter
+    private final long hitCount;
+    @Getter
+    private final long missCount;
+    @Getter
+    private final long evictionCount;
+    @Getter
+    private final long size;
+    @Getter
+    private final long weight;
+
+    /**
+     * Get the ratio of hits to all the requests.
+     *
+     * @return the hit rate, or {@code 1.0} if there were no requests
+     */
+    public double getHitRate() {
+        long requestCount = hitCount + missCount;
+        return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+    }
+
+    @Override
+    public String toString() {
+        return "ExprCacheStats{hitCount=" + hitCount + ", missCount=" + missCount + ", evictionCount=" + evictionCount
+            + ", size=" + size + ", weight=" + weight + "}";
+    }
+}
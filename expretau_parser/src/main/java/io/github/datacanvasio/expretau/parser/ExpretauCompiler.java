@@ -14,49 +14,88 @@
  * limitations under the License.
  */
 
+
 package io.github.datacanvasio.expretau.parser;
 
+import io.github.datacanvasio.expretau.CompileOptions;
 import io.github.datacanvasio.expretau.Expr;
 import io.github.datacanvasio.expretau.antlr4.ExpretauLexer;
 import io.github.datacanvasio.expretau.antlr4.ExpretauParser;
 import io.github.datacanvasio.expretau.exception.ExprSyntaxError;
+import io.github.datacanvasio.expretau.exception.ExpretauCompileException;
 import io.github.datacanvasio.expretau.exception.ExpretauParseException;
-import org.antlr.v4.runtime.CharStream;
+import io.github.datacanvasio.expretau.runtime.CompileContext;
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+import io.github.datacanvasio.expretau.runtime.monitor.CompileEvent;
+import io.github.datacanvasio.expretau.runtime.monitor.ExprEvents;
+import io.github.datacanvasio.expretau.runtime.monitor.ExprMetrics;
+import io.github.datacanvasio.expretau.runtime.monitor.ParseEvent;
+import org.antlr.v4.runtime.ANTLRErrorStrategy;
+import org.antlr.v4.runtime.BailErrorStrategy;
 import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
+import org.antlr.v4.runtime.atn.ATNState;
+import org.antlr.v4.runtime.atn.PredictionMode;
 import org.antlr.v4.runtime.misc.ParseCancellationException;
 import org.antlr.v4.runtime.tree.ParseTree;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
+/**
+ * The compiler to parse expression strings into Exprs.
+ *
+ * <p>There are two front-ends producing the same Exprs: the ANTLR parser ({@link #ANTLR}), and a hand-written Pratt
+ * parser ({@link #PRATT}) which is faster and does not need to warm up the ANTLR DFA caches. {@link #INS} is the ANTLR
+ * one, unless the system property {@value #PRATT_PROPERTY} is set to {@code true}.
+ *
+ * <p>The compilers are thread-safe. Each thread reuses its own ANTLR lexer and parser, and the DFA caches of them are
+ * shared by all threads, as ANTLR does.
+ *
+ * <p>The latencies of parsing and compiling are recorded in {@link ExprMetrics#INS}, and emitted as JFR events (see
+ * {@link ExprEvents}).
+ */
 public class ExpretauCompiler {
-    public static final ExpretauCompiler INS = new ExpretauCompiler();
+    public static final String PRATT_PROPERTY = "expretau.parser.pratt";
 
-    private final ExpretauParserVisitorImpl visitor;
+    public static final ExpretauCompiler ANTLR = new ExpretauCompiler(false);
+    public static final ExpretauCompiler PRATT = new ExpretauCompiler(true);
+    public static final ExpretauCompiler INS = Boolean.getBoolean(PRATT_PROPERTY) ? PRATT : ANTLR;
 
-    private ExpretauErrorListener errorListener;
+    /**
+     * Inputs are compiled in a single task if there are not more than this number of them.
+     */
+    private static final int BULK_THRESHOLD = 64;
 
-    private ExpretauCompiler() {
-        visitor = new ExpretauParserVisitorImpl();
-    }
+    private static final String[] WARM_UP_CORPUS = {
+        "1 + 2 * 3 - 4 / 5",
+        "-a + +b * (c - 1.5e3)",
+        "a > 1 and b <= 2.0 or not c",
+        "a == 1 && b != 2 || !c",
+        "a < b and a >= b and a <> b and a = b",
+        "d startsWith 'x' or d endsWith \"y\" or d contains 'z' or d matches '.*'",
+        "abs(a) + substring(d, 1, 2) + toLowerCase(d)",
+        "f()",
+        "$.a.b[0]['c'] + $[1]",
+        "a * :p + :q",
+        "true and false or x",
+    };
 
-    @Nonnull
-    private ExpretauParser getParser(String input) {
-        CharStream stream = CharStreams.fromString(input);
-        ExpretauLexer lexer = new ExpretauLexer(stream);
-        CommonTokenStream tokens = new CommonTokenStream(lexer);
-        ExpretauParser parser = new ExpretauParser(tokens);
-        parser.removeErrorListeners();
-        parser.addErrorListener(errorListener);
-        return parser;
-    }
+    private final boolean pratt;
+    private final ExpretauParserVisitorImpl visitor;
 
-    private void collectParseError() throws ExprSyntaxError {
-        List<String> errorMessages = errorListener.getErrorMessages();
-        if (!errorMessages.isEmpty()) {
-            throw new ExprSyntaxError(errorMessages);
-        }
+    private final ThreadLocal<ParserHolder> parserHolder = ThreadLocal.withInitial(ParserHolder::new);
+
+    private ExpretauCompiler(boolean pratt) {
+        this.pratt = pratt;
+        visitor = new ExpretauParserVisitorImpl();
     }
 
     /**
@@ -67,14 +106,260 @@ public class ExpretauCompiler {
      * @throws ExpretauParseException if errors occurred in parsing
      */
     public Expr parse(String input) throws ExpretauParseException {
-        errorListener = new ExpretauErrorListener();
-        ExpretauParser parser = getParser(input);
-        ParseTree tree = parser.expr();
-        collectParseError();
+        ParseEvent event = ExprEvents.beginParse();
+        long start = System.nanoTime();
+        boolean succeeded = false;
         try {
-            return visitor.visit(tree);
+            Expr expr = pratt ? PrattParser.parse(input) : visitor.visit(parserHolder.get().parse(input));
+            succeeded = true;
+            return expr;
         } catch (ParseCancellationException e) {
             throw new ExpretauParseException(e);
+        } finally {
+            ExprMetrics.INS.getParses().record(System.nanoTime() - start);
+            ExprEvents.commitParse(event, input, pratt ? "pratt" : "antlr", succeeded);
+        }
+    }
+
+    /**
+     * Parse a given String input and compile it in a specified CompileContext.
+     *
+     * @param input the given String
+     * @param ctx   the CompileContext
+     * @return the RtExpr
+     * @throws ExpretauParseException   if errors occurred in parsing
+     * @throws ExpretauCompileException if errors occurred in compiling
+     */
+    @Nonnull
+    public RtExpr compile(
+        String input,
+        @Nullable CompileContext ctx
+    ) throws ExpretauParseException, ExpretauCompileException {
+        return compile(input, ctx, CompileOptions.DEFAULT);
+    }
+
+    /**
+     * Parse a given String input and compile it in a specified CompileContext, with specified CompileOptions.
+     *
+     * @param input   the given String
+     * @param ctx     the CompileContext
+     * @param options the CompileOptions
+     * @return the RtExpr
+     * @throws ExpretauParseException   if errors occurred in parsing
+     * @throws ExpretauCompileException if errors occurred in compiling, or the RtExpr is rejected by the options
+     */
+    @Nonnull
+    public RtExpr compile(
+        String input,
+        @Nullable CompileContext ctx,
+        @Nonnull CompileOptions options
+    ) throws ExpretauParseException, ExpretauCompileException {
+        Expr expr = parse(input);
+        CompileEvent event = ExprEvents.beginCompile();
+        long start = System.nanoTime();
+        RtExpr result = null;
+        try {
+            result = expr.compileIn(ctx, options);
+            return result;
+        } finally {
+            ExprMetrics.INS.getCompiles().record(System.nanoTime() - start);
+            ExprEvents.commitCompile(event, input, "tree", result);
+        }
+    }
+
+    /**
+     * Warm up the ANTLR parser with a built-in corpus covering all the syntax, so that the first parsings do not pay
+     * for filling the DFA caches. The caches are shared by all threads and all instances of this class.
+     */
+    public void warmUp() {
+        warmUp(Arrays.asList(WARM_UP_CORPUS));
+    }
+
+    /**
+     * Warm up the ANTLR parser with a corpus of representative expressions. Invalid expressions are ignored.
+     *
+     * @param inputs the expression strings
+     */
+    public void warmUp(@Nonnull Collection<String> inputs) {
+        ParserHolder holder = parserHolder.get();
+        for (String input : inputs) {
+            try {
+                holder.parse(input);
+            } catch (ExprSyntaxError e) {
+                // Ignored, the DFA states are cached anyway.
+            }
+        }
+    }
+
+    /**
+     * Parse String inputs into Exprs in parallel, in the common ForkJoinPool.
+     *
+     * @param inputs the String inputs
+     * @return the Exprs, in the same order of the inputs
+     * @throws ExpretauParseException if errors occurred in parsing any input (the first one is thrown)
+     */
+    @Nonnull
+    public List<Expr> parseAll(@Nonnull Collection<String> inputs) throws ExpretauParseException {
+        try {
+            return compileAll(inputs, null, ForkJoinPool.commonPool(), false);
+        } catch (ExpretauCompileException e) {
+            throw new IllegalStateException("Compiling exceptions should not be thrown in parsing.", e);
+        }
+    }
+
+    /**
+     * Parse String inputs and compile them in a specified CompileContext in parallel, in the common ForkJoinPool.
+     *
+     * @param inputs the String inputs
+     * @param ctx    the CompileContext
+     * @return the RtExprs, in the same order of the inputs
+     * @throws ExpretauParseException   if errors occurred in parsing any input (the first one is thrown)
+     * @throws ExpretauCompileException if errors occurred in compiling any input (the first one is thrown)
+     */
+    @Nonnull
+    public List<RtExpr> compileAll(
+        @Nonnull Collection<String> inputs,
+        @Nullable CompileContext ctx
+    ) throws ExpretauParseException, ExpretauCompileException {
+        return compileAll(inputs, ctx, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Parse String inputs and compile them in a specified CompileContext in parallel, in a specified ForkJoinPool.
+     *
+     * @param inputs the String inputs
+     * @param ctx    the CompileContext
+     * @param pool   the ForkJoinPool
+     * @return the RtExprs, in the same order of the inputs
+     * @throws ExpretauParseException   if errors occurred in parsing any input (the first one is thrown)
+     * @throws ExpretauCompileException if errors occurred in compiling any input (the first one is thrown)
+     */
+    @Nonnull
+    public List<RtExpr> compileAll(
+        @Nonnull Collection<String> inputs,
+        @Nullable CompileContext ctx,
+        @Nonnull ForkJoinPool pool
+    ) throws ExpretauParseException, ExpretauCompileException {
+        return compileAll(inputs, ctx, pool, true);
+    }
+
+    @Nonnull
+    private <T> List<T> compileAll(
+        @Nonnull Collection<String> inputs,
+        @Nullable CompileContext ctx,
+        @Nonnull ForkJoinPool pool,
+        boolean compile
+    ) throws ExpretauParseException, ExpretauCompileException {
+        String[] inputArray = inputs.toArray(new String[0]);
+        Object[] results = new Object[inputArray.length];
+        Exception[] errors = new Exception[inputArray.length];
+        pool.invoke(new BulkTask(inputArray, ctx, compile, results, errors, 0, inputArray.length));
+        for (Exception error : errors) {
+            if (error instanceof ExpretauParseException) {
+                throw (ExpretauParseException) error;
+            } else if (error instanceof ExpretauCompileException) {
+                throw (ExpretauCompileException) error;
+            }
+        }
+        @SuppressWarnings("unchecked")
+        List<T> list = (List<T>) new ArrayList<>(Arrays.asList(results));
+        return list;
+    }
+
+    private static final class ParserHolder {
+        private final ExpretauLexer lexer;
+        private final CommonTokenStream tokens;
+        private final ExpretauParser parser;
+        private final ExpretauErrorListener errorListener;
+        private final ANTLRErrorStrategy bailStrategy = new BailErrorStrategy();
+        private final ANTLRErrorStrategy defaultStrategy = new DefaultErrorStrategy();
+
+        private ParserHolder() {
+            lexer = new ExpretauLexer(null);
+            tokens = new CommonTokenStream(lexer);
+            parser = new ExpretauParser(tokens);
+            errorListener = new ExpretauErrorListener();
+            parser.removeErrorListeners();
+            parser.addErrorListener(errorListener);
+        }
+
+        @Nonnull
+        private ParseTree parseWith(PredictionMode mode, ANTLRErrorStrategy strategy) {
+            errorListener.clear();
+            tokens.seek(0);
+            parser.setTokenStream(tokens);
+            // `Parser.reset` does not reset the state number, which is used as the invoking state of the root context.
+            parser.setState(ATNState.INVALID_STATE_NUMBER);
+            parser.setErrorHandler(strategy);
+            parser.getInterpreter().setPredictionMode(mode);
+            return parser.expr();
+        }
+
+        @Nonnull
+        private ParseTree parse(String input) throws ExprSyntaxError {
+            lexer.setInputStream(CharStreams.fromString(input));
+            tokens.setTokenSource(lexer);
+            try {
+                // SLL prediction is faster and enough for almost all inputs. Bail out at the first error.
+                return parseWith(PredictionMode.SLL, bailStrategy);
+            } catch (ParseCancellationException e) {
+                // The input is either invalid or needs full LL prediction, in which the errors are reported.
+                ParseTree tree = parseWith(PredictionMode.LL, defaultStrategy);
+                List<String> errorMessages = errorListener.getErrorMessages();
+                if (!errorMessages.isEmpty()) {
+                    throw new ExprSyntaxError(new ArrayList<>(errorMessages));
+                }
+                return tree;
+            }
+        }
+    }
+
+    private final class BulkTask extends RecursiveAction {
+        private static final long serialVersionUID = -4209616393581474862L;
+
+        private final String[] inputs;
+        private final CompileContext ctx;
+        private final boolean compile;
+        private final Object[] results;
+        private final Exception[] errors;
+        private final int from;
+        private final int to;
+
+        private BulkTask(
+            String[] inputs,
+            CompileContext ctx,
+            boolean compile,
+            Object[] results,
+            Exception[] errors,
+            int from,
+            int to
+        ) {
+            this.inputs = inputs;
+            this.ctx = ctx;
+            this.compile = compile;
+            this.results = results;
+            this.errors = errors;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > BULK_THRESHOLD) {
+                int mid = (from + to) >>> 1;
+                invokeAll(
+                    new BulkTask(inputs, ctx, compile, results, errors, from, mid),
+                    new BulkTask(inputs, ctx, compile, results, errors, mid, to)
+                );
+                return;
+            }
+            for (int i = from; i < to; ++i) {
+                try {
+                    results[i] = compile ? ExpretauCompiler.this.compile(inputs[i], ctx) : parse(inputs[i]);
+                } catch (ExpretauParseException | ExpretauCompileException e) {
+                    errors[i] = e;
+                }
+            }
         }
     }
 }
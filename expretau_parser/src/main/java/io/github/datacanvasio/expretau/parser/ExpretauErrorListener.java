@@ -28,6 +28,13 @@ public class ExpretauErrorListener extends BaseErrorListener {
     @Getter
     private final List<String> errorMessages = new LinkedList<>();
 
+    /**
+     * Clear the collected error messages, so that this listener can be reused in another parsing.
+     */
+    public void clear() {
+        errorMessages.clear();
+    }
+
     @Override
     public void syntaxError(
         Recognizer<?, ?> recognizer, Object offendingSymbol,
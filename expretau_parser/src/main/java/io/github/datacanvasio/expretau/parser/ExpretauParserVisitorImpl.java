@@ -27,8 +27,8 @@ import io.github.datacanvasio.expretau.value.Bool;
 import io.github.datacanvasio.expretau.value.Int;
 import io.github.datacanvasio.expretau.value.Real;
 import io.github.datacanvasio.expretau.value.Str;
+import io.github.datacanvasio.expretau.var.Param;
 import io.github.datacanvasio.expretau.var.Var;
-import org.apache.commons.text.StringEscapeUtils;
 
 import java.util.List;
 import javax.annotation.Nonnull;
@@ -74,8 +74,7 @@ public final class ExpretauParserVisitorImpl extends ExpretauParserBaseVisitor<E
 
     @Override
     public Expr visitStr(ExpretauParser.StrContext ctx) {
-        String str = ctx.STR().getText();
-        return Str.fromString(StringEscapeUtils.unescapeJson(str.substring(1, str.length() - 1)));
+        return Str.fromLiteral(ctx.STR().getText());
     }
 
     @Override
@@ -88,6 +87,11 @@ public final class ExpretauParserVisitorImpl extends ExpretauParserBaseVisitor<E
         return new Var(ctx.ID().getText());
     }
 
+    @Override
+    public Expr visitParam(ExpretauParser.ParamContext ctx) {
+        return new Param(ctx.PARAM().getText().substring(1));
+    }
+
     @Override
     public Expr visitPars(ExpretauParser.ParsContext ctx) {
         return visit(ctx.expr());
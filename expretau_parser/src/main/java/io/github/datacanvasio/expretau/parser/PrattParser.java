@@ -0,0 +1,501 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.parser;
+
+import io.github.datacanvasio.expretau.Expr;
+import io.github.datacanvasio.expretau.antlr4.ExpretauParser;
+import io.github.datacanvasio.expretau.exception.ExprSyntaxError;
+import io.github.datacanvasio.expretau.op.FunFactory;
+import io.github.datacanvasio.expretau.op.IndexOp;
+import io.github.datacanvasio.expretau.op.Op;
+import io.github.datacanvasio.expretau.op.OpFactory;
+import io.github.datacanvasio.expretau.value.Bool;
+import io.github.datacanvasio.expretau.value.Int;
+import io.github.datacanvasio.expretau.value.Real;
+import io.github.datacanvasio.expretau.value.Str;
+import io.github.datacanvasio.expretau.var.Param;
+import io.github.datacanvasio.expretau.var.Var;
+import org.antlr.v4.runtime.Token;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.Nonnull;
+
+/**
+ * A hand-written lexer and Pratt parser of the grammar in {@code ExpretauParser.g4}, producing the same Exprs as
+ * {@link ExpretauParserVisitorImpl} without building token lists and parse trees.
+ *
+ * <p>The precedences are the same as those ANTLR assigns to the alternatives of the left-recursive rule, from
+ * {@code or} (lowest) to member access (highest). Unlike the ANTLR parser, which stops silently at the first token it
+ * cannot use, trailing tokens are reported as an error.
+ */
+final class PrattParser {
+    private static final int PREC_OR = 1;
+    private static final int PREC_AND = 2;
+    private static final int PREC_NOT = 3;
+    private static final int PREC_STRING_OP = 4;
+    private static final int PREC_RELATION = 5;
+    private static final int PREC_ADD_SUB = 6;
+    private static final int PREC_MUL_DIV = 7;
+    private static final int PREC_POS_NEG = 8;
+    private static final int PREC_INDEX = 9;
+    private static final int PREC_STR_INDEX = 10;
+
+    private final String input;
+    private final int length;
+
+    // The current token.
+    private int type;
+    private int start;
+    private int end;
+
+    private PrattParser(@Nonnull String input) {
+        this.input = input;
+        length = input.length();
+        end = 0;
+    }
+
+    /**
+     * Parse a String input into an Expr.
+     *
+     * @param input the String input
+     * @return the Expr
+     * @throws ExprSyntaxError if there are syntax errors
+     */
+    @Nonnull
+    static Expr parse(@Nonnull String input) throws ExprSyntaxError {
+        PrattParser parser = new PrattParser(input);
+        parser.next();
+        Expr expr = parser.parseExpr(0);
+        if (parser.type != Token.EOF) {
+            throw parser.error(parser.start, "extraneous input '" + parser.text() + "' expecting <EOF>");
+        }
+        return expr;
+    }
+
+    private static boolean isAlpha(char ch) {
+        return ('a' <= ch && ch <= 'z') || ('A' <= ch && ch <= 'Z');
+    }
+
+    private static boolean isDigit(char ch) {
+        return '0' <= ch && ch <= '9';
+    }
+
+    private static boolean isHex(char ch) {
+        return isDigit(ch) || ('a' <= ch && ch <= 'f') || ('A' <= ch && ch <= 'F');
+    }
+
+    private static int infixPrecedence(int type) {
+        switch (type) {
+            case ExpretauParser.DOT:
+                return PREC_STR_INDEX;
+            case ExpretauParser.LBRCK:
+                return PREC_INDEX;
+            case ExpretauParser.MUL:
+            case ExpretauParser.DIV:
+                return PREC_MUL_DIV;
+            case ExpretauParser.ADD:
+            case ExpretauParser.SUB:
+                return PREC_ADD_SUB;
+            case ExpretauParser.LT:
+            case ExpretauParser.LE:
+            case ExpretauParser.EQ:
+            case ExpretauParser.GT:
+            case ExpretauParser.GE:
+            case ExpretauParser.NE:
+                return PREC_RELATION;
+            case ExpretauParser.STARTSWITH:
+            case ExpretauParser.ENDSWITH:
+            case ExpretauParser.CONTAINS:
+            case ExpretauParser.MATCHES:
+                return PREC_STRING_OP;
+            case ExpretauParser.AND:
+                return PREC_AND;
+            case ExpretauParser.OR:
+                return PREC_OR;
+            default:
+                return 0;
+        }
+    }
+
+    private static int keywordType(@Nonnull String word) {
+        switch (word) {
+            case "true":
+            case "false":
+                return ExpretauParser.BOOL;
+            case "and":
+                return ExpretauParser.AND;
+            case "or":
+                return ExpretauParser.OR;
+            case "not":
+                return ExpretauParser.NOT;
+            case "startsWith":
+                return ExpretauParser.STARTSWITH;
+            case "endsWith":
+                return ExpretauParser.ENDSWITH;
+            case "contains":
+                return ExpretauParser.CONTAINS;
+            case "matches":
+                return ExpretauParser.MATCHES;
+            default:
+                return ExpretauParser.ID;
+        }
+    }
+
+    @Nonnull
+    private static Op binary(int type, Expr left, Expr right) {
+        Op op = OpFactory.getBinary(type);
+        op.setExprArray(new Expr[]{left, right});
+        return op;
+    }
+
+    @Nonnull
+    private static Op unary(int type, Expr operand) {
+        Op op = OpFactory.getUnary(type);
+        op.setExprArray(new Expr[]{operand});
+        return op;
+    }
+
+    @Nonnull
+    private static Op index(Expr object, Expr index) {
+        Op op = new IndexOp();
+        op.setExprArray(new Expr[]{object, index});
+        return op;
+    }
+
+    @Nonnull
+    private ExprSyntaxError error(int pos, String msg) {
+        int line = 1;
+        int lineStart = 0;
+        for (int i = 0; i < pos && i < length; ++i) {
+            if (input.charAt(i) == '\n') {
+                ++line;
+                lineStart = i + 1;
+            }
+        }
+        return new ExprSyntaxError(
+            Collections.singletonList("Line " + line + ":" + (pos - lineStart) + ": " + msg + ".\n")
+        );
+    }
+
+    @Nonnull
+    private String text() {
+        return type == Token.EOF ? "<EOF>" : input.substring(start, end);
+    }
+
+    private char charAt(int pos) {
+        return pos < length ? input.charAt(pos) : 0;
+    }
+
+    /**
+     * Scan a {@code NUM} fragment.
+     *
+     * @return the end position, or {@code -1} if there is no {@code NUM}
+     */
+    private int scanNum(int pos) {
+        char ch = charAt(pos);
+        if (ch == '0') {
+            return pos + 1;
+        } else if ('1' <= ch && ch <= '9') {
+            ++pos;
+            while (isDigit(charAt(pos))) {
+                ++pos;
+            }
+            return pos;
+        }
+        return -1;
+    }
+
+    /**
+     * Scan an {@code EXP} fragment.
+     *
+     * @return the end position, or {@code -1} if there is no {@code EXP}
+     */
+    private int scanExp(int pos) {
+        char ch = charAt(pos);
+        if (ch != 'e' && ch != 'E') {
+            return -1;
+        }
+        ch = charAt(pos + 1);
+        return scanNum(ch == '+' || ch == '-' ? pos + 2 : pos + 1);
+    }
+
+    private int scanStr(int pos) throws ExprSyntaxError {
+        char quote = input.charAt(pos);
+        int i = pos + 1;
+        while (i < length) {
+            char ch = input.charAt(i);
+            if (ch == quote) {
+                return i + 1;
+            } else if (ch == '\\') {
+                char esc = charAt(i + 1);
+                if (esc == 'u') {
+                    for (int j = i + 2; j < i + 6; ++j) {
+                        if (!isHex(charAt(j))) {
+                            throw error(pos, "token recognition error at: '" + input.substring(pos, j) + "'");
+                        }
+                    }
+                    i += 6;
+                } else if ("\"\\/bfnrt".indexOf(esc) >= 0) {
+                    i += 2;
+                } else {
+                    throw error(pos, "token recognition error at: '" + input.substring(pos, i + 1) + "'");
+                }
+            } else {
+                ++i;
+            }
+        }
+        throw error(pos, "token recognition error at: '" + input.substring(pos) + "'");
+    }
+
+    private int scanWord(int pos) {
+        while (pos < length) {
+            char ch = input.charAt(pos);
+            if (isAlpha(ch) || isDigit(ch) || ch == '_') {
+                ++pos;
+            } else {
+                break;
+            }
+        }
+        return pos;
+    }
+
+    private void next() throws ExprSyntaxError {
+        int pos = end;
+        while (pos < length) {
+            char ch = input.charAt(pos);
+            if (ch == ' ' || ch == '\t' || ch == '\n') {
+                ++pos;
+            } else if (ch == '\r' && charAt(pos + 1) == '\n') {
+                pos += 2;
+            } else {
+                break;
+            }
+        }
+        start = pos;
+        if (pos >= length) {
+            type = Token.EOF;
+            end = pos;
+            return;
+        }
+        char ch = input.charAt(pos);
+        int len = 1;
+        switch (ch) {
+            case '+':
+                type = ExpretauParser.ADD;
+                break;
+            case '-':
+                type = ExpretauParser.SUB;
+                break;
+            case '*':
+                type = ExpretauParser.MUL;
+                break;
+            case '/':
+                type = ExpretauParser.DIV;
+                break;
+            case '<':
+                if (charAt(pos + 1) == '=') {
+                    type = ExpretauParser.LE;
+                    len = 2;
+                } else if (charAt(pos + 1) == '>') {
+                    type = ExpretauParser.NE;
+                    len = 2;
+                } else {
+                    type = ExpretauParser.LT;
+                }
+                break;
+            case '>':
+                if (charAt(pos + 1) == '=') {
+                    type = ExpretauParser.GE;
+                    len = 2;
+                } else {
+                    type = ExpretauParser.GT;
+                }
+                break;
+            case '=':
+                type = ExpretauParser.EQ;
+                len = charAt(pos + 1) == '=' ? 2 : 1;
+                break;
+            case '!':
+                if (charAt(pos + 1) == '=') {
+                    type = ExpretauParser.NE;
+                    len = 2;
+                } else {
+                    type = ExpretauParser.NOT;
+                }
+                break;
+            case '&':
+            case '|':
+                if (charAt(pos + 1) != ch) {
+                    throw error(pos, "token recognition error at: '" + ch + "'");
+                }
+                type = ch == '&' ? ExpretauParser.AND : ExpretauParser.OR;
+                len = 2;
+                break;
+            case '(':
+                type = ExpretauParser.LPAR;
+                break;
+            case ')':
+                type = ExpretauParser.RPAR;
+                break;
+            case ',':
+                type = ExpretauParser.COMMA;
+                break;
+            case '.':
+                type = ExpretauParser.DOT;
+                break;
+            case '[':
+                type = ExpretauParser.LBRCK;
+                break;
+            case ']':
+                type = ExpretauParser.RBRCK;
+                break;
+            case '\'':
+            case '"':
+                type = ExpretauParser.STR;
+                len = scanStr(pos) - pos;
+                break;
+            case ':':
+                if (!isAlpha(charAt(pos + 1)) && charAt(pos + 1) != '_') {
+                    throw error(pos, "token recognition error at: ':'");
+                }
+                type = ExpretauParser.PARAM;
+                len = scanWord(pos + 1) - pos;
+                break;
+            default:
+                if (isDigit(ch)) {
+                    int numEnd = scanNum(pos);
+                    int fracEnd = charAt(numEnd) == '.' ? scanNum(numEnd + 1) : -1;
+                    int realEnd = fracEnd > 0 ? fracEnd : numEnd;
+                    int expEnd = scanExp(realEnd);
+                    if (expEnd > 0) {
+                        realEnd = expEnd;
+                    }
+                    type = realEnd > numEnd ? ExpretauParser.REAL : ExpretauParser.INT;
+                    len = realEnd - pos;
+                } else if (isAlpha(ch) || ch == '_' || ch == '$') {
+                    len = scanWord(pos + 1) - pos;
+                    type = keywordType(input.substring(pos, pos + len));
+                } else {
+                    throw error(pos, "token recognition error at: '" + ch + "'");
+                }
+                break;
+        }
+        end = pos + len;
+    }
+
+    private void expect(int expectedType, String expected) throws ExprSyntaxError {
+        if (type != expectedType) {
+            throw error(start, "mismatched input '" + text() + "' expecting " + expected);
+        }
+        next();
+    }
+
+    @Nonnull
+    private Expr parseFun(@Nonnull String funName) throws ExprSyntaxError {
+        // The current token is '('.
+        next();
+        List<Expr> paras = new ArrayList<>();
+        if (type != ExpretauParser.RPAR) {
+            paras.add(parseExpr(0));
+            while (type == ExpretauParser.COMMA) {
+                next();
+                paras.add(parseExpr(0));
+            }
+        }
+        expect(ExpretauParser.RPAR, "')'");
+        Op op = FunFactory.INS.getFun(funName);
+        op.setExprArray(paras.toArray(new Expr[0]));
+        return op;
+    }
+
+    @Nonnull
+    private Expr parsePrimary() throws ExprSyntaxError {
+        String text = text();
+        int tokenType = type;
+        switch (tokenType) {
+            case ExpretauParser.INT:
+                next();
+                return Int.fromString(text);
+            case ExpretauParser.REAL:
+                next();
+                return Real.fromString(text);
+            case ExpretauParser.STR:
+                next();
+                return Str.fromLiteral(text);
+            case ExpretauParser.BOOL:
+                next();
+                return Bool.fromString(text);
+            case ExpretauParser.PARAM:
+                next();
+                return new Param(text.substring(1));
+            case ExpretauParser.ID:
+                next();
+                if (type == ExpretauParser.LPAR) {
+                    return parseFun(text);
+                }
+                return new Var(text);
+            case ExpretauParser.LPAR:
+                next();
+                Expr expr = parseExpr(0);
+                expect(ExpretauParser.RPAR, "')'");
+                return expr;
+            case ExpretauParser.ADD:
+            case ExpretauParser.SUB:
+                next();
+                return unary(tokenType, parseExpr(PREC_POS_NEG));
+            case ExpretauParser.NOT:
+                next();
+                return unary(tokenType, parseExpr(PREC_NOT));
+            default:
+                throw error(start, "mismatched input '" + text + "' expecting an expression");
+        }
+    }
+
+    @Nonnull
+    private Expr parseExpr(int minPrecedence) throws ExprSyntaxError {
+        Expr left = parsePrimary();
+        while (true) {
+            int precedence = infixPrecedence(type);
+            if (precedence == 0 || precedence < minPrecedence) {
+                return left;
+            }
+            int opType = type;
+            next();
+            switch (opType) {
+                case ExpretauParser.DOT:
+                    if (type != ExpretauParser.ID) {
+                        throw error(start, "mismatched input '" + text() + "' expecting ID");
+                    }
+                    left = index(left, new Str(text()));
+                    next();
+                    break;
+                case ExpretauParser.LBRCK:
+                    Expr index = parseExpr(0);
+                    expect(ExpretauParser.RBRCK, "']'");
+                    left = index(left, index);
+                    break;
+                default:
+                    // Left associative.
+                    left = binary(opType, left, parseExpr(precedence + 1));
+                    break;
+            }
+        }
+    }
+}
@@ -18,6 +18,7 @@ package io.github.datacanvasio.expretau.value;
 
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import org.apache.commons.text.StringEscapeUtils;
 
 import javax.annotation.Nonnull;
 
@@ -36,4 +37,15 @@ public class Str extends Value {
     public static Str fromString(String text) {
         return new Str(text);
     }
+
+    /**
+     * Create an Str from a quoted and escaped string literal.
+     *
+     * @param literal the literal
+     * @return the Str
+     */
+    @Nonnull
+    public static Str fromLiteral(@Nonnull String literal) {
+        return new Str(StringEscapeUtils.unescapeJson(literal.substring(1, literal.length() - 1)));
+    }
 }
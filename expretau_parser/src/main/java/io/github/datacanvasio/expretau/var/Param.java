@@ -0,0 +1,51 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.var;
+
+import io.github.datacanvasio.expretau.Expr;
+import io.github.datacanvasio.expretau.exception.ElementNotExists;
+import io.github.datacanvasio.expretau.runtime.CompileContext;
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+import io.github.datacanvasio.expretau.runtime.var.RtParam;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * A bind parameter ({@code :name}), which must be declared in a {@link ParamCompileContext} to be compiled.
+ */
+@RequiredArgsConstructor
+public class Param implements Expr {
+    @Getter
+    private final String name;
+
+    @Nonnull
+    @Override
+    public RtExpr compileIn(@Nullable CompileContext ctx) throws ElementNotExists {
+        if (ctx instanceof ParamCompileContext) {
+            ParamCompileContext paramCtx = (ParamCompileContext) ctx;
+            int slot = paramCtx.indexOf(name);
+            if (slot >= 0) {
+                return new RtParam(slot, paramCtx.getParamTypeCode(slot));
+            }
+        }
+        throw new ElementNotExists(":" + name, ctx);
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.var;
+
+import io.github.datacanvasio.expretau.runtime.CompileContext;
+import io.github.datacanvasio.expretau.runtime.TypeCode;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * A CompileContext declaring the names and types of bind parameters, in addition to the variables of an underlying
+ * CompileContext.
+ */
+public final class ParamCompileContext implements CompileContext {
+    @Getter
+    @Nullable
+    private final CompileContext ctx;
+
+    private final List<String> names = new ArrayList<>();
+    private final List<Integer> typeCodes = new ArrayList<>();
+
+    /**
+     * Create a ParamCompileContext.
+     *
+     * @param ctx the underlying CompileContext, can be {@code null} if there are no variables
+     */
+    public ParamCompileContext(@Nullable CompileContext ctx) {
+        this.ctx = ctx;
+    }
+
+    /**
+     * Declare a bind parameter. The parameters are numbered in the order of declaring.
+     *
+     * @param name     the name of the parameter (without the leading {@code :})
+     * @param typeCode the type code of the parameter
+     * @return this ParamCompileContext
+     */
+    @Nonnull
+    public ParamCompileContext declare(@Nonnull String name, int typeCode) {
+        if (names.contains(name)) {
+            throw new IllegalArgumentException("Parameter \":" + name + "\" is already declared.");
+        }
+        names.add(name);
+        typeCodes.add(typeCode);
+        return this;
+    }
+
+    /**
+     * Get the number of the declared parameters.
+     *
+     * @return the number of parameters
+     */
+    public int size() {
+        return names.size();
+    }
+
+    /**
+     * Get the names of the declared parameters.
+     *
+     * @return the names
+     */
+    @Nonnull
+    public List<String> getNames() {
+        return Collections.unmodifiableList(names);
+    }
+
+    /**
+     * Get the position of a parameter.
+     *
+     * @param name the name of the parameter
+     * @return the position, or {@code -1} if it is not declared
+     */
+    public int indexOf(String name) {
+        return names.indexOf(name);
+    }
+
+    /**
+     * Get the type code of a parameter.
+     *
+     * @param slot the position of the parameter
+     * @return the type code
+     */
+    public int getParamTypeCode(int slot) {
+        return typeCodes.get(slot);
+    }
+
+    @Override
+    public Object getId() {
+        return ctx != null ? ctx.getId() : null;
+    }
+
+    @Override
+    public int getTypeCode() {
+        return ctx != null ? ctx.getTypeCode() : TypeCode.DICT;
+    }
+
+    @Override
+    public CompileContext getChild(Object index) {
+        return ctx != null ? ctx.getChild(index) : null;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < names.size(); ++i) {
+            builder.append(':').append(names.get(i)).append(": ")
+                .append(TypeCode.INS.nameOf(typeCodes.get(i))).append('\n');
+        }
+        return builder.append(ctx).toString();
+    }
+}
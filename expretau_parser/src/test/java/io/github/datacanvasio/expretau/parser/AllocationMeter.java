@@ -0,0 +1,80 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.datacanvasio.expretau.parser;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import javax.annotation.Nonnull;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Measure the bytes allocated by the current thread. The test is skipped (by a failed assumption) if the JVM does not
+ * support it, for {@code com.sun.management.ThreadMXBean} is not a standard API.
+ */
+final class AllocationMeter {
+    /**
+     * The size of the smallest object, a header with compressed class pointers.
+     */
+    static final int MIN_OBJECT_BYTES = 16;
+
+    private static final String SUN_THREAD_MX_BEAN = "com.sun.management.ThreadMXBean";
+
+    private AllocationMeter() {
+    }
+
+    @Nonnull
+    private static Method allocatedBytesMethod(@Nonnull ThreadMXBean bean) throws Exception {
+        Class<?> beanClass;
+        try {
+            beanClass = Class.forName(SUN_THREAD_MX_BEAN);
+        } catch (ClassNotFoundException e) {
+            beanClass = null;
+        }
+        assumeTrue(beanClass != null && beanClass.isInstance(bean), "Thread allocation metering is not supported.");
+        assumeTrue(
+            (boolean) beanClass.getMethod("isThreadAllocatedMemorySupported").invoke(bean)
+                && (boolean) beanClass.getMethod("isThreadAllocatedMemoryEnabled").invoke(bean),
+            "Thread allocation metering is not enabled."
+        );
+        return beanClass.getMethod("getThreadAllocatedBytes", long.class);
+    }
+
+    /**
+     * Run a task twice and get the bytes allocated in the second run, so that the first run warms it up.
+     *
+     * @param task the task
+     * @return the bytes allocated, including a few bytes allocated by the metering itself
+     * @throws Exception if the task fails
+     */
+    static long measure(@Nonnull Task task) throws Exception {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Method method = allocatedBytesMethod(bean);
+        long threadId = Thread.currentThread().getId();
+        task.run();
+        method.invoke(bean, threadId);
+        long bytes = (long) method.invoke(bean, threadId);
+        task.run();
+        return (long) method.invoke(bean, threadId) - bytes;
+    }
+
+    @FunctionalInterface
+    interface Task {
+        void run() throws Exception;
+    }
+}
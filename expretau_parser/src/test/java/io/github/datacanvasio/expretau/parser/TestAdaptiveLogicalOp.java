@@ -0,0 +1,145 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.parser;
+
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+import io.github.datacanvasio.expretau.runtime.op.logical.RtAndOp;
+import io.github.datacanvasio.expretau.runtime.op.logical.RtLogicalOp;
+import io.github.datacanvasio.expretau.runtime.op.logical.RtOrOp;
+import io.github.datacanvasio.expretau.runtime.optimizer.RtAdaptiveOptimizer;
+import io.github.datacanvasio.expretau.runtime.vector.ColumnBatch;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import javax.annotation.Nonnull;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class TestAdaptiveLogicalOp {
+    private static final int ROWS = 4;
+    private static final int TIMES = 20000;
+
+    @RegisterExtension
+    static final ContextResource res = new ContextResource(
+        "/simple_vars.yml",
+        "{a: 2, b: 3.0, c: true, d: foo}",
+        "{a: 3, b: 4.0, c: false, d: bar}",
+        "{a: 0, b: -1.5, c: true, d: baz}",
+        "{a: -7, b: 0.5, c: false, d: foo}"
+    );
+
+    private ColumnBatch batch;
+
+    @Nonnull
+    private static RtExpr compile(String exprString) throws Exception {
+        return ExpretauCompiler.INS.parse(exprString).compileIn(res.getCtx());
+    }
+
+    @BeforeAll
+    public void setupAll() {
+        batch = new ColumnBatch(res.getSchemaRoot());
+        for (int i = 0; i < ROWS; ++i) {
+            batch.addRow(res.getEtx(i));
+        }
+    }
+
+    @Test
+    public void testFlatten() throws Exception {
+        RtExpr rtExpr = compile("c and a > 1 and (b > 0 and d == 'foo')");
+        assertThat(rtExpr).isInstanceOf(RtAndOp.class);
+        assertThat(((RtAndOp) rtExpr).getParas()).hasSize(4);
+        rtExpr = compile("c or (a > 1 or b > 0) and d == 'foo'");
+        assertThat(rtExpr).isInstanceOf(RtOrOp.class);
+        assertThat(((RtOrOp) rtExpr).getParas()).hasSize(2);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "c and a > 1 and b > 0",
+        "a > 100 or d matches 'b.*' or c",
+        "a != 0 and 10 / a > 1",
+        "a == 0 or 10 / a < 0",
+        "not c and (a < 0 or b > 3.5)",
+    })
+    public void testSameResults(String exprString) throws Exception {
+        RtExpr rtExpr = compile(exprString);
+        RtExpr adaptive = RtAdaptiveOptimizer.INS.optimize(compile(exprString));
+        for (int t = 0; t < TIMES; ++t) {
+            int i = t % ROWS;
+            assertThat(adaptive.eval(res.getEtx(i))).isEqualTo(rtExpr.eval(res.getEtx(i)));
+        }
+        int[] expected = new int[ROWS];
+        int expectedCount = rtExpr.filterBatch(batch, expected);
+        int[] out = new int[ROWS];
+        for (int t = 0; t < 1000; ++t) {
+            int count = adaptive.filterBatch(batch, out);
+            assertThat(Arrays.copyOf(out, count)).containsExactly(Arrays.copyOf(expected, expectedCount));
+        }
+    }
+
+    @Test
+    public void testReorder() throws Exception {
+        RtExpr rtExpr = RtAdaptiveOptimizer.INS.optimize(compile("toUpperCase(d) matches '.*[A-Z]+.*' and a > 100"));
+        assertThat(rtExpr).isInstanceOf(RtAndOp.class);
+        RtLogicalOp op = (RtLogicalOp) rtExpr;
+        assertThat(op.isAdaptive()).isTrue();
+        assertThat(op.getEvalOrder()).containsExactly(0, 1);
+        for (int t = 0; t < TIMES; ++t) {
+            assertThat(rtExpr.evalBoolean(res.getEtx(t % ROWS))).isFalse();
+        }
+        // The cheap branch that short-cuts is evaluated first.
+        assertThat(op.getEvalOrder()).containsExactly(1, 0);
+    }
+
+    @Test
+    public void testGuarded() throws Exception {
+        RtExpr rtExpr = RtAdaptiveOptimizer.INS.optimize(compile("a != 0 and 10 / a > 1"));
+        RtLogicalOp op = (RtLogicalOp) rtExpr;
+        for (int t = 0; t < TIMES; ++t) {
+            rtExpr.eval(res.getEtx(t % ROWS));
+        }
+        // Dividing by zero in the reordered evaluating restores the original order.
+        assertThat(rtExpr.evalBoolean(res.getEtx(2))).isFalse();
+        assertThat(op.getEvalOrder()).containsExactly(0, 1);
+    }
+
+    @Test
+    public void testFailInOriginalOrder() throws Exception {
+        RtExpr rtExpr = RtAdaptiveOptimizer.INS.optimize(
+            compile("10 / a > -100 and toUpperCase(d) matches '.*[A-Z]+.*' and a > 100")
+        );
+        RtLogicalOp op = (RtLogicalOp) rtExpr;
+        int failures = 0;
+        for (int t = 0; t < TIMES; ++t) {
+            try {
+                assertThat(rtExpr.evalBoolean(res.getEtx(t % ROWS))).isFalse();
+            } catch (ArithmeticException e) {
+                ++failures;
+            }
+        }
+        // Failures in the original order are thrown, and do not stop adapting.
+        assertThat(failures).isPositive();
+        assertThat(op.getEvalOrder()[0]).isEqualTo(2);
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.datacanvasio.expretau.parser;
+
+import io.github.datacanvasio.expretau.Expr;
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+import io.github.datacanvasio.expretau.runtime.TypeCode;
+import io.github.datacanvasio.expretau.runtime.codegen.RtBytecodeCompiler;
+import io.github.datacanvasio.expretau.runtime.codegen.RtCompiledExpr;
+import io.github.datacanvasio.expretau.runtime.schema.RtData;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.stream.Stream;
+import javax.annotation.Nonnull;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class TestBytecodeCompiler {
+    private static final int ALLOCATION_TEST_TIMES = 10000;
+
+    @RegisterExtension
+    static final ContextResource res = new ContextResource(
+        "/simple_vars.yml",
+        "{a: 2, b: 3.0, c: true, d: foo}",
+        "{a: 3, b: 4.0, c: false, d: bar}"
+    );
+
+    @Nonnull
+    private static Stream<Arguments> getParameters() {
+        return Stream.of(
+            arguments("1 + a", 3L, 4L),
+            arguments("1 + 2 * b", 7.0, 9.0),
+            arguments("$.a * $.b", 6.0, 12.0),
+            arguments("a * 2 + b > 8", false, true),
+            arguments("a * 1.5 - 0.5", 2.5, 4.0),
+            arguments("a / 2 = 1", true, true),
+            arguments("a > 3 and a/0 > 0", false, false),
+            arguments("a < 4 or a/0 > 0", true, true),
+            arguments("c and a > 1", true, false),
+            arguments("not c or b > 3.5", false, true),
+            arguments("abs(a) + 1", 3L, 4L),
+            arguments("d + 'x'", "foox", "barx"),
+            arguments("d startsWith 'f' and a < 3", true, false)
+        );
+    }
+
+    @Nonnull
+    private static Stream<Arguments> getPrimitiveParameters() {
+        return Stream.of(
+            arguments("1 + a"),
+            arguments("1 + 2 * b"),
+            arguments("a * 1.5 - 0.5"),
+            arguments("abs(a) + 1"),
+            arguments("a * 2 + b > 8"),
+            arguments("c and a > 1")
+        );
+    }
+
+    @Nonnull
+    private static RtExpr serializeAndDeserialize(RtExpr rtExpr) throws Exception {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+            oos.writeObject(rtExpr);
+        }
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray()))) {
+            return (RtExpr) ois.readObject();
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("getParameters")
+    public void test(String exprString, Object value0, Object value1) throws Exception {
+        Expr expr = ExpretauCompiler.INS.parse(exprString);
+        RtExpr rtExpr = expr.compileIn(res.getCtx());
+        RtExpr compiled = RtBytecodeCompiler.INS.compile(rtExpr);
+        assertThat(compiled).isInstanceOf(RtCompiledExpr.class);
+        assertThat(compiled.typeCode()).isEqualTo(rtExpr.typeCode());
+        assertThat(compiled.eval(res.getEtx(0))).isEqualTo(value0);
+        assertThat(compiled.eval(res.getEtx(1))).isEqualTo(value1);
+        RtExpr restored = serializeAndDeserialize(compiled);
+        assertThat(restored).isInstanceOf(RtCompiledExpr.class);
+        assertThat(restored.eval(res.getEtx(0))).isEqualTo(value0);
+        assertThat(restored.eval(res.getEtx(1))).isEqualTo(value1);
+    }
+
+    @ParameterizedTest
+    @MethodSource("getPrimitiveParameters")
+    public void testPrimitive(String exprString) throws Exception {
+        Expr expr = ExpretauCompiler.INS.parse(exprString);
+        RtExpr rtExpr = expr.compileIn(res.getCtx());
+        RtExpr compiled = RtBytecodeCompiler.INS.compile(rtExpr);
+        assertThat(compiled).isInstanceOf(RtCompiledExpr.class);
+        for (int i = 0; i < 2; i++) {
+            RtData etx = res.getEtx(i);
+            if (rtExpr.typeCode() == TypeCode.BOOLEAN) {
+                assertThat(compiled.evalBoolean(etx)).isEqualTo(rtExpr.evalBoolean(etx));
+            } else {
+                assertThat(compiled.evalInt(etx)).isEqualTo(rtExpr.evalInt(etx));
+                assertThat(compiled.evalLong(etx)).isEqualTo(rtExpr.evalLong(etx));
+                assertThat(compiled.evalDouble(etx)).isEqualTo(rtExpr.evalDouble(etx));
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("getPrimitiveParameters")
+    public void testAllocation(String exprString) throws Exception {
+        Expr expr = ExpretauCompiler.INS.parse(exprString);
+        RtExpr compiled = RtBytecodeCompiler.INS.compile(expr.compileIn(res.getCtx()));
+        RtData etx = res.getEtx(0);
+        long bytes = AllocationMeter.measure(() -> {
+            for (int i = 0; i < ALLOCATION_TEST_TIMES; i++) {
+                if (compiled.typeCode() == TypeCode.BOOLEAN) {
+                    compiled.evalBoolean(etx);
+                } else {
+                    compiled.evalDouble(etx);
+                }
+            }
+        });
+        // The primitive entry points must not box, the measuring itself may allocate a few bytes.
+        assertThat((double) bytes / ALLOCATION_TEST_TIMES).isLessThan(AllocationMeter.MIN_OBJECT_BYTES / 8.0);
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.parser;
+
+import io.github.datacanvasio.expretau.CompileOptions;
+import io.github.datacanvasio.expretau.DynamicDispatchWarning;
+import io.github.datacanvasio.expretau.exception.DynamicDispatchException;
+import io.github.datacanvasio.expretau.exception.ExpretauCompileException;
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+import io.github.datacanvasio.expretau.runtime.exception.FailGetEvaluator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TestCompileOptions {
+    @RegisterExtension
+    static final ContextResource res = new ContextResource(
+        "/composite_vars.yml",
+        "{"
+            + "arrA: [1, 2, 3],"
+            + "arrB: [foo, bar],"
+            + "arrC: [1, '2.5'],"
+            + "arrD: [10, tuple],"
+            + "mapA: {a: 1, b: '2'},"
+            + "mapB: {foo: 2.5, bar: TOM}"
+            + "}"
+    );
+
+    @Test
+    public void testDynamic() throws Exception {
+        RtExpr rtExpr = ExpretauCompiler.INS.compile("mapA.a + 1", res.getCtx(), CompileOptions.DEFAULT);
+        assertThat(rtExpr.eval(res.getEtx(0))).isEqualTo(2L);
+    }
+
+    @Test
+    public void testStrict() {
+        assertThatThrownBy(() -> ExpretauCompiler.INS.compile("mapA.a + 1", res.getCtx(), CompileOptions.STRICT))
+            .isInstanceOf(DynamicDispatchException.class)
+            .hasMessage("Add(OBJECT, LONG) is dispatched at runtime,"
+                + " cast operand 0 (RtBinaryEvaluatorOp[IndexMapString]) with int() or long() or double() or decimal(),"
+                + " or declare the type in the schema.");
+    }
+
+    @Test
+    public void testStrictWithCasts() throws Exception {
+        CompileOptions options = CompileOptions.STRICT;
+        RtExpr rtExpr = ExpretauCompiler.INS.compile("long(mapA.a) + 1", res.getCtx(), options);
+        assertThat(rtExpr.eval(res.getEtx(0))).isEqualTo(2L);
+        rtExpr = ExpretauCompiler.INS.compile("int(mapA.b) * double(arrC[1])", res.getCtx(), options);
+        assertThat(rtExpr.eval(res.getEtx(0))).isEqualTo(5.0);
+        rtExpr = ExpretauCompiler.INS.compile("decimal(arrC[0])", res.getCtx(), options);
+        assertThat(rtExpr.eval(res.getEtx(0))).isEqualTo(BigDecimal.valueOf(1L));
+    }
+
+    @Test
+    public void testWarning() throws Exception {
+        List<DynamicDispatchWarning> warnings = new ArrayList<>();
+        CompileOptions options = CompileOptions.warning(warnings::add);
+        RtExpr rtExpr = ExpretauCompiler.INS.compile("mapA.a * arrC[0] > 0", res.getCtx(), options);
+        assertThat(rtExpr.eval(res.getEtx(0))).isEqualTo(true);
+        assertThat(warnings).hasSize(2);
+        DynamicDispatchWarning warning = warnings.get(0);
+        assertThat(warning.getOpName()).isEqualTo("Mul");
+        assertThat(warning.getOperandTypes()).containsExactly("OBJECT", "OBJECT");
+        assertThat(warning.getCastOperands()).containsExactly(0, 1);
+        assertThat(warning.getCasts()).containsExactly("int", "long", "double", "decimal");
+        warning = warnings.get(1);
+        assertThat(warning.getOpName()).isEqualTo("Gt");
+        assertThat(warning.getOperands())
+            .containsExactly("RtBinaryEvaluatorOp[universal MulEvaluatorFactory]", "RtConst[0]");
+        assertThat(warning.getCastOperands()).containsExactly(0);
+    }
+
+    @Test
+    public void testWarningOfKnownTypes() throws Exception {
+        List<DynamicDispatchWarning> warnings = new ArrayList<>();
+        ExpretauCompiler.INS.parse("mapB.bar + 1").compileIn(res.getCtx(), CompileOptions.warning(warnings::add));
+        assertThat(warnings).hasSize(1);
+        assertThat(warnings.get(0).getOperandTypes()).containsExactly("STRING", "LONG");
+        assertThat(warnings.get(0).getCastOperands()).containsExactly(0);
+        assertThat(warnings.get(0).getMessage()).doesNotContain("schema");
+    }
+
+    @Test
+    public void testCastsOfOtherTypes() throws Exception {
+        CompileOptions options = CompileOptions.STRICT;
+        RtExpr rtExpr = ExpretauCompiler.INS.compile("long(mapA)", res.getCtx(), options);
+        assertThatThrownBy(() -> rtExpr.eval(res.getEtx(0))).isInstanceOf(FailGetEvaluator.class);
+        // Evaluated in compiling for the operand is constant.
+        assertThatThrownBy(() -> ExpretauCompiler.INS.compile("int(true)", res.getCtx(), options))
+            .isInstanceOf(ExpretauCompileException.class)
+            .hasCauseInstanceOf(FailGetEvaluator.class);
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.parser;
+
+import io.github.datacanvasio.expretau.exception.ExprSyntaxError;
+import io.github.datacanvasio.expretau.exception.ExpretauParseException;
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TestConcurrentCompiling {
+    @RegisterExtension
+    static final ContextResource res = new ContextResource(
+        "/simple_vars.yml",
+        "{a: 2, b: 3.0, c: true, d: foo}"
+    );
+
+    @Test
+    public void testConcurrentParse() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 200; ++i) {
+                final int n = i;
+                futures.add(executor.submit(() -> {
+                    String input = n % 2 == 0 ? n + " + a" : n + " + ";
+                    try {
+                        return String.valueOf(ExpretauCompiler.INS.parse(input).compileIn(res.getCtx())
+                            .eval(res.getEtx(0)));
+                    } catch (ExprSyntaxError e) {
+                        return "error";
+                    }
+                }));
+            }
+            for (int i = 0; i < futures.size(); ++i) {
+                assertThat(futures.get(i).get()).isEqualTo(i % 2 == 0 ? String.valueOf(i + 2) : "error");
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testCompileAll() throws Exception {
+        List<String> inputs = new ArrayList<>();
+        for (int i = 0; i < 1000; ++i) {
+            inputs.add("a * " + i + " + b");
+        }
+        List<RtExpr> rtExprs = ExpretauCompiler.INS.compileAll(inputs, res.getCtx());
+        assertThat(rtExprs).hasSize(inputs.size());
+        for (int i = 0; i < inputs.size(); ++i) {
+            assertThat(rtExprs.get(i).eval(res.getEtx(0))).isEqualTo(2.0 * i + 3.0);
+        }
+    }
+
+    @Test
+    public void testWarmUp() throws Exception {
+        ExpretauCompiler.INS.warmUp();
+        ExpretauCompiler.INS.warmUp(Arrays.asList("a + 1", "1 +"));
+        assertThat(ExpretauCompiler.INS.parse("a * 2 > b").compileIn(res.getCtx()).eval(res.getEtx(0)))
+            .isEqualTo(true);
+        assertThatThrownBy(() -> ExpretauCompiler.INS.parse("a * (2 > b"))
+            .isInstanceOf(ExprSyntaxError.class)
+            .hasMessageContaining("Line 1:10");
+    }
+
+    @Test
+    public void testParseAllError() {
+        assertThatThrownBy(() -> ExpretauCompiler.INS.parseAll(Arrays.asList("1 + 2", "1 +", "foo(")))
+            .isInstanceOf(ExpretauParseException.class)
+            .hasMessageContaining("Line 1:3");
+    }
+}
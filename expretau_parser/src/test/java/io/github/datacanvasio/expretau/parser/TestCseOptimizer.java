@@ -0,0 +1,133 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.parser;
+
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+import io.github.datacanvasio.expretau.runtime.TypeCode;
+import io.github.datacanvasio.expretau.runtime.codegen.RtBytecodeCompiler;
+import io.github.datacanvasio.expretau.runtime.codegen.RtCompiledExpr;
+import io.github.datacanvasio.expretau.runtime.optimizer.RtCseExpr;
+import io.github.datacanvasio.expretau.runtime.optimizer.RtCseOptimizer;
+import io.github.datacanvasio.expretau.runtime.schema.RtData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.stream.Stream;
+import javax.annotation.Nonnull;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class TestCseOptimizer {
+    private static final int ALLOCATION_TEST_TIMES = 10000;
+
+    @RegisterExtension
+    static final ContextResource res = new ContextResource(
+        "/simple_vars.yml",
+        "{a: 2, b: 3.0, c: true, d: ' Foo'}",
+        "{a: 3, b: 4.0, c: false, d: 'BAR '}"
+    );
+
+    @Nonnull
+    private static Stream<Arguments> getParameters() {
+        return Stream.of(
+            arguments("1 + a", 0, 3L, 4L),
+            arguments("(a + b) * (a + b) - (a + b)", 1, 20.0, 42.0),
+            arguments("(a + 1) * (a + 1) + (a + 1) * (a + 1)", 2, 18L, 32L),
+            arguments("c and a * b > 5 or a * b < 7", 1, true, false),
+            arguments("toLowerCase(trim(d)) = 'foo' or toLowerCase(trim(d)) = 'bar'", 1, true, true),
+            arguments("toLowerCase(trim(d)) + toUpperCase(trim(d))", 1, "fooFOO", "barBAR")
+        );
+    }
+
+    @Nonnull
+    private static RtExpr compile(String exprString) throws Exception {
+        return ExpretauCompiler.INS.parse(exprString).compileIn(res.getCtx());
+    }
+
+    @ParameterizedTest
+    @MethodSource("getParameters")
+    public void test(String exprString, int commonCount, Object value0, Object value1) throws Exception {
+        RtExpr rtExpr = RtCseOptimizer.INS.optimize(compile(exprString));
+        if (commonCount > 0) {
+            assertThat(rtExpr).isInstanceOf(RtCseExpr.class);
+            assertThat(((RtCseExpr) rtExpr).getCommons()).hasSize(commonCount);
+        } else {
+            assertThat(rtExpr).isNotInstanceOf(RtCseExpr.class);
+        }
+        assertThat(rtExpr.eval(res.getEtx(0))).isEqualTo(value0);
+        assertThat(rtExpr.eval(res.getEtx(1))).isEqualTo(value1);
+        RtExpr compiled = RtBytecodeCompiler.INS.compile(rtExpr);
+        assertThat(compiled).isInstanceOf(RtCompiledExpr.class);
+        assertThat(compiled.eval(res.getEtx(0))).isEqualTo(value0);
+        assertThat(compiled.eval(res.getEtx(1))).isEqualTo(value1);
+    }
+
+    @Test
+    public void testStructuralEquality() throws Exception {
+        assertThat(compile("a + b * 2")).isEqualTo(compile("a + b * 2"))
+            .hasSameHashCodeAs(compile("a + b * 2"));
+        assertThat(compile("toLowerCase(d)")).isEqualTo(compile("toLowerCase(d)"));
+        assertThat(compile("a + b * 2")).isNotEqualTo(compile("a - b * 2"));
+        assertThat(compile("a + 2")).isNotEqualTo(compile("a + 2.0"));
+        assertThat(compile("toLowerCase(d)")).isNotEqualTo(compile("toUpperCase(d)"));
+    }
+
+    private static void evalPrimitiveTimes(@Nonnull RtExpr rtExpr, RtData etx, int times) throws Exception {
+        for (int i = 0; i < times; i++) {
+            switch (rtExpr.typeCode()) {
+                case TypeCode.LONG:
+                    rtExpr.evalLong(etx);
+                    break;
+                case TypeCode.DOUBLE:
+                    rtExpr.evalDouble(etx);
+                    break;
+                case TypeCode.BOOLEAN:
+                    rtExpr.evalBoolean(etx);
+                    break;
+                default:
+                    rtExpr.eval(etx);
+                    break;
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "(a + b) * (a + b) - (a + b)",
+        "(a + 1) * (a + 1) + (a + 1) * (a + 1)",
+        "c and a * b > 5 or a * b < 7",
+    })
+    public void testAllocation(String exprString) throws Exception {
+        RtData etx = res.getEtx(0);
+        RtExpr plainExpr = compile(exprString);
+        long plain = AllocationMeter.measure(() -> evalPrimitiveTimes(plainExpr, etx, ALLOCATION_TEST_TIMES));
+        RtExpr rtExpr = RtCseOptimizer.INS.optimize(compile(exprString));
+        assertThat(rtExpr).isInstanceOf(RtCseExpr.class);
+        long shared = AllocationMeter.measure(() -> evalPrimitiveTimes(rtExpr, etx, ALLOCATION_TEST_TIMES));
+        // Much less than 1 object per evaluating more than without CSE, the measuring itself may allocate a few bytes.
+        assertThat((double) (shared - plain) / ALLOCATION_TEST_TIMES)
+            .isLessThan(AllocationMeter.MIN_OBJECT_BYTES / 8.0);
+    }
+}
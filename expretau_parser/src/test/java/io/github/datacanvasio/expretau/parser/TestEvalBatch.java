@@ -0,0 +1,122 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.datacanvasio.expretau.parser;
+
+import io.github.datacanvasio.expretau.Expr;
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+import io.github.datacanvasio.expretau.runtime.codegen.RtBytecodeCompiler;
+import io.github.datacanvasio.expretau.runtime.vector.ColumnBatch;
+import io.github.datacanvasio.expretau.runtime.vector.ColumnVector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class TestEvalBatch {
+    private static final int ROWS = 4;
+
+    @RegisterExtension
+    static final ContextResource res = new ContextResource(
+        "/simple_vars.yml",
+        "{a: 2, b: 3.0, c: true, d: foo}",
+        "{a: 3, b: 4.0, c: false, d: bar}",
+        "{a: 0, b: -1.5, c: true, d: baz}",
+        "{a: -7, b: 0.5, c: false, d: foo}"
+    );
+
+    private ColumnBatch batch;
+
+    @BeforeAll
+    public void setupAll() {
+        batch = new ColumnBatch(res.getSchemaRoot());
+        for (int i = 0; i < ROWS; ++i) {
+            batch.addRow(res.getEtx(i));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "a",
+        "1 + a",
+        "1 + 2 * b",
+        "a * b - a / 2",
+        "-a + abs(b)",
+        "a * 2 + b > 3",
+        "a = 3 or b < 0",
+        "c and b > 0",
+        "not c",
+        "c or a / a > 0",
+        "sin(b) + cos(a)",
+        "d + 'x'",
+        "d startsWith 'b' and a > 0",
+        "a + b + 1.5",
+        "a != 0 and 10 / a > 1",
+    })
+    public void test(String exprString) throws Exception {
+        Expr expr = ExpretauCompiler.INS.parse(exprString);
+        RtExpr rtExpr = expr.compileIn(res.getCtx());
+        ColumnVector out = new ColumnVector(rtExpr.typeCode(), batch.getSize());
+        rtExpr.evalBatch(batch, out);
+        ColumnVector compiledOut = new ColumnVector(rtExpr.typeCode(), batch.getSize());
+        RtBytecodeCompiler.INS.compile(rtExpr).evalBatch(batch, compiledOut);
+        for (int i = 0; i < ROWS; ++i) {
+            Object value = rtExpr.eval(res.getEtx(i));
+            assertThat(out.get(i)).isEqualTo(value);
+            assertThat(compiledOut.get(i)).isEqualTo(value);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "c",
+        "not c",
+        "a > 0",
+        "b < a",
+        "a != 0 and 10 / a > 1",
+        "a == 0 or 10 / a < 0",
+        "not (c and b > 0) and a < 3",
+        "c or d == 'bar' or a < 0",
+        "a * 2 + b > 3",
+        "d startsWith 'b' and a > 0",
+    })
+    public void testFilter(String exprString) throws Exception {
+        Expr expr = ExpretauCompiler.INS.parse(exprString);
+        RtExpr rtExpr = expr.compileIn(res.getCtx());
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < ROWS; ++i) {
+            if (rtExpr.evalBoolean(res.getEtx(i))) {
+                expected.add(i);
+            }
+        }
+        int[] out = new int[ROWS];
+        int count = rtExpr.filterBatch(batch, out);
+        assertThat(Arrays.copyOf(out, count)).containsExactly(expected.stream().mapToInt(i -> i).toArray());
+        // Filter in place on a selection.
+        int[] sel = new int[]{1, 2, 3};
+        count = rtExpr.filterBatch(batch, sel, sel.length, sel);
+        assertThat(Arrays.copyOf(sel, count))
+            .containsExactly(expected.stream().filter(i -> i > 0).mapToInt(i -> i).toArray());
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.parser;
+
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+import io.github.datacanvasio.expretau.runtime.codec.RtExprBundle;
+import io.github.datacanvasio.expretau.runtime.schema.DataFormat;
+import io.github.datacanvasio.expretau.runtime.schema.RtSchemaRoot;
+import io.github.datacanvasio.expretau.schema.SchemaParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TestExprBundle {
+    @RegisterExtension
+    static final ContextResource res = new ContextResource(
+        "/simple_vars.yml",
+        "{a: 2, b: 3.0, c: true, d: foo}"
+    );
+
+    private static final List<String> CATALOGUE = Arrays.asList(
+        "a + 1",
+        "a * b > 5",
+        "c and d = 'foo'",
+        "toUpperCase(d) + 'x'"
+    );
+
+    @Test
+    public void testWriteAndOpen(@TempDir Path dir) throws Exception {
+        Map<String, RtExpr> exprs = new LinkedHashMap<>();
+        List<RtExpr> compiled = ExpretauCompiler.INS.compileAll(CATALOGUE, res.getCtx());
+        for (int i = 0; i < CATALOGUE.size(); ++i) {
+            exprs.put("rule" + i, compiled.get(i));
+        }
+        Path path = dir.resolve("rules.bundle");
+        RtExprBundle.write(path, res.getSchemaRoot(), exprs);
+        RtExprBundle bundle = RtExprBundle.open(path, res.getSchemaRoot());
+        assertThat(bundle.size()).isEqualTo(CATALOGUE.size());
+        assertThat(bundle.getFingerprint()).isEqualTo(res.getSchemaRoot().getFingerprint());
+        assertThat(bundle.getSchemaRoot().getMaxIndex()).isEqualTo(res.getSchemaRoot().getMaxIndex());
+        assertThat(bundle.getName(2)).isEqualTo("rule2");
+        assertThat(bundle.indexOf("rule3")).isEqualTo(3);
+        assertThat(bundle.indexOf("none")).isEqualTo(-1);
+        assertThat(bundle.get("none")).isNull();
+        for (int i = 0; i < bundle.size(); ++i) {
+            assertThat(bundle.isLoaded(i)).isFalse();
+        }
+        RtExpr expr = bundle.get("rule1");
+        assertThat(expr.eval(res.getEtx(0))).isEqualTo(true);
+        assertThat(bundle.get(1)).isSameAs(expr);
+        assertThat(bundle.isLoaded(1)).isTrue();
+        assertThat(bundle.isLoaded(0)).isFalse();
+        for (int i = 0; i < bundle.size(); ++i) {
+            assertThat(bundle.get(i).eval(res.getEtx(0))).isEqualTo(compiled.get(i).eval(res.getEtx(0)));
+        }
+    }
+
+    @Test
+    public void testSchemaMismatch(@TempDir Path dir) throws Exception {
+        Path path = dir.resolve("rules.bundle");
+        RtExprBundle.write(path, res.getSchemaRoot(), new LinkedHashMap<>());
+        RtSchemaRoot other = SchemaParser.get(DataFormat.fromExtension("/composite_vars.yml"))
+            .parse(TestExprBundle.class.getResourceAsStream("/composite_vars.yml"));
+        assertThat(RtExprBundle.open(path).size()).isZero();
+        assertThatThrownBy(() -> RtExprBundle.open(path, other)).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    public void testInvalidFile(@TempDir Path dir) throws Exception {
+        Path path = dir.resolve("bad.bundle");
+        Files.write(path, new byte[]{1, 2, 3, 4, 5});
+        assertThatThrownBy(() -> RtExprBundle.open(path)).isInstanceOf(IOException.class);
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.parser;
+
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+import io.github.datacanvasio.expretau.runtime.schema.DataFormat;
+import io.github.datacanvasio.expretau.runtime.schema.RtSchemaRoot;
+import io.github.datacanvasio.expretau.schema.SchemaParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestExprCache {
+    @RegisterExtension
+    static final ContextResource res = new ContextResource(
+        "/simple_vars.yml",
+        "{a: 2, b: 3.0, c: true, d: foo}"
+    );
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+        "1 + 2|1 + 2",
+        "  a  +\tb |a + b",
+        "'a  b'  + \"c  d\"|'a  b' + \"c  d\"",
+        "'it\\'s  ' + d|'it\\'s  ' + d",
+    })
+    public void testNormalize(String input, String result) {
+        assertThat(ExprCache.normalize(input)).isEqualTo(result);
+    }
+
+    @Test
+    public void testHitAndMiss() throws Exception {
+        ExprCache cache = new ExprCache(100, 10000);
+        RtExpr rtExpr = cache.get("a + b", res.getSchemaRoot());
+        assertThat(rtExpr.eval(res.getEtx(0))).isEqualTo(5.0);
+        assertThat(cache.get(" a  +  b ", res.getSchemaRoot())).isSameAs(rtExpr);
+        assertThat(cache.get("1 + 2", null).eval(null)).isEqualTo(3L);
+        assertThat(cache.get("1 + 2", res.getSchemaRoot())).isNotSameAs(cache.get("1 + 2", null));
+        ExprCacheStats stats = cache.getStats();
+        assertThat(stats.getHitCount()).isEqualTo(2);
+        assertThat(stats.getMissCount()).isEqualTo(3);
+        assertThat(stats.getSize()).isEqualTo(3);
+    }
+
+    @Test
+    public void testFingerprint() throws Exception {
+        RtSchemaRoot schemaRoot = SchemaParser.get(DataFormat.APPLICATION_YAML)
+            .parse(TestExprCache.class.getResourceAsStream("/simple_vars.yml"));
+        assertThat(schemaRoot.getFingerprint()).isEqualTo(res.getSchemaRoot().getFingerprint());
+        RtSchemaRoot otherRoot = SchemaParser.get(DataFormat.APPLICATION_YAML)
+            .parse(TestExprCache.class.getResourceAsStream("/composite_vars.yml"));
+        assertThat(otherRoot.getFingerprint()).isNotEqualTo(schemaRoot.getFingerprint());
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+        ExprCache cache = new ExprCache(16, 10000);
+        for (int i = 0; i < 100; ++i) {
+            cache.get("a + " + i, res.getSchemaRoot());
+        }
+        ExprCacheStats stats = cache.getStats();
+        assertThat(stats.getSize()).isLessThanOrEqualTo(16);
+        assertThat(stats.getEvictionCount()).isEqualTo(100 - stats.getSize());
+        ExprCache lightCache = new ExprCache(100, 16);
+        for (int i = 0; i < 100; ++i) {
+            lightCache.get("a + " + i, res.getSchemaRoot());
+        }
+        assertThat(lightCache.getStats().getWeight()).isLessThanOrEqualTo(16 + 16 * 5);
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.parser;
+
+import io.github.datacanvasio.expretau.Expr;
+import io.github.datacanvasio.expretau.ExprSet;
+import io.github.datacanvasio.expretau.runtime.optimizer.RtExprSet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestExprSet {
+    @RegisterExtension
+    static final ContextResource res = new ContextResource(
+        "/simple_vars.yml",
+        "{a: 2, b: 3.0, c: true, d: FOO}",
+        "{a: 3, b: 4.0, c: false, d: Bar}"
+    );
+
+    private static final String[] EXPR_STRINGS = {
+        "(a + b) * 2",
+        "(a + b) * 2 > 12",
+        "c and (a + b) * 2 > 10",
+        "toLowerCase(d) == 'foo'",
+        "toLowerCase(d) + 'x'",
+        "toLowerCase(d) == 'foo'",
+        "a",
+        "1 + 2",
+    };
+
+    @Test
+    public void test() throws Exception {
+        List<Expr> exprs = new ArrayList<>();
+        for (String exprString : EXPR_STRINGS) {
+            exprs.add(ExpretauCompiler.INS.parse(exprString));
+        }
+        RtExprSet rtExprSet = new ExprSet(exprs).compileIn(res.getCtx());
+        assertThat(rtExprSet.size()).isEqualTo(EXPR_STRINGS.length);
+        // `(a + b) * 2`, `toLowerCase(d)` and `toLowerCase(d) == 'foo'` are shared.
+        assertThat(rtExprSet.getCommons()).hasSize(3);
+        for (int i = 0; i < 2; ++i) {
+            Object[] values = rtExprSet.eval(res.getEtx(i));
+            for (int j = 0; j < EXPR_STRINGS.length; ++j) {
+                Object expected = ExpretauCompiler.INS.parse(EXPR_STRINGS[j]).compileIn(res.getCtx())
+                    .eval(res.getEtx(i));
+                assertThat(values[j]).isEqualTo(expected);
+            }
+        }
+    }
+}
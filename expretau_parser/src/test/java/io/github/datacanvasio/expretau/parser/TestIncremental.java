@@ -0,0 +1,140 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.parser;
+
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+import io.github.datacanvasio.expretau.runtime.codegen.RtBytecodeCompiler;
+import io.github.datacanvasio.expretau.runtime.op.RtOp;
+import io.github.datacanvasio.expretau.runtime.optimizer.IncrementalContext;
+import io.github.datacanvasio.expretau.runtime.optimizer.RtCachedExpr;
+import io.github.datacanvasio.expretau.runtime.optimizer.RtIncrementalOptimizer;
+import io.github.datacanvasio.expretau.runtime.optimizer.RtIncrementalSet;
+import io.github.datacanvasio.expretau.runtime.schema.DataParser;
+import io.github.datacanvasio.expretau.runtime.schema.RtData;
+import io.github.datacanvasio.expretau.runtime.var.RtVar;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.Nonnull;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestIncremental {
+    @RegisterExtension
+    static final ContextResource res = new ContextResource("/simple_vars.yml");
+    @RegisterExtension
+    static final ContextResource compositeRes = new ContextResource("/composite_vars.yml");
+
+    private static final String[] EXPRS = {
+        "a * 2 + b > 8",
+        "b * b - 1",
+        "d + 'x'",
+        "(b * b - 1) / 2",
+        "a + 1",
+    };
+
+    @Nonnull
+    private static RtExpr[] compile(@Nonnull String... inputs) throws Exception {
+        return ExpretauCompiler.INS.compileAll(Arrays.asList(inputs), res.getCtx()).toArray(new RtExpr[0]);
+    }
+
+    @Nonnull
+    private static RtData parse(String data) throws Exception {
+        return DataParser.yaml().schema(res.getSchemaRoot()).parse(data);
+    }
+
+    @Nonnull
+    private static Object[] evalAll(@Nonnull RtExpr[] exprs, RtData data) throws Exception {
+        Object[] results = new Object[exprs.length];
+        for (int i = 0; i < exprs.length; ++i) {
+            results[i] = exprs[i].eval(data);
+        }
+        return results;
+    }
+
+    @Test
+    public void testIncremental() throws Exception {
+        RtExpr[] exprs = compile(EXPRS);
+        RtIncrementalSet set = RtIncrementalOptimizer.INS.optimize(exprs);
+        // The original trees are not modified.
+        assertThat(((RtOp) exprs[3]).getParas()[0]).isNotInstanceOf(RtCachedExpr.class);
+        // The shared `b * b - 1` is cached once, and `a * 2` is cached as it does not depend on `b`.
+        assertThat(set.getCachedExprs()).hasSize(6);
+        RtData data = parse("{a: 2, b: 3.0, c: true, d: foo}");
+        IncrementalContext context = set.newContext(data);
+        assertThat(context.eval()).containsExactly(false, 8.0, "foox", 4.0, 3L);
+        assertThat(context.getRecomputedCount()).isEqualTo(6);
+        assertThat(context.eval()).containsExactly(false, 8.0, "foox", 4.0, 3L);
+        assertThat(context.getRecomputedCount()).isEqualTo(6);
+        RtVar a = (RtVar) compile("a")[0];
+        a.set(context, 3L);
+        assertThat(context.eval()).containsExactly(true, 8.0, "foox", 4.0, 4L);
+        assertThat(context.getRecomputedCount()).isEqualTo(9);
+        // Setting the same value.
+        a.set(context, 3L);
+        assertThat(context.eval(4)).isEqualTo(4L);
+        assertThat(context.getRecomputedCount()).isEqualTo(9);
+        RtVar b = (RtVar) compile("b")[0];
+        b.set(context, 5.0);
+        assertThat(context.eval()).containsExactly(evalAll(compile(EXPRS), data));
+        assertThat(context.getRecomputedCount()).isEqualTo(12);
+    }
+
+    @Test
+    public void testInvalidate() throws Exception {
+        RtExpr[] exprs = compile(EXPRS);
+        exprs[0] = RtBytecodeCompiler.INS.compile(exprs[0]);
+        RtIncrementalSet set = RtIncrementalOptimizer.INS.optimize(exprs);
+        assertThat(set.getExprs()[0]).isInstanceOf(RtCachedExpr.class);
+        RtData data = parse("{a: 2, b: 3.0, c: true, d: foo}");
+        IncrementalContext context = set.newContext(data);
+        context.eval();
+        RtVar d = (RtVar) compile("d")[0];
+        // Changed not through the context.
+        d.set(data, "bar");
+        assertThat(context.eval(2)).isEqualTo("foox");
+        context.invalidate(d.getId());
+        assertThat(context.eval(2)).isEqualTo("barx");
+        context.invalidateAll();
+        assertThat(context.eval()).containsExactly(evalAll(compile(EXPRS), data));
+        // Evaluated as usual in other contexts.
+        assertThat(set.getExprs()[4].eval(parse("{a: 5, b: 3.0, c: true, d: foo}"))).isEqualTo(6L);
+    }
+
+    @Test
+    public void testMutableValue() throws Exception {
+        RtExpr rtExpr = ExpretauCompiler.INS.compile("mapA.a", compositeRes.getCtx());
+        RtIncrementalSet set = RtIncrementalOptimizer.INS.optimize(new RtExpr[]{rtExpr});
+        assertThat(set.getCachedExprs()).hasSize(1);
+        RtData data = DataParser.yaml().schema(compositeRes.getSchemaRoot()).parse("{mapA: {a: 1}}");
+        IncrementalContext context = set.newContext(data);
+        assertThat(context.eval(0)).isEqualTo(1L);
+        RtVar mapA = (RtVar) ExpretauCompiler.INS.compile("mapA", compositeRes.getCtx());
+        Map<String, Object> map = new HashMap<>();
+        map.put("a", 2L);
+        mapA.set(context, map);
+        assertThat(context.eval(0)).isEqualTo(2L);
+        // The same map changed in place and set back.
+        map.put("a", 3L);
+        mapA.set(context, map);
+        assertThat(context.eval(0)).isEqualTo(3L);
+    }
+}
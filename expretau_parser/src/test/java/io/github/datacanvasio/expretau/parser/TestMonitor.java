@@ -0,0 +1,140 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.parser;
+
+import io.github.datacanvasio.expretau.runtime.RtConst;
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+import io.github.datacanvasio.expretau.runtime.codegen.RtBytecodeCompiler;
+import io.github.datacanvasio.expretau.runtime.evaluator.arithmetic.AddEvaluatorFactory;
+import io.github.datacanvasio.expretau.runtime.evaluator.base.EvaluatorKey;
+import io.github.datacanvasio.expretau.runtime.monitor.ExprEvents;
+import io.github.datacanvasio.expretau.runtime.monitor.ExprMetrics;
+import io.github.datacanvasio.expretau.runtime.monitor.ExprStats;
+import io.github.datacanvasio.expretau.runtime.monitor.RtMonitoredExpr;
+import io.github.datacanvasio.expretau.runtime.op.RtEvaluatorOp;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TestMonitor {
+    @RegisterExtension
+    static final ContextResource res = new ContextResource(
+        "/simple_vars.yml",
+        "{a: 2, b: 3.0, c: true, d: foo}",
+        "{a: 3, b: 4.0, c: false, d: bar}"
+    );
+
+    @Test
+    public void testMonitor() throws Exception {
+        ExprMetrics metrics = new ExprMetrics();
+        RtMonitoredExpr rule = metrics.monitor("rule\"1\"", ExpretauCompiler.INS.compile("a / 0 > 1", res.getCtx()), 1);
+        // Sampled, but frequently enough that some of the 100 evaluations are surely timed.
+        RtMonitoredExpr other = metrics.monitor(
+            "rule2",
+            ExpretauCompiler.INS.compile("a * 2 + b > 8", res.getCtx()),
+            4
+        );
+        for (int i = 0; i < 100; ++i) {
+            assertThat(other.eval(res.getEtx(i % 2))).isEqualTo(i % 2 == 1);
+        }
+        assertThatThrownBy(() -> rule.eval(res.getEtx(0))).isInstanceOf(ArithmeticException.class);
+        ExprStats stats = metrics.getStats("rule\"1\"");
+        assertThat(stats.getEvaluations()).isEqualTo(1);
+        assertThat(stats.getExceptions()).isEqualTo(1);
+        assertThat(stats.getLatency().getCount()).isEqualTo(1);
+        stats = metrics.getStats("rule2");
+        assertThat(stats.getEvaluations()).isEqualTo(100);
+        assertThat(stats.getExceptions()).isZero();
+        assertThat(stats.getLatency().getCount()).isBetween(1L, 100L);
+        assertThat(stats.getLatency().getPercentileNanos(99)).isPositive();
+        assertThat(metrics.getAllStats()).containsOnlyKeys("rule\"1\"", "rule2");
+        String text = metrics.export();
+        assertThat(text).contains("expretau_evaluations_total{expr=\"rule\\\"1\\\"\"} 1\n");
+        assertThat(text).contains("expretau_evaluations_total{expr=\"rule2\"} 100\n");
+        assertThat(text).contains("expretau_evaluation_exceptions_total{expr=\"rule\\\"1\\\"\"} 1\n");
+        assertThat(text).contains("expretau_evaluation_seconds_count{expr=\"rule\\\"1\\\"\"} 1\n");
+        assertThat(text).contains("expretau_evaluation_seconds_bucket{expr=\"rule2\",le=\"+Inf\"} ");
+        assertThat(text).contains("expretau_compile_seconds_count{phase=\"tree\"} 0\n");
+    }
+
+    @Test
+    public void testRecordingCompiles() throws Exception {
+        long parses = ExprMetrics.INS.getParses().getCount();
+        long compiles = ExprMetrics.INS.getCompiles().getCount();
+        ExpretauCompiler.INS.compileAll(Arrays.asList("a + 1", "b * 2"), res.getCtx());
+        assertThat(ExprMetrics.INS.getParses().getCount()).isGreaterThanOrEqualTo(parses + 2);
+        assertThat(ExprMetrics.INS.getCompiles().getCount()).isGreaterThanOrEqualTo(compiles + 2);
+    }
+
+    @Test
+    public void testJfrEvents(@TempDir Path tempDir) throws Exception {
+        assertThat(ExprEvents.isEnabled()).isTrue();
+        Path file = tempDir.resolve("test.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("io.github.datacanvasio.expretau.Parse").withThreshold(Duration.ZERO);
+            recording.enable("io.github.datacanvasio.expretau.Compile").withThreshold(Duration.ZERO);
+            recording.enable("io.github.datacanvasio.expretau.Eval").withThreshold(Duration.ZERO);
+            recording.start();
+            RtExpr rtExpr = ExpretauCompiler.INS.compile("a * 2 + b > 8", res.getCtx());
+            RtBytecodeCompiler.INS.compile(RtEvaluatorOp.of(
+                AddEvaluatorFactory.INS.getEvaluator(EvaluatorKey.UNIVERSAL),
+                new RtExpr[]{new RtConst(1L), new RtConst(2.5)}
+            ));
+            ExprMetrics.INS.monitor("jfr", rtExpr, 1).eval(res.getEtx(0));
+            recording.stop();
+            recording.dump(file);
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        List<RecordedEvent> parses = events.stream()
+            .filter(e -> e.getEventType().getName().equals("io.github.datacanvasio.expretau.Parse"))
+            .collect(Collectors.toList());
+        assertThat(parses).hasSize(1);
+        assertThat(parses.get(0).getString("expression")).isEqualTo("a * 2 + b > 8");
+        assertThat(parses.get(0).getBoolean("succeeded")).isTrue();
+        List<RecordedEvent> compiles = events.stream()
+            .filter(e -> e.getEventType().getName().equals("io.github.datacanvasio.expretau.Compile"))
+            .collect(Collectors.toList());
+        assertThat(compiles).hasSize(2);
+        RecordedEvent tree = compiles.get(0).getString("phase").equals("tree") ? compiles.get(0) : compiles.get(1);
+        RecordedEvent bytecode = tree == compiles.get(0) ? compiles.get(1) : compiles.get(0);
+        assertThat(tree.getString("expression")).isEqualTo("a * 2 + b > 8");
+        assertThat(tree.getInt("nodeCount")).isEqualTo(7);
+        assertThat(tree.getInt("dynamicNodeCount")).isZero();
+        assertThat(bytecode.getString("phase")).isEqualTo("bytecode");
+        assertThat(bytecode.getInt("nodeCount")).isEqualTo(3);
+        assertThat(bytecode.getInt("dynamicNodeCount")).isEqualTo(1);
+        List<RecordedEvent> evals = events.stream()
+            .filter(e -> e.getEventType().getName().equals("io.github.datacanvasio.expretau.Eval"))
+            .collect(Collectors.toList());
+        assertThat(evals).hasSize(1);
+        assertThat(evals.get(0).getString("name")).isEqualTo("jfr");
+        assertThat(evals.get(0).getInt("sampleInterval")).isEqualTo(1);
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.parser;
+
+import io.github.datacanvasio.expretau.PreparedExpr;
+import io.github.datacanvasio.expretau.exception.ElementNotExists;
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+import io.github.datacanvasio.expretau.runtime.TypeCode;
+import io.github.datacanvasio.expretau.runtime.codegen.RtBytecodeCompiler;
+import io.github.datacanvasio.expretau.runtime.var.ParamEvalContext;
+import io.github.datacanvasio.expretau.var.ParamCompileContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TestParam {
+    @RegisterExtension
+    static final ContextResource res = new ContextResource(
+        "/simple_vars.yml",
+        "{a: 2, b: 3.0, c: true, d: foo}",
+        "{a: 3, b: 4.0, c: false, d: bar}"
+    );
+
+    @Test
+    public void testPreparedExpr() throws Exception {
+        PreparedExpr prepared = PreparedExpr.of(
+            ExpretauCompiler.INS.parse("a > :x and d == :s"),
+            new ParamCompileContext(res.getCtx()).declare("x", TypeCode.LONG).declare("s", TypeCode.STRING)
+        );
+        assertThat(prepared.getParamNames()).containsExactly("x", "s");
+        assertThat(prepared.eval(res.getEtx(0), 1, "foo")).isEqualTo(true);
+        assertThat(prepared.eval(res.getEtx(0), 2L, "foo")).isEqualTo(false);
+        assertThat(prepared.eval(res.getEtx(1), 2L, "bar")).isEqualTo(true);
+        assertThatThrownBy(() -> prepared.bind(Collections.singletonMap("x", 1)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testCompiledParam() throws Exception {
+        PreparedExpr prepared = PreparedExpr.of(
+            ExpretauCompiler.INS.parse(":k * a + :k"),
+            new ParamCompileContext(res.getCtx()).declare("k", TypeCode.DOUBLE)
+        );
+        RtExpr compiled = RtBytecodeCompiler.INS.compile(prepared.getRtExpr());
+        assertThat(compiled.eval(new ParamEvalContext(
+            res.getEtx(1),
+            new Object[]{0.5}
+        ))).isEqualTo(2.0);
+    }
+
+    @Test
+    public void testUndeclared() {
+        assertThatThrownBy(() -> ExpretauCompiler.INS.parse("a + :x").compileIn(res.getCtx()))
+            .isInstanceOf(ElementNotExists.class);
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+        "a + 1|a + :_l0",
+        "d == 'foo' and b > 1.5|d == :_s0 and b > :_d1",
+        "$[0]  +  $['a']|$ [ 0 ] + $ [ 'a' ]",
+        "true or c|true or c",
+    })
+    public void testAutoParameterize(String input, String template) {
+        AutoParameterizer.Parameterized parameterized = AutoParameterizer.parameterize(input);
+        assertThat(parameterized).isNotNull();
+        assertThat(parameterized.getTemplate()).isEqualTo(template);
+    }
+
+    @Test
+    public void testCacheWithAutoParameterize() throws Exception {
+        ExprCache cache = new ExprCache(100, 10000, true);
+        assertThat(cache.get("a + 1", res.getSchemaRoot()).eval(res.getEtx(0))).isEqualTo(3L);
+        assertThat(cache.get("a + 5", res.getSchemaRoot()).eval(res.getEtx(0))).isEqualTo(7L);
+        assertThat(cache.get("a + 0.5", res.getSchemaRoot()).eval(res.getEtx(0))).isEqualTo(2.5);
+        assertThat(cache.get("d + 'x'", res.getSchemaRoot()).eval(res.getEtx(1))).isEqualTo("barx");
+        assertThat(cache.get("d + 'y'", res.getSchemaRoot()).eval(res.getEtx(1))).isEqualTo("bary");
+        ExprCacheStats stats = cache.getStats();
+        assertThat(stats.getMissCount()).isEqualTo(3);
+        assertThat(stats.getHitCount()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.parser;
+
+import io.github.datacanvasio.expretau.Expr;
+import io.github.datacanvasio.expretau.exception.ExpretauParseException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Random;
+import javax.annotation.Nonnull;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TestPrattParser {
+    private static final String[] ATOMS = {
+        "0", "1", "23", "1.5", "2.0e3", "3E-2", "'abc'", "\"d\\\"e\\u0041\"", "true", "false",
+        "a", "b", "c", "d", "$", "_x", ":p", ":_q1",
+    };
+    private static final String[] BINARY_OPS = {
+        "+", "-", "*", "/", "<", "<=", "=", "==", ">", ">=", "<>", "!=",
+        "and", "&&", "or", "||", "startsWith", "endsWith", "contains", "matches",
+    };
+    private static final String[] UNARY_OPS = {"+", "-", "not ", "!"};
+    private static final String[] FUNS = {"abs", "toLowerCase", "substring", "replace"};
+
+    /**
+     * Dump an Expr tree by reflection, so that trees built by different parsers can be compared.
+     */
+    private static void dump(@Nonnull StringBuilder builder, Object obj) throws IllegalAccessException {
+        if (obj instanceof Expr) {
+            builder.append(obj.getClass().getSimpleName()).append('(');
+            for (Class<?> clazz = obj.getClass(); clazz != Object.class; clazz = clazz.getSuperclass()) {
+                for (Field field : clazz.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers())) {
+                        continue;
+                    }
+                    field.setAccessible(true);
+                    builder.append(field.getName()).append('=');
+                    dump(builder, field.get(obj));
+                    builder.append(';');
+                }
+            }
+            builder.append(')');
+        } else if (obj instanceof Expr[]) {
+            builder.append('[');
+            for (Expr expr : (Expr[]) obj) {
+                dump(builder, expr);
+                builder.append(',');
+            }
+            builder.append(']');
+        } else {
+            builder.append(obj).append(obj != null ? "@" + obj.getClass().getSimpleName() : "");
+        }
+    }
+
+    @Nonnull
+    private static String dump(Expr expr) throws IllegalAccessException {
+        StringBuilder builder = new StringBuilder();
+        dump(builder, expr);
+        return builder.toString();
+    }
+
+    private static void assertConforms(String input) throws Exception {
+        Expr expected = ExpretauCompiler.ANTLR.parse(input);
+        Expr actual = ExpretauCompiler.PRATT.parse(input);
+        assertThat(dump(actual)).as(input).isEqualTo(dump(expected));
+    }
+
+    @Nonnull
+    private static String randomExpr(@Nonnull Random random, int depth) {
+        int choice = depth <= 0 ? 0 : random.nextInt(8);
+        String space = random.nextBoolean() ? " " : "  ";
+        switch (choice) {
+            case 1:
+            case 2:
+            case 3:
+                return randomExpr(random, depth - 1) + space + BINARY_OPS[random.nextInt(BINARY_OPS.length)] + space
+                    + randomExpr(random, depth - 1);
+            case 4:
+                return UNARY_OPS[random.nextInt(UNARY_OPS.length)] + randomExpr(random, depth - 1);
+            case 5:
+                return "(" + randomExpr(random, depth - 1) + ")";
+            case 6:
+                int count = random.nextInt(4);
+                StringBuilder builder = new StringBuilder(FUNS[random.nextInt(FUNS.length)]).append('(');
+                for (int i = 0; i < count; ++i) {
+                    builder.append(i > 0 ? ", " : "").append(randomExpr(random, depth - 1));
+                }
+                return builder.append(')').toString();
+            case 7:
+                return randomExpr(random, depth - 1)
+                    + (random.nextBoolean() ? ".x" : "[" + randomExpr(random, depth - 1) + "]");
+            default:
+                return ATOMS[random.nextInt(ATOMS.length)];
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "1 + 2 * 3",
+        "(1 + 2) * 3",
+        "1 - 2 - 3",
+        "1 - (2 - 3)",
+        "-a * b",
+        "- a.b[1]",
+        "a * -b + c",
+        "not a > 1 and b",
+        "a == not b == c",
+        "not not c",
+        "a < b == c",
+        "d startsWith 'x' and d contains \"y\" or not c",
+        "a + b contains 'x' == c",
+        "a && b || c && !d",
+        "abs(a) + substring(d, 1, 2)",
+        "toLowerCase(d) == 'foo'",
+        "$.a.b[0]['c']",
+        "$[1 + 2]",
+        "abs()",
+        "1.5e3 + 2E+2 - 3e-1",
+        "truex + _y1 + $z",
+        ":p * a + :q",
+        "a\n+\r\nb\t* c",
+    })
+    public void testConformance(String input) throws Exception {
+        assertConforms(input);
+    }
+
+    @Test
+    public void testRandomConformance() throws Exception {
+        Random random = new Random(20201018);
+        for (int i = 0; i < 2000; ++i) {
+            String input = randomExpr(random, 5);
+            try {
+                assertConforms(input);
+            } catch (ExpretauParseException e) {
+                // Both parsers reject unknown functions.
+                assertThatThrownBy(() -> ExpretauCompiler.PRATT.parse(input))
+                    .isInstanceOf(ExpretauParseException.class);
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "1 +", "(1", "a.", "foo(", "1 + * 2", "and", "'abc", "a.1", "1 2", "a & b"})
+    public void testError(String input) {
+        assertThatThrownBy(() -> ExpretauCompiler.PRATT.parse(input)).isInstanceOf(ExpretauParseException.class);
+    }
+}
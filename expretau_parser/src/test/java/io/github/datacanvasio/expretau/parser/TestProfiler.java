@@ -0,0 +1,115 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.parser;
+
+import io.github.datacanvasio.expretau.runtime.RtConst;
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+import io.github.datacanvasio.expretau.runtime.codegen.RtBytecodeCompiler;
+import io.github.datacanvasio.expretau.runtime.evaluator.arithmetic.AddEvaluatorFactory;
+import io.github.datacanvasio.expretau.runtime.evaluator.base.EvaluatorKey;
+import io.github.datacanvasio.expretau.runtime.op.RtEvaluatorOp;
+import io.github.datacanvasio.expretau.runtime.op.RtOp;
+import io.github.datacanvasio.expretau.runtime.optimizer.RtCseOptimizer;
+import io.github.datacanvasio.expretau.runtime.profile.RtProfileNode;
+import io.github.datacanvasio.expretau.runtime.profile.RtProfiler;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import javax.annotation.Nonnull;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TestProfiler {
+    @RegisterExtension
+    static final ContextResource res = new ContextResource(
+        "/simple_vars.yml",
+        "{a: 2, b: 3.0, c: true, d: foo}",
+        "{a: 3, b: 4.0, c: false, d: bar}"
+    );
+
+    @Nonnull
+    private static RtExpr compile(String exprString) throws Exception {
+        return ExpretauCompiler.INS.parse(exprString).compileIn(res.getCtx());
+    }
+
+    @Test
+    public void testCounting() throws Exception {
+        RtExpr rtExpr = compile("a * 2 + b > 8");
+        RtProfileNode root = new RtProfiler(1).instrument(rtExpr);
+        for (int i = 0; i < 50; ++i) {
+            assertThat(root.eval(res.getEtx(0))).isEqualTo(false);
+            assertThat(root.eval(res.getEtx(1))).isEqualTo(true);
+        }
+        assertThat(root.getInvocations()).isEqualTo(100);
+        assertThat(root.getResultTypes()).containsEntry("Boolean", 100L);
+        assertThat(root.getEstimatedNanos()).isPositive();
+        RtExpr child = ((RtOp) root.getExpr()).getParas()[0];
+        assertThat(child).isInstanceOf(RtProfileNode.class);
+        assertThat(((RtProfileNode) child).getInvocations()).isEqualTo(100);
+        // The original tree is not modified.
+        for (RtExpr para : ((RtOp) rtExpr).getParas()) {
+            assertThat(para).isNotInstanceOf(RtProfileNode.class);
+        }
+        String explain = root.explain();
+        assertThat(explain.split("\n")).hasSize(7);
+        assertThat(explain).startsWith("RtBinaryEvaluatorOp[GtDoubleLong] (calls=100,");
+        assertThat(explain).contains("  RtBinaryEvaluatorOp[AddLongDouble] (calls=100,");
+        assertThat(explain).contains("      RtVar[0] (calls=100,");
+        assertThat(explain).contains("results={Long=100}");
+    }
+
+    @Test
+    public void testCompiled() throws Exception {
+        RtExpr compiled = RtBytecodeCompiler.INS.compile(compile("a + 1"));
+        RtProfileNode root = RtProfiler.INS.instrument(compiled);
+        assertThat(root.eval(res.getEtx(0))).isEqualTo(3L);
+        assertThat(root.explain()).startsWith("RtBinaryEvaluatorOp[AddLongLong] (calls=1,");
+    }
+
+    @Test
+    public void testExceptions() throws Exception {
+        RtProfileNode root = RtProfiler.INS.instrument(compile("a / 0 > 1"));
+        assertThatThrownBy(() -> root.eval(res.getEtx(0))).isInstanceOf(ArithmeticException.class);
+        assertThat(root.getExceptions()).isEqualTo(1);
+        assertThat(root.explain()).contains("exceptions=1");
+    }
+
+    @Test
+    public void testUniversal() throws Exception {
+        RtExpr rtExpr = RtEvaluatorOp.of(
+            AddEvaluatorFactory.INS.getEvaluator(EvaluatorKey.UNIVERSAL),
+            new RtExpr[]{new RtConst(1L), new RtConst(2.5)}
+        );
+        RtProfileNode root = RtProfiler.INS.instrument(rtExpr);
+        assertThat(root.eval(null)).isEqualTo(3.5);
+        assertThat(root.explain()).startsWith("RtBinaryEvaluatorOp[universal AddEvaluatorFactory] (calls=1,");
+        assertThat(root.explain()).contains("results={Double=1}");
+    }
+
+    @Test
+    public void testShared() throws Exception {
+        RtExpr rtExpr = RtCseOptimizer.INS.optimize(compile("(a + b) * (a + b) - (a + b)"));
+        RtProfileNode root = RtProfiler.INS.instrument(rtExpr);
+        assertThat(root.eval(res.getEtx(0))).isEqualTo(20.0);
+        String explain = root.explain();
+        assertThat(explain).startsWith("RtCseExpr (calls=1,");
+        assertThat(explain).contains("RtCommonExpr[#0] (calls=3,");
+        assertThat(explain).contains("RtCommonExpr[#0] (shared)");
+    }
+}
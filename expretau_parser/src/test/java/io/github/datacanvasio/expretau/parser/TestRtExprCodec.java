@@ -0,0 +1,164 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.parser;
+
+import io.github.datacanvasio.expretau.PreparedExpr;
+import io.github.datacanvasio.expretau.runtime.RtConst;
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+import io.github.datacanvasio.expretau.runtime.TypeCode;
+import io.github.datacanvasio.expretau.runtime.codec.RtExprCodec;
+import io.github.datacanvasio.expretau.runtime.codegen.RtBytecodeCompiler;
+import io.github.datacanvasio.expretau.runtime.codegen.RtCompiledExpr;
+import io.github.datacanvasio.expretau.runtime.evaluator.arithmetic.AddEvaluatorFactory;
+import io.github.datacanvasio.expretau.runtime.evaluator.base.EvaluatorKey;
+import io.github.datacanvasio.expretau.runtime.op.RtEvaluatorOp;
+import io.github.datacanvasio.expretau.runtime.op.logical.RtLogicalOp;
+import io.github.datacanvasio.expretau.runtime.optimizer.RtAdaptiveOptimizer;
+import io.github.datacanvasio.expretau.runtime.optimizer.RtCseExpr;
+import io.github.datacanvasio.expretau.runtime.optimizer.RtCseOptimizer;
+import io.github.datacanvasio.expretau.var.ParamCompileContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.stream.Stream;
+import javax.annotation.Nonnull;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class TestRtExprCodec {
+    @RegisterExtension
+    static final ContextResource res = new ContextResource(
+        "/simple_vars.yml",
+        "{a: 2, b: 3.0, c: true, d: ' Foo'}",
+        "{a: 3, b: 4.0, c: false, d: 'BAR '}"
+    );
+
+    @Nonnull
+    private static Stream<Arguments> getParameters() {
+        return Stream.of(
+            arguments("1 + a", 3L, 4L),
+            arguments("1 + 2 * b", 7.0, 9.0),
+            arguments("a * 2 + b > 8", false, true),
+            arguments("a > 3 and a/0 > 0", false, false),
+            arguments("not c or b > 3.5", false, true),
+            arguments("abs(a) + 1", 3L, 4L),
+            arguments("d + 'x'", " Foox", "BAR x"),
+            arguments("(a + b) * (a + b) - (a + b)", 20.0, 42.0),
+            arguments("toLowerCase(trim(d)) = 'foo' or toLowerCase(trim(d)) = 'bar'", true, true),
+            arguments("d startsWith ' ' and a < 3", true, false)
+        );
+    }
+
+    @Nonnull
+    private static RtExpr roundTrip(RtExpr rtExpr) throws IOException {
+        return RtExprCodec.INS.decode(RtExprCodec.INS.encode(rtExpr));
+    }
+
+    private static int javaSerializedSize(RtExpr rtExpr) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+            oos.writeObject(rtExpr);
+        }
+        return bos.size();
+    }
+
+    @ParameterizedTest
+    @MethodSource("getParameters")
+    public void test(String exprString, Object value0, Object value1) throws Exception {
+        RtExpr rtExpr = ExpretauCompiler.INS.parse(exprString).compileIn(res.getCtx());
+        RtExpr restored = roundTrip(rtExpr);
+        assertThat(restored).isExactlyInstanceOf(rtExpr.getClass());
+        assertThat(restored.typeCode()).isEqualTo(rtExpr.typeCode());
+        assertThat(restored.eval(res.getEtx(0))).isEqualTo(value0);
+        assertThat(restored.eval(res.getEtx(1))).isEqualTo(value1);
+        assertThat(RtExprCodec.INS.encode(restored)).isEqualTo(RtExprCodec.INS.encode(rtExpr));
+        assertThat(RtExprCodec.INS.encode(rtExpr).length).isLessThan(javaSerializedSize(rtExpr));
+        // Optimized and compiled trees.
+        RtExpr optimized = RtCseOptimizer.INS.optimize(rtExpr);
+        restored = roundTrip(optimized);
+        assertThat(restored).isExactlyInstanceOf(optimized.getClass());
+        assertThat(restored.eval(res.getEtx(0))).isEqualTo(value0);
+        assertThat(restored.eval(res.getEtx(1))).isEqualTo(value1);
+        RtExpr compiled = RtBytecodeCompiler.INS.compile(optimized);
+        restored = roundTrip(compiled);
+        assertThat(restored instanceof RtCompiledExpr).isEqualTo(compiled instanceof RtCompiledExpr);
+        assertThat(restored.eval(res.getEtx(0))).isEqualTo(value0);
+        assertThat(restored.eval(res.getEtx(1))).isEqualTo(value1);
+    }
+
+    @Test
+    public void testSharedCommons() throws Exception {
+        RtExpr rtExpr = ExpretauCompiler.INS.parse("(a + b) * (a + b) - (a + b)").compileIn(res.getCtx());
+        RtCseExpr optimized = (RtCseExpr) RtCseOptimizer.INS.optimize(rtExpr);
+        RtCseExpr restored = (RtCseExpr) roundTrip(optimized);
+        assertThat(restored.getCommons()).hasSize(optimized.getCommons().length);
+        assertThat(restored.getCommons()[0].getSlot()).isEqualTo(0);
+    }
+
+    @Test
+    public void testAdaptive() throws Exception {
+        RtExpr rtExpr = ExpretauCompiler.INS.parse("a > 1 and b > 3.5 and c").compileIn(res.getCtx());
+        RtExpr adaptive = RtAdaptiveOptimizer.INS.optimize(rtExpr);
+        assertThat(adaptive).isInstanceOf(RtLogicalOp.class);
+        assertThat(((RtLogicalOp) adaptive).isAdaptive()).isTrue();
+        RtExpr restored = roundTrip(adaptive);
+        assertThat(((RtLogicalOp) restored).isAdaptive()).isTrue();
+        assertThat(restored.eval(res.getEtx(0))).isEqualTo(false);
+    }
+
+    @Test
+    public void testUniversalEvaluator() throws Exception {
+        RtExpr rtExpr = RtEvaluatorOp.of(
+            AddEvaluatorFactory.INS.getEvaluator(EvaluatorKey.UNIVERSAL),
+            new RtExpr[]{new RtConst(1L), new RtConst(2.5)}
+        );
+        RtExpr restored = roundTrip(rtExpr);
+        assertThat(((RtEvaluatorOp) restored).getEvaluator()).isEqualTo(((RtEvaluatorOp) rtExpr).getEvaluator());
+        assertThat(restored.eval(null)).isEqualTo(3.5);
+    }
+
+    @Test
+    public void testParam() throws Exception {
+        ParamCompileContext ctx = new ParamCompileContext(res.getCtx());
+        ctx.declare("x", TypeCode.LONG);
+        PreparedExpr prepared = PreparedExpr.of(ExpretauCompiler.INS.parse("a + :x"), ctx);
+        RtExpr restored = roundTrip(prepared.bind(10L));
+        assertThat(restored.eval(res.getEtx(0))).isEqualTo(12L);
+    }
+
+    @Test
+    public void testInvalid() throws Exception {
+        byte[] bytes = RtExprCodec.INS.encode(ExpretauCompiler.INS.parse("1 + 2").compileIn(null));
+        byte[] badMagic = bytes.clone();
+        badMagic[0] = 0;
+        assertThatThrownBy(() -> RtExprCodec.INS.decode(badMagic)).isInstanceOf(IOException.class);
+        byte[] badVersion = bytes.clone();
+        badVersion[4] = (byte) (RtExprCodec.VERSION + 1);
+        assertThatThrownBy(() -> RtExprCodec.INS.decode(badVersion)).isInstanceOf(IOException.class);
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.parser;
+
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+import io.github.datacanvasio.expretau.runtime.rule.RtRuleSet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestRuleSet {
+    @RegisterExtension
+    static final ContextResource res = new ContextResource(
+        "/simple_vars.yml",
+        "{a: 2, b: 3.0, c: true, d: foo}",
+        "{a: 3, b: 4.0, c: false, d: bar}",
+        "{a: 5, b: -1.5, c: true, d: bar}",
+        "{a: -7, b: 10.0, c: false, d: baz}",
+        "{a: 0, b: -0.0, c: true, d: foo}"
+    );
+
+    private static final String[] RULE_STRINGS = {
+        "a == 2",
+        "a == 3 and c",
+        "3 == a and b > 3.5",
+        "a > 2",
+        "a >= 3 and d == 'bar'",
+        "a < 3",
+        "5 <= a",
+        "b > 3",
+        "b <= 3 and a > 0",
+        "b < 4.0",
+        "d == 'foo' or a > 4",
+        "d == 'baz'",
+        "d > 'bar'",
+        "d contains 'a' and a < 10",
+        "c",
+        "a == 3.0",
+        "a + 1 > 3",
+        "b >= 0.0",
+        "b < 0.0",
+        "b <= -0.0 and c",
+        "b > -0.0",
+        "b == 0.0",
+        "-0.0 == b",
+    };
+
+    @Test
+    public void test() throws Exception {
+        RtExpr[] rules = new RtExpr[RULE_STRINGS.length];
+        for (int i = 0; i < rules.length; ++i) {
+            rules[i] = ExpretauCompiler.INS.parse(RULE_STRINGS[i]).compileIn(res.getCtx());
+        }
+        RtRuleSet ruleSet = RtRuleSet.of(rules);
+        assertThat(ruleSet.size()).isEqualTo(RULE_STRINGS.length);
+        for (int i = 0; i < 5; ++i) {
+            List<Integer> expected = new ArrayList<>();
+            for (int j = 0; j < rules.length; ++j) {
+                if (rules[j].evalBoolean(res.getEtx(i))) {
+                    expected.add(j);
+                }
+            }
+            assertThat(ruleSet.match(res.getEtx(i))).containsExactly(
+                expected.stream().mapToInt(Integer::intValue).toArray()
+            );
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.parser;
+
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import javax.annotation.Nonnull;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class TestSimplification {
+    @RegisterExtension
+    static final ContextResource res = new ContextResource(
+        "/simple_vars.yml",
+        "{a: 2, b: 3.0, c: true, d: foo}",
+        "{a: -3, b: -0.0, c: false, d: bar}"
+    );
+
+    @Nonnull
+    private static RtExpr compile(String exprString) throws Exception {
+        return ExpretauCompiler.INS.parse(exprString).compileIn(res.getCtx());
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "1 + a + 2, a + 3",
+        "2 * (a * 3) * 4, a * 24",
+        "a * 1 + 0, a",
+        "1 + (a - 1) + -1, a - 1",
+        "0 + a * (3 - 2), a",
+        "a / 1 - 0, a",
+        "b * 1.0 - 0, b",
+        "b / 1, b",
+        "true and c, c",
+        "c and true, c",
+        "false and c, false",
+        "false or c, c",
+        "c or false, c",
+        "true or c, true",
+        "not not c, c",
+        "not not not c, not c",
+        "not (a > 1 and true), not a > 1",
+    })
+    public void testSimplified(String exprString, String simplifiedString) throws Exception {
+        RtExpr rtExpr = compile(exprString);
+        assertThat(rtExpr).isEqualTo(compile(simplifiedString));
+        assertThat(rtExpr.eval(res.getEtx(0))).isEqualTo(compile(simplifiedString).eval(res.getEtx(0)));
+        assertThat(rtExpr.eval(res.getEtx(1))).isEqualTo(compile(simplifiedString).eval(res.getEtx(1)));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "1 + b + 2, b + 3",
+        "b + 0, b",
+        "b + 0.0, b",
+        "b - -0.0, b",
+        "a + 1.0 - 1.0, a",
+        "d + '', d",
+        "c and false, false",
+        "c or true, true",
+    })
+    public void testNotSimplified(String exprString, String otherString) throws Exception {
+        assertThat(compile(exprString)).isNotEqualTo(compile(otherString));
+    }
+}
@@ -18,6 +18,12 @@ package io.github.datacanvasio.expretau.parser;
 
 import io.github.datacanvasio.expretau.Expr;
 import io.github.datacanvasio.expretau.runtime.RtExpr;
+import io.github.datacanvasio.expretau.runtime.TypeCode;
+import io.github.datacanvasio.expretau.runtime.op.RtBinaryEvaluatorOp;
+import io.github.datacanvasio.expretau.runtime.op.RtFun;
+import io.github.datacanvasio.expretau.runtime.op.RtTernaryEvaluatorOp;
+import io.github.datacanvasio.expretau.runtime.op.RtUnaryEvaluatorOp;
+import io.github.datacanvasio.expretau.runtime.schema.RtData;
 import org.junit.jupiter.api.TestInstance;
 import org.junit.jupiter.api.extension.RegisterExtension;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -32,6 +38,8 @@ import static org.junit.jupiter.params.provider.Arguments.arguments;
 
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
 public class TestWithVar {
+    private static final int ALLOCATION_TEST_TIMES = 10000;
+
     @RegisterExtension
     static final ContextResource res = new ContextResource(
         "/simple_vars.yml",
@@ -57,6 +65,19 @@ public class TestWithVar {
         );
     }
 
+    // Expressions with object results, which are evaluated by the fixed-arity entries. The results are the same objects
+    // as the parameter values (or cached), so that nothing should be allocated.
+    @Nonnull
+    private static Stream<Arguments> getObjectParameters() {
+        return Stream.of(
+            arguments("string(d)", RtUnaryEvaluatorOp.class, "foo"),
+            arguments("substring(d, 0)", RtBinaryEvaluatorOp.class, "foo"),
+            arguments("substring(d, 0, 3)", RtTernaryEvaluatorOp.class, "foo"),
+            arguments("trim(d)", RtFun.class, "foo"),
+            arguments("d startsWith 'f'", RtFun.class, true)
+        );
+    }
+
     @ParameterizedTest
     @MethodSource("getParameters")
     public void test(String exprString, Object value0, Object value1) throws Exception {
@@ -65,4 +86,79 @@ public class TestWithVar {
         assertThat(rtExpr.eval(res.getEtx(0))).isEqualTo(value0);
         assertThat(rtExpr.eval(res.getEtx(1))).isEqualTo(value1);
     }
+
+    private static Object evalPrimitive(@Nonnull RtExpr rtExpr, RtData etx) throws Exception {
+        switch (rtExpr.typeCode()) {
+            case TypeCode.INTEGER:
+                return rtExpr.evalInt(etx);
+            case TypeCode.LONG:
+                return rtExpr.evalLong(etx);
+            case TypeCode.DOUBLE:
+                return rtExpr.evalDouble(etx);
+            case TypeCode.BOOLEAN:
+                return rtExpr.evalBoolean(etx);
+            default:
+                return rtExpr.eval(etx);
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("getParameters")
+    public void testPrimitive(String exprString, Object value0, Object value1) throws Exception {
+        Expr expr = ExpretauCompiler.INS.parse(exprString);
+        RtExpr rtExpr = expr.compileIn(res.getCtx());
+        assertThat(evalPrimitive(rtExpr, res.getEtx(0))).isEqualTo(value0);
+        assertThat(evalPrimitive(rtExpr, res.getEtx(1))).isEqualTo(value1);
+    }
+
+    private static void evalPrimitiveTimes(@Nonnull RtExpr rtExpr, RtData etx, int times) throws Exception {
+        int typeCode = rtExpr.typeCode();
+        for (int i = 0; i < times; i++) {
+            switch (typeCode) {
+                case TypeCode.INTEGER:
+                    rtExpr.evalInt(etx);
+                    break;
+                case TypeCode.LONG:
+                    rtExpr.evalLong(etx);
+                    break;
+                case TypeCode.DOUBLE:
+                    rtExpr.evalDouble(etx);
+                    break;
+                case TypeCode.BOOLEAN:
+                    rtExpr.evalBoolean(etx);
+                    break;
+                default:
+                    rtExpr.eval(etx);
+                    break;
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("getParameters")
+    public void testAllocation(String exprString) throws Exception {
+        Expr expr = ExpretauCompiler.INS.parse(exprString);
+        RtExpr rtExpr = expr.compileIn(res.getCtx());
+        RtData etx = res.getEtx(0);
+        long bytes = AllocationMeter.measure(() -> evalPrimitiveTimes(rtExpr, etx, ALLOCATION_TEST_TIMES));
+        // Much less than 1 object per evaluating, the measuring itself may allocate a few bytes.
+        assertThat((double) bytes / ALLOCATION_TEST_TIMES).isLessThan(AllocationMeter.MIN_OBJECT_BYTES / 8.0);
+    }
+
+    @ParameterizedTest
+    @MethodSource("getObjectParameters")
+    public void testObjectAllocation(String exprString, Class<?> clazz, Object value) throws Exception {
+        Expr expr = ExpretauCompiler.INS.parse(exprString);
+        RtExpr rtExpr = expr.compileIn(res.getCtx());
+        assertThat(rtExpr).isInstanceOf(clazz);
+        RtData etx = res.getEtx(0);
+        assertThat(rtExpr.eval(etx)).isEqualTo(value);
+        long bytes = AllocationMeter.measure(() -> {
+            for (int i = 0; i < ALLOCATION_TEST_TIMES; i++) {
+                rtExpr.eval(etx);
+            }
+        });
+        // No array of parameter values is created, the measuring itself may allocate a few bytes.
+        assertThat((double) bytes / ALLOCATION_TEST_TIMES).isLessThan(AllocationMeter.MIN_OBJECT_BYTES / 8.0);
+    }
 }
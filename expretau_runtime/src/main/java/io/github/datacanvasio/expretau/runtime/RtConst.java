@@ -16,9 +16,15 @@
 
 package io.github.datacanvasio.expretau.runtime;
 
+import io.github.datacanvasio.expretau.runtime.vector.ColumnBatch;
+import io.github.datacanvasio.expretau.runtime.vector.ColumnVector;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
 @RequiredArgsConstructor
 @Getter
 public class RtConst implements RtExpr {
@@ -34,8 +40,54 @@ public class RtConst implements RtExpr {
         return value;
     }
 
+    @Override
+    public int evalInt(EvalContext etx) {
+        return ((Number) value).intValue();
+    }
+
+    @Override
+    public long evalLong(EvalContext etx) {
+        return ((Number) value).longValue();
+    }
+
+    @Override
+    public double evalDouble(EvalContext etx) {
+        return ((Number) value).doubleValue();
+    }
+
+    @Override
+    public boolean evalBoolean(EvalContext etx) {
+        return (boolean) value;
+    }
+
+    @Override
+    public void evalBatch(@Nonnull ColumnBatch batch, @Nullable int[] sel, int size, @Nonnull ColumnVector out) {
+        out.fill(value, batch.getSize());
+    }
+
     @Override
     public int typeCode() {
         return TypeCodes.getTypeCode(value);
     }
+
+    @Override
+    public boolean isPure() {
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        return Objects.equals(value, ((RtConst) obj).value);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(value);
+    }
 }
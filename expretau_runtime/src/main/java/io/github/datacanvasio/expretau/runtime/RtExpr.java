@@ -17,8 +17,11 @@
 package io.github.datacanvasio.expretau.runtime;
 
 import io.github.datacanvasio.expretau.runtime.exception.FailGetEvaluator;
+import io.github.datacanvasio.expretau.runtime.vector.ColumnBatch;
+import io.github.datacanvasio.expretau.runtime.vector.ColumnVector;
 
 import java.io.Serializable;
+import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 public interface RtExpr extends Serializable {
@@ -37,4 +40,139 @@ public interface RtExpr extends Serializable {
      * @return the type code
      */
     int typeCode();
+
+    /**
+     * Check if this RtExpr is pure, which means the result depends only on the values of variables and evaluating it
+     * has no side effects, so that identical RtExprs can be evaluated only once.
+     *
+     * @return {@code true} if it is pure
+     */
+    default boolean isPure() {
+        return false;
+    }
+
+    /**
+     * Evaluate the result of this RtExpr in a specified EvalContext as an {@code int}. Should be called only if
+     * {@code typeCode()} is {@code INTEGER}.
+     *
+     * @param etx the specified EvalContext
+     * @return the result
+     * @throws FailGetEvaluator if there is no appropriate Evaluator
+     */
+    default int evalInt(@Nullable EvalContext etx) throws FailGetEvaluator {
+        return ((Number) eval(etx)).intValue();
+    }
+
+    /**
+     * Evaluate the result of this RtExpr in a specified EvalContext as a {@code long}. Should be called only if
+     * {@code typeCode()} is {@code LONG}.
+     *
+     * @param etx the specified EvalContext
+     * @return the result
+     * @throws FailGetEvaluator if there is no appropriate Evaluator
+     */
+    default long evalLong(@Nullable EvalContext etx) throws FailGetEvaluator {
+        return ((Number) eval(etx)).longValue();
+    }
+
+    /**
+     * Evaluate the result of this RtExpr in a specified EvalContext as a {@code double}. Should be called only if
+     * {@code typeCode()} is {@code DOUBLE}.
+     *
+     * @param etx the specified EvalContext
+     * @return the result
+     * @throws FailGetEvaluator if there is no appropriate Evaluator
+     */
+    default double evalDouble(@Nullable EvalContext etx) throws FailGetEvaluator {
+        return ((Number) eval(etx)).doubleValue();
+    }
+
+    /**
+     * Evaluate the result of this RtExpr in a specified EvalContext as a {@code boolean}. Should be called only if
+     * {@code typeCode()} is {@code BOOLEAN}.
+     *
+     * @param etx the specified EvalContext
+     * @return the result
+     * @throws FailGetEvaluator if there is no appropriate Evaluator
+     */
+    default boolean evalBoolean(@Nullable EvalContext etx) throws FailGetEvaluator {
+        return (boolean) eval(etx);
+    }
+
+    /**
+     * Evaluate the results of this RtExpr on all rows of a ColumnBatch. The output ColumnVector must be of the type
+     * code of this RtExpr and have enough capacity.
+     *
+     * @param batch the ColumnBatch
+     * @param out   the ColumnVector to put the results in
+     * @throws FailGetEvaluator if there is no appropriate Evaluator
+     */
+    default void evalBatch(@Nonnull ColumnBatch batch, @Nonnull ColumnVector out) throws FailGetEvaluator {
+        evalBatch(batch, null, batch.getSize(), out);
+    }
+
+    /**
+     * Evaluate the results of this RtExpr on selected rows of a ColumnBatch. The results are put at the positions of
+     * the rows, values at other positions are undefined. The default implementation evaluates row by row.
+     *
+     * @param batch the ColumnBatch
+     * @param sel   the ascending positions of selected rows, or {@code null} for the first {@code size} rows
+     * @param size  the number of selected rows
+     * @param out   the ColumnVector to put the results in
+     * @throws FailGetEvaluator if there is no appropriate Evaluator
+     */
+    default void evalBatch(
+        @Nonnull ColumnBatch batch,
+        @Nullable int[] sel,
+        int size,
+        @Nonnull ColumnVector out
+    ) throws FailGetEvaluator {
+        ColumnBatch.RowContext row = batch.rowContext();
+        for (int k = 0; k < size; ++k) {
+            int i = sel != null ? sel[k] : k;
+            row.setRow(i);
+            out.set(i, eval(row));
+        }
+    }
+
+    /**
+     * Filter all rows of a ColumnBatch by this RtExpr, which must be a predicate.
+     *
+     * @param batch the ColumnBatch
+     * @param out   the array to put the ascending positions of passed rows in
+     * @return the number of passed rows
+     * @throws FailGetEvaluator if there is no appropriate Evaluator
+     */
+    default int filterBatch(@Nonnull ColumnBatch batch, @Nonnull int[] out) throws FailGetEvaluator {
+        return filterBatch(batch, null, batch.getSize(), out);
+    }
+
+    /**
+     * Filter selected rows of a ColumnBatch by this RtExpr, which must be a predicate. The result is a compacted
+     * selection vector of passed rows, and {@code out} can be the same array as {@code sel}.
+     *
+     * @param batch the ColumnBatch
+     * @param sel   the ascending positions of selected rows, or {@code null} for the first {@code size} rows
+     * @param size  the number of selected rows
+     * @param out   the array to put the ascending positions of passed rows in
+     * @return the number of passed rows
+     * @throws FailGetEvaluator if there is no appropriate Evaluator
+     */
+    default int filterBatch(
+        @Nonnull ColumnBatch batch,
+        @Nullable int[] sel,
+        int size,
+        @Nonnull int[] out
+    ) throws FailGetEvaluator {
+        ColumnVector column = new ColumnVector(typeCode(), batch.getSize());
+        evalBatch(batch, sel, size, column);
+        int count = 0;
+        for (int k = 0; k < size; ++k) {
+            int i = sel != null ? sel[k] : k;
+            if ((boolean) column.get(i)) {
+                out[count++] = i;
+            }
+        }
+        return count;
+    }
 }
@@ -48,21 +48,36 @@ import javax.annotation.Nonnull;
 public final class TypeCodes implements Serializable {
     private static final long serialVersionUID = 5276659721959556203L;
 
+    private static final ClassValue<Integer> TYPE_CODES = new ClassValue<Integer>() {
+        @Override
+        protected Integer computeValue(@Nonnull Class<?> type) {
+            if (List.class.isAssignableFrom(type)) {
+                return TypeCode.LIST;
+            } else if (Map.class.isAssignableFrom(type)) {
+                return TypeCode.MAP;
+            }
+            return type.getCanonicalName().hashCode();
+        }
+    };
+
+    private static final ClassValue<Integer> TYPE_ORDINALS = new ClassValue<Integer>() {
+        @Override
+        protected Integer computeValue(@Nonnull Class<?> type) {
+            return TypeCode.ordinalOf(getTypeCode(type));
+        }
+    };
+
     /**
      * Get the type code of a class.
      * Type codes are generated by hashing the canonical name of class. {@code java.util.List} stands for all
      * its sub types because they share the same operations, and also {@code java.util.Map} for all its sub types.
+     * The type codes are cached for each class.
      *
      * @param type the Class
      * @return the type code
      */
     public static int getTypeCode(@Nonnull Class<?> type) {
-        if (List.class.isAssignableFrom(type)) {
-            return TypeCode.LIST;
-        } else if (Map.class.isAssignableFrom(type)) {
-            return TypeCode.MAP;
-        }
-        return type.getCanonicalName().hashCode();
+        return TYPE_CODES.get(type);
     }
 
     /**
@@ -94,4 +109,28 @@ public final class TypeCodes implements Serializable {
         }
         return typeCodes;
     }
+
+    /**
+     * Get the type ordinal of a class. Type ordinals are dense, in {@code [0, TypeCode.ORDINAL_COUNT]}, and
+     * {@code TypeCode.UNKNOWN_ORDINAL} is for types without a predefined type code.
+     *
+     * @param type the Class
+     * @return the type ordinal
+     */
+    public static int getTypeOrdinal(@Nonnull Class<?> type) {
+        return TYPE_ORDINALS.get(type);
+    }
+
+    /**
+     * Get the type ordinal of an Object by get its class first.
+     *
+     * @param value the Object
+     * @return the type ordinal
+     */
+    public static int getTypeOrdinal(Object value) {
+        if (value != null) {
+            return getTypeOrdinal(value.getClass());
+        }
+        return getTypeOrdinal(Void.class);
+    }
 }
@@ -0,0 +1,278 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.runtime.codec;
+
+import io.github.datacanvasio.expretau.runtime.RtConst;
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+import io.github.datacanvasio.expretau.runtime.codegen.RtBytecodeCompiler;
+import io.github.datacanvasio.expretau.runtime.evaluator.base.Evaluator;
+import io.github.datacanvasio.expretau.runtime.evaluator.base.EvaluatorFactory;
+import io.github.datacanvasio.expretau.runtime.evaluator.base.UniversalEvaluator;
+import io.github.datacanvasio.expretau.runtime.op.RtEvaluatorOp;
+import io.github.datacanvasio.expretau.runtime.optimizer.RtCommonExpr;
+import io.github.datacanvasio.expretau.runtime.optimizer.RtCseExpr;
+import io.github.datacanvasio.expretau.runtime.var.RtParam;
+import io.github.datacanvasio.expretau.runtime.var.RtVar;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInput;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.StreamCorruptedException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Decode one RtExpr tree. Classes named in the input are checked to be of the expected types before instantiated.
+ */
+final class ExprDecoder {
+    // Stateless evaluators are shared, like those held by the factories.
+    private static final Map<String, Evaluator> EVALUATORS = new ConcurrentHashMap<>();
+
+    private final List<RtExpr> nodes = new ArrayList<>();
+    private Object[] pool;
+    private DataInput in;
+
+    @Nonnull
+    private static byte[] readBytes(@Nonnull DataInput in) throws IOException {
+        byte[] bytes = new byte[RtExprCodec.readVarInt(in)];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    @Nullable
+    private static Object readPoolEntry(@Nonnull DataInput in) throws IOException {
+        int tag = in.readUnsignedByte();
+        switch (tag) {
+            case RtExprCodec.POOL_NULL:
+                return null;
+            case RtExprCodec.POOL_TRUE:
+                return true;
+            case RtExprCodec.POOL_FALSE:
+                return false;
+            case RtExprCodec.POOL_INTEGER:
+                return RtExprCodec.readSignedVarInt(in);
+            case RtExprCodec.POOL_LONG:
+                return RtExprCodec.readSignedVarLong(in);
+            case RtExprCodec.POOL_DOUBLE:
+                return in.readDouble();
+            case RtExprCodec.POOL_STRING:
+                return new String(readBytes(in), StandardCharsets.UTF_8);
+            case RtExprCodec.POOL_DECIMAL:
+                return new BigDecimal(new String(readBytes(in), StandardCharsets.UTF_8));
+            case RtExprCodec.POOL_SERIALIZED:
+                try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(readBytes(in)))) {
+                    return ois.readObject();
+                } catch (ClassNotFoundException e) {
+                    throw new InvalidObjectException("Class of serialized constant not found: " + e.getMessage());
+                }
+            default:
+                throw new StreamCorruptedException("Unknown constant pool tag " + tag + ".");
+        }
+    }
+
+    @Nonnull
+    private static <T> Class<? extends T> classOf(@Nonnull String name, @Nonnull Class<T> type) throws IOException {
+        try {
+            Class<?> clazz = Class.forName(name, false, RtExprCodec.class.getClassLoader());
+            if (type.isAssignableFrom(clazz)) {
+                return clazz.asSubclass(type);
+            }
+        } catch (ClassNotFoundException e) {
+            throw new InvalidObjectException("Class \"" + name + "\" not found.");
+        }
+        throw new InvalidObjectException("Class \"" + name + "\" is not a " + type.getSimpleName() + ".");
+    }
+
+    @Nonnull
+    private static Object instantiate(@Nonnull Constructor<?> constructor, Object... args) {
+        try {
+            return constructor.newInstance(args);
+        } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException(
+                "Failed to instantiate class \"" + constructor.getDeclaringClass().getName() + "\".", e);
+        }
+    }
+
+    @Nonnull
+    private static Evaluator statelessEvaluator(@Nonnull String name) throws IOException {
+        Evaluator evaluator = EVALUATORS.get(name);
+        if (evaluator == null) {
+            Class<? extends Evaluator> clazz = classOf(name, Evaluator.class);
+            if (!NodeClasses.isStateless(clazz)) {
+                throw new InvalidObjectException("Evaluator \"" + name + "\" is not stateless.");
+            }
+            try {
+                evaluator = (Evaluator) instantiate(clazz.getConstructor());
+            } catch (NoSuchMethodException e) {
+                throw new InvalidObjectException("Evaluator \"" + name + "\" has no public no-arg constructor.");
+            }
+            EVALUATORS.putIfAbsent(name, evaluator);
+        }
+        return evaluator;
+    }
+
+    @Nonnull
+    private static EvaluatorFactory factory(@Nonnull String name) throws IOException {
+        Class<? extends EvaluatorFactory> clazz = classOf(name, EvaluatorFactory.class);
+        try {
+            return (EvaluatorFactory) clazz.getField("INS").get(null);
+        } catch (NoSuchFieldException | IllegalAccessException | ClassCastException e) {
+            throw new InvalidObjectException("Evaluator factory \"" + name + "\" has no instance.");
+        }
+    }
+
+    @Nonnull
+    RtExpr decode(@Nonnull DataInput input) throws IOException {
+        int magic = input.readInt();
+        if (magic != RtExprCodec.MAGIC) {
+            throw new StreamCorruptedException("Not an encoded RtExpr, magic is " + Integer.toHexString(magic) + ".");
+        }
+        int version = input.readUnsignedByte();
+        if (version != RtExprCodec.VERSION) {
+            throw new InvalidObjectException(
+                "Unsupported version " + version + ", only version " + RtExprCodec.VERSION + " is supported.");
+        }
+        pool = new Object[RtExprCodec.readVarInt(input)];
+        for (int i = 0; i < pool.length; ++i) {
+            pool[i] = readPoolEntry(input);
+        }
+        in = input;
+        return readNode();
+    }
+
+    @Nullable
+    private Object readRef() throws IOException {
+        int index = RtExprCodec.readVarInt(in);
+        if (index >= pool.length) {
+            throw new StreamCorruptedException("Constant pool index " + index + " out of range.");
+        }
+        return pool[index];
+    }
+
+    @Nonnull
+    private <T> T readRef(@Nonnull Class<T> type) throws IOException {
+        Object value = readRef();
+        if (type.isInstance(value)) {
+            return type.cast(value);
+        }
+        throw new StreamCorruptedException("A " + type.getSimpleName() + " is expected in constant pool.");
+    }
+
+    @Nonnull
+    private RtExpr[] readParas() throws IOException {
+        RtExpr[] paras = new RtExpr[RtExprCodec.readVarInt(in)];
+        for (int i = 0; i < paras.length; ++i) {
+            paras[i] = readNode();
+        }
+        return paras;
+    }
+
+    @Nonnull
+    private Evaluator readEvaluator() throws IOException {
+        int tag = in.readUnsignedByte();
+        switch (tag) {
+            case RtExprCodec.EVALUATOR_CLASS:
+                return statelessEvaluator(readRef(String.class));
+            case RtExprCodec.EVALUATOR_UNIVERSAL:
+                return new UniversalEvaluator(factory(readRef(String.class)));
+            case RtExprCodec.EVALUATOR_SERIALIZED:
+                return readRef(Evaluator.class);
+            default:
+                throw new StreamCorruptedException("Unknown evaluator tag " + tag + ".");
+        }
+    }
+
+    @Nonnull
+    private RtExpr readOp(boolean logical) throws IOException {
+        String name = readRef(String.class);
+        boolean adaptive = logical && in.readBoolean();
+        Constructor<?> constructor = NodeClasses.getOpConstructor(classOf(name, RtExpr.class), adaptive);
+        if (constructor == null) {
+            throw new InvalidObjectException("Op \"" + name + "\" cannot be created by its parameters.");
+        }
+        RtExpr[] paras = readParas();
+        return (RtExpr) (adaptive ? instantiate(constructor, paras, true) : instantiate(constructor, (Object) paras));
+    }
+
+    @Nonnull
+    private RtExpr readNode() throws IOException {
+        int tag = in.readUnsignedByte();
+        RtExpr expr;
+        switch (tag) {
+            case RtExprCodec.NODE_REF:
+                int index = RtExprCodec.readVarInt(in);
+                if (index >= nodes.size()) {
+                    throw new StreamCorruptedException("Node index " + index + " out of range.");
+                }
+                return nodes.get(index);
+            case RtExprCodec.NODE_CONST:
+                expr = new RtConst(readRef());
+                break;
+            case RtExprCodec.NODE_VAR:
+                expr = new RtVar(readRef(), RtExprCodec.readSignedVarInt(in));
+                break;
+            case RtExprCodec.NODE_PARAM:
+                expr = new RtParam(RtExprCodec.readVarInt(in), RtExprCodec.readSignedVarInt(in));
+                break;
+            case RtExprCodec.NODE_EVALUATOR_OP:
+                Evaluator evaluator = readEvaluator();
+                expr = RtEvaluatorOp.of(evaluator, readParas());
+                break;
+            case RtExprCodec.NODE_OP:
+                expr = readOp(false);
+                break;
+            case RtExprCodec.NODE_LOGICAL_OP:
+                expr = readOp(true);
+                break;
+            case RtExprCodec.NODE_CSE:
+                RtExpr[] paras = readParas();
+                RtCommonExpr[] commons = new RtCommonExpr[paras.length];
+                for (int i = 0; i < paras.length; ++i) {
+                    if (!(paras[i] instanceof RtCommonExpr)) {
+                        throw new StreamCorruptedException("Common sub-expression expected.");
+                    }
+                    commons[i] = (RtCommonExpr) paras[i];
+                }
+                expr = new RtCseExpr(readNode(), commons);
+                break;
+            case RtExprCodec.NODE_COMMON:
+                expr = new RtCommonExpr(readNode());
+                break;
+            case RtExprCodec.NODE_COMPILED:
+                expr = RtBytecodeCompiler.INS.compile(readNode());
+                break;
+            case RtExprCodec.NODE_SERIALIZED:
+                expr = readRef(RtExpr.class);
+                break;
+            default:
+                throw new StreamCorruptedException("Unknown node tag " + tag + ".");
+        }
+        nodes.add(expr);
+        return expr;
+    }
+}
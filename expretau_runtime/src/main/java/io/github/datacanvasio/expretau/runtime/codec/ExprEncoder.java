@@ -0,0 +1,189 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.runtime.codec;
+
+import io.github.datacanvasio.expretau.runtime.RtConst;
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+import io.github.datacanvasio.expretau.runtime.codegen.RtCompiledExpr;
+import io.github.datacanvasio.expretau.runtime.evaluator.base.Evaluator;
+import io.github.datacanvasio.expretau.runtime.evaluator.base.UniversalEvaluator;
+import io.github.datacanvasio.expretau.runtime.op.RtEvaluatorOp;
+import io.github.datacanvasio.expretau.runtime.op.RtOp;
+import io.github.datacanvasio.expretau.runtime.op.logical.RtLogicalOp;
+import io.github.datacanvasio.expretau.runtime.optimizer.RtCommonExpr;
+import io.github.datacanvasio.expretau.runtime.optimizer.RtCseExpr;
+import io.github.datacanvasio.expretau.runtime.var.RtParam;
+import io.github.datacanvasio.expretau.runtime.var.RtVar;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Encode one RtExpr tree. The nodes are written to a buffer first, for the constant pool is completed only after all
+ * the nodes are visited.
+ */
+final class ExprEncoder {
+    private final List<Object> pool = new ArrayList<>();
+    private final Map<Object, Integer> poolIndices = new HashMap<>();
+    private final Map<RtExpr, Integer> nodeIndices = new IdentityHashMap<>();
+    private final ByteArrayOutputStream nodeBytes = new ByteArrayOutputStream();
+    private final DataOutputStream out = new DataOutputStream(nodeBytes);
+
+    private static void writePoolEntry(@Nonnull DataOutput out, @Nullable Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(RtExprCodec.POOL_NULL);
+        } else if (value instanceof Boolean) {
+            out.writeByte((Boolean) value ? RtExprCodec.POOL_TRUE : RtExprCodec.POOL_FALSE);
+        } else if (value instanceof Integer) {
+            out.writeByte(RtExprCodec.POOL_INTEGER);
+            RtExprCodec.writeSignedVarInt(out, (Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(RtExprCodec.POOL_LONG);
+            RtExprCodec.writeSignedVarLong(out, (Long) value);
+        } else if (value instanceof Double) {
+            out.writeByte(RtExprCodec.POOL_DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof String) {
+            out.writeByte(RtExprCodec.POOL_STRING);
+            writeBytes(out, ((String) value).getBytes(StandardCharsets.UTF_8));
+        } else if (value.getClass() == BigDecimal.class) {
+            out.writeByte(RtExprCodec.POOL_DECIMAL);
+            writeBytes(out, value.toString().getBytes(StandardCharsets.UTF_8));
+        } else {
+            out.writeByte(RtExprCodec.POOL_SERIALIZED);
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+                oos.writeObject(value);
+            }
+            writeBytes(out, bos.toByteArray());
+        }
+    }
+
+    private static void writeBytes(@Nonnull DataOutput out, @Nonnull byte[] bytes) throws IOException {
+        RtExprCodec.writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static boolean isAdaptive(@Nonnull RtExpr expr) {
+        return ((RtLogicalOp) expr).isAdaptive();
+    }
+
+    void encode(@Nonnull RtExpr expr, @Nonnull DataOutput output) throws IOException {
+        writeNode(expr);
+        out.flush();
+        output.writeInt(RtExprCodec.MAGIC);
+        output.writeByte(RtExprCodec.VERSION);
+        RtExprCodec.writeVarInt(output, pool.size());
+        for (Object value : pool) {
+            writePoolEntry(output, value);
+        }
+        output.write(nodeBytes.toByteArray());
+    }
+
+    private void writeRef(@Nullable Object value) throws IOException {
+        Integer index = poolIndices.get(value);
+        if (index == null) {
+            index = pool.size();
+            pool.add(value);
+            poolIndices.put(value, index);
+        }
+        RtExprCodec.writeVarInt(out, index);
+    }
+
+    private void writeParas(@Nonnull RtExpr[] paras) throws IOException {
+        RtExprCodec.writeVarInt(out, paras.length);
+        for (RtExpr para : paras) {
+            writeNode(para);
+        }
+    }
+
+    private void writeEvaluator(@Nonnull Evaluator evaluator) throws IOException {
+        if (evaluator.getClass() == UniversalEvaluator.class) {
+            out.writeByte(RtExprCodec.EVALUATOR_UNIVERSAL);
+            writeRef(((UniversalEvaluator) evaluator).getFactory().getClass().getName());
+        } else if (NodeClasses.isStateless(evaluator.getClass())) {
+            out.writeByte(RtExprCodec.EVALUATOR_CLASS);
+            writeRef(evaluator.getClass().getName());
+        } else {
+            out.writeByte(RtExprCodec.EVALUATOR_SERIALIZED);
+            writeRef(evaluator);
+        }
+    }
+
+    private void writeNode(@Nonnull RtExpr expr) throws IOException {
+        Integer ref = nodeIndices.get(expr);
+        if (ref != null) {
+            out.writeByte(RtExprCodec.NODE_REF);
+            RtExprCodec.writeVarInt(out, ref);
+            return;
+        }
+        Class<?> clazz = expr.getClass();
+        if (clazz == RtConst.class) {
+            out.writeByte(RtExprCodec.NODE_CONST);
+            writeRef(((RtConst) expr).getValue());
+        } else if (clazz == RtParam.class) {
+            out.writeByte(RtExprCodec.NODE_PARAM);
+            RtExprCodec.writeVarInt(out, ((RtParam) expr).getSlot());
+            RtExprCodec.writeSignedVarInt(out, expr.typeCode());
+        } else if (clazz == RtVar.class) {
+            out.writeByte(RtExprCodec.NODE_VAR);
+            writeRef(((RtVar) expr).getId());
+            RtExprCodec.writeSignedVarInt(out, expr.typeCode());
+        } else if (expr instanceof RtEvaluatorOp && NodeClasses.isEvaluatorOp(clazz)) {
+            out.writeByte(RtExprCodec.NODE_EVALUATOR_OP);
+            writeEvaluator(((RtEvaluatorOp) expr).getEvaluator());
+            writeParas(((RtOp) expr).getParas());
+        } else if (expr instanceof RtLogicalOp && NodeClasses.getOpConstructor(clazz, isAdaptive(expr)) != null) {
+            out.writeByte(RtExprCodec.NODE_LOGICAL_OP);
+            writeRef(clazz.getName());
+            out.writeBoolean(isAdaptive(expr));
+            writeParas(((RtOp) expr).getParas());
+        } else if (expr instanceof RtOp && NodeClasses.getOpConstructor(clazz, false) != null) {
+            out.writeByte(RtExprCodec.NODE_OP);
+            writeRef(clazz.getName());
+            writeParas(((RtOp) expr).getParas());
+        } else if (expr instanceof RtCseExpr) {
+            RtCseExpr cseExpr = (RtCseExpr) expr;
+            out.writeByte(RtExprCodec.NODE_CSE);
+            writeParas(cseExpr.getCommons());
+            writeNode(cseExpr.getExpr());
+        } else if (expr instanceof RtCommonExpr) {
+            out.writeByte(RtExprCodec.NODE_COMMON);
+            writeNode(((RtCommonExpr) expr).getExpr());
+        } else if (expr instanceof RtCompiledExpr) {
+            out.writeByte(RtExprCodec.NODE_COMPILED);
+            writeNode(((RtCompiledExpr) expr).getOrigin());
+        } else {
+            out.writeByte(RtExprCodec.NODE_SERIALIZED);
+            writeRef(expr);
+        }
+        nodeIndices.put(expr, nodeIndices.size());
+    }
+}
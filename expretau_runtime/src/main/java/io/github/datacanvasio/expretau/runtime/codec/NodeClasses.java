@@ -0,0 +1,123 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.runtime.codec;
+
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+import io.github.datacanvasio.expretau.runtime.op.RtBinaryEvaluatorOp;
+import io.github.datacanvasio.expretau.runtime.op.RtEvaluatorOp;
+import io.github.datacanvasio.expretau.runtime.op.RtOp;
+import io.github.datacanvasio.expretau.runtime.op.RtTernaryEvaluatorOp;
+import io.github.datacanvasio.expretau.runtime.op.RtUnaryEvaluatorOp;
+import io.github.datacanvasio.expretau.runtime.op.logical.RtLogicalOp;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Check which node and evaluator classes can be encoded by their names only, and find their constructors.
+ */
+final class NodeClasses {
+    private static final Map<Class<?>, Optional<Constructor<?>>> OP_CONSTRUCTORS = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, Optional<Constructor<?>>> ADAPTIVE_OP_CONSTRUCTORS = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, Boolean> STATELESS = new ConcurrentHashMap<>();
+
+    private NodeClasses() {
+    }
+
+    private static boolean isInstantiable(@Nonnull Class<?> clazz) {
+        int modifiers = clazz.getModifiers();
+        return Modifier.isPublic(modifiers) && !Modifier.isAbstract(modifiers) && !clazz.isAnonymousClass();
+    }
+
+    // No instance fields declared in the classes from `clazz` up to `top` (exclusive).
+    private static boolean hasNoFields(@Nonnull Class<?> clazz, @Nonnull Class<?> top) {
+        for (Class<?> c = clazz; c != null && c != top; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers())) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check if an evaluator class has no state, so it can be created again by its public no-arg constructor.
+     *
+     * @param clazz the evaluator class
+     * @return {@code true} if it is stateless
+     */
+    static boolean isStateless(@Nonnull Class<?> clazz) {
+        return STATELESS.computeIfAbsent(clazz, c -> {
+            if (!isInstantiable(c) || !hasNoFields(c, Object.class)) {
+                return false;
+            }
+            try {
+                return Modifier.isPublic(c.getConstructor().getModifiers());
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        });
+    }
+
+    /**
+     * Check if a class is one of the classes created by {@link RtEvaluatorOp#of}.
+     *
+     * @param clazz the class
+     * @return {@code true} if it is
+     */
+    static boolean isEvaluatorOp(@Nonnull Class<?> clazz) {
+        return clazz == RtEvaluatorOp.class
+            || clazz == RtUnaryEvaluatorOp.class
+            || clazz == RtBinaryEvaluatorOp.class
+            || clazz == RtTernaryEvaluatorOp.class;
+    }
+
+    /**
+     * Get the constructor to create an op from its parameters, if the op has no other state.
+     *
+     * @param clazz    the op class
+     * @param adaptive if the op is an adaptive {@link RtLogicalOp}, whose constructor has an extra boolean parameter
+     * @return the constructor, or {@code null} if the op cannot be created by its parameters
+     */
+    @Nullable
+    static Constructor<?> getOpConstructor(@Nonnull Class<?> clazz, boolean adaptive) {
+        Map<Class<?>, Optional<Constructor<?>>> constructors = adaptive ? ADAPTIVE_OP_CONSTRUCTORS : OP_CONSTRUCTORS;
+        return constructors.computeIfAbsent(clazz, c -> {
+            if (!RtOp.class.isAssignableFrom(c) || !isInstantiable(c)) {
+                return Optional.empty();
+            }
+            if (!hasNoFields(c, RtLogicalOp.class.isAssignableFrom(c) ? RtLogicalOp.class : RtOp.class)) {
+                return Optional.empty();
+            }
+            try {
+                return Optional.of(adaptive
+                    ? c.getConstructor(RtExpr[].class, boolean.class)
+                    : c.getConstructor(RtExpr[].class));
+            } catch (NoSuchMethodException e) {
+                return Optional.empty();
+            }
+        }).orElse(null);
+    }
+}
@@ -0,0 +1,317 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.runtime.codec;
+
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+import io.github.datacanvasio.expretau.runtime.schema.RtSchemaRoot;
+import lombok.Getter;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * A file of named RtExprs encoded by {@link RtExprCodec}, with the {@link RtSchemaRoot} they were compiled in, so that
+ * a service can start without parsing and compiling them again.
+ *
+ * <p>The file is memory-mapped when opened, and only the schema and the index of names are read. Each RtExpr is
+ * decoded when it is got for the first time, and the result is kept. The file must be smaller than 2 GiB.
+ */
+public final class RtExprBundle {
+    /**
+     * The first 4 bytes of a bundle file, which are {@code "RTEB"} in ASCII.
+     */
+    public static final int MAGIC = 0x52544542;
+    /**
+     * The version of the bundle format. Opening fails for any other version.
+     */
+    public static final int VERSION = 1;
+
+    @Getter
+    private final RtSchemaRoot schemaRoot;
+    @Getter
+    private final long fingerprint;
+    private final String[] names;
+    private final int[] offsets;
+    private final int[] lengths;
+    private final Map<String, Integer> indices;
+    private final ByteBuffer data;
+    private final AtomicReferenceArray<RtExpr> exprs;
+
+    private RtExprBundle(
+        RtSchemaRoot schemaRoot,
+        long fingerprint,
+        @Nonnull String[] names,
+        int[] offsets,
+        int[] lengths,
+        ByteBuffer data
+    ) {
+        this.schemaRoot = schemaRoot;
+        this.fingerprint = fingerprint;
+        this.names = names;
+        this.offsets = offsets;
+        this.lengths = lengths;
+        this.data = data;
+        indices = new HashMap<>(names.length * 2);
+        for (int i = 0; i < names.length; ++i) {
+            indices.put(names[i], i);
+        }
+        exprs = new AtomicReferenceArray<>(names.length);
+    }
+
+    /**
+     * Write RtExprs into a bundle file. The RtExprs are encoded in the order of the map.
+     *
+     * @param path       the path of the file
+     * @param schemaRoot the schema root which the RtExprs were compiled in
+     * @param exprs      the RtExprs by their names
+     * @throws IOException if failed to write or an RtExpr cannot be encoded
+     */
+    public static void write(
+        @Nonnull Path path,
+        @Nonnull RtSchemaRoot schemaRoot,
+        @Nonnull Map<String, ? extends RtExpr> exprs
+    ) throws IOException {
+        ByteArrayOutputStream schemaBytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(schemaBytes)) {
+            oos.writeObject(schemaRoot);
+        }
+        List<byte[]> encoded = new ArrayList<>(exprs.size());
+        for (RtExpr expr : exprs.values()) {
+            encoded.add(RtExprCodec.INS.encode(expr));
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(schemaRoot.getFingerprint());
+            out.writeInt(schemaBytes.size());
+            schemaBytes.writeTo(out);
+            out.writeInt(exprs.size());
+            int offset = 0;
+            int i = 0;
+            for (String name : exprs.keySet()) {
+                int length = encoded.get(i++).length;
+                out.writeUTF(name);
+                out.writeInt(offset);
+                out.writeInt(length);
+                offset += length;
+            }
+            for (byte[] bytes : encoded) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    /**
+     * Open a bundle file.
+     *
+     * @param path the path of the file
+     * @return the bundle
+     * @throws IOException if failed to read or the file is not a valid bundle of this version
+     */
+    @Nonnull
+    public static RtExprBundle open(@Nonnull Path path) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Bundle file \"" + path + "\" is too large.");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        DataInputStream in = new DataInputStream(new ByteBufferInputStream(buffer));
+        int magic = in.readInt();
+        if (magic != MAGIC) {
+            throw new StreamCorruptedException("Not a bundle file, magic is " + Integer.toHexString(magic) + ".");
+        }
+        int version = in.readUnsignedByte();
+        if (version != VERSION) {
+            throw new InvalidObjectException(
+                "Unsupported bundle version " + version + ", only version " + VERSION + " is supported.");
+        }
+        long fingerprint = in.readLong();
+        byte[] schemaBytes = new byte[in.readInt()];
+        in.readFully(schemaBytes);
+        RtSchemaRoot schemaRoot;
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(schemaBytes))) {
+            schemaRoot = (RtSchemaRoot) ois.readObject();
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new InvalidObjectException("Invalid schema in bundle file: " + e.getMessage());
+        }
+        if (schemaRoot.getFingerprint() != fingerprint) {
+            throw new InvalidObjectException("Fingerprint of the schema in bundle file does not match.");
+        }
+        int count = in.readInt();
+        String[] names = new String[count];
+        int[] offsets = new int[count];
+        int[] lengths = new int[count];
+        for (int i = 0; i < count; ++i) {
+            names[i] = in.readUTF();
+            offsets[i] = in.readInt();
+            lengths[i] = in.readInt();
+        }
+        ByteBuffer data = buffer.slice();
+        for (int i = 0; i < count; ++i) {
+            if (offsets[i] < 0 || lengths[i] < 0 || offsets[i] > data.limit() - lengths[i]) {
+                throw new StreamCorruptedException("Entry \"" + names[i] + "\" is out of the bundle file.");
+            }
+        }
+        return new RtExprBundle(schemaRoot, fingerprint, names, offsets, lengths, data);
+    }
+
+    /**
+     * Open a bundle file, which must be written with the same schema.
+     *
+     * @param path       the path of the file
+     * @param schemaRoot the expected schema root
+     * @return the bundle
+     * @throws IOException if failed to read, the file is not a valid bundle, or the schema is different
+     */
+    @Nonnull
+    public static RtExprBundle open(@Nonnull Path path, @Nonnull RtSchemaRoot schemaRoot) throws IOException {
+        RtExprBundle bundle = open(path);
+        if (bundle.fingerprint != schemaRoot.getFingerprint()) {
+            throw new InvalidObjectException("Bundle file \"" + path + "\" was written with a different schema.");
+        }
+        return bundle;
+    }
+
+    /**
+     * Get the number of RtExprs in this bundle.
+     *
+     * @return the number
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * Get the name of an RtExpr.
+     *
+     * @param index the position of the RtExpr
+     * @return the name
+     */
+    @Nonnull
+    public String getName(int index) {
+        return names[index];
+    }
+
+    /**
+     * Get the position of an RtExpr by its name.
+     *
+     * @param name the name
+     * @return the position, or {@code -1} if there is not such an RtExpr
+     */
+    public int indexOf(@Nonnull String name) {
+        Integer index = indices.get(name);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Check if an RtExpr has been decoded.
+     *
+     * @param index the position of the RtExpr
+     * @return {@code true} if it has been decoded
+     */
+    public boolean isLoaded(int index) {
+        return exprs.get(index) != null;
+    }
+
+    /**
+     * Get an RtExpr by its position, which is decoded at the first time.
+     *
+     * @param index the position of the RtExpr
+     * @return the RtExpr
+     */
+    @Nonnull
+    public RtExpr get(int index) {
+        RtExpr expr = exprs.get(index);
+        if (expr == null) {
+            ByteBuffer buffer = data.duplicate();
+            buffer.position(offsets[index]);
+            buffer.limit(offsets[index] + lengths[index]);
+            try {
+                expr = RtExprCodec.INS.decode(new DataInputStream(new ByteBufferInputStream(buffer)));
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to decode \"" + names[index] + "\" in bundle.", e);
+            }
+            // Other threads may decode the same one concurrently, only the first result is kept.
+            if (!exprs.compareAndSet(index, null, expr)) {
+                expr = exprs.get(index);
+            }
+        }
+        return expr;
+    }
+
+    /**
+     * Get an RtExpr by its name, which is decoded at the first time.
+     *
+     * @param name the name
+     * @return the RtExpr, or {@code null} if there is not such an RtExpr
+     */
+    @Nullable
+    public RtExpr get(@Nonnull String name) {
+        int index = indexOf(name);
+        return index >= 0 ? get(index) : null;
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(@Nonnull byte[] bytes, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(len, buffer.remaining());
+            buffer.get(bytes, off, count);
+            return count;
+        }
+    }
+}
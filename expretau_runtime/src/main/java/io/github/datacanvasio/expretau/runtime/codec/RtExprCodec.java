@@ -0,0 +1,198 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.runtime.codec;
+
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import javax.annotation.Nonnull;
+
+/**
+ * A compact binary codec of RtExpr trees, which is much smaller and faster than Java serialization and does not
+ * depend on the {@code serialVersionUID}s of node classes.
+ *
+ * <p>The encoded form is a header ({@link #MAGIC} and {@link #VERSION}), a constant pool and the nodes in pre-order.
+ * Constants, variable ids and class names are written once in the pool and referenced by indices. Evaluators are
+ * identified by the names of their generated classes (which are made of the factory name and the parameter types),
+ * and universal evaluators by the names of their factories. Nodes shared in the tree (e.g. common sub-expressions)
+ * are written once and referenced later. Nodes not known by the codec are put in the pool by Java serialization.
+ *
+ * <p>The stream variants read and write exactly the bytes of one encoded tree, so they can be used in serializers
+ * of other frameworks by wrapping their streams in {@link DataOutputStream} and {@link DataInputStream}.
+ */
+public final class RtExprCodec {
+    public static final RtExprCodec INS = new RtExprCodec();
+
+    /**
+     * The first 4 bytes of an encoded tree, which are {@code "RTEX"} in ASCII.
+     */
+    public static final int MAGIC = 0x52544558;
+    /**
+     * The version of the format. Decoding fails for any other version.
+     */
+    public static final int VERSION = 1;
+
+    // Node tags.
+    static final int NODE_REF = 0;
+    static final int NODE_CONST = 1;
+    static final int NODE_VAR = 2;
+    static final int NODE_PARAM = 3;
+    static final int NODE_EVALUATOR_OP = 4;
+    static final int NODE_OP = 5;
+    static final int NODE_LOGICAL_OP = 6;
+    static final int NODE_CSE = 7;
+    static final int NODE_COMMON = 8;
+    static final int NODE_COMPILED = 9;
+    static final int NODE_SERIALIZED = 10;
+
+    // Evaluator tags.
+    static final int EVALUATOR_CLASS = 0;
+    static final int EVALUATOR_UNIVERSAL = 1;
+    static final int EVALUATOR_SERIALIZED = 2;
+
+    // Constant pool entry tags.
+    static final int POOL_NULL = 0;
+    static final int POOL_TRUE = 1;
+    static final int POOL_FALSE = 2;
+    static final int POOL_INTEGER = 3;
+    static final int POOL_LONG = 4;
+    static final int POOL_DOUBLE = 5;
+    static final int POOL_STRING = 6;
+    static final int POOL_DECIMAL = 7;
+    static final int POOL_SERIALIZED = 8;
+
+    private RtExprCodec() {
+    }
+
+    static void writeVarInt(@Nonnull DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    static int readVarInt(@Nonnull DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable-length integer.");
+    }
+
+    static void writeVarLong(@Nonnull DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static long readVarLong(@Nonnull DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable-length integer.");
+    }
+
+    static void writeSignedVarInt(@Nonnull DataOutput out, int value) throws IOException {
+        writeVarInt(out, (value << 1) ^ (value >> 31));
+    }
+
+    static int readSignedVarInt(@Nonnull DataInput in) throws IOException {
+        int value = readVarInt(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static void writeSignedVarLong(@Nonnull DataOutput out, long value) throws IOException {
+        writeVarLong(out, (value << 1) ^ (value >> 63));
+    }
+
+    static long readSignedVarLong(@Nonnull DataInput in) throws IOException {
+        long value = readVarLong(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Encode an RtExpr tree to a DataOutput.
+     *
+     * @param expr the RtExpr
+     * @param out  the DataOutput
+     * @throws IOException if failed to write or a node/constant cannot be serialized
+     */
+    public void encode(@Nonnull RtExpr expr, @Nonnull DataOutput out) throws IOException {
+        new ExprEncoder().encode(expr, out);
+    }
+
+    /**
+     * Encode an RtExpr tree to bytes.
+     *
+     * @param expr the RtExpr
+     * @return the encoded bytes
+     * @throws IOException if a node/constant cannot be serialized
+     */
+    @Nonnull
+    public byte[] encode(@Nonnull RtExpr expr) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bos)) {
+            encode(expr, out);
+        }
+        return bos.toByteArray();
+    }
+
+    /**
+     * Decode an RtExpr tree from a DataInput.
+     *
+     * @param in the DataInput
+     * @return the RtExpr
+     * @throws IOException if failed to read or the input is not a valid encoded tree of this version
+     */
+    @Nonnull
+    public RtExpr decode(@Nonnull DataInput in) throws IOException {
+        return new ExprDecoder().decode(in);
+    }
+
+    /**
+     * Decode an RtExpr tree from bytes.
+     *
+     * @param bytes the encoded bytes
+     * @return the RtExpr
+     * @throws IOException if the bytes are not a valid encoded tree of this version
+     */
+    @Nonnull
+    public RtExpr decode(@Nonnull byte[] bytes) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            return decode(in);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.datacanvasio.expretau.runtime.codegen;
+
+import javax.annotation.Nonnull;
+
+/**
+ * A ClassLoader holding a single generated class, so that the class can be unloaded when not used any more.
+ */
+final class GeneratedClassLoader extends ClassLoader {
+    GeneratedClassLoader(ClassLoader parent) {
+        super(parent);
+    }
+
+    /**
+     * Check if a class can be resolved by the generated class.
+     *
+     * @param clazz the class
+     * @return {@code true} if the class is visible
+     */
+    boolean isVisible(@Nonnull Class<?> clazz) {
+        try {
+            return Class.forName(clazz.getName(), false, this) == clazz;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    Class<?> define(String name, @Nonnull byte[] bytes) {
+        return defineClass(name, bytes, 0, bytes.length);
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.datacanvasio.expretau.runtime.codegen;
+
+import io.github.datacanvasio.expretau.runtime.EvalContext;
+import io.github.datacanvasio.expretau.runtime.RtConst;
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+import io.github.datacanvasio.expretau.runtime.exception.FailGetEvaluator;
+import io.github.datacanvasio.expretau.runtime.monitor.CompileEvent;
+import io.github.datacanvasio.expretau.runtime.monitor.ExprEvents;
+import io.github.datacanvasio.expretau.runtime.monitor.ExprMetrics;
+import io.github.datacanvasio.expretau.runtime.var.RtVar;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodTooLargeException;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nonnull;
+
+/**
+ * Compile an RtExpr tree into a single generated class, so that the evaluating is straight-line bytecode without
+ * walking the tree. Nodes which cannot be compiled (UDFs, ops without a static {@code calc} evaluator, etc.) are kept
+ * and called through {@link RtExpr#eval(EvalContext)}.
+ *
+ * <p>If the type of the RtExpr is primitive, the generated class overrides the primitive entry points such as
+ * {@link RtExpr#evalLong(EvalContext)}, so that callers of them do not box the result.
+ *
+ * <p>The latencies of compiling are recorded in {@link ExprMetrics#INS}, and emitted as {@link CompileEvent}s.
+ */
+public final class RtBytecodeCompiler {
+    public static final RtBytecodeCompiler INS = new RtBytecodeCompiler();
+
+    private static final Type OBJECT_TYPE = Type.getType(Object.class);
+    private static final Type EVAL_CONTEXT_TYPE = Type.getType(EvalContext.class);
+    private static final String CLASS_NAME_PREFIX = RtCompiledExpr.class.getName() + "$$Generated";
+
+    private final AtomicLong classCount = new AtomicLong(0);
+
+    private RtBytecodeCompiler() {
+    }
+
+    private static void generateConstructor(@Nonnull ClassWriter cw) {
+        String superName = Type.getInternalName(RtCompiledExpr.class);
+        String desc = Type.getMethodDescriptor(
+            Type.VOID_TYPE,
+            Type.getType(RtExpr.class),
+            Type.getType(Object[].class),
+            Type.getType(RtExpr[].class)
+        );
+        MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "<init>", desc, null, null);
+        mv.visitCode();
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitVarInsn(Opcodes.ALOAD, 1);
+        mv.visitVarInsn(Opcodes.ALOAD, 2);
+        mv.visitVarInsn(Opcodes.ALOAD, 3);
+        mv.visitMethodInsn(Opcodes.INVOKESPECIAL, superName, "<init>", desc, false);
+        mv.visitInsn(Opcodes.RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    @Nonnull
+    private static MethodVisitor visitEvalMethod(@Nonnull ClassWriter cw, @Nonnull Type type) {
+        return cw.visitMethod(
+            Opcodes.ACC_PUBLIC,
+            RtExprEmitter.evalMethodName(type),
+            Type.getMethodDescriptor(type, EVAL_CONTEXT_TYPE),
+            null,
+            new String[]{Type.getInternalName(FailGetEvaluator.class)}
+        );
+    }
+
+    // Generate the entry point returning `to` by calling the entry point returning `from`.
+    private static void generateBridge(
+        @Nonnull ClassWriter cw,
+        @Nonnull String internalName,
+        @Nonnull GeneratedClassLoader loader,
+        @Nonnull Type from,
+        @Nonnull Type to
+    ) {
+        if (from.equals(to)) {
+            return;
+        }
+        MethodVisitor mv = visitEvalMethod(cw, to);
+        mv.visitCode();
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitVarInsn(Opcodes.ALOAD, 1);
+        mv.visitMethodInsn(
+            Opcodes.INVOKEVIRTUAL,
+            internalName,
+            RtExprEmitter.evalMethodName(from),
+            Type.getMethodDescriptor(from, EVAL_CONTEXT_TYPE),
+            false
+        );
+        new RtExprEmitter(mv, internalName, loader).emitConvert(from, to);
+        mv.visitInsn(to.getOpcode(Opcodes.IRETURN));
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    /**
+     * Compile an RtExpr into a generated RtExpr. The original RtExpr is returned if it is not worth compiling (a
+     * constant, a variable, or nothing can be compiled) or cannot be compiled (too large).
+     *
+     * @param expr the RtExpr
+     * @return the compiled RtExpr
+     */
+    @Nonnull
+    public RtExpr compile(@Nonnull RtExpr expr) {
+        if (expr instanceof RtCompiledExpr || expr instanceof RtConst || expr instanceof RtVar) {
+            return expr;
+        }
+        CompileEvent event = ExprEvents.beginCompile();
+        long start = System.nanoTime();
+        RtExpr result = null;
+        try {
+            result = generate(expr);
+            return result;
+        } finally {
+            ExprMetrics.INS.getBytecodeCompiles().record(System.nanoTime() - start);
+            ExprEvents.commitCompile(event, null, "bytecode", result);
+        }
+    }
+
+    @Nonnull
+    private RtExpr generate(@Nonnull RtExpr expr) {
+        String className = CLASS_NAME_PREFIX + classCount.incrementAndGet();
+        String internalName = className.replace('.', '/');
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES) {
+            @Override
+            protected String getCommonSuperClass(String type1, String type2) {
+                // Only primitive values are on the stack when branches merge, and object locals are used as Object.
+                return Type.getInternalName(Object.class);
+            }
+        };
+        cw.visit(
+            Opcodes.V1_8,
+            Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER | Opcodes.ACC_SYNTHETIC,
+            internalName,
+            null,
+            Type.getInternalName(RtCompiledExpr.class),
+            null
+        );
+        generateConstructor(cw);
+        // The tree is emitted into the entry point of its own type, and the others convert the result of it.
+        Type type = RtExprEmitter.nodeType(expr);
+        MethodVisitor mv = visitEvalMethod(cw, type);
+        mv.visitCode();
+        GeneratedClassLoader loader = new GeneratedClassLoader(RtCompiledExpr.class.getClassLoader());
+        RtExprEmitter emitter = new RtExprEmitter(mv, internalName, loader);
+        Type resultType = emitter.emit(expr);
+        if (emitter.getCompiledCount() == 0) {
+            return expr;
+        }
+        emitter.emitConvert(resultType, type);
+        mv.visitInsn(type.getOpcode(Opcodes.IRETURN));
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+        if (type.getSort() != Type.OBJECT) {
+            generateBridge(cw, internalName, loader, type, OBJECT_TYPE);
+            if (type.getSort() == Type.BOOLEAN) {
+                generateBridge(cw, internalName, loader, type, Type.BOOLEAN_TYPE);
+            } else {
+                generateBridge(cw, internalName, loader, type, Type.INT_TYPE);
+                generateBridge(cw, internalName, loader, type, Type.LONG_TYPE);
+                generateBridge(cw, internalName, loader, type, Type.DOUBLE_TYPE);
+            }
+        }
+        cw.visitEnd();
+        byte[] bytes;
+        try {
+            bytes = cw.toByteArray();
+        } catch (MethodTooLargeException e) {
+            return expr;
+        }
+        try {
+            return (RtExpr) loader.define(className, bytes)
+                .getConstructor(RtExpr.class, Object[].class, RtExpr[].class)
+                .newInstance(expr, emitter.getConsts().toArray(), emitter.getNodes().toArray(new RtExpr[0]));
+        } catch (InstantiationException | IllegalAccessException
+            | InvocationTargetException | NoSuchMethodException e) {
+            throw new IllegalStateException("Failed to instantiate generated class \"" + className + "\".", e);
+        }
+    }
+}
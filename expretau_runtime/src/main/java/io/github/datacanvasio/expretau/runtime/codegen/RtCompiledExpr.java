@@ -0,0 +1,94 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.datacanvasio.expretau.runtime.codegen;
+
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+import io.github.datacanvasio.expretau.runtime.exception.FailGetEvaluator;
+import io.github.datacanvasio.expretau.runtime.vector.ColumnBatch;
+import io.github.datacanvasio.expretau.runtime.vector.ColumnVector;
+import lombok.Getter;
+
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * The base class of RtExprs generated by {@link RtBytecodeCompiler}. Only the original RtExpr tree is serialized, the
+ * class is generated again after deserialization.
+ */
+public abstract class RtCompiledExpr implements RtExpr {
+    private static final long serialVersionUID = -1436920442125071627L;
+
+    @Getter
+    @Nonnull
+    protected final RtExpr origin;
+    @Nonnull
+    protected final Object[] consts;
+    @Nonnull
+    protected final RtExpr[] nodes;
+
+    protected RtCompiledExpr(@Nonnull RtExpr origin, @Nonnull Object[] consts, @Nonnull RtExpr[] nodes) {
+        this.origin = origin;
+        this.consts = consts;
+        this.nodes = nodes;
+    }
+
+    @Override
+    public final int typeCode() {
+        return origin.typeCode();
+    }
+
+    // Evaluating by columns is already cheap in dispatching, so use the original tree.
+    @Override
+    public final void evalBatch(
+        @Nonnull ColumnBatch batch,
+        @Nullable int[] sel,
+        int size,
+        @Nonnull ColumnVector out
+    ) throws FailGetEvaluator {
+        origin.evalBatch(batch, sel, size, out);
+    }
+
+    @Override
+    public final int filterBatch(
+        @Nonnull ColumnBatch batch,
+        @Nullable int[] sel,
+        int size,
+        @Nonnull int[] out
+    ) throws FailGetEvaluator {
+        return origin.filterBatch(batch, sel, size, out);
+    }
+
+    protected final Object writeReplace() throws ObjectStreamException {
+        return new SerializedForm(origin);
+    }
+
+    private static final class SerializedForm implements Serializable {
+        private static final long serialVersionUID = 4262805357101432386L;
+
+        private final RtExpr origin;
+
+        private SerializedForm(RtExpr origin) {
+            this.origin = origin;
+        }
+
+        private Object readResolve() throws ObjectStreamException {
+            return RtBytecodeCompiler.INS.compile(origin);
+        }
+    }
+}
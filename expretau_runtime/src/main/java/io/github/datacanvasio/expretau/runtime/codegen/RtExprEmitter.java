@@ -0,0 +1,452 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.datacanvasio.expretau.runtime.codegen;
+
+import io.github.datacanvasio.expretau.runtime.EvalContext;
+import io.github.datacanvasio.expretau.runtime.RtConst;
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+import io.github.datacanvasio.expretau.runtime.TypeCode;
+import io.github.datacanvasio.expretau.runtime.op.RtEvaluatorOp;
+import io.github.datacanvasio.expretau.runtime.op.logical.RtAndOp;
+import io.github.datacanvasio.expretau.runtime.op.logical.RtNotOp;
+import io.github.datacanvasio.expretau.runtime.op.logical.RtOrOp;
+import io.github.datacanvasio.expretau.runtime.optimizer.RtCommonExpr;
+import io.github.datacanvasio.expretau.runtime.optimizer.RtCseExpr;
+import io.github.datacanvasio.expretau.runtime.var.RtParam;
+import io.github.datacanvasio.expretau.runtime.var.RtVar;
+import lombok.Getter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Emit the bytecode of an RtExpr tree into the body of {@code eval}. The value of each node is left on the operand
+ * stack in its natural type (primitive if possible), so no boxing happens between nodes.
+ */
+final class RtExprEmitter {
+    private static final String CALC_METHOD = "calc";
+    private static final Type OBJECT_TYPE = Type.getType(Object.class);
+    private static final Type RT_EXPR_TYPE = Type.getType(RtExpr.class);
+    private static final Type EVAL_CONTEXT_TYPE = Type.getType(EvalContext.class);
+    private static final String FIELD_CONSTS = "consts";
+    private static final String FIELD_NODES = "nodes";
+    private static final int VAR_THIS = 0;
+    private static final int VAR_ETX = 1;
+
+    private final MethodVisitor mv;
+    private final String owner;
+    private final GeneratedClassLoader loader;
+    @Getter
+    private final List<Object> consts = new ArrayList<>();
+    @Getter
+    private final List<RtExpr> nodes = new ArrayList<>();
+    private final Map<RtCommonExpr, CommonLocals> commonLocals = new IdentityHashMap<>();
+    @Getter
+    private int compiledCount = 0;
+    private int nextLocal = VAR_ETX + 1;
+
+    RtExprEmitter(MethodVisitor mv, String owner, GeneratedClassLoader loader) {
+        this.mv = mv;
+        this.owner = owner;
+        this.loader = loader;
+    }
+
+    @Nonnull
+    private static Type boxedType(@Nonnull Type type) {
+        switch (type.getSort()) {
+            case Type.BOOLEAN:
+                return Type.getType(Boolean.class);
+            case Type.INT:
+                return Type.getType(Integer.class);
+            case Type.LONG:
+                return Type.getType(Long.class);
+            case Type.DOUBLE:
+                return Type.getType(Double.class);
+            default:
+                return type;
+        }
+    }
+
+    private static boolean isPrimitive(@Nonnull Type type) {
+        return type.getSort() != Type.OBJECT && type.getSort() != Type.ARRAY;
+    }
+
+    private void emitPrimitiveCast(@Nonnull Type from, @Nonnull Type to) {
+        int fromSort = from.getSort();
+        int toSort = to.getSort();
+        if (fromSort == Type.INT && toSort == Type.LONG) {
+            mv.visitInsn(Opcodes.I2L);
+        } else if (fromSort == Type.INT && toSort == Type.DOUBLE) {
+            mv.visitInsn(Opcodes.I2D);
+        } else if (fromSort == Type.LONG && toSort == Type.INT) {
+            mv.visitInsn(Opcodes.L2I);
+        } else if (fromSort == Type.LONG && toSort == Type.DOUBLE) {
+            mv.visitInsn(Opcodes.L2D);
+        } else if (fromSort == Type.DOUBLE && toSort == Type.INT) {
+            mv.visitInsn(Opcodes.D2I);
+        } else if (fromSort == Type.DOUBLE && toSort == Type.LONG) {
+            mv.visitInsn(Opcodes.D2L);
+        } else {
+            // Not convertible, let it fail at runtime as the interpreter does.
+            emitBox(from);
+            emitUnbox(to);
+        }
+    }
+
+    private void emitBox(@Nonnull Type type) {
+        if (isPrimitive(type)) {
+            Type boxed = boxedType(type);
+            mv.visitMethodInsn(
+                Opcodes.INVOKESTATIC,
+                boxed.getInternalName(),
+                "valueOf",
+                Type.getMethodDescriptor(boxed, type),
+                false
+            );
+        }
+    }
+
+    private void emitUnbox(@Nonnull Type type) {
+        Type boxed = boxedType(type);
+        mv.visitTypeInsn(Opcodes.CHECKCAST, boxed.getInternalName());
+        mv.visitMethodInsn(
+            Opcodes.INVOKEVIRTUAL,
+            boxed.getInternalName(),
+            type.getClassName() + "Value",
+            Type.getMethodDescriptor(type),
+            false
+        );
+    }
+
+    /**
+     * Convert the value on the top of the operand stack.
+     *
+     * @param from the type of the value
+     * @param to   the required type
+     */
+    void emitConvert(@Nonnull Type from, @Nonnull Type to) {
+        if (from.equals(to)) {
+            return;
+        }
+        if (isPrimitive(from)) {
+            if (isPrimitive(to)) {
+                emitPrimitiveCast(from, to);
+                return;
+            }
+            emitBox(from);
+            if (!to.equals(OBJECT_TYPE)) {
+                mv.visitTypeInsn(Opcodes.CHECKCAST, to.getInternalName());
+            }
+        } else if (isPrimitive(to)) {
+            emitUnbox(to);
+        } else if (!to.equals(OBJECT_TYPE)) {
+            mv.visitTypeInsn(Opcodes.CHECKCAST, to.getInternalName());
+        }
+    }
+
+    private void emitArrayElement(String field, String fieldDesc, int index) {
+        mv.visitVarInsn(Opcodes.ALOAD, VAR_THIS);
+        mv.visitFieldInsn(Opcodes.GETFIELD, owner, field, fieldDesc);
+        mv.visitLdcInsn(index);
+        mv.visitInsn(Opcodes.AALOAD);
+    }
+
+    private void emitConstRef(Object value) {
+        int index = consts.size();
+        consts.add(value);
+        emitArrayElement(FIELD_CONSTS, "[Ljava/lang/Object;", index);
+    }
+
+    /**
+     * Emit the codes to evaluate an RtExpr.
+     *
+     * @param expr the RtExpr
+     * @return the type of the value left on the operand stack
+     */
+    @Nonnull
+    Type emit(@Nonnull RtExpr expr) {
+        Class<?> clazz = expr.getClass();
+        if (clazz == RtConst.class) {
+            compiledCount++;
+            return emitConst(((RtConst) expr).getValue());
+        } else if (clazz == RtVar.class || clazz == RtParam.class) {
+            compiledCount++;
+            return emitVar((RtVar) expr);
+        } else if (clazz == RtAndOp.class && !((RtAndOp) expr).isAdaptive()) {
+            compiledCount++;
+            return emitAndOr(((RtAndOp) expr).getParas(), true);
+        } else if (clazz == RtOrOp.class && !((RtOrOp) expr).isAdaptive()) {
+            compiledCount++;
+            return emitAndOr(((RtOrOp) expr).getParas(), false);
+        } else if (clazz == RtNotOp.class) {
+            compiledCount++;
+            return emitNot(((RtNotOp) expr).getParas());
+        } else if (clazz == RtCseExpr.class) {
+            return emitCse((RtCseExpr) expr);
+        } else if (clazz == RtCommonExpr.class && commonLocals.containsKey(expr)) {
+            return emitCommon((RtCommonExpr) expr);
+        } else if (expr instanceof RtEvaluatorOp) {
+            RtEvaluatorOp op = (RtEvaluatorOp) expr;
+            Method calc = getCalcMethod(op.getEvaluator().getClass(), op.getParas().length);
+            if (calc != null) {
+                compiledCount++;
+                return emitCalc(calc, op.getParas());
+            }
+        }
+        return emitNode(expr);
+    }
+
+    @Nonnull
+    private Type emitConst(@Nullable Object value) {
+        if (value instanceof Integer) {
+            mv.visitLdcInsn(value);
+            return Type.INT_TYPE;
+        } else if (value instanceof Long) {
+            mv.visitLdcInsn(value);
+            return Type.LONG_TYPE;
+        } else if (value instanceof Double) {
+            mv.visitLdcInsn(value);
+            return Type.DOUBLE_TYPE;
+        } else if (value instanceof Boolean) {
+            mv.visitInsn((Boolean) value ? Opcodes.ICONST_1 : Opcodes.ICONST_0);
+            return Type.BOOLEAN_TYPE;
+        } else if (value instanceof String) {
+            mv.visitLdcInsn(value);
+            return Type.getType(String.class);
+        }
+        emitConstRef(value);
+        return OBJECT_TYPE;
+    }
+
+    @Nonnull
+    private Type emitVar(@Nonnull RtVar var) {
+        mv.visitVarInsn(Opcodes.ALOAD, VAR_ETX);
+        emitConstRef(var.getId());
+        mv.visitMethodInsn(
+            Opcodes.INVOKEINTERFACE,
+            EVAL_CONTEXT_TYPE.getInternalName(),
+            "get",
+            Type.getMethodDescriptor(OBJECT_TYPE, OBJECT_TYPE),
+            true
+        );
+        return OBJECT_TYPE;
+    }
+
+    @Nonnull
+    private Type emitAndOr(@Nonnull RtExpr[] paras, boolean isAnd) {
+        Label shortCut = new Label();
+        Label end = new Label();
+        int jump = isAnd ? Opcodes.IFEQ : Opcodes.IFNE;
+        for (RtExpr para : paras) {
+            emitConvert(emit(para), Type.BOOLEAN_TYPE);
+            mv.visitJumpInsn(jump, shortCut);
+        }
+        mv.visitInsn(isAnd ? Opcodes.ICONST_1 : Opcodes.ICONST_0);
+        mv.visitJumpInsn(Opcodes.GOTO, end);
+        mv.visitLabel(shortCut);
+        mv.visitInsn(isAnd ? Opcodes.ICONST_0 : Opcodes.ICONST_1);
+        mv.visitLabel(end);
+        return Type.BOOLEAN_TYPE;
+    }
+
+    @Nonnull
+    private Type emitNot(@Nonnull RtExpr[] paras) {
+        emitConvert(emit(paras[0]), Type.BOOLEAN_TYPE);
+        mv.visitInsn(Opcodes.ICONST_1);
+        mv.visitInsn(Opcodes.IXOR);
+        return Type.BOOLEAN_TYPE;
+    }
+
+    private int newLocal(@Nonnull Type type) {
+        int local = nextLocal;
+        nextLocal += type.getSize();
+        return local;
+    }
+
+    @Nonnull
+    private Type emitCse(@Nonnull RtCseExpr cseExpr) {
+        // Each common sub-expression is kept in a local variable, with a flag to tell if it is evaluated.
+        for (RtCommonExpr common : cseExpr.getCommons()) {
+            Type type = nodeType(common);
+            CommonLocals locals = new CommonLocals(type, newLocal(type), newLocal(Type.INT_TYPE));
+            switch (type.getSort()) {
+                case Type.LONG:
+                    mv.visitInsn(Opcodes.LCONST_0);
+                    break;
+                case Type.DOUBLE:
+                    mv.visitInsn(Opcodes.DCONST_0);
+                    break;
+                case Type.OBJECT:
+                    mv.visitInsn(Opcodes.ACONST_NULL);
+                    break;
+                default:
+                    mv.visitInsn(Opcodes.ICONST_0);
+                    break;
+            }
+            mv.visitVarInsn(type.getOpcode(Opcodes.ISTORE), locals.value);
+            mv.visitInsn(Opcodes.ICONST_0);
+            mv.visitVarInsn(Opcodes.ISTORE, locals.flag);
+            commonLocals.put(common, locals);
+        }
+        return emit(cseExpr.getExpr());
+    }
+
+    @Nonnull
+    private Type emitCommon(@Nonnull RtCommonExpr common) {
+        CommonLocals locals = commonLocals.get(common);
+        Label evaluated = new Label();
+        mv.visitVarInsn(Opcodes.ILOAD, locals.flag);
+        mv.visitJumpInsn(Opcodes.IFNE, evaluated);
+        emitConvert(emit(common.getExpr()), locals.type);
+        mv.visitVarInsn(locals.type.getOpcode(Opcodes.ISTORE), locals.value);
+        mv.visitInsn(Opcodes.ICONST_1);
+        mv.visitVarInsn(Opcodes.ISTORE, locals.flag);
+        mv.visitLabel(evaluated);
+        mv.visitVarInsn(locals.type.getOpcode(Opcodes.ILOAD), locals.value);
+        return locals.type;
+    }
+
+    @Nonnull
+    private Type emitCalc(@Nonnull Method calc, @Nonnull RtExpr[] paras) {
+        Class<?>[] paraTypes = calc.getParameterTypes();
+        for (int i = 0; i < paras.length; i++) {
+            emitConvert(emit(paras[i]), Type.getType(paraTypes[i]));
+        }
+        mv.visitMethodInsn(
+            Opcodes.INVOKESTATIC,
+            Type.getInternalName(calc.getDeclaringClass()),
+            CALC_METHOD,
+            Type.getMethodDescriptor(calc),
+            false
+        );
+        return Type.getType(calc.getReturnType());
+    }
+
+    @Nonnull
+    static Type nodeType(@Nonnull RtExpr expr) {
+        if (expr instanceof RtCommonExpr) {
+            return nodeType(((RtCommonExpr) expr).getExpr());
+        } else if (expr instanceof RtCseExpr) {
+            return nodeType(((RtCseExpr) expr).getExpr());
+        } else if (expr instanceof RtEvaluatorOp && !((RtEvaluatorOp) expr).getEvaluator().isPrimitive()) {
+            // The results may be boxed and `null`, though the type code is primitive.
+            return OBJECT_TYPE;
+        }
+        switch (expr.typeCode()) {
+            case TypeCode.INTEGER:
+                return Type.INT_TYPE;
+            case TypeCode.LONG:
+                return Type.LONG_TYPE;
+            case TypeCode.DOUBLE:
+                return Type.DOUBLE_TYPE;
+            case TypeCode.BOOLEAN:
+                return Type.BOOLEAN_TYPE;
+            default:
+                return OBJECT_TYPE;
+        }
+    }
+
+    @Nonnull
+    static String evalMethodName(@Nonnull Type type) {
+        switch (type.getSort()) {
+            case Type.INT:
+                return "evalInt";
+            case Type.LONG:
+                return "evalLong";
+            case Type.DOUBLE:
+                return "evalDouble";
+            case Type.BOOLEAN:
+                return "evalBoolean";
+            default:
+                return "eval";
+        }
+    }
+
+    @Nonnull
+    private Type emitNode(@Nonnull RtExpr expr) {
+        int index = nodes.size();
+        nodes.add(expr);
+        emitArrayElement(FIELD_NODES, "[" + RT_EXPR_TYPE.getDescriptor(), index);
+        mv.visitVarInsn(Opcodes.ALOAD, VAR_ETX);
+        Type type = nodeType(expr);
+        // Use the primitive accessors of RtExpr to avoid boxing.
+        mv.visitMethodInsn(
+            Opcodes.INVOKEINTERFACE,
+            RT_EXPR_TYPE.getInternalName(),
+            evalMethodName(type),
+            Type.getMethodDescriptor(type, EVAL_CONTEXT_TYPE),
+            true
+        );
+        return type;
+    }
+
+    @Nullable
+    private Method getCalcMethod(@Nonnull Class<?> evaluatorClass, int paraCount) {
+        if (!Modifier.isPublic(evaluatorClass.getModifiers()) || !loader.isVisible(evaluatorClass)) {
+            return null;
+        }
+        for (Method method : evaluatorClass.getDeclaredMethods()) {
+            if (method.getName().equals(CALC_METHOD)
+                && Modifier.isStatic(method.getModifiers())
+                && Modifier.isPublic(method.getModifiers())
+                && method.getParameterCount() == paraCount
+                && isVisibleTypes(method)
+            ) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    private boolean isVisibleTypes(@Nonnull Method method) {
+        for (Class<?> type : method.getParameterTypes()) {
+            if (!isVisibleType(type)) {
+                return false;
+            }
+        }
+        return isVisibleType(method.getReturnType());
+    }
+
+    private boolean isVisibleType(@Nonnull Class<?> type) {
+        while (type.isArray()) {
+            type = type.getComponentType();
+        }
+        return type.isPrimitive() || Modifier.isPublic(type.getModifiers()) && loader.isVisible(type);
+    }
+
+    private static final class CommonLocals {
+        private final Type type;
+        private final int value;
+        private final int flag;
+
+        private CommonLocals(Type type, int value, int flag) {
+            this.type = type;
+            this.value = value;
+            this.flag = flag;
+        }
+    }
+}
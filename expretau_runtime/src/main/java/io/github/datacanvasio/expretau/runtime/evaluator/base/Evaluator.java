@@ -16,11 +16,34 @@
 
 package io.github.datacanvasio.expretau.runtime.evaluator.base;
 
+import io.github.datacanvasio.expretau.runtime.EvalContext;
+import io.github.datacanvasio.expretau.runtime.RtExpr;
 import io.github.datacanvasio.expretau.runtime.exception.FailGetEvaluator;
+import io.github.datacanvasio.expretau.runtime.vector.ColumnVector;
 
 import java.io.Serializable;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 public interface Evaluator extends Serializable {
+    /**
+     * Evaluate the values of parameters in a specified EvalContext.
+     *
+     * @param paras the parameters
+     * @param etx   the EvalContext
+     * @return the parameter values
+     * @throws FailGetEvaluator if there is no appropriate Evaluator
+     */
+    @Nonnull
+    static Object[] evalParas(@Nonnull RtExpr[] paras, @Nullable EvalContext etx) throws FailGetEvaluator {
+        Object[] paraValues = new Object[paras.length];
+        int i = 0;
+        for (RtExpr para : paras) {
+            paraValues[i++] = para.eval(etx);
+        }
+        return paraValues;
+    }
+
     /**
      * Calculate the result of given parameter values.
      *
@@ -30,10 +53,167 @@ public interface Evaluator extends Serializable {
      */
     Object eval(Object[] paras) throws FailGetEvaluator;
 
+    /**
+     * Calculate the result of one parameter value. Evaluators should override this to avoid creating an array.
+     *
+     * @param value0 the parameter value
+     * @return the result
+     * @throws FailGetEvaluator if there is no appropriate Evaluator for the given parameter types
+     */
+    default Object eval(Object value0) throws FailGetEvaluator {
+        return eval(new Object[]{value0});
+    }
+
+    /**
+     * Calculate the result of two parameter values. Evaluators should override this to avoid creating an array.
+     *
+     * @param value0 the 1st parameter value
+     * @param value1 the 2nd parameter value
+     * @return the result
+     * @throws FailGetEvaluator if there is no appropriate Evaluator for the given parameter types
+     */
+    default Object eval(Object value0, Object value1) throws FailGetEvaluator {
+        return eval(new Object[]{value0, value1});
+    }
+
+    /**
+     * Calculate the result of three parameter values. Evaluators should override this to avoid creating an array.
+     *
+     * @param value0 the 1st parameter value
+     * @param value1 the 2nd parameter value
+     * @param value2 the 3rd parameter value
+     * @return the result
+     * @throws FailGetEvaluator if there is no appropriate Evaluator for the given parameter types
+     */
+    default Object eval(Object value0, Object value1, Object value2) throws FailGetEvaluator {
+        return eval(new Object[]{value0, value1, value2});
+    }
+
     /**
      * Get the type code of results. Must return they type code without call <code>eval</code> for compiling use.
      *
      * @return the type code
      */
     int typeCode();
+
+    /**
+     * Check if the results are primitive values, so that they can be got by the primitive accessors such as
+     * {@link #evalLong(RtExpr[], EvalContext)} without boxing. An Evaluator with a primitive type code may still return
+     * boxed values, which may be {@code null}.
+     *
+     * @return {@code true} if the results are primitive values
+     */
+    default boolean isPrimitive() {
+        return false;
+    }
+
+    /**
+     * Calculate the result of given parameters in a specified EvalContext as an {@code int}. Evaluators with primitive
+     * results should override this to evaluate without boxing.
+     *
+     * @param paras the parameters
+     * @param etx   the EvalContext
+     * @return the result
+     * @throws FailGetEvaluator if there is no appropriate Evaluator for the given parameter types
+     */
+    default int evalInt(@Nonnull RtExpr[] paras, @Nullable EvalContext etx) throws FailGetEvaluator {
+        return ((Number) eval(evalParas(paras, etx))).intValue();
+    }
+
+    /**
+     * Calculate the result of given parameters in a specified EvalContext as a {@code long}. Evaluators with primitive
+     * results should override this to evaluate without boxing.
+     *
+     * @param paras the parameters
+     * @param etx   the EvalContext
+     * @return the result
+     * @throws FailGetEvaluator if there is no appropriate Evaluator for the given parameter types
+     */
+    default long evalLong(@Nonnull RtExpr[] paras, @Nullable EvalContext etx) throws FailGetEvaluator {
+        return ((Number) eval(evalParas(paras, etx))).longValue();
+    }
+
+    /**
+     * Calculate the result of given parameters in a specified EvalContext as a {@code double}. Evaluators with
+     * primitive results should override this to evaluate without boxing.
+     *
+     * @param paras the parameters
+     * @param etx   the EvalContext
+     * @return the result
+     * @throws FailGetEvaluator if there is no appropriate Evaluator for the given parameter types
+     */
+    default double evalDouble(@Nonnull RtExpr[] paras, @Nullable EvalContext etx) throws FailGetEvaluator {
+        return ((Number) eval(evalParas(paras, etx))).doubleValue();
+    }
+
+    /**
+     * Calculate the result of given parameters in a specified EvalContext as a {@code boolean}. Evaluators with
+     * primitive results should override this to evaluate without boxing.
+     *
+     * @param paras the parameters
+     * @param etx   the EvalContext
+     * @return the result
+     * @throws FailGetEvaluator if there is no appropriate Evaluator for the given parameter types
+     */
+    default boolean evalBoolean(@Nonnull RtExpr[] paras, @Nullable EvalContext etx) throws FailGetEvaluator {
+        return (boolean) eval(evalParas(paras, etx));
+    }
+
+    /**
+     * Calculate the results of given parameter columns on selected rows. Evaluators should override this to calculate
+     * in a tight loop over primitive arrays.
+     *
+     * @param paras the parameter columns
+     * @param sel   the ascending positions of selected rows, or {@code null} for the first {@code size} rows
+     * @param size  the number of selected rows
+     * @param out   the column to put the results in, at the positions of rows
+     * @throws FailGetEvaluator if there is no appropriate Evaluator for the given parameter types
+     */
+    default void evalBatch(
+        @Nonnull ColumnVector[] paras,
+        @Nullable int[] sel,
+        int size,
+        @Nonnull ColumnVector out
+    ) throws FailGetEvaluator {
+        Object[] values = new Object[paras.length];
+        for (int k = 0; k < size; ++k) {
+            int i = sel != null ? sel[k] : k;
+            for (int j = 0; j < paras.length; ++j) {
+                values[j] = paras[j].get(i);
+            }
+            out.set(i, eval(values));
+        }
+    }
+
+    /**
+     * Filter selected rows by the results of given parameter columns, which must be boolean. Evaluators with boolean
+     * results should override this to filter in a tight loop without storing the results.
+     *
+     * @param paras the parameter columns
+     * @param sel   the ascending positions of selected rows, or {@code null} for the first {@code size} rows
+     * @param size  the number of selected rows
+     * @param out   the array to put the ascending positions of passed rows in, can be the same array as {@code sel}
+     * @return the number of passed rows
+     * @throws FailGetEvaluator if there is no appropriate Evaluator for the given parameter types
+     */
+    default int evalFilter(
+        @Nonnull ColumnVector[] paras,
+        @Nullable int[] sel,
+        int size,
+        @Nonnull int[] out
+    ) throws FailGetEvaluator {
+        if (size == 0) {
+            return 0;
+        }
+        ColumnVector results = new ColumnVector(typeCode(), sel != null ? sel[size - 1] + 1 : size);
+        evalBatch(paras, sel, size, results);
+        int count = 0;
+        for (int k = 0; k < size; ++k) {
+            int i = sel != null ? sel[k] : k;
+            if ((boolean) results.get(i)) {
+                out[count++] = i;
+            }
+        }
+        return count;
+    }
 }
@@ -16,23 +16,113 @@
 
 package io.github.datacanvasio.expretau.runtime.evaluator.base;
 
+import io.github.datacanvasio.expretau.runtime.TypeCode;
+import io.github.datacanvasio.expretau.runtime.TypeCodes;
 import io.github.datacanvasio.expretau.runtime.exception.FailGetEvaluator;
 
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 public abstract class EvaluatorFactory implements Serializable {
     private static final long serialVersionUID = 5023860384673216809L;
 
     protected final Map<EvaluatorKey, Evaluator> evaluators;
 
+    // Map type ordinals to the local ordinals of the parameter types used by this factory.
+    private int[] localOrdinals;
+    // The number of local ordinals, the last one is for all types not used by this factory.
+    private int localOrdinalCount;
+    // Indexed by arity, then by the local ordinals of parameters, with generalization resolved.
+    private Evaluator[][] dispatchTables;
+
     protected EvaluatorFactory() {
         evaluators = new HashMap<>();
     }
 
+    /**
+     * Define the parameter types used by this factory, which are indexed by their positions in dispatch tables.
+     * Other types are all indexed by {@code typeCodes.length}. If any of the types has no predefined type code, they
+     * cannot be told from other such types by type ordinals, so dispatch tables are not used and Evaluators are looked
+     * up by EvaluatorKeys.
+     *
+     * @param typeCodes the type codes of the parameter types
+     */
+    protected final void initDispatchTypes(@Nonnull int... typeCodes) {
+        for (int typeCode : typeCodes) {
+            if (TypeCode.ordinalOf(typeCode) == TypeCode.UNKNOWN_ORDINAL) {
+                return;
+            }
+        }
+        localOrdinalCount = typeCodes.length + 1;
+        localOrdinals = new int[TypeCode.ORDINAL_COUNT + 1];
+        Arrays.fill(localOrdinals, typeCodes.length);
+        for (int i = 0; i < typeCodes.length; ++i) {
+            localOrdinals[TypeCode.ordinalOf(typeCodes[i])] = i;
+        }
+        dispatchTables = new Evaluator[0][];
+    }
+
+    /**
+     * Define the dispatch table of an arity. The table must be precomputed with generalization resolved, each entry is
+     * the index of the resolved EvaluatorKey in {@code keys}, or {@code -1} for the universal evaluator.
+     *
+     * @param arity   the number of parameters
+     * @param keys    the EvaluatorKeys
+     * @param indices the indices of EvaluatorKeys, indexed by the local ordinals of parameters
+     */
+    protected final void initDispatchTable(int arity, @Nonnull EvaluatorKey[] keys, @Nonnull int[] indices) {
+        if (dispatchTables == null) {
+            return;
+        }
+        Evaluator universal = evaluators.get(EvaluatorKey.UNIVERSAL);
+        Evaluator[] table = new Evaluator[indices.length];
+        for (int i = 0; i < indices.length; ++i) {
+            table[i] = indices[i] >= 0 ? evaluators.get(keys[indices[i]]) : universal;
+        }
+        if (dispatchTables.length <= arity) {
+            dispatchTables = Arrays.copyOf(dispatchTables, arity + 1);
+        }
+        dispatchTables[arity] = table;
+    }
+
+    @Nullable
+    private Evaluator[] getDispatchTable(int arity) {
+        if (dispatchTables != null && arity < dispatchTables.length) {
+            return dispatchTables[arity];
+        }
+        return null;
+    }
+
+    /**
+     * Get the Evaluator for specified parameter values, by the types of them.
+     * This method is for dynamically choosing Evaluators in universal evaluator.
+     *
+     * @param values the parameter values
+     * @return the Evaluator
+     * @throws FailGetEvaluator if there is no appropriate Evaluator
+     */
+    @Nonnull
+    public final Evaluator getEvaluator(@Nonnull Object[] values) throws FailGetEvaluator {
+        Evaluator[] table = getDispatchTable(values.length);
+        if (table != null) {
+            int index = 0;
+            for (Object value : values) {
+                index = index * localOrdinalCount + localOrdinals[TypeCodes.getTypeOrdinal(value)];
+            }
+            Evaluator evaluator = table[index];
+            if (evaluator != null) {
+                return evaluator;
+            }
+            throw new FailGetEvaluator(this, TypeCodes.getTypeCodes(values));
+        }
+        return getEvaluator(EvaluatorKey.of(TypeCodes.getTypeCodes(values)));
+    }
+
     /**
      * Get the Evaluator of a specified EvaluatorKey.
      * A EvaluatorKey is a combination of the type code of parameters. This method would try to return the universal
@@ -48,6 +138,19 @@ public abstract class EvaluatorFactory implements Serializable {
         if (evaluator != null) {
             return evaluator;
         }
+        int[] typeCodes = key.getParaTypeCodes();
+        Evaluator[] table = typeCodes != null ? getDispatchTable(typeCodes.length) : null;
+        if (table != null) {
+            int index = 0;
+            for (int typeCode : typeCodes) {
+                index = index * localOrdinalCount + localOrdinals[TypeCode.ordinalOf(typeCode)];
+            }
+            evaluator = table[index];
+            if (evaluator != null) {
+                return evaluator;
+            }
+            throw new FailGetEvaluator(this, typeCodes);
+        }
         List<EvaluatorKey> keys = key.generalize();
         // The first one is copy of `key`
         for (int i = 1; i < keys.size(); ++i) {
@@ -18,20 +18,159 @@ package io.github.datacanvasio.expretau.runtime.evaluator.base;
 
 import io.github.datacanvasio.expretau.runtime.TypeCodes;
 import io.github.datacanvasio.expretau.runtime.exception.FailGetEvaluator;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 
+import java.util.Arrays;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * The Evaluator to choose an Evaluator by the types of parameter values at runtime.
+ *
+ * <p>Each instance keeps an inline cache of the last {@link #CACHE_SIZE} classes of parameter values and the chosen
+ * Evaluators, so an instance should be used in only one call site (see {@link #forCallSite()}). If more combinations
+ * are encountered, the call site is considered megamorphic and the cache is dropped.
+ */
 @RequiredArgsConstructor
 public class UniversalEvaluator extends ObjectEvaluator {
+    public static final int CACHE_SIZE = 4;
+
     private static final long serialVersionUID = 8115905605402311713L;
+    private static final CacheEntry[] EMPTY_CACHE = new CacheEntry[0];
+
+    @Getter
     private final EvaluatorFactory factory;
 
+    private transient volatile CacheEntry[] cache;
+    private transient volatile boolean megamorphic;
+
+    private static Class<?> classOf(@Nullable Object value) {
+        return value != null ? value.getClass() : Void.class;
+    }
+
+    /**
+     * Create a new UniversalEvaluator of the same factory, with an empty inline cache.
+     *
+     * @return the new UniversalEvaluator
+     */
+    @Nonnull
+    public UniversalEvaluator forCallSite() {
+        return new UniversalEvaluator(factory);
+    }
+
+    /**
+     * Check if the call site of this evaluator is megamorphic.
+     *
+     * @return {@code true} if it is megamorphic
+     */
+    public boolean isMegamorphic() {
+        return megamorphic;
+    }
+
+    @Nonnull
+    private CacheEntry[] getCache() {
+        CacheEntry[] entries = cache;
+        return entries != null ? entries : EMPTY_CACHE;
+    }
+
+    @Nonnull
+    private Evaluator resolve(@Nonnull Object[] paras) throws FailGetEvaluator {
+        Evaluator evaluator = factory.getEvaluator(paras);
+        if (evaluator instanceof UniversalEvaluator) {
+            throw new FailGetEvaluator(factory, TypeCodes.getTypeCodes(paras));
+        }
+        if (!megamorphic) {
+            Class<?>[] classes = new Class<?>[paras.length];
+            for (int i = 0; i < paras.length; ++i) {
+                classes[i] = classOf(paras[i]);
+            }
+            addToCache(new CacheEntry(classes, evaluator));
+        }
+        return evaluator;
+    }
+
+    private synchronized void addToCache(CacheEntry entry) {
+        CacheEntry[] entries = getCache();
+        if (entries.length >= CACHE_SIZE) {
+            megamorphic = true;
+            cache = null;
+            return;
+        }
+        CacheEntry[] newEntries = Arrays.copyOf(entries, entries.length + 1);
+        newEntries[entries.length] = entry;
+        cache = newEntries;
+    }
+
     @Override
     public Object eval(Object[] paras) throws FailGetEvaluator {
-        int[] typeCodes = TypeCodes.getTypeCodes(paras);
-        Evaluator evaluator = factory.getEvaluator(EvaluatorKey.of(typeCodes));
-        if (evaluator != this) {
-            return evaluator.eval(paras);
+        for (CacheEntry entry : getCache()) {
+            if (entry.matches(paras)) {
+                return entry.evaluator.eval(paras);
+            }
+        }
+        return resolve(paras).eval(paras);
+    }
+
+    @Override
+    public Object eval(Object value0) throws FailGetEvaluator {
+        Class<?> class0 = classOf(value0);
+        for (CacheEntry entry : getCache()) {
+            if (entry.classes.length == 1 && entry.classes[0] == class0) {
+                return entry.evaluator.eval(value0);
+            }
+        }
+        return resolve(new Object[]{value0}).eval(value0);
+    }
+
+    @Override
+    public Object eval(Object value0, Object value1) throws FailGetEvaluator {
+        Class<?> class0 = classOf(value0);
+        Class<?> class1 = classOf(value1);
+        for (CacheEntry entry : getCache()) {
+            if (entry.classes.length == 2 && entry.classes[0] == class0 && entry.classes[1] == class1) {
+                return entry.evaluator.eval(value0, value1);
+            }
+        }
+        return resolve(new Object[]{value0, value1}).eval(value0, value1);
+    }
+
+    // Instances of the same factory choose the same Evaluators, whatever in the inline caches.
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        return factory.equals(((UniversalEvaluator) obj).factory);
+    }
+
+    @Override
+    public int hashCode() {
+        return factory.hashCode();
+    }
+
+    private static final class CacheEntry {
+        private final Class<?>[] classes;
+        private final Evaluator evaluator;
+
+        private CacheEntry(Class<?>[] classes, Evaluator evaluator) {
+            this.classes = classes;
+            this.evaluator = evaluator;
+        }
+
+        private boolean matches(@Nonnull Object[] paras) {
+            if (classes.length != paras.length) {
+                return false;
+            }
+            for (int i = 0; i < paras.length; ++i) {
+                if (classes[i] != classOf(paras[i])) {
+                    return false;
+                }
+            }
+            return true;
         }
-        throw new FailGetEvaluator(factory, typeCodes);
     }
 }
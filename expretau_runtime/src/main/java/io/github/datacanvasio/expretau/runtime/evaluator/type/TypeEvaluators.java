@@ -17,6 +17,7 @@
 package io.github.datacanvasio.expretau.runtime.evaluator.type;
 
 import io.github.datacanvasio.expretau.annotations.Evaluators;
+import io.github.datacanvasio.expretau.runtime.TypeCodes;
 import io.github.datacanvasio.expretau.runtime.evaluator.base.DecimalEvaluator;
 import io.github.datacanvasio.expretau.runtime.evaluator.base.DoubleEvaluator;
 import io.github.datacanvasio.expretau.runtime.evaluator.base.Evaluator;
@@ -27,6 +28,7 @@ import io.github.datacanvasio.expretau.runtime.evaluator.base.LongEvaluator;
 import io.github.datacanvasio.expretau.runtime.evaluator.base.StringEvaluator;
 import io.github.datacanvasio.expretau.runtime.evaluator.base.TimeEvaluator;
 import io.github.datacanvasio.expretau.runtime.evaluator.base.UniversalEvaluator;
+import io.github.datacanvasio.expretau.runtime.exception.FailGetEvaluator;
 import io.github.datacanvasio.expretau.runtime.exception.FailParseTime;
 
 import java.math.BigDecimal;
@@ -71,6 +73,18 @@ final class TypeEvaluators {
         return Integer.parseInt(value);
     }
 
+    // For values of unknown types at compiling, e.g. members of a map without schema. Values of types other than
+    // those of the overloads above fail as if there were no such overload.
+    @Evaluators.Base(IntegerEvaluator.class)
+    static int intType(@Nonnull Object value) throws FailGetEvaluator {
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        } else if (value instanceof String) {
+            return intType((String) value);
+        }
+        throw new FailGetEvaluator(IntTypeEvaluatorFactory.INS, new int[]{TypeCodes.getTypeCode(value)});
+    }
+
     @Evaluators.Base(LongEvaluator.class)
     static long longType(int value) {
         return value;
@@ -101,6 +115,18 @@ final class TypeEvaluators {
         return value.getTime();
     }
 
+    @Evaluators.Base(LongEvaluator.class)
+    static long longType(@Nonnull Object value) throws FailGetEvaluator {
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        } else if (value instanceof String) {
+            return longType((String) value);
+        } else if (value instanceof Date) {
+            return longType((Date) value);
+        }
+        throw new FailGetEvaluator(LongTypeEvaluatorFactory.INS, new int[]{TypeCodes.getTypeCode(value)});
+    }
+
     @Evaluators.Base(DoubleEvaluator.class)
     static double doubleType(int value) {
         return value;
@@ -126,6 +152,16 @@ final class TypeEvaluators {
         return Double.parseDouble(value);
     }
 
+    @Evaluators.Base(DoubleEvaluator.class)
+    static double doubleType(@Nonnull Object value) throws FailGetEvaluator {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        } else if (value instanceof String) {
+            return doubleType((String) value);
+        }
+        throw new FailGetEvaluator(DoubleTypeEvaluatorFactory.INS, new int[]{TypeCodes.getTypeCode(value)});
+    }
+
     @Nonnull
     @Evaluators.Base(DecimalEvaluator.class)
     static BigDecimal decimalType(int value) {
@@ -156,6 +192,21 @@ final class TypeEvaluators {
         return new BigDecimal(value);
     }
 
+    @Nonnull
+    @Evaluators.Base(DecimalEvaluator.class)
+    static BigDecimal decimalType(@Nonnull Object value) throws FailGetEvaluator {
+        if (value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        } else if (value instanceof Integer || value instanceof Long) {
+            return decimalType(((Number) value).longValue());
+        } else if (value instanceof Number) {
+            return decimalType(((Number) value).doubleValue());
+        } else if (value instanceof String) {
+            return decimalType((String) value);
+        }
+        throw new FailGetEvaluator(DecimalTypeEvaluatorFactory.INS, new int[]{TypeCodes.getTypeCode(value)});
+    }
+
     @Evaluators.Base(StringEvaluator.class)
     static String stringType(@Nonnull Object value) {
         return value.toString();
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.runtime.monitor;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The JFR event of compiling an Expr into an RtExpr, or an RtExpr into bytecode.
+ */
+@Name("io.github.datacanvasio.expretau.Compile")
+@Label("Expretau Compile")
+@Category("Expretau")
+@Description("Compiling an Expr into an RtExpr tree, or an RtExpr tree into bytecode.")
+@StackTrace(false)
+public final class CompileEvent extends Event {
+    @Label("Expression")
+    @Description("The expression string, absent for compiling into bytecode.")
+    String expression;
+
+    @Label("Phase")
+    @Description("\"tree\" or \"bytecode\".")
+    String phase;
+
+    @Label("Node Count")
+    int nodeCount;
+
+    @Label("Dynamic Node Count")
+    @Description("The number of ops choosing evaluators by the types of values at runtime.")
+    int dynamicNodeCount;
+
+    @Label("Succeeded")
+    boolean succeeded;
+
+    CompileEvent() {
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.runtime.monitor;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The JFR event of a sampled evaluation of an {@link RtMonitoredExpr}.
+ */
+@Name("io.github.datacanvasio.expretau.Eval")
+@Label("Expretau Evaluation")
+@Category("Expretau")
+@Description("A sampled evaluation of a named expression.")
+@StackTrace(false)
+public final class EvalEvent extends Event {
+    @Label("Name")
+    String name;
+
+    @Label("Sample Interval")
+    @Description("About one of this number of evaluations is sampled.")
+    int sampleInterval;
+
+    @Label("Succeeded")
+    boolean succeeded;
+
+    EvalEvent() {
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.runtime.monitor;
+
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Emit the JFR events of expretau. The events are emitted only if JFR is available in the JVM and not disabled by the
+ * system property {@value #DISABLED_PROPERTY}, and they cost almost nothing if not recorded.
+ *
+ * <p>The {@code begin*} methods return {@code null} if the event is not recorded, and the {@code commit*} methods
+ * accept {@code null} and do nothing, so that the event classes are never loaded without JFR.
+ */
+public final class ExprEvents {
+    public static final String DISABLED_PROPERTY = "expretau.jfr.disabled";
+
+    private static final boolean ENABLED = !Boolean.getBoolean(DISABLED_PROPERTY) && isJfrAvailable();
+
+    private ExprEvents() {
+    }
+
+    private static boolean isJfrAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event", false, ExprEvents.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * Check if the events are emitted.
+     *
+     * @return {@code true} if JFR is available and the events are not disabled
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Begin a {@link ParseEvent}.
+     *
+     * @return the event, or {@code null} if it is not recorded
+     */
+    @Nullable
+    public static ParseEvent beginParse() {
+        if (!ENABLED) {
+            return null;
+        }
+        ParseEvent event = new ParseEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Commit a {@link ParseEvent}.
+     *
+     * @param event      the event returned by {@link #beginParse()}
+     * @param expression the expression string
+     * @param parser     the name of the front-end
+     * @param succeeded  if the parsing succeeded
+     */
+    public static void commitParse(
+        @Nullable ParseEvent event,
+        String expression,
+        String parser,
+        boolean succeeded
+    ) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.expression = expression;
+            event.parser = parser;
+            event.succeeded = succeeded;
+            event.commit();
+        }
+    }
+
+    /**
+     * Begin a {@link CompileEvent}.
+     *
+     * @return the event, or {@code null} if it is not recorded
+     */
+    @Nullable
+    public static CompileEvent beginCompile() {
+        if (!ENABLED) {
+            return null;
+        }
+        CompileEvent event = new CompileEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Commit a {@link CompileEvent}. The nodes of the result are counted only if the event is committed.
+     *
+     * @param event      the event returned by {@link #beginCompile()}
+     * @param expression the expression string, or {@code null} if not known
+     * @param phase      {@code "tree"} or {@code "bytecode"}
+     * @param result     the compiled RtExpr, or {@code null} if failed
+     */
+    public static void commitCompile(
+        @Nullable CompileEvent event,
+        @Nullable String expression,
+        @Nonnull String phase,
+        @Nullable RtExpr result
+    ) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.expression = expression;
+            event.phase = phase;
+            event.succeeded = result != null;
+            if (result != null) {
+                NodeCounter counter = new NodeCounter();
+                counter.count(result);
+                event.nodeCount = counter.getNodeCount();
+                event.dynamicNodeCount = counter.getDynamicNodeCount();
+            }
+            event.commit();
+        }
+    }
+
+    /**
+     * Begin an {@link EvalEvent}.
+     *
+     * @return the event, or {@code null} if it is not recorded
+     */
+    @Nullable
+    static EvalEvent beginEval() {
+        if (!ENABLED) {
+            return null;
+        }
+        EvalEvent event = new EvalEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    static void commitEval(@Nullable EvalEvent event, @Nonnull String name, int sampleInterval, boolean succeeded) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.name = name;
+            event.sampleInterval = sampleInterval;
+            event.succeeded = succeeded;
+            event.commit();
+        }
+    }
+}
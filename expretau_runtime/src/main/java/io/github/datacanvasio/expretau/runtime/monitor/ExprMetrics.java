@@ -0,0 +1,210 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.runtime.monitor;
+
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.Nonnull;
+
+/**
+ * A registry of the metrics of expretau: the latencies of all parsing and compiling, and the counters and latencies of
+ * named expressions, which are evaluated by {@link RtMonitoredExpr}s. The metrics can be exported in the Prometheus
+ * text format by {@link #export(Appendable)}.
+ *
+ * <p>{@link io.github.datacanvasio.expretau.runtime.codegen.RtBytecodeCompiler} and the parser record in
+ * {@link #INS}.
+ */
+public final class ExprMetrics {
+    public static final int DEFAULT_SAMPLE_INTERVAL = 16;
+
+    public static final ExprMetrics INS = new ExprMetrics();
+
+    // Exported buckets grow by 4 times, from 256ns to about 69s.
+    private static final int EXPORTED_BUCKET_MIN = 8;
+    private static final int EXPORTED_BUCKET_MAX = 36;
+    private static final int EXPORTED_BUCKET_STEP = 2;
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    @Getter
+    @Nonnull
+    private final LatencyHistogram parses = new LatencyHistogram();
+    @Getter
+    @Nonnull
+    private final LatencyHistogram compiles = new LatencyHistogram();
+    @Getter
+    @Nonnull
+    private final LatencyHistogram bytecodeCompiles = new LatencyHistogram();
+
+    private final ConcurrentMap<String, ExprStats> statsMap = new ConcurrentHashMap<>();
+
+    @Nonnull
+    private static String escape(@Nonnull String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static void writeHistogram(
+        @Nonnull Appendable out,
+        @Nonnull String metric,
+        @Nonnull String labels,
+        @Nonnull LatencyHistogram histogram
+    ) throws IOException {
+        String prefix = labels.isEmpty() ? "" : labels + ",";
+        long cumulative = 0L;
+        int next = 0;
+        for (int i = EXPORTED_BUCKET_MIN; i <= EXPORTED_BUCKET_MAX; i += EXPORTED_BUCKET_STEP) {
+            for (; next <= i; ++next) {
+                cumulative += histogram.getCount(next);
+            }
+            double le = LatencyHistogram.upperBoundOf(i) / NANOS_PER_SECOND;
+            out.append(metric).append("_bucket{").append(prefix).append("le=\"").append(Double.toString(le))
+                .append("\"} ").append(Long.toString(cumulative)).append('\n');
+        }
+        for (; next < LatencyHistogram.BUCKETS; ++next) {
+            cumulative += histogram.getCount(next);
+        }
+        String braced = labels.isEmpty() ? "" : "{" + labels + "}";
+        out.append(metric).append("_bucket{").append(prefix).append("le=\"+Inf\"} ")
+            .append(Long.toString(cumulative)).append('\n');
+        out.append(metric).append("_sum").append(braced).append(' ')
+            .append(Double.toString(histogram.getTotalNanos() / NANOS_PER_SECOND)).append('\n');
+        out.append(metric).append("_count").append(braced).append(' ')
+            .append(Long.toString(cumulative)).append('\n');
+    }
+
+    /**
+     * Get the metrics of a named expression, which are created if not exist.
+     *
+     * @param name the name
+     * @return the metrics
+     */
+    @Nonnull
+    public ExprStats getStats(@Nonnull String name) {
+        return statsMap.computeIfAbsent(name, ExprStats::new);
+    }
+
+    /**
+     * Get the metrics of all named expressions.
+     *
+     * @return the metrics, sorted by the names
+     */
+    @Nonnull
+    public Map<String, ExprStats> getAllStats() {
+        return Collections.unmodifiableMap(new TreeMap<>(statsMap));
+    }
+
+    /**
+     * Remove the metrics of a named expression. The existing {@link RtMonitoredExpr}s of the name are still counted,
+     * but not exported.
+     *
+     * @param name the name
+     */
+    public void remove(@Nonnull String name) {
+        statsMap.remove(name);
+    }
+
+    /**
+     * Wrap an RtExpr to record its evaluating in the metrics of a name, with the default sample interval.
+     *
+     * @param name the name
+     * @param expr the RtExpr
+     * @return the wrapped RtExpr
+     */
+    @Nonnull
+    public RtMonitoredExpr monitor(@Nonnull String name, @Nonnull RtExpr expr) {
+        return monitor(name, expr, DEFAULT_SAMPLE_INTERVAL);
+    }
+
+    /**
+     * Wrap an RtExpr to record its evaluating in the metrics of a name. Several RtExprs can share the same name.
+     *
+     * @param name           the name
+     * @param expr           the RtExpr
+     * @param sampleInterval about one of each {@code sampleInterval} evaluations is timed, {@code 1} to time all
+     * @return the wrapped RtExpr
+     */
+    @Nonnull
+    public RtMonitoredExpr monitor(@Nonnull String name, @Nonnull RtExpr expr, int sampleInterval) {
+        if (sampleInterval < 1) {
+            throw new IllegalArgumentException("Sample interval must be positive, but is " + sampleInterval + ".");
+        }
+        RtExpr origin = expr instanceof RtMonitoredExpr ? ((RtMonitoredExpr) expr).getExpr() : expr;
+        return new RtMonitoredExpr(name, origin, sampleInterval, getStats(name));
+    }
+
+    /**
+     * Export the metrics in the Prometheus text format.
+     *
+     * @param out the Appendable to write to
+     * @throws IOException if failed to write
+     */
+    public void export(@Nonnull Appendable out) throws IOException {
+        out.append("# HELP expretau_parse_seconds Latencies of parsing expression strings.\n");
+        out.append("# TYPE expretau_parse_seconds histogram\n");
+        writeHistogram(out, "expretau_parse_seconds", "", parses);
+        out.append("# HELP expretau_compile_seconds Latencies of compiling expressions.\n");
+        out.append("# TYPE expretau_compile_seconds histogram\n");
+        writeHistogram(out, "expretau_compile_seconds", "phase=\"tree\"", compiles);
+        writeHistogram(out, "expretau_compile_seconds", "phase=\"bytecode\"", bytecodeCompiles);
+        Map<String, ExprStats> allStats = getAllStats();
+        if (allStats.isEmpty()) {
+            return;
+        }
+        out.append("# HELP expretau_evaluations_total Evaluations of named expressions.\n");
+        out.append("# TYPE expretau_evaluations_total counter\n");
+        for (ExprStats stats : allStats.values()) {
+            out.append("expretau_evaluations_total{expr=\"").append(escape(stats.getName())).append("\"} ")
+                .append(Long.toString(stats.getEvaluations())).append('\n');
+        }
+        out.append("# HELP expretau_evaluation_exceptions_total Failed evaluations of named expressions.\n");
+        out.append("# TYPE expretau_evaluation_exceptions_total counter\n");
+        for (ExprStats stats : allStats.values()) {
+            out.append("expretau_evaluation_exceptions_total{expr=\"").append(escape(stats.getName())).append("\"} ")
+                .append(Long.toString(stats.getExceptions())).append('\n');
+        }
+        out.append("# HELP expretau_evaluation_seconds Latencies of sampled evaluations of named expressions.\n");
+        out.append("# TYPE expretau_evaluation_seconds histogram\n");
+        for (ExprStats stats : allStats.values()) {
+            writeHistogram(out, "expretau_evaluation_seconds", "expr=\"" + escape(stats.getName()) + "\"",
+                stats.getLatency());
+        }
+    }
+
+    /**
+     * Export the metrics in the Prometheus text format.
+     *
+     * @return the text
+     */
+    @Nonnull
+    public String export() {
+        StringBuilder builder = new StringBuilder();
+        try {
+            export(builder);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return builder.toString();
+    }
+}
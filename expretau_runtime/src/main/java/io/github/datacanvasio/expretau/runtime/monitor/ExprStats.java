@@ -0,0 +1,71 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.runtime.monitor;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.Nonnull;
+
+/**
+ * The metrics of a named expression, recorded by the {@link RtMonitoredExpr}s of the name.
+ */
+public final class ExprStats {
+    @Getter
+    @Nonnull
+    private final String name;
+    /**
+     * The latencies of sampled evaluations.
+     */
+    @Getter
+    @Nonnull
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    private final LongAdder evaluations = new LongAdder();
+    private final LongAdder exceptions = new LongAdder();
+
+    ExprStats(@Nonnull String name) {
+        this.name = name;
+    }
+
+    void countEvaluation() {
+        evaluations.increment();
+    }
+
+    void countException() {
+        exceptions.increment();
+    }
+
+    /**
+     * Get the number of evaluations, including the failed ones.
+     *
+     * @return the number
+     */
+    public long getEvaluations() {
+        return evaluations.sum();
+    }
+
+    /**
+     * Get the number of evaluations which threw an exception.
+     *
+     * @return the number
+     */
+    public long getExceptions() {
+        return exceptions.sum();
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.runtime.monitor;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of latencies with exponential buckets, the upper bound of bucket {@code i} is {@code 2^i} nanoseconds.
+ * Recording is lock-free and cheap enough for hot paths, but the percentiles are only accurate to a factor of 2.
+ */
+public final class LatencyHistogram {
+    public static final int BUCKETS = 48;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+
+    static int bucketOf(long nanos) {
+        if (nanos <= 1L) {
+            return 0;
+        }
+        return Math.min(BUCKETS - 1, Long.SIZE - Long.numberOfLeadingZeros(nanos - 1L));
+    }
+
+    /**
+     * Get the upper bound (inclusive) of a bucket.
+     *
+     * @param bucket the index of the bucket
+     * @return the upper bound in nanoseconds
+     */
+    public static long upperBoundOf(int bucket) {
+        return 1L << bucket;
+    }
+
+    /**
+     * Record a latency.
+     *
+     * @param nanos the latency in nanoseconds
+     */
+    public void record(long nanos) {
+        counts.incrementAndGet(bucketOf(nanos));
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    /**
+     * Get the number of recorded latencies in a bucket.
+     *
+     * @param bucket the index of the bucket
+     * @return the number
+     */
+    public long getCount(int bucket) {
+        return counts.get(bucket);
+    }
+
+    /**
+     * Get the number of recorded latencies.
+     *
+     * @return the number
+     */
+    public long getCount() {
+        long count = 0L;
+        for (int i = 0; i < BUCKETS; ++i) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * Get the sum of recorded latencies.
+     *
+     * @return the sum in nanoseconds
+     */
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    /**
+     * Get the max recorded latency.
+     *
+     * @return the max latency in nanoseconds, {@code 0} if nothing is recorded
+     */
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * Get an estimated percentile of recorded latencies, which is the upper bound of the bucket containing it.
+     *
+     * @param percentile the percentile, in {@code [0, 100]}
+     * @return the latency in nanoseconds, {@code 0} if nothing is recorded
+     */
+    public long getPercentileNanos(double percentile) {
+        long[] snapshot = new long[BUCKETS];
+        long count = 0L;
+        for (int i = 0; i < BUCKETS; ++i) {
+            snapshot[i] = counts.get(i);
+            count += snapshot[i];
+        }
+        if (count == 0L) {
+            return 0L;
+        }
+        long rank = Math.max(1L, (long) Math.ceil(count * percentile / 100.0));
+        long seen = 0L;
+        for (int i = 0; i < BUCKETS; ++i) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), getMaxNanos());
+            }
+        }
+        return getMaxNanos();
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.runtime.monitor;
+
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+import io.github.datacanvasio.expretau.runtime.codegen.RtCompiledExpr;
+import io.github.datacanvasio.expretau.runtime.evaluator.base.UniversalEvaluator;
+import io.github.datacanvasio.expretau.runtime.op.RtEvaluatorOp;
+import io.github.datacanvasio.expretau.runtime.op.RtOp;
+import io.github.datacanvasio.expretau.runtime.optimizer.RtCommonExpr;
+import io.github.datacanvasio.expretau.runtime.optimizer.RtCseExpr;
+import io.github.datacanvasio.expretau.runtime.profile.RtProfileNode;
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import javax.annotation.Nonnull;
+
+/**
+ * Count the nodes of RtExpr trees, shared nodes are counted once.
+ */
+final class NodeCounter {
+    private final Set<RtExpr> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    @Getter
+    private int nodeCount = 0;
+    /**
+     * The number of {@link RtEvaluatorOp}s using a {@link UniversalEvaluator}.
+     */
+    @Getter
+    private int dynamicNodeCount = 0;
+
+    void count(@Nonnull RtExpr expr) {
+        // Wrappers are not counted.
+        if (expr instanceof RtCompiledExpr) {
+            count(((RtCompiledExpr) expr).getOrigin());
+            return;
+        } else if (expr instanceof RtMonitoredExpr) {
+            count(((RtMonitoredExpr) expr).getExpr());
+            return;
+        } else if (expr instanceof RtProfileNode) {
+            count(((RtProfileNode) expr).getExpr());
+            return;
+        }
+        if (!visited.add(expr)) {
+            return;
+        }
+        ++nodeCount;
+        if (expr instanceof RtEvaluatorOp && ((RtEvaluatorOp) expr).getEvaluator() instanceof UniversalEvaluator) {
+            ++dynamicNodeCount;
+        }
+        if (expr instanceof RtOp) {
+            for (RtExpr para : ((RtOp) expr).getParas()) {
+                count(para);
+            }
+        } else if (expr instanceof RtCseExpr) {
+            for (RtCommonExpr common : ((RtCseExpr) expr).getCommons()) {
+                count(common);
+            }
+            count(((RtCseExpr) expr).getExpr());
+        } else if (expr instanceof RtCommonExpr) {
+            count(((RtCommonExpr) expr).getExpr());
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.runtime.monitor;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The JFR event of parsing an expression string.
+ */
+@Name("io.github.datacanvasio.expretau.Parse")
+@Label("Expretau Parse")
+@Category("Expretau")
+@Description("Parsing an expression string into an Expr.")
+@StackTrace(false)
+public final class ParseEvent extends Event {
+    @Label("Expression")
+    String expression;
+
+    @Label("Parser")
+    @Description("The front-end, \"antlr\" or \"pratt\".")
+    String parser;
+
+    @Label("Succeeded")
+    boolean succeeded;
+
+    ParseEvent() {
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.runtime.monitor;
+
+import io.github.datacanvasio.expretau.runtime.EvalContext;
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+import io.github.datacanvasio.expretau.runtime.exception.FailGetEvaluator;
+import io.github.datacanvasio.expretau.runtime.vector.ColumnBatch;
+import io.github.datacanvasio.expretau.runtime.vector.ColumnVector;
+import lombok.Getter;
+
+import java.util.concurrent.ThreadLocalRandom;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * An RtExpr recording the evaluating of the wrapped RtExpr in the {@link ExprStats} of a name, created by
+ * {@link ExprMetrics#monitor(String, RtExpr)}.
+ *
+ * <p>Every evaluating is counted, but only about one of each {@code sampleInterval} is timed and emitted as an
+ * {@link EvalEvent}. Evaluating by columns is always timed and counted as one evaluation.
+ *
+ * <p>A deserialized instance records in {@link ExprMetrics#INS}.
+ */
+public final class RtMonitoredExpr implements RtExpr {
+    private static final long serialVersionUID = -6745236931046263571L;
+
+    @Getter
+    @Nonnull
+    private final String name;
+    @Getter
+    @Nonnull
+    private final RtExpr expr;
+    private final int sampleInterval;
+    @Getter
+    @Nonnull
+    private final transient ExprStats stats;
+
+    RtMonitoredExpr(@Nonnull String name, @Nonnull RtExpr expr, int sampleInterval, @Nonnull ExprStats stats) {
+        this.name = name;
+        this.expr = expr;
+        this.sampleInterval = sampleInterval;
+        this.stats = stats;
+    }
+
+    // Return the start time if this invocation is sampled, or -1. Random sampling needs no shared counter.
+    private long begin() {
+        stats.countEvaluation();
+        if (sampleInterval == 1 || ThreadLocalRandom.current().nextInt(sampleInterval) == 0) {
+            return System.nanoTime();
+        }
+        return -1L;
+    }
+
+    @Nullable
+    private static EvalEvent beginEvent(long start) {
+        return start >= 0 ? ExprEvents.beginEval() : null;
+    }
+
+    private void end(long start, @Nullable EvalEvent event, boolean succeeded) {
+        if (!succeeded) {
+            stats.countException();
+        }
+        if (start >= 0) {
+            stats.getLatency().record(System.nanoTime() - start);
+            ExprEvents.commitEval(event, name, sampleInterval, succeeded);
+        }
+    }
+
+    @Override
+    public Object eval(@Nullable EvalContext etx) throws FailGetEvaluator {
+        long start = begin();
+        EvalEvent event = beginEvent(start);
+        try {
+            Object value = expr.eval(etx);
+            end(start, event, true);
+            return value;
+        } catch (RuntimeException | FailGetEvaluator e) {
+            end(start, event, false);
+            throw e;
+        }
+    }
+
+    @Override
+    public int evalInt(@Nullable EvalContext etx) throws FailGetEvaluator {
+        long start = begin();
+        EvalEvent event = beginEvent(start);
+        try {
+            int value = expr.evalInt(etx);
+            end(start, event, true);
+            return value;
+        } catch (RuntimeException | FailGetEvaluator e) {
+            end(start, event, false);
+            throw e;
+        }
+    }
+
+    @Override
+    public long evalLong(@Nullable EvalContext etx) throws FailGetEvaluator {
+        long start = begin();
+        EvalEvent event = beginEvent(start);
+        try {
+            long value = expr.evalLong(etx);
+            end(start, event, true);
+            return value;
+        } catch (RuntimeException | FailGetEvaluator e) {
+            end(start, event, false);
+            throw e;
+        }
+    }
+
+    @Override
+    public double evalDouble(@Nullable EvalContext etx) throws FailGetEvaluator {
+        long start = begin();
+        EvalEvent event = beginEvent(start);
+        try {
+            double value = expr.evalDouble(etx);
+            end(start, event, true);
+            return value;
+        } catch (RuntimeException | FailGetEvaluator e) {
+            end(start, event, false);
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean evalBoolean(@Nullable EvalContext etx) throws FailGetEvaluator {
+        long start = begin();
+        EvalEvent event = beginEvent(start);
+        try {
+            boolean value = expr.evalBoolean(etx);
+            end(start, event, true);
+            return value;
+        } catch (RuntimeException | FailGetEvaluator e) {
+            end(start, event, false);
+            throw e;
+        }
+    }
+
+    @Override
+    public void evalBatch(
+        @Nonnull ColumnBatch batch,
+        @Nullable int[] sel,
+        int size,
+        @Nonnull ColumnVector out
+    ) throws FailGetEvaluator {
+        stats.countEvaluation();
+        long start = System.nanoTime();
+        EvalEvent event = ExprEvents.beginEval();
+        try {
+            expr.evalBatch(batch, sel, size, out);
+            end(start, event, true);
+        } catch (RuntimeException | FailGetEvaluator e) {
+            end(start, event, false);
+            throw e;
+        }
+    }
+
+    @Override
+    public int filterBatch(
+        @Nonnull ColumnBatch batch,
+        @Nullable int[] sel,
+        int size,
+        @Nonnull int[] out
+    ) throws FailGetEvaluator {
+        stats.countEvaluation();
+        long start = System.nanoTime();
+        EvalEvent event = ExprEvents.beginEval();
+        try {
+            int count = expr.filterBatch(batch, sel, size, out);
+            end(start, event, true);
+            return count;
+        } catch (RuntimeException | FailGetEvaluator e) {
+            end(start, event, false);
+            throw e;
+        }
+    }
+
+    @Override
+    public int typeCode() {
+        return expr.typeCode();
+    }
+
+    @Override
+    public boolean isPure() {
+        return expr.isPure();
+    }
+
+    private Object readResolve() {
+        return ExprMetrics.INS.monitor(name, expr, sampleInterval);
+    }
+}
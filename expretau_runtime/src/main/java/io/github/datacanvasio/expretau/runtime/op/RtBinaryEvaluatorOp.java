@@ -0,0 +1,44 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.datacanvasio.expretau.runtime.op;
+
+import io.github.datacanvasio.expretau.runtime.EvalContext;
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+import io.github.datacanvasio.expretau.runtime.evaluator.base.Evaluator;
+import io.github.datacanvasio.expretau.runtime.exception.FailGetEvaluator;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+public final class RtBinaryEvaluatorOp extends RtEvaluatorOp {
+    private static final long serialVersionUID = 4787984400284231783L;
+
+    /**
+     * Create an RtBinaryEvaluatorOp. RtBinaryEvaluatorOp is an RtEvaluatorOp with two parameters.
+     *
+     * @param evaluator the Evaluator
+     * @param paras     the parameters of the op
+     */
+    public RtBinaryEvaluatorOp(@Nonnull Evaluator evaluator, @Nonnull RtExpr[] paras) {
+        super(evaluator, paras);
+    }
+
+    @Override
+    protected Object evalObject(@Nullable EvalContext etx) throws FailGetEvaluator {
+        return getEvaluator().eval(paras[0].eval(etx), paras[1].eval(etx));
+    }
+}
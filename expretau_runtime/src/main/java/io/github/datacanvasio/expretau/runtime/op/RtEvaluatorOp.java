@@ -18,14 +18,21 @@ package io.github.datacanvasio.expretau.runtime.op;
 
 import io.github.datacanvasio.expretau.runtime.EvalContext;
 import io.github.datacanvasio.expretau.runtime.RtExpr;
+import io.github.datacanvasio.expretau.runtime.TypeCode;
 import io.github.datacanvasio.expretau.runtime.evaluator.base.Evaluator;
 import io.github.datacanvasio.expretau.runtime.exception.FailGetEvaluator;
+import io.github.datacanvasio.expretau.runtime.vector.BatchKernel;
+import io.github.datacanvasio.expretau.runtime.vector.BatchKernels;
+import io.github.datacanvasio.expretau.runtime.vector.ColumnBatch;
+import io.github.datacanvasio.expretau.runtime.vector.ColumnVector;
+import lombok.Getter;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 public class RtEvaluatorOp extends RtOp {
     private static final long serialVersionUID = -2145574267641248415L;
+    @Getter
     @Nonnull
     private final Evaluator evaluator;
 
@@ -40,18 +47,135 @@ public class RtEvaluatorOp extends RtOp {
         this.evaluator = evaluator;
     }
 
+    /**
+     * Create an RtEvaluatorOp, specialized by the number of parameters.
+     *
+     * @param evaluator the Evaluator
+     * @param paras     the parameters of the op
+     * @return the RtEvaluatorOp
+     */
+    @Nonnull
+    public static RtEvaluatorOp of(@Nonnull Evaluator evaluator, @Nonnull RtExpr[] paras) {
+        switch (paras.length) {
+            case 1:
+                return new RtUnaryEvaluatorOp(evaluator, paras);
+            case 2:
+                return new RtBinaryEvaluatorOp(evaluator, paras);
+            case 3:
+                return new RtTernaryEvaluatorOp(evaluator, paras);
+            default:
+                return new RtEvaluatorOp(evaluator, paras);
+        }
+    }
+
     @Override
     public final Object eval(@Nullable EvalContext etx) throws FailGetEvaluator {
-        Object[] paraValues = new Object[paras.length];
-        int i = 0;
-        for (RtExpr para : paras) {
-            paraValues[i++] = para.eval(etx);
+        // Primitive results are evaluated without boxing the parameters, boxed results may be `null`.
+        if (!evaluator.isPrimitive()) {
+            return evalObject(etx);
         }
-        return evaluator.eval(paraValues);
+        switch (evaluator.typeCode()) {
+            case TypeCode.INTEGER:
+                return evaluator.evalInt(paras, etx);
+            case TypeCode.LONG:
+                return evaluator.evalLong(paras, etx);
+            case TypeCode.DOUBLE:
+                return evaluator.evalDouble(paras, etx);
+            case TypeCode.BOOLEAN:
+                return evaluator.evalBoolean(paras, etx);
+            default:
+                return evalObject(etx);
+        }
+    }
+
+    /**
+     * Evaluate the result as an Object, if the type of the result is not primitive. Subclasses with fixed arity
+     * override this to avoid creating an array of parameter values.
+     *
+     * @param etx the EvalContext
+     * @return the result
+     * @throws FailGetEvaluator if there is no appropriate Evaluator
+     */
+    protected Object evalObject(@Nullable EvalContext etx) throws FailGetEvaluator {
+        return evaluator.eval(Evaluator.evalParas(paras, etx));
+    }
+
+    @Override
+    public final int evalInt(@Nullable EvalContext etx) throws FailGetEvaluator {
+        return evaluator.evalInt(paras, etx);
+    }
+
+    @Override
+    public final long evalLong(@Nullable EvalContext etx) throws FailGetEvaluator {
+        return evaluator.evalLong(paras, etx);
+    }
+
+    @Override
+    public final double evalDouble(@Nullable EvalContext etx) throws FailGetEvaluator {
+        return evaluator.evalDouble(paras, etx);
+    }
+
+    @Override
+    public final boolean evalBoolean(@Nullable EvalContext etx) throws FailGetEvaluator {
+        return evaluator.evalBoolean(paras, etx);
+    }
+
+    @Nonnull
+    private ColumnVector[] evalColumns(
+        @Nonnull ColumnBatch batch,
+        @Nullable int[] sel,
+        int size
+    ) throws FailGetEvaluator {
+        ColumnVector[] columns = new ColumnVector[paras.length];
+        for (int i = 0; i < paras.length; ++i) {
+            columns[i] = batch.evalColumn(paras[i], sel, size);
+        }
+        return columns;
+    }
+
+    @Override
+    public final void evalBatch(
+        @Nonnull ColumnBatch batch,
+        @Nullable int[] sel,
+        int size,
+        @Nonnull ColumnVector out
+    ) throws FailGetEvaluator {
+        ColumnVector[] columns = evalColumns(batch, sel, size);
+        BatchKernel kernel = sel == null ? BatchKernels.get(evaluator) : null;
+        if (kernel != null) {
+            kernel.evalBatch(columns, size, out);
+            return;
+        }
+        evaluator.evalBatch(columns, sel, size, out);
+    }
+
+    @Override
+    public final int filterBatch(
+        @Nonnull ColumnBatch batch,
+        @Nullable int[] sel,
+        int size,
+        @Nonnull int[] out
+    ) throws FailGetEvaluator {
+        return evaluator.evalFilter(evalColumns(batch, sel, size), sel, size, out);
     }
 
     @Override
     public final int typeCode() {
         return evaluator.typeCode();
     }
+
+    @Override
+    public final boolean isPure() {
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return super.equals(obj) && evaluator.equals(((RtEvaluatorOp) obj).evaluator);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + evaluator.hashCode();
+    }
 }
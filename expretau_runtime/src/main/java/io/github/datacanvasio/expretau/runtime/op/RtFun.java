@@ -32,8 +32,51 @@ public abstract class RtFun extends RtOp {
 
     protected abstract Object fun(@Nonnull Object[] values);
 
+    /**
+     * Calculate the result of one parameter value. Override this to avoid creating an array.
+     *
+     * @param value0 the parameter value
+     * @return the result
+     */
+    protected Object fun(Object value0) {
+        return fun(new Object[]{value0});
+    }
+
+    /**
+     * Calculate the result of two parameter values. Override this to avoid creating an array.
+     *
+     * @param value0 the 1st parameter value
+     * @param value1 the 2nd parameter value
+     * @return the result
+     */
+    protected Object fun(Object value0, Object value1) {
+        return fun(new Object[]{value0, value1});
+    }
+
+    /**
+     * Calculate the result of three parameter values. Override this to avoid creating an array.
+     *
+     * @param value0 the 1st parameter value
+     * @param value1 the 2nd parameter value
+     * @param value2 the 3rd parameter value
+     * @return the result
+     */
+    protected Object fun(Object value0, Object value1, Object value2) {
+        return fun(new Object[]{value0, value1, value2});
+    }
+
     @Override
     public Object eval(@Nullable EvalContext etx) throws FailGetEvaluator {
+        switch (paras.length) {
+            case 1:
+                return fun(paras[0].eval(etx));
+            case 2:
+                return fun(paras[0].eval(etx), paras[1].eval(etx));
+            case 3:
+                return fun(paras[0].eval(etx), paras[1].eval(etx), paras[2].eval(etx));
+            default:
+                break;
+        }
         Object[] values = new Object[paras.length];
         for (int i = 0; i < paras.length; ++i) {
             values[i] = paras[i].eval(etx);
@@ -17,15 +17,41 @@
 package io.github.datacanvasio.expretau.runtime.op;
 
 import io.github.datacanvasio.expretau.runtime.RtExpr;
+import lombok.Getter;
 
+import java.util.Arrays;
 import javax.annotation.Nonnull;
 
 public abstract class RtOp implements RtExpr {
     private static final long serialVersionUID = 3831182336265497397L;
+    @Getter
     @Nonnull
     protected final RtExpr[] paras;
 
     protected RtOp(@Nonnull RtExpr[] paras) {
         this.paras = paras;
     }
+
+    /**
+     * Two RtOps are structurally equal if they are of the same class and have equal parameters. Subclasses with more
+     * fields must override this.
+     *
+     * @param obj the other object
+     * @return {@code true} if they are equal
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        return Arrays.equals(paras, ((RtOp) obj).paras);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * getClass().getName().hashCode() + Arrays.hashCode(paras);
+    }
 }
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.runtime.op.logical;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Comparator;
+import javax.annotation.Nonnull;
+
+/**
+ * The order to evaluate the parameters (branches) of an adaptive AND/OR op. The cost and the rate to short-cut the op
+ * of each branch are sampled, and the branches are periodically sorted by {@code cost / rate}, which minimizes the
+ * expected cost if the branches are independent.
+ */
+final class BranchOrder implements Serializable {
+    /**
+     * Sample one of this many evaluations by row. Must be a power of 2.
+     */
+    static final int SAMPLE_INTERVAL = 64;
+    /**
+     * Reorder the branches after this many records.
+     */
+    static final int REORDER_INTERVAL = 256;
+    /**
+     * The maximum shift of the hold-off after failures, the hold-off doubles with each failure up to this.
+     */
+    static final int MAX_HOLD_OFF_SHIFT = 10;
+
+    private static final long serialVersionUID = -5854303859953359862L;
+
+    private final long[] evaluated;
+    private final long[] shortCuts;
+    private final long[] nanos;
+
+    private volatile int[] order;
+    // Not synchronized, lost updates make no difference in sampling.
+    private int evalCount = 0;
+    private int recordCount = 0;
+    private int failures = 0;
+    // The number of records before reordering is allowed again after a failure.
+    private int holdOff = 0;
+
+    BranchOrder(int size) {
+        evaluated = new long[size];
+        shortCuts = new long[size];
+        nanos = new long[size];
+        order = naturalOrder(size);
+    }
+
+    @Nonnull
+    private static int[] naturalOrder(int size) {
+        int[] order = new int[size];
+        Arrays.setAll(order, i -> i);
+        return order;
+    }
+
+    /**
+     * Check if an order is the natural order of the branches.
+     *
+     * @param order the order
+     * @return {@code true} if it is the natural order
+     */
+    static boolean isNatural(@Nonnull int[] order) {
+        for (int i = 0; i < order.length; ++i) {
+            if (order[i] != i) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Nonnull
+    int[] getOrder() {
+        return order;
+    }
+
+    /**
+     * Check if the current evaluation should be sampled.
+     *
+     * @return {@code true} if it should be sampled
+     */
+    boolean sample() {
+        return (++evalCount & (SAMPLE_INTERVAL - 1)) == 0;
+    }
+
+    /**
+     * Record the statistics of evaluating a branch.
+     *
+     * @param branch    the index of the branch
+     * @param rows      the number of rows evaluated
+     * @param shortCut  the number of rows which short-cut the op
+     * @param elapsed   the elapsed time in nanoseconds
+     */
+    void record(int branch, int rows, int shortCut, long elapsed) {
+        if (rows == 0) {
+            return;
+        }
+        evaluated[branch] += rows;
+        shortCuts[branch] += shortCut;
+        nanos[branch] += elapsed;
+        if (holdOff > 0) {
+            --holdOff;
+        } else if (++recordCount % REORDER_INTERVAL == 0) {
+            reorder();
+        }
+    }
+
+    private double rank(int branch) {
+        if (evaluated[branch] == 0) {
+            return Double.MAX_VALUE;
+        }
+        double cost = (double) nanos[branch] / evaluated[branch];
+        // Smoothed to avoid dividing by zero.
+        double rate = (shortCuts[branch] + 1.0) / (evaluated[branch] + 2.0);
+        return cost / rate;
+    }
+
+    private synchronized void reorder() {
+        int size = evaluated.length;
+        double[] ranks = new double[size];
+        for (int i = 0; i < size; ++i) {
+            ranks[i] = rank(i);
+            // Decay the statistics to follow changes of data.
+            evaluated[i] >>= 1;
+            shortCuts[i] >>= 1;
+            nanos[i] >>= 1;
+        }
+        order = Arrays.stream(order)
+            .boxed()
+            .sorted(Comparator.comparingDouble(i -> ranks[i]))
+            .mapToInt(Integer::intValue)
+            .toArray();
+    }
+
+    /**
+     * Restore the natural order after evaluating in an order failed, for the branches may depend on the order. The
+     * statistics are cleared and reordering is held off for a while, which doubles with each failure, so that branches
+     * guarded by the others are rarely reordered but a single failure does not stop adapting.
+     *
+     * @param failed the order in which evaluating failed
+     */
+    synchronized void fail(@Nonnull int[] failed) {
+        // Another thread may have restored the order already.
+        if (order != failed) {
+            return;
+        }
+        order = naturalOrder(evaluated.length);
+        Arrays.fill(evaluated, 0);
+        Arrays.fill(shortCuts, 0);
+        Arrays.fill(nanos, 0);
+        failures = Math.min(failures + 1, MAX_HOLD_OFF_SHIFT);
+        holdOff = REORDER_INTERVAL << failures;
+    }
+}
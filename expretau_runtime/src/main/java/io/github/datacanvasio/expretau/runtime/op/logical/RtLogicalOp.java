@@ -16,21 +16,305 @@
 
 package io.github.datacanvasio.expretau.runtime.op.logical;
 
+import io.github.datacanvasio.expretau.runtime.EvalContext;
 import io.github.datacanvasio.expretau.runtime.RtExpr;
 import io.github.datacanvasio.expretau.runtime.TypeCode;
+import io.github.datacanvasio.expretau.runtime.exception.FailGetEvaluator;
 import io.github.datacanvasio.expretau.runtime.op.RtOp;
+import io.github.datacanvasio.expretau.runtime.vector.ColumnBatch;
+import io.github.datacanvasio.expretau.runtime.vector.ColumnVector;
 
+import java.util.Arrays;
+import java.util.stream.IntStream;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 public abstract class RtLogicalOp extends RtOp {
     private static final long serialVersionUID = 5800304351907769891L;
 
+    @Nullable
+    private final BranchOrder branchOrder;
+
     protected RtLogicalOp(@Nonnull RtExpr[] paras) {
+        this(paras, false);
+    }
+
+    protected RtLogicalOp(@Nonnull RtExpr[] paras, boolean adaptive) {
         super(paras);
+        branchOrder = adaptive ? new BranchOrder(paras.length) : null;
+    }
+
+    /**
+     * Check if the order to evaluate the parameters is adapted by runtime statistics.
+     *
+     * @return {@code true} if it is adaptive
+     */
+    public boolean isAdaptive() {
+        return branchOrder != null;
+    }
+
+    /**
+     * Get the current order to evaluate the parameters.
+     *
+     * @return the indices of the parameters in evaluating order
+     */
+    @Nonnull
+    public int[] getEvalOrder() {
+        return branchOrder != null ? branchOrder.getOrder().clone() : IntStream.range(0, paras.length).toArray();
+    }
+
+    /**
+     * Get the positions in a selection but not in another selection.
+     *
+     * @param sel          the ascending positions of selected rows, or {@code null} for the first {@code size} rows
+     * @param size         the number of selected rows
+     * @param excluded     the ascending positions to exclude, must be a subset of the selection
+     * @param excludedSize the number of positions to exclude
+     * @param out          the array to put the result in, can be the same array as {@code sel}
+     * @return the number of positions in the result
+     */
+    protected static int difference(
+        @Nullable int[] sel,
+        int size,
+        @Nonnull int[] excluded,
+        int excludedSize,
+        @Nonnull int[] out
+    ) {
+        int count = 0;
+        int j = 0;
+        for (int k = 0; k < size; ++k) {
+            int i = sel != null ? sel[k] : k;
+            if (j < excludedSize && excluded[j] == i) {
+                ++j;
+            } else {
+                out[count++] = i;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Merge two disjoint selections.
+     *
+     * @param sel0  the 1st ascending positions
+     * @param size0 the number of the 1st positions
+     * @param sel1  the 2nd ascending positions
+     * @param size1 the number of the 2nd positions
+     * @param out   the array to put the result in
+     * @return the number of positions in the result
+     */
+    protected static int union(@Nonnull int[] sel0, int size0, @Nonnull int[] sel1, int size1, @Nonnull int[] out) {
+        int i = 0;
+        int j = 0;
+        int count = 0;
+        while (i < size0 && j < size1) {
+            out[count++] = sel0[i] < sel1[j] ? sel0[i++] : sel1[j++];
+        }
+        while (i < size0) {
+            out[count++] = sel0[i++];
+        }
+        while (j < size1) {
+            out[count++] = sel1[j++];
+        }
+        return count;
+    }
+
+    private boolean evalInOrder(@Nullable EvalContext etx, boolean shortCut) throws FailGetEvaluator {
+        for (RtExpr para : paras) {
+            if (para.evalBoolean(etx) == shortCut) {
+                return shortCut;
+            }
+        }
+        return !shortCut;
+    }
+
+    private boolean evalSampled(
+        @Nullable EvalContext etx,
+        @Nonnull int[] order,
+        boolean shortCut
+    ) throws FailGetEvaluator {
+        // Evaluated as usual, but the branches evaluated are timed.
+        for (int i : order) {
+            long start = System.nanoTime();
+            boolean value = paras[i].evalBoolean(etx);
+            branchOrder.record(i, 1, value == shortCut ? 1 : 0, System.nanoTime() - start);
+            if (value == shortCut) {
+                return shortCut;
+            }
+        }
+        return !shortCut;
+    }
+
+    /**
+     * Evaluate the parameters one by one, until one of them is the short-cut value.
+     *
+     * @param etx      the EvalContext
+     * @param shortCut the value to short-cut the op, {@code false} for AND and {@code true} for OR
+     * @return the result
+     * @throws FailGetEvaluator if there is no appropriate Evaluator
+     */
+    protected final boolean evalBranches(@Nullable EvalContext etx, boolean shortCut) throws FailGetEvaluator {
+        if (branchOrder == null) {
+            return evalInOrder(etx, shortCut);
+        }
+        int[] order = branchOrder.getOrder();
+        try {
+            if (branchOrder.sample()) {
+                return evalSampled(etx, order, shortCut);
+            }
+            for (int i : order) {
+                if (paras[i].evalBoolean(etx) == shortCut) {
+                    return shortCut;
+                }
+            }
+            return !shortCut;
+        } catch (RuntimeException | FailGetEvaluator e) {
+            if (BranchOrder.isNatural(order)) {
+                throw e;
+            }
+            // A branch may be guarded by the branches before it, such as `a != 0 and 10 / a > 1`.
+            boolean result = evalInOrder(etx, shortCut);
+            branchOrder.fail(order);
+            return result;
+        }
+    }
+
+    private int filterAnd(
+        @Nonnull ColumnBatch batch,
+        @Nullable int[] sel,
+        int size,
+        @Nonnull int[] out,
+        @Nullable int[] order
+    ) throws FailGetEvaluator {
+        int[] current = sel;
+        int count = size;
+        for (int j = 0; j < paras.length; ++j) {
+            int i = order != null ? order[j] : j;
+            long start = branchOrder != null ? System.nanoTime() : 0L;
+            // Only the rows passed the previous parameters are evaluated.
+            int passed = paras[i].filterBatch(batch, current, count, out);
+            if (branchOrder != null) {
+                branchOrder.record(i, count, count - passed, System.nanoTime() - start);
+            }
+            current = out;
+            count = passed;
+            if (count == 0) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    private int filterOr(
+        @Nonnull ColumnBatch batch,
+        @Nullable int[] sel,
+        int size,
+        @Nonnull int[] out,
+        @Nullable int[] order
+    ) throws FailGetEvaluator {
+        int[] rest = new int[size];
+        for (int k = 0; k < size; ++k) {
+            rest[k] = sel != null ? sel[k] : k;
+        }
+        int restCount = size;
+        int[] passed = new int[size];
+        int count = 0;
+        int[] branchPassed = new int[size];
+        int[] merged = new int[size];
+        for (int j = 0; j < paras.length && restCount > 0; ++j) {
+            int i = order != null ? order[j] : j;
+            long start = branchOrder != null ? System.nanoTime() : 0L;
+            // Only the rows failed the previous parameters are evaluated.
+            int branchCount = paras[i].filterBatch(batch, rest, restCount, branchPassed);
+            if (branchOrder != null) {
+                branchOrder.record(i, restCount, branchCount, System.nanoTime() - start);
+            }
+            count = union(passed, count, branchPassed, branchCount, merged);
+            int[] tmp = passed;
+            passed = merged;
+            merged = tmp;
+            restCount = difference(rest, restCount, branchPassed, branchCount, rest);
+        }
+        System.arraycopy(passed, 0, out, 0, count);
+        return count;
+    }
+
+    /**
+     * Filter selected rows of a ColumnBatch by evaluating the parameters one by one, each on the rows not short-cut by
+     * the previous ones.
+     *
+     * @param batch    the ColumnBatch
+     * @param sel      the ascending positions of selected rows, or {@code null} for the first {@code size} rows
+     * @param size     the number of selected rows
+     * @param out      the array to put the ascending positions of passed rows in
+     * @param shortCut the value to short-cut the op, {@code false} for AND and {@code true} for OR
+     * @return the number of passed rows
+     * @throws FailGetEvaluator if there is no appropriate Evaluator
+     */
+    protected final int filterBranches(
+        @Nonnull ColumnBatch batch,
+        @Nullable int[] sel,
+        int size,
+        @Nonnull int[] out,
+        boolean shortCut
+    ) throws FailGetEvaluator {
+        if (branchOrder == null) {
+            return shortCut ? filterOr(batch, sel, size, out, null) : filterAnd(batch, sel, size, out, null);
+        }
+        // The selection may be overwritten if evaluating in the adapted order failed.
+        int[] origin = sel != null && sel == out ? Arrays.copyOf(sel, size) : sel;
+        int[] order = branchOrder.getOrder();
+        try {
+            return shortCut ? filterOr(batch, sel, size, out, order) : filterAnd(batch, sel, size, out, order);
+        } catch (RuntimeException | FailGetEvaluator e) {
+            if (BranchOrder.isNatural(order)) {
+                throw e;
+            }
+            int count = shortCut
+                ? filterOr(batch, origin, size, out, null)
+                : filterAnd(batch, origin, size, out, null);
+            branchOrder.fail(order);
+            return count;
+        }
+    }
+
+    @Override
+    public abstract int filterBatch(
+        @Nonnull ColumnBatch batch,
+        @Nullable int[] sel,
+        int size,
+        @Nonnull int[] out
+    ) throws FailGetEvaluator;
+
+    @Override
+    public final void evalBatch(
+        @Nonnull ColumnBatch batch,
+        @Nullable int[] sel,
+        int size,
+        @Nonnull ColumnVector out
+    ) throws FailGetEvaluator {
+        boolean[] results = out.getBooleans();
+        if (sel != null) {
+            for (int k = 0; k < size; ++k) {
+                results[sel[k]] = false;
+            }
+        } else {
+            Arrays.fill(results, 0, size, false);
+        }
+        int[] passed = new int[size];
+        int count = filterBatch(batch, sel, size, passed);
+        for (int k = 0; k < count; ++k) {
+            results[passed[k]] = true;
+        }
     }
 
     @Override
     public final int typeCode() {
         return TypeCode.BOOLEAN;
     }
+
+    @Override
+    public final boolean isPure() {
+        return true;
+    }
 }
@@ -19,6 +19,7 @@ package io.github.datacanvasio.expretau.runtime.op.logical;
 import io.github.datacanvasio.expretau.runtime.EvalContext;
 import io.github.datacanvasio.expretau.runtime.RtExpr;
 import io.github.datacanvasio.expretau.runtime.exception.FailGetEvaluator;
+import io.github.datacanvasio.expretau.runtime.vector.ColumnBatch;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -37,6 +38,23 @@ public class RtNotOp extends RtLogicalOp {
 
     @Override
     public Object eval(@Nullable EvalContext etx) throws FailGetEvaluator {
-        return !(boolean) paras[0].eval(etx);
+        return evalBoolean(etx);
+    }
+
+    @Override
+    public boolean evalBoolean(@Nullable EvalContext etx) throws FailGetEvaluator {
+        return !paras[0].evalBoolean(etx);
+    }
+
+    @Override
+    public int filterBatch(
+        @Nonnull ColumnBatch batch,
+        @Nullable int[] sel,
+        int size,
+        @Nonnull int[] out
+    ) throws FailGetEvaluator {
+        int[] passed = new int[size];
+        int count = paras[0].filterBatch(batch, sel, size, passed);
+        return difference(sel, size, passed, count, out);
     }
 }
@@ -19,6 +19,7 @@ package io.github.datacanvasio.expretau.runtime.op.logical;
 import io.github.datacanvasio.expretau.runtime.EvalContext;
 import io.github.datacanvasio.expretau.runtime.RtExpr;
 import io.github.datacanvasio.expretau.runtime.exception.FailGetEvaluator;
+import io.github.datacanvasio.expretau.runtime.vector.ColumnBatch;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -27,7 +28,7 @@ public class RtOrOp extends RtLogicalOp {
     private static final long serialVersionUID = -1477334212197197621L;
 
     /**
-     * Create an RtOrOp. RtNotOp performs logical OR operation.
+     * Create an RtOrOp. RtOrOp performs logical OR operation on any number of parameters.
      *
      * @param paras the parameters of the op
      */
@@ -35,8 +36,34 @@ public class RtOrOp extends RtLogicalOp {
         super(paras);
     }
 
+    /**
+     * Create an RtOrOp, which may be adaptive.
+     *
+     * @param paras    the parameters of the op
+     * @param adaptive if the order to evaluate the parameters is adapted by runtime statistics, the parameters must
+     *                 be pure
+     */
+    public RtOrOp(@Nonnull RtExpr[] paras, boolean adaptive) {
+        super(paras, adaptive);
+    }
+
     @Override
     public Object eval(@Nullable EvalContext etx) throws FailGetEvaluator {
-        return (boolean) paras[0].eval(etx) || (boolean) paras[1].eval(etx);
+        return evalBoolean(etx);
+    }
+
+    @Override
+    public boolean evalBoolean(@Nullable EvalContext etx) throws FailGetEvaluator {
+        return evalBranches(etx, true);
+    }
+
+    @Override
+    public int filterBatch(
+        @Nonnull ColumnBatch batch,
+        @Nullable int[] sel,
+        int size,
+        @Nonnull int[] out
+    ) throws FailGetEvaluator {
+        return filterBranches(batch, sel, size, out, true);
     }
 }
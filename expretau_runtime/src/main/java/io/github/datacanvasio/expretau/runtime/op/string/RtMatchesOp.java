@@ -35,6 +35,12 @@ public final class RtMatchesOp extends RtStringRelationOp {
     @Nonnull
     @Override
     protected Object fun(@Nonnull Object[] values) {
-        return ((String) values[0]).matches((String) values[1]);
+        return fun(values[0], values[1]);
+    }
+
+    @Nonnull
+    @Override
+    protected Object fun(Object value0, Object value1) {
+        return ((String) value0).matches((String) value1);
     }
 }
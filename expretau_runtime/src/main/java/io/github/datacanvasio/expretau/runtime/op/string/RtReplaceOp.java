@@ -35,6 +35,12 @@ public class RtReplaceOp extends RtStringConversionOp {
     @Nonnull
     @Override
     protected Object fun(@Nonnull Object[] values) {
-        return ((String) values[0]).replace((String) values[1], (String) values[2]);
+        return fun(values[0], values[1], values[2]);
+    }
+
+    @Nonnull
+    @Override
+    protected Object fun(Object value0, Object value1, Object value2) {
+        return ((String) value0).replace((String) value1, (String) value2);
     }
 }
@@ -33,4 +33,9 @@ public abstract class RtStringConversionOp extends RtFun {
     public final int typeCode() {
         return TypeCode.STRING;
     }
+
+    @Override
+    public boolean isPure() {
+        return true;
+    }
 }
@@ -33,4 +33,9 @@ public abstract class RtStringRelationOp extends RtFun {
     public final int typeCode() {
         return TypeCode.BOOLEAN;
     }
+
+    @Override
+    public boolean isPure() {
+        return true;
+    }
 }
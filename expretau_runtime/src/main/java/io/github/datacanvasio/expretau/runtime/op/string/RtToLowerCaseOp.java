@@ -35,6 +35,12 @@ public class RtToLowerCaseOp extends RtStringConversionOp {
     @Nonnull
     @Override
     protected Object fun(@Nonnull Object[] values) {
-        return ((String) values[0]).toLowerCase();
+        return fun(values[0]);
+    }
+
+    @Nonnull
+    @Override
+    protected Object fun(Object value0) {
+        return ((String) value0).toLowerCase();
     }
 }
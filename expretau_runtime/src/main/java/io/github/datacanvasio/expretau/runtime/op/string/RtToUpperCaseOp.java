@@ -35,6 +35,12 @@ public class RtToUpperCaseOp extends RtStringConversionOp {
     @Nonnull
     @Override
     protected Object fun(@Nonnull Object[] values) {
-        return ((String) values[0]).toUpperCase();
+        return fun(values[0]);
+    }
+
+    @Nonnull
+    @Override
+    protected Object fun(Object value0) {
+        return ((String) value0).toUpperCase();
     }
 }
@@ -35,6 +35,12 @@ public class RtTrimOp extends RtStringConversionOp {
     @Nonnull
     @Override
     protected Object fun(@Nonnull Object[] values) {
-        return ((String) values[0]).trim();
+        return fun(values[0]);
+    }
+
+    @Nonnull
+    @Override
+    protected Object fun(Object value0) {
+        return ((String) value0).trim();
     }
 }
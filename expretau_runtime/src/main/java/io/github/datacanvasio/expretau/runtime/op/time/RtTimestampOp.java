@@ -38,11 +38,21 @@ public class RtTimestampOp extends RtFun {
 
     @Override
     protected Object fun(@Nonnull Object[] values) {
-        return ((Date) values[0]).getTime();
+        return fun(values[0]);
+    }
+
+    @Override
+    protected Object fun(Object value0) {
+        return ((Date) value0).getTime();
     }
 
     @Override
     public int typeCode() {
         return TypeCode.LONG;
     }
+
+    @Override
+    public boolean isPure() {
+        return true;
+    }
 }
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.runtime.optimizer;
+
+import io.github.datacanvasio.expretau.runtime.EvalContext;
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+import io.github.datacanvasio.expretau.runtime.exception.FailGetEvaluator;
+
+import java.util.Arrays;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * The EvalContext of one evaluating, which holds the values of common sub-expressions and delegates variables to the
+ * outer EvalContext.
+ *
+ * <p>Frames are reused by each thread, and the values of primitive types are kept in primitive slots, so evaluating
+ * with common sub-expressions does not allocate.
+ */
+final class CommonFrame implements EvalContext {
+    private static final long serialVersionUID = -7983088199031082929L;
+
+    private static final ThreadLocal<CommonFrame> FRAMES = ThreadLocal.withInitial(CommonFrame::new);
+
+    private static final byte OBJECT = 0;
+    private static final byte INTEGER = 1;
+    private static final byte LONG = 2;
+    private static final byte DOUBLE = 3;
+    private static final byte BOOLEAN = 4;
+
+    private Object owner;
+    private EvalContext etx;
+    private boolean busy;
+    // The slots evaluated in the current evaluating are stamped with the current generation.
+    private int generation;
+    private int[] stamps = new int[0];
+    private byte[] kinds = new byte[0];
+    private Object[] values = new Object[0];
+    private long[] longs = new long[0];
+    private double[] doubles = new double[0];
+
+    private CommonFrame() {
+    }
+
+    /**
+     * Get a frame of the current thread for an evaluating, which must be released after the evaluating.
+     *
+     * @param owner the owner of the common sub-expressions
+     * @param etx   the outer EvalContext
+     * @param size  the number of common sub-expressions
+     * @return the frame
+     */
+    @Nonnull
+    static CommonFrame acquire(@Nonnull Object owner, @Nullable EvalContext etx, int size) {
+        CommonFrame frame = FRAMES.get();
+        // Evaluating may be reentrant if a common sub-expression evaluates another owner.
+        if (frame.busy) {
+            frame = new CommonFrame();
+        }
+        frame.reset(owner, etx, size);
+        return frame;
+    }
+
+    private void reset(@Nonnull Object owner, @Nullable EvalContext etx, int size) {
+        this.owner = owner;
+        this.etx = etx;
+        busy = true;
+        if (stamps.length < size) {
+            stamps = new int[size];
+            kinds = new byte[size];
+            values = new Object[size];
+            longs = new long[size];
+            doubles = new double[size];
+            generation = 0;
+        }
+        if (++generation == 0) {
+            Arrays.fill(stamps, 0);
+            generation = 1;
+        }
+    }
+
+    /**
+     * Release the frame after an evaluating.
+     */
+    void release() {
+        owner = null;
+        etx = null;
+        busy = false;
+    }
+
+    boolean isOwnedBy(Object object) {
+        return owner == object;
+    }
+
+    private boolean isEvaluated(int slot) {
+        return stamps[slot] == generation;
+    }
+
+    private void evaluated(int slot, byte kind) {
+        kinds[slot] = kind;
+        stamps[slot] = generation;
+    }
+
+    /**
+     * Get the value of a common sub-expression, evaluate it if not evaluated yet.
+     *
+     * @param slot the slot of the common sub-expression
+     * @param expr the common sub-expression
+     * @return the value
+     * @throws FailGetEvaluator if there is no appropriate Evaluator
+     */
+    Object valueOf(int slot, @Nonnull RtExpr expr) throws FailGetEvaluator {
+        if (!isEvaluated(slot)) {
+            values[slot] = expr.eval(this);
+            evaluated(slot, OBJECT);
+        }
+        switch (kinds[slot]) {
+            case INTEGER:
+                return (int) longs[slot];
+            case LONG:
+                return longs[slot];
+            case DOUBLE:
+                return doubles[slot];
+            case BOOLEAN:
+                return longs[slot] != 0;
+            default:
+                return values[slot];
+        }
+    }
+
+    int intOf(int slot, @Nonnull RtExpr expr) throws FailGetEvaluator {
+        if (!isEvaluated(slot)) {
+            longs[slot] = expr.evalInt(this);
+            evaluated(slot, INTEGER);
+        }
+        return kinds[slot] == INTEGER ? (int) longs[slot] : ((Number) valueOf(slot, expr)).intValue();
+    }
+
+    long longOf(int slot, @Nonnull RtExpr expr) throws FailGetEvaluator {
+        if (!isEvaluated(slot)) {
+            longs[slot] = expr.evalLong(this);
+            evaluated(slot, LONG);
+        }
+        return kinds[slot] == LONG ? longs[slot] : ((Number) valueOf(slot, expr)).longValue();
+    }
+
+    double doubleOf(int slot, @Nonnull RtExpr expr) throws FailGetEvaluator {
+        if (!isEvaluated(slot)) {
+            doubles[slot] = expr.evalDouble(this);
+            evaluated(slot, DOUBLE);
+        }
+        return kinds[slot] == DOUBLE ? doubles[slot] : ((Number) valueOf(slot, expr)).doubleValue();
+    }
+
+    boolean booleanOf(int slot, @Nonnull RtExpr expr) throws FailGetEvaluator {
+        if (!isEvaluated(slot)) {
+            longs[slot] = expr.evalBoolean(this) ? 1 : 0;
+            evaluated(slot, BOOLEAN);
+        }
+        return kinds[slot] == BOOLEAN ? longs[slot] != 0 : (boolean) valueOf(slot, expr);
+    }
+
+    @Override
+    public Object get(Object id) {
+        return Objects.requireNonNull(etx).get(id);
+    }
+
+    @Override
+    public void set(Object id, Object value) {
+        Objects.requireNonNull(etx).set(id, value);
+    }
+}
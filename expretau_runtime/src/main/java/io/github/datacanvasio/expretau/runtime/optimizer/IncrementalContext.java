@@ -0,0 +1,166 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.runtime.optimizer;
+
+import io.github.datacanvasio.expretau.runtime.EvalContext;
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+import io.github.datacanvasio.expretau.runtime.exception.FailGetEvaluator;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * The EvalContext to evaluate an {@link RtIncrementalSet} repeatedly on the same data, which holds the values of the
+ * {@link RtCachedExpr}s and delegates variables to the outer EvalContext. Setting a variable through this context
+ * invalidates the values depending on it, so re-evaluating recomputes only them.
+ *
+ * <p>The variables must not be changed but through this context, or {@link #invalidate(Object)} must be called. An
+ * IncrementalContext is not thread-safe.
+ */
+public final class IncrementalContext implements EvalContext {
+    private static final long serialVersionUID = -2215916462349213338L;
+
+    private final RtIncrementalSet owner;
+    private final EvalContext etx;
+    private final Object[] values;
+    private final boolean[] valid;
+
+    private long recomputedCount = 0L;
+
+    IncrementalContext(@Nonnull RtIncrementalSet owner, @Nonnull EvalContext etx, int size) {
+        this.owner = owner;
+        this.etx = etx;
+        values = new Object[size];
+        valid = new boolean[size];
+    }
+
+    boolean isOwnedBy(Object object) {
+        return owner == object;
+    }
+
+    /**
+     * Get the value of a cached sub-expression, evaluate it if not valid.
+     *
+     * @param slot the slot of the cached sub-expression
+     * @param expr the cached sub-expression
+     * @return the value
+     * @throws FailGetEvaluator if there is no appropriate Evaluator
+     */
+    Object valueOf(int slot, @Nonnull RtExpr expr) throws FailGetEvaluator {
+        if (!valid[slot]) {
+            values[slot] = expr.eval(this);
+            valid[slot] = true;
+            ++recomputedCount;
+        }
+        return values[slot];
+    }
+
+    /**
+     * Get the number of cached sub-expressions evaluated (not taken from the cache) in this context so far.
+     *
+     * @return the number
+     */
+    public long getRecomputedCount() {
+        return recomputedCount;
+    }
+
+    /**
+     * Invalidate the cached values depending on a variable, which is changed not through this context.
+     *
+     * @param id the id of the variable
+     */
+    public void invalidate(Object id) {
+        for (int slot : owner.dependentsOf(id)) {
+            valid[slot] = false;
+        }
+    }
+
+    /**
+     * Invalidate all the cached values.
+     */
+    public void invalidateAll() {
+        Arrays.fill(valid, false);
+    }
+
+    /**
+     * Evaluate an RtExpr of the RtIncrementalSet.
+     *
+     * @param index the index of the RtExpr
+     * @return the result
+     * @throws FailGetEvaluator if there is no appropriate Evaluator
+     */
+    public Object eval(int index) throws FailGetEvaluator {
+        return owner.getExprs()[index].eval(this);
+    }
+
+    /**
+     * Evaluate all the RtExprs of the RtIncrementalSet.
+     *
+     * @param values the array to put the results in, in the same order of the RtExprs
+     * @throws FailGetEvaluator if there is no appropriate Evaluator
+     */
+    public void eval(@Nonnull Object[] values) throws FailGetEvaluator {
+        RtExpr[] exprs = owner.getExprs();
+        for (int i = 0; i < exprs.length; ++i) {
+            values[i] = exprs[i].eval(this);
+        }
+    }
+
+    /**
+     * Evaluate all the RtExprs of the RtIncrementalSet.
+     *
+     * @return the results, in the same order of the RtExprs
+     * @throws FailGetEvaluator if there is no appropriate Evaluator
+     */
+    @Nonnull
+    public Object[] eval() throws FailGetEvaluator {
+        Object[] results = new Object[owner.size()];
+        eval(results);
+        return results;
+    }
+
+    @Override
+    public Object get(Object id) {
+        return etx.get(id);
+    }
+
+    // Only immutable values are compared, for a mutable value (e.g. a list or a map) may be changed in place and set
+    // back, which must be taken as changed.
+    private static boolean isImmutable(@Nullable Object value) {
+        return value == null
+            || value instanceof String
+            || value instanceof Boolean
+            || value instanceof Integer
+            || value instanceof Long
+            || value instanceof Double
+            || value instanceof BigDecimal;
+    }
+
+    // Setting the same immutable value keeps the cached values.
+    @Override
+    public void set(Object id, Object value) {
+        Object old = etx.get(id);
+        etx.set(id, value);
+        if (!isImmutable(value) || !Objects.equals(old, value)) {
+            invalidate(id);
+        }
+    }
+}
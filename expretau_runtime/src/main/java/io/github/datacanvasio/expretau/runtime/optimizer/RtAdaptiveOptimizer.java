@@ -0,0 +1,80 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.runtime.optimizer;
+
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+import io.github.datacanvasio.expretau.runtime.op.RtOp;
+import io.github.datacanvasio.expretau.runtime.op.logical.RtAndOp;
+import io.github.datacanvasio.expretau.runtime.op.logical.RtLogicalOp;
+import io.github.datacanvasio.expretau.runtime.op.logical.RtOrOp;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import javax.annotation.Nonnull;
+
+/**
+ * Make the AND/OR ops in an RtExpr tree adaptive, so that the order to evaluate their parameters is adapted by runtime
+ * statistics. Only the ops whose parameters are all pure are made adaptive.
+ *
+ * <p>Adaptive ops are not compiled by {@link io.github.datacanvasio.expretau.runtime.codegen.RtBytecodeCompiler}, but
+ * their parameters can be compiled before this optimizing.
+ */
+public final class RtAdaptiveOptimizer {
+    public static final RtAdaptiveOptimizer INS = new RtAdaptiveOptimizer();
+
+    private RtAdaptiveOptimizer() {
+    }
+
+    @Nonnull
+    private static RtExpr adapt(@Nonnull RtExpr expr, @Nonnull Set<RtExpr> pures) {
+        boolean pure = expr.isPure();
+        if (expr instanceof RtOp) {
+            RtExpr[] paras = ((RtOp) expr).getParas();
+            for (int i = 0; i < paras.length; ++i) {
+                paras[i] = adapt(paras[i], pures);
+                pure &= pures.contains(paras[i]);
+            }
+        }
+        if (!pure) {
+            return expr;
+        }
+        RtExpr result = expr;
+        if (expr instanceof RtLogicalOp && !((RtLogicalOp) expr).isAdaptive()) {
+            RtExpr[] paras = ((RtLogicalOp) expr).getParas();
+            if (expr.getClass() == RtAndOp.class && paras.length > 1) {
+                result = new RtAndOp(paras, true);
+            } else if (expr.getClass() == RtOrOp.class && paras.length > 1) {
+                result = new RtOrOp(paras, true);
+            }
+        }
+        pures.add(result);
+        return result;
+    }
+
+    /**
+     * Optimize an RtExpr. The parameters of the RtOps in the tree are modified in place.
+     *
+     * @param expr the RtExpr
+     * @return the optimized RtExpr
+     */
+    @Nonnull
+    public RtExpr optimize(@Nonnull RtExpr expr) {
+        return adapt(expr, Collections.newSetFromMap(new IdentityHashMap<>()));
+    }
+}
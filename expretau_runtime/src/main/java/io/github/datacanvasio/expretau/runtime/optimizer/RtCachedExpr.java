@@ -0,0 +1,124 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.runtime.optimizer;
+
+import io.github.datacanvasio.expretau.runtime.EvalContext;
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+import io.github.datacanvasio.expretau.runtime.exception.FailGetEvaluator;
+import io.github.datacanvasio.expretau.runtime.vector.ColumnBatch;
+import io.github.datacanvasio.expretau.runtime.vector.ColumnVector;
+import lombok.Getter;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * A sub-expression of an {@link RtIncrementalSet} whose value is cached in the {@link IncrementalContext}s of the
+ * owner, until any variable it depends on is changed. It is evaluated as usual in any other EvalContext.
+ */
+public final class RtCachedExpr implements RtExpr {
+    private static final long serialVersionUID = 2950437385167432601L;
+
+    @Getter
+    @Nonnull
+    private final RtExpr expr;
+
+    private Object owner;
+    @Getter
+    private int slot;
+
+    RtCachedExpr(@Nonnull RtExpr expr) {
+        this.expr = expr;
+    }
+
+    void bind(@Nonnull Object owner, int slot) {
+        this.owner = owner;
+        this.slot = slot;
+    }
+
+    @Nullable
+    private IncrementalContext contextOf(@Nullable EvalContext etx) {
+        if (etx instanceof IncrementalContext) {
+            IncrementalContext context = (IncrementalContext) etx;
+            if (context.isOwnedBy(owner)) {
+                return context;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Object eval(@Nullable EvalContext etx) throws FailGetEvaluator {
+        IncrementalContext context = contextOf(etx);
+        return context != null ? context.valueOf(slot, expr) : expr.eval(etx);
+    }
+
+    @Override
+    public int evalInt(@Nullable EvalContext etx) throws FailGetEvaluator {
+        IncrementalContext context = contextOf(etx);
+        return context != null ? ((Number) context.valueOf(slot, expr)).intValue() : expr.evalInt(etx);
+    }
+
+    @Override
+    public long evalLong(@Nullable EvalContext etx) throws FailGetEvaluator {
+        IncrementalContext context = contextOf(etx);
+        return context != null ? ((Number) context.valueOf(slot, expr)).longValue() : expr.evalLong(etx);
+    }
+
+    @Override
+    public double evalDouble(@Nullable EvalContext etx) throws FailGetEvaluator {
+        IncrementalContext context = contextOf(etx);
+        return context != null ? ((Number) context.valueOf(slot, expr)).doubleValue() : expr.evalDouble(etx);
+    }
+
+    @Override
+    public boolean evalBoolean(@Nullable EvalContext etx) throws FailGetEvaluator {
+        IncrementalContext context = contextOf(etx);
+        return context != null ? (boolean) context.valueOf(slot, expr) : expr.evalBoolean(etx);
+    }
+
+    @Override
+    public void evalBatch(
+        @Nonnull ColumnBatch batch,
+        @Nullable int[] sel,
+        int size,
+        @Nonnull ColumnVector out
+    ) throws FailGetEvaluator {
+        expr.evalBatch(batch, sel, size, out);
+    }
+
+    @Override
+    public int filterBatch(
+        @Nonnull ColumnBatch batch,
+        @Nullable int[] sel,
+        int size,
+        @Nonnull int[] out
+    ) throws FailGetEvaluator {
+        return expr.filterBatch(batch, sel, size, out);
+    }
+
+    @Override
+    public int typeCode() {
+        return expr.typeCode();
+    }
+
+    @Override
+    public boolean isPure() {
+        return true;
+    }
+}
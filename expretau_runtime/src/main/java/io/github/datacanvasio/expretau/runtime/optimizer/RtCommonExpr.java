@@ -0,0 +1,129 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.runtime.optimizer;
+
+import io.github.datacanvasio.expretau.runtime.EvalContext;
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+import io.github.datacanvasio.expretau.runtime.exception.FailGetEvaluator;
+import io.github.datacanvasio.expretau.runtime.vector.ColumnBatch;
+import io.github.datacanvasio.expretau.runtime.vector.ColumnVector;
+import lombok.Getter;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * A sub-expression shared by several places of an {@link RtCseExpr} or an {@link RtExprSet}. The value is cached in
+ * the {@link CommonFrame} of the owner, and it is evaluated as usual in any other EvalContext.
+ */
+public final class RtCommonExpr implements RtExpr {
+    private static final long serialVersionUID = 5555190942678331008L;
+
+    @Getter
+    @Nonnull
+    private final RtExpr expr;
+
+    private Object owner;
+    @Getter
+    private int slot;
+
+    /**
+     * Create an RtCommonExpr, which must be bound to an owner before evaluating in its frames.
+     *
+     * @param expr the shared sub-expression
+     */
+    public RtCommonExpr(@Nonnull RtExpr expr) {
+        this.expr = expr;
+    }
+
+    void bind(@Nonnull Object owner, int slot) {
+        this.owner = owner;
+        this.slot = slot;
+    }
+
+    @Nullable
+    private CommonFrame frameOf(@Nullable EvalContext etx) {
+        if (etx instanceof CommonFrame) {
+            CommonFrame frame = (CommonFrame) etx;
+            if (frame.isOwnedBy(owner)) {
+                return frame;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Object eval(@Nullable EvalContext etx) throws FailGetEvaluator {
+        CommonFrame frame = frameOf(etx);
+        return frame != null ? frame.valueOf(slot, expr) : expr.eval(etx);
+    }
+
+    @Override
+    public int evalInt(@Nullable EvalContext etx) throws FailGetEvaluator {
+        CommonFrame frame = frameOf(etx);
+        return frame != null ? frame.intOf(slot, expr) : expr.evalInt(etx);
+    }
+
+    @Override
+    public long evalLong(@Nullable EvalContext etx) throws FailGetEvaluator {
+        CommonFrame frame = frameOf(etx);
+        return frame != null ? frame.longOf(slot, expr) : expr.evalLong(etx);
+    }
+
+    @Override
+    public double evalDouble(@Nullable EvalContext etx) throws FailGetEvaluator {
+        CommonFrame frame = frameOf(etx);
+        return frame != null ? frame.doubleOf(slot, expr) : expr.evalDouble(etx);
+    }
+
+    @Override
+    public boolean evalBoolean(@Nullable EvalContext etx) throws FailGetEvaluator {
+        CommonFrame frame = frameOf(etx);
+        return frame != null ? frame.booleanOf(slot, expr) : expr.evalBoolean(etx);
+    }
+
+    @Override
+    public void evalBatch(
+        @Nonnull ColumnBatch batch,
+        @Nullable int[] sel,
+        int size,
+        @Nonnull ColumnVector out
+    ) throws FailGetEvaluator {
+        expr.evalBatch(batch, sel, size, out);
+    }
+
+    @Override
+    public int filterBatch(
+        @Nonnull ColumnBatch batch,
+        @Nullable int[] sel,
+        int size,
+        @Nonnull int[] out
+    ) throws FailGetEvaluator {
+        return expr.filterBatch(batch, sel, size, out);
+    }
+
+    @Override
+    public int typeCode() {
+        return expr.typeCode();
+    }
+
+    @Override
+    public boolean isPure() {
+        return true;
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.runtime.optimizer;
+
+import io.github.datacanvasio.expretau.runtime.EvalContext;
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+import io.github.datacanvasio.expretau.runtime.exception.FailGetEvaluator;
+import io.github.datacanvasio.expretau.runtime.vector.ColumnBatch;
+import io.github.datacanvasio.expretau.runtime.vector.ColumnVector;
+import lombok.Getter;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * The root of an RtExpr tree whose common sub-expressions are shared, created by {@link RtCseOptimizer}. Each
+ * evaluating uses a {@link CommonFrame} of the current thread to hold the values of the {@link RtCommonExpr}s, so that
+ * each of them is evaluated at most once.
+ */
+public final class RtCseExpr implements RtExpr {
+    private static final long serialVersionUID = 5385495634660261906L;
+
+    @Getter
+    @Nonnull
+    private final RtExpr expr;
+    @Getter
+    @Nonnull
+    private final RtCommonExpr[] commons;
+
+    /**
+     * Create an RtCseExpr. The {@link RtCommonExpr}s are bound to the new instance by their positions.
+     *
+     * @param expr    the root RtExpr, in which the common sub-expressions are referenced
+     * @param commons the common sub-expressions, each of them must not be bound to another owner
+     */
+    public RtCseExpr(@Nonnull RtExpr expr, @Nonnull RtCommonExpr[] commons) {
+        this.expr = expr;
+        this.commons = commons;
+        for (int i = 0; i < commons.length; ++i) {
+            commons[i].bind(this, i);
+        }
+    }
+
+    @Override
+    public Object eval(@Nullable EvalContext etx) throws FailGetEvaluator {
+        CommonFrame frame = CommonFrame.acquire(this, etx, commons.length);
+        try {
+            return expr.eval(frame);
+        } finally {
+            frame.release();
+        }
+    }
+
+    @Override
+    public int evalInt(@Nullable EvalContext etx) throws FailGetEvaluator {
+        CommonFrame frame = CommonFrame.acquire(this, etx, commons.length);
+        try {
+            return expr.evalInt(frame);
+        } finally {
+            frame.release();
+        }
+    }
+
+    @Override
+    public long evalLong(@Nullable EvalContext etx) throws FailGetEvaluator {
+        CommonFrame frame = CommonFrame.acquire(this, etx, commons.length);
+        try {
+            return expr.evalLong(frame);
+        } finally {
+            frame.release();
+        }
+    }
+
+    @Override
+    public double evalDouble(@Nullable EvalContext etx) throws FailGetEvaluator {
+        CommonFrame frame = CommonFrame.acquire(this, etx, commons.length);
+        try {
+            return expr.evalDouble(frame);
+        } finally {
+            frame.release();
+        }
+    }
+
+    @Override
+    public boolean evalBoolean(@Nullable EvalContext etx) throws FailGetEvaluator {
+        CommonFrame frame = CommonFrame.acquire(this, etx, commons.length);
+        try {
+            return expr.evalBoolean(frame);
+        } finally {
+            frame.release();
+        }
+    }
+
+    // Common sub-expressions are not cached in evaluating by columns.
+    @Override
+    public void evalBatch(
+        @Nonnull ColumnBatch batch,
+        @Nullable int[] sel,
+        int size,
+        @Nonnull ColumnVector out
+    ) throws FailGetEvaluator {
+        expr.evalBatch(batch, sel, size, out);
+    }
+
+    @Override
+    public int filterBatch(
+        @Nonnull ColumnBatch batch,
+        @Nullable int[] sel,
+        int size,
+        @Nonnull int[] out
+    ) throws FailGetEvaluator {
+        return expr.filterBatch(batch, sel, size, out);
+    }
+
+    @Override
+    public int typeCode() {
+        return expr.typeCode();
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.runtime.optimizer;
+
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+import io.github.datacanvasio.expretau.runtime.op.RtOp;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nonnull;
+
+/**
+ * Eliminate common sub-expressions of an RtExpr tree. Structurally equal pure sub-trees are merged into one instance,
+ * and those referred more than once are wrapped by {@link RtCommonExpr}, so that they are evaluated only once in each
+ * evaluating of the returned {@link RtCseExpr} or {@link RtExprSet}.
+ */
+public final class RtCseOptimizer {
+    public static final RtCseOptimizer INS = new RtCseOptimizer();
+
+    private RtCseOptimizer() {
+    }
+
+    /**
+     * Optimize an RtExpr. The parameters of the RtOps in the tree are modified in place.
+     *
+     * @param expr the RtExpr
+     * @return the optimized RtExpr, or the original RtExpr if there are no common sub-expressions
+     */
+    @Nonnull
+    public RtExpr optimize(@Nonnull RtExpr expr) {
+        Context context = new Context();
+        RtExpr root = context.intern(expr);
+        context.countRefs(root);
+        RtExpr body = context.share(root);
+        if (context.commonList.isEmpty()) {
+            return body;
+        }
+        return new RtCseExpr(body, context.commonList.toArray(new RtCommonExpr[0]));
+    }
+
+    /**
+     * Optimize a set of RtExprs together, so that the sub-expressions are shared among all of them. The parameters of
+     * the RtOps in the trees are modified in place.
+     *
+     * @param exprs the RtExprs
+     * @return the RtExprSet
+     */
+    @Nonnull
+    public RtExprSet optimize(@Nonnull RtExpr[] exprs) {
+        Context context = new Context();
+        RtExpr[] roots = new RtExpr[exprs.length];
+        for (int i = 0; i < exprs.length; ++i) {
+            roots[i] = context.intern(exprs[i]);
+            context.countRefs(roots[i]);
+        }
+        for (int i = 0; i < roots.length; ++i) {
+            roots[i] = context.share(roots[i]);
+        }
+        return new RtExprSet(roots, context.commonList.toArray(new RtCommonExpr[0]));
+    }
+
+    private static final class Context {
+        private final Map<RtExpr, RtExpr> canonicals = new HashMap<>();
+        private final Set<RtExpr> pures = Collections.newSetFromMap(new IdentityHashMap<>());
+        private final Map<RtExpr, Integer> refCounts = new IdentityHashMap<>();
+        private final Set<RtExpr> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        private final Map<RtExpr, RtCommonExpr> commons = new IdentityHashMap<>();
+        private final List<RtCommonExpr> commonList = new ArrayList<>();
+
+        @Nonnull
+        private RtExpr intern(@Nonnull RtExpr expr) {
+            boolean pure = expr.isPure();
+            if (expr instanceof RtOp) {
+                RtExpr[] paras = ((RtOp) expr).getParas();
+                for (int i = 0; i < paras.length; ++i) {
+                    paras[i] = intern(paras[i]);
+                    pure &= pures.contains(paras[i]);
+                }
+            }
+            if (!pure) {
+                return expr;
+            }
+            RtExpr canonical = canonicals.putIfAbsent(expr, expr);
+            if (canonical != null) {
+                return canonical;
+            }
+            pures.add(expr);
+            return expr;
+        }
+
+        private void countRefs(@Nonnull RtExpr expr) {
+            int count = refCounts.merge(expr, 1, Integer::sum);
+            if (count == 1 && expr instanceof RtOp) {
+                for (RtExpr para : ((RtOp) expr).getParas()) {
+                    countRefs(para);
+                }
+            }
+        }
+
+        @Nonnull
+        private RtExpr share(@Nonnull RtExpr expr) {
+            if (!(expr instanceof RtOp)) {
+                return expr;
+            }
+            if (visited.add(expr)) {
+                RtExpr[] paras = ((RtOp) expr).getParas();
+                for (int i = 0; i < paras.length; ++i) {
+                    paras[i] = share(paras[i]);
+                }
+            }
+            if (refCounts.get(expr) > 1 && pures.contains(expr)) {
+                return commons.computeIfAbsent(expr, k -> {
+                    RtCommonExpr common = new RtCommonExpr(k);
+                    commonList.add(common);
+                    return common;
+                });
+            }
+            return expr;
+        }
+    }
+}
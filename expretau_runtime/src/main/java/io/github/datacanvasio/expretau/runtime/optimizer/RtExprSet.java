@@ -0,0 +1,91 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.runtime.optimizer;
+
+import io.github.datacanvasio.expretau.runtime.EvalContext;
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+import io.github.datacanvasio.expretau.runtime.exception.FailGetEvaluator;
+import lombok.Getter;
+
+import java.io.Serializable;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * A set of RtExprs compiled together, created by {@link RtCseOptimizer}. Identical sub-expressions of all the RtExprs
+ * are shared, and each of them is evaluated at most once in evaluating the whole set.
+ */
+public final class RtExprSet implements Serializable {
+    private static final long serialVersionUID = -2788565258186510863L;
+
+    @Getter
+    @Nonnull
+    private final RtExpr[] exprs;
+    @Getter
+    @Nonnull
+    private final RtCommonExpr[] commons;
+
+    RtExprSet(@Nonnull RtExpr[] exprs, @Nonnull RtCommonExpr[] commons) {
+        this.exprs = exprs;
+        this.commons = commons;
+        for (int i = 0; i < commons.length; ++i) {
+            commons[i].bind(this, i);
+        }
+    }
+
+    /**
+     * Get the number of RtExprs in this set.
+     *
+     * @return the number of RtExprs
+     */
+    public int size() {
+        return exprs.length;
+    }
+
+    /**
+     * Evaluate all the RtExprs in a specified EvalContext.
+     *
+     * @param etx    the EvalContext
+     * @param values the array to put the results in, in the same order of the RtExprs
+     * @throws FailGetEvaluator if there is no appropriate Evaluator
+     */
+    public void eval(@Nullable EvalContext etx, @Nonnull Object[] values) throws FailGetEvaluator {
+        CommonFrame frame = CommonFrame.acquire(this, etx, commons.length);
+        try {
+            for (int i = 0; i < exprs.length; ++i) {
+                values[i] = exprs[i].eval(frame);
+            }
+        } finally {
+            frame.release();
+        }
+    }
+
+    /**
+     * Evaluate all the RtExprs in a specified EvalContext.
+     *
+     * @param etx the EvalContext
+     * @return the results, in the same order of the RtExprs
+     * @throws FailGetEvaluator if there is no appropriate Evaluator
+     */
+    @Nonnull
+    public Object[] eval(@Nullable EvalContext etx) throws FailGetEvaluator {
+        Object[] values = new Object[exprs.length];
+        eval(etx, values);
+        return values;
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.runtime.optimizer;
+
+import io.github.datacanvasio.expretau.runtime.RtConst;
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+import io.github.datacanvasio.expretau.runtime.codec.RtExprCodec;
+import io.github.datacanvasio.expretau.runtime.codegen.RtCompiledExpr;
+import io.github.datacanvasio.expretau.runtime.op.RtOp;
+import io.github.datacanvasio.expretau.runtime.var.RtVar;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Track the variables which each sub-expression of a set of RtExprs depends on, so that re-evaluating the set after
+ * changing some variables recomputes only the sub-expressions depending on them.
+ *
+ * <p>Pure sub-expressions are shared as by {@link RtCseOptimizer}. A pure RtOp is cached if it is shared, or it does
+ * not depend on all the variables its parent depends on (so it is still valid when the parent is not), and the roots
+ * are cached. Nodes which are not pure, or not made of RtOps, variables and constants, are evaluated every time, so
+ * are their ancestors.
+ */
+public final class RtIncrementalOptimizer {
+    public static final RtIncrementalOptimizer INS = new RtIncrementalOptimizer();
+
+    private RtIncrementalOptimizer() {
+    }
+
+    @Nonnull
+    private static RtExpr copyOf(@Nonnull RtExpr expr) {
+        RtExpr origin = expr instanceof RtCompiledExpr ? ((RtCompiledExpr) expr).getOrigin() : expr;
+        try {
+            return RtExprCodec.INS.decode(RtExprCodec.INS.encode(origin));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Failed to copy the RtExpr tree.", e);
+        }
+    }
+
+    /**
+     * Optimize a set of RtExprs for incremental evaluating. The trees are copied (by {@link RtExprCodec}) and not
+     * modified, and compiled RtExprs are copied as their original trees.
+     *
+     * @param exprs the RtExprs
+     * @return the RtIncrementalSet
+     * @throws IllegalArgumentException if a tree cannot be copied
+     */
+    @Nonnull
+    public RtIncrementalSet optimize(@Nonnull RtExpr[] exprs) {
+        Context context = new Context();
+        RtExpr[] roots = new RtExpr[exprs.length];
+        for (int i = 0; i < exprs.length; ++i) {
+            roots[i] = context.intern(copyOf(exprs[i]));
+            context.countRefs(roots[i]);
+        }
+        for (int i = 0; i < roots.length; ++i) {
+            roots[i] = context.cache(roots[i], null);
+        }
+        return new RtIncrementalSet(
+            roots,
+            context.cachedList.toArray(new RtCachedExpr[0]),
+            context.dependents()
+        );
+    }
+
+    private static final class Context {
+        private final Map<RtExpr, RtExpr> canonicals = new HashMap<>();
+        // The variables each pure node depends on, nodes not in it are evaluated every time.
+        private final Map<RtExpr, Set<Object>> varIds = new IdentityHashMap<>();
+        private final Map<RtExpr, Integer> refCounts = new IdentityHashMap<>();
+        private final Set<RtExpr> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        private final Map<RtExpr, RtCachedExpr> cached = new IdentityHashMap<>();
+        private final List<RtCachedExpr> cachedList = new ArrayList<>();
+
+        @Nonnull
+        private RtExpr intern(@Nonnull RtExpr expr) {
+            if (expr instanceof RtCompiledExpr) {
+                return intern(((RtCompiledExpr) expr).getOrigin());
+            }
+            Set<Object> ids = null;
+            if (expr instanceof RtConst) {
+                ids = Collections.emptySet();
+            } else if (expr instanceof RtVar) {
+                ids = Collections.singleton(((RtVar) expr).getId());
+            } else if (expr instanceof RtOp) {
+                RtExpr[] paras = ((RtOp) expr).getParas();
+                ids = new HashSet<>();
+                for (int i = 0; i < paras.length; ++i) {
+                    paras[i] = intern(paras[i]);
+                    Set<Object> paraIds = varIds.get(paras[i]);
+                    if (paraIds != null && ids != null) {
+                        ids.addAll(paraIds);
+                    } else {
+                        ids = null;
+                    }
+                }
+            }
+            if (ids == null || !expr.isPure()) {
+                return expr;
+            }
+            RtExpr canonical = canonicals.putIfAbsent(expr, expr);
+            if (canonical != null) {
+                return canonical;
+            }
+            varIds.put(expr, ids);
+            return expr;
+        }
+
+        private void countRefs(@Nonnull RtExpr expr) {
+            int count = refCounts.merge(expr, 1, Integer::sum);
+            if (count == 1 && expr instanceof RtOp) {
+                for (RtExpr para : ((RtOp) expr).getParas()) {
+                    countRefs(para);
+                }
+            }
+        }
+
+        @Nonnull
+        private RtExpr cache(@Nonnull RtExpr expr, @Nullable Set<Object> parentIds) {
+            if (!(expr instanceof RtOp)) {
+                return expr;
+            }
+            Set<Object> ids = varIds.get(expr);
+            if (visited.add(expr)) {
+                RtExpr[] paras = ((RtOp) expr).getParas();
+                for (int i = 0; i < paras.length; ++i) {
+                    paras[i] = cache(paras[i], ids);
+                }
+            }
+            if (ids == null || ids.isEmpty()) {
+                return expr;
+            }
+            RtCachedExpr cachedExpr = cached.get(expr);
+            if (cachedExpr == null && (refCounts.get(expr) > 1 || !ids.equals(parentIds))) {
+                cachedExpr = new RtCachedExpr(expr);
+                cached.put(expr, cachedExpr);
+                cachedList.add(cachedExpr);
+            }
+            return cachedExpr != null ? cachedExpr : expr;
+        }
+
+        @Nonnull
+        private Map<Object, int[]> dependents() {
+            Map<Object, List<Integer>> slots = new HashMap<>();
+            for (int i = 0; i < cachedList.size(); ++i) {
+                for (Object id : varIds.get(cachedList.get(i).getExpr())) {
+                    slots.computeIfAbsent(id, k -> new ArrayList<>()).add(i);
+                }
+            }
+            Map<Object, int[]> dependents = new HashMap<>();
+            slots.forEach((id, list) -> dependents.put(id, list.stream().mapToInt(Integer::intValue).toArray()));
+            return dependents;
+        }
+    }
+}
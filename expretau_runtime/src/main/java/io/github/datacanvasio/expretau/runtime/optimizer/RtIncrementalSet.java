@@ -0,0 +1,81 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.runtime.optimizer;
+
+import io.github.datacanvasio.expretau.runtime.EvalContext;
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+import lombok.Getter;
+
+import java.io.Serializable;
+import java.util.Map;
+import javax.annotation.Nonnull;
+
+/**
+ * A set of RtExprs to be evaluated repeatedly on data changed a little each time, created by
+ * {@link RtIncrementalOptimizer}. Evaluate them in an {@link IncrementalContext} created for each data.
+ */
+public final class RtIncrementalSet implements Serializable {
+    private static final long serialVersionUID = 6412230465787307937L;
+    private static final int[] NO_SLOTS = new int[0];
+
+    @Getter
+    @Nonnull
+    private final RtExpr[] exprs;
+    @Getter
+    @Nonnull
+    private final RtCachedExpr[] cachedExprs;
+    private final Map<Object, int[]> dependents;
+
+    RtIncrementalSet(
+        @Nonnull RtExpr[] exprs,
+        @Nonnull RtCachedExpr[] cachedExprs,
+        @Nonnull Map<Object, int[]> dependents
+    ) {
+        this.exprs = exprs;
+        this.cachedExprs = cachedExprs;
+        this.dependents = dependents;
+        for (int i = 0; i < cachedExprs.length; ++i) {
+            cachedExprs[i].bind(this, i);
+        }
+    }
+
+    /**
+     * Get the number of RtExprs in this set.
+     *
+     * @return the number of RtExprs
+     */
+    public int size() {
+        return exprs.length;
+    }
+
+    @Nonnull
+    int[] dependentsOf(Object id) {
+        return dependents.getOrDefault(id, NO_SLOTS);
+    }
+
+    /**
+     * Create an IncrementalContext to evaluate this set on the data of a specified EvalContext.
+     *
+     * @param etx the EvalContext
+     * @return the IncrementalContext
+     */
+    @Nonnull
+    public IncrementalContext newContext(@Nonnull EvalContext etx) {
+        return new IncrementalContext(this, etx, cachedExprs.length);
+    }
+}
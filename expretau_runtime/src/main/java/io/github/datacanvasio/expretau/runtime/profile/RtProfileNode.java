@@ -0,0 +1,275 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.runtime.profile;
+
+import io.github.datacanvasio.expretau.runtime.EvalContext;
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+import io.github.datacanvasio.expretau.runtime.exception.FailGetEvaluator;
+import io.github.datacanvasio.expretau.runtime.vector.ColumnBatch;
+import io.github.datacanvasio.expretau.runtime.vector.ColumnVector;
+import lombok.Getter;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * A node of a profiled RtExpr tree created by {@link RtProfiler}, which counts the evaluating of the wrapped RtExpr.
+ *
+ * <p>Every evaluating is counted, but only one of each {@code sampleInterval} is timed, and the total time is estimated
+ * from the timed ones. The time of a node includes the time of its children. Evaluating by columns is always timed and
+ * each row is counted as an invocation, but the types of results are not counted.
+ */
+public final class RtProfileNode implements RtExpr {
+    private static final long serialVersionUID = -1190338102757358235L;
+
+    @Getter
+    @Nonnull
+    private final RtExpr expr;
+    private final int sampleInterval;
+
+    private final AtomicLong invocations = new AtomicLong();
+    private final LongAdder sampledInvocations = new LongAdder();
+    private final LongAdder sampledNanos = new LongAdder();
+    private final LongAdder batchRows = new LongAdder();
+    private final LongAdder batchNanos = new LongAdder();
+    private final LongAdder exceptions = new LongAdder();
+    private final Map<String, LongAdder> resultTypes = new ConcurrentHashMap<>();
+
+    RtProfileNode(@Nonnull RtExpr expr, int sampleInterval) {
+        this.expr = expr;
+        this.sampleInterval = sampleInterval;
+    }
+
+    @Nonnull
+    private static String typeName(@Nullable Object value) {
+        return value != null ? value.getClass().getSimpleName() : "null";
+    }
+
+    /**
+     * Get the description of the wrapped RtExpr, including which evaluator is used.
+     *
+     * @return the description
+     */
+    @Nonnull
+    public String getLabel() {
+        return RtProfiler.labelOf(expr);
+    }
+
+    /**
+     * Get the number of invocations.
+     *
+     * @return the number
+     */
+    public long getInvocations() {
+        return invocations.get();
+    }
+
+    /**
+     * Get the number of invocations which threw an exception.
+     *
+     * @return the number
+     */
+    public long getExceptions() {
+        return exceptions.sum();
+    }
+
+    /**
+     * Get the estimated total time of the invocations.
+     *
+     * @return the time in nanoseconds
+     */
+    public long getEstimatedNanos() {
+        long sampled = sampledInvocations.sum();
+        long rowInvocations = invocations.get() - batchRows.sum();
+        long nanos = batchNanos.sum();
+        if (sampled > 0) {
+            nanos += (long) ((double) sampledNanos.sum() * rowInvocations / sampled);
+        }
+        return nanos;
+    }
+
+    /**
+     * Get the numbers of results by the simple names of their classes ({@code "null"} for {@code null}).
+     *
+     * @return the numbers of results, sorted by the names
+     */
+    @Nonnull
+    public Map<String, Long> getResultTypes() {
+        Map<String, Long> result = new TreeMap<>();
+        resultTypes.forEach((k, v) -> result.put(k, v.sum()));
+        return result;
+    }
+
+    // Return the start time if this invocation is sampled, or -1.
+    private long begin() {
+        long count = invocations.incrementAndGet();
+        return count % sampleInterval == 0 ? System.nanoTime() : -1L;
+    }
+
+    private void end(long start, @Nonnull String typeName) {
+        if (start >= 0) {
+            sampledNanos.add(System.nanoTime() - start);
+            sampledInvocations.increment();
+        }
+        resultTypes.computeIfAbsent(typeName, k -> new LongAdder()).increment();
+    }
+
+    private void fail(long start) {
+        if (start >= 0) {
+            sampledNanos.add(System.nanoTime() - start);
+            sampledInvocations.increment();
+        }
+        exceptions.increment();
+    }
+
+    @Override
+    public Object eval(@Nullable EvalContext etx) throws FailGetEvaluator {
+        long start = begin();
+        try {
+            Object value = expr.eval(etx);
+            end(start, typeName(value));
+            return value;
+        } catch (RuntimeException | FailGetEvaluator e) {
+            fail(start);
+            throw e;
+        }
+    }
+
+    @Override
+    public int evalInt(@Nullable EvalContext etx) throws FailGetEvaluator {
+        long start = begin();
+        try {
+            int value = expr.evalInt(etx);
+            end(start, "Integer");
+            return value;
+        } catch (RuntimeException | FailGetEvaluator e) {
+            fail(start);
+            throw e;
+        }
+    }
+
+    @Override
+    public long evalLong(@Nullable EvalContext etx) throws FailGetEvaluator {
+        long start = begin();
+        try {
+            long value = expr.evalLong(etx);
+            end(start, "Long");
+            return value;
+        } catch (RuntimeException | FailGetEvaluator e) {
+            fail(start);
+            throw e;
+        }
+    }
+
+    @Override
+    public double evalDouble(@Nullable EvalContext etx) throws FailGetEvaluator {
+        long start = begin();
+        try {
+            double value = expr.evalDouble(etx);
+            end(start, "Double");
+            return value;
+        } catch (RuntimeException | FailGetEvaluator e) {
+            fail(start);
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean evalBoolean(@Nullable EvalContext etx) throws FailGetEvaluator {
+        long start = begin();
+        try {
+            boolean value = expr.evalBoolean(etx);
+            end(start, "Boolean");
+            return value;
+        } catch (RuntimeException | FailGetEvaluator e) {
+            fail(start);
+            throw e;
+        }
+    }
+
+    @Override
+    public void evalBatch(
+        @Nonnull ColumnBatch batch,
+        @Nullable int[] sel,
+        int size,
+        @Nonnull ColumnVector out
+    ) throws FailGetEvaluator {
+        long start = System.nanoTime();
+        try {
+            expr.evalBatch(batch, sel, size, out);
+        } catch (RuntimeException | FailGetEvaluator e) {
+            exceptions.increment();
+            throw e;
+        } finally {
+            invocations.addAndGet(size);
+            batchRows.add(size);
+            batchNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public int filterBatch(
+        @Nonnull ColumnBatch batch,
+        @Nullable int[] sel,
+        int size,
+        @Nonnull int[] out
+    ) throws FailGetEvaluator {
+        long start = System.nanoTime();
+        try {
+            return expr.filterBatch(batch, sel, size, out);
+        } catch (RuntimeException | FailGetEvaluator e) {
+            exceptions.increment();
+            throw e;
+        } finally {
+            invocations.addAndGet(size);
+            batchRows.add(size);
+            batchNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public int typeCode() {
+        return expr.typeCode();
+    }
+
+    @Override
+    public boolean isPure() {
+        return expr.isPure();
+    }
+
+    /**
+     * Print the profiled tree from this node, each line is a node annotated with its figures.
+     *
+     * @return the text
+     */
+    @Nonnull
+    public String explain() {
+        return new TreePrinter(this).print();
+    }
+
+    @Nonnull
+    @Override
+    public String toString() {
+        return getLabel();
+    }
+}
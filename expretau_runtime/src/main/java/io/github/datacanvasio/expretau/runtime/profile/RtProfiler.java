@@ -0,0 +1,158 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.runtime.profile;
+
+import io.github.datacanvasio.expretau.runtime.RtConst;
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+import io.github.datacanvasio.expretau.runtime.codec.RtExprCodec;
+import io.github.datacanvasio.expretau.runtime.codegen.RtCompiledExpr;
+import io.github.datacanvasio.expretau.runtime.evaluator.base.Evaluator;
+import io.github.datacanvasio.expretau.runtime.evaluator.base.UniversalEvaluator;
+import io.github.datacanvasio.expretau.runtime.op.RtEvaluatorOp;
+import io.github.datacanvasio.expretau.runtime.op.RtOp;
+import io.github.datacanvasio.expretau.runtime.op.logical.RtLogicalOp;
+import io.github.datacanvasio.expretau.runtime.optimizer.RtCommonExpr;
+import io.github.datacanvasio.expretau.runtime.optimizer.RtCseExpr;
+import io.github.datacanvasio.expretau.runtime.var.RtParam;
+import io.github.datacanvasio.expretau.runtime.var.RtVar;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nonnull;
+
+/**
+ * Create a profiled copy of an RtExpr tree, in which each node is wrapped by an {@link RtProfileNode} counting the
+ * invocations, time, types of results and exceptions of the node. The profiled tree is evaluated as the original one,
+ * and {@link RtProfileNode#explain()} prints the tree annotated with these figures.
+ *
+ * <p>The original tree is copied (by {@link RtExprCodec}) and not modified, so it costs nothing if not profiled. A
+ * compiled RtExpr is profiled as its original tree.
+ */
+public final class RtProfiler {
+    public static final int DEFAULT_SAMPLE_INTERVAL = 16;
+
+    public static final RtProfiler INS = new RtProfiler(DEFAULT_SAMPLE_INTERVAL);
+
+    private final int sampleInterval;
+
+    /**
+     * Create an RtProfiler.
+     *
+     * @param sampleInterval one of each {@code sampleInterval} invocations of a node is timed, {@code 1} to time all
+     */
+    public RtProfiler(int sampleInterval) {
+        if (sampleInterval < 1) {
+            throw new IllegalArgumentException("Sample interval must be positive, but is " + sampleInterval + ".");
+        }
+        this.sampleInterval = sampleInterval;
+    }
+
+    /**
+     * Describe an RtExpr node, including which evaluator is used by an {@link RtEvaluatorOp}: a type-specialized one,
+     * or a universal one choosing evaluators at runtime.
+     *
+     * @param expr the RtExpr
+     * @return the description
+     */
+    @Nonnull
+    public static String labelOf(@Nonnull RtExpr expr) {
+        String name = expr.getClass().getSimpleName();
+        if (expr instanceof RtEvaluatorOp) {
+            Evaluator evaluator = ((RtEvaluatorOp) expr).getEvaluator();
+            if (evaluator instanceof UniversalEvaluator) {
+                UniversalEvaluator universal = (UniversalEvaluator) evaluator;
+                return name + "[universal " + universal.getFactory().getClass().getSimpleName()
+                    + (universal.isMegamorphic() ? ", megamorphic]" : "]");
+            }
+            return name + "[" + evaluator.getClass().getSimpleName() + "]";
+        } else if (expr instanceof RtConst) {
+            return name + "[" + ((RtConst) expr).getValue() + "]";
+        } else if (expr instanceof RtParam) {
+            return name + "[" + expr + "]";
+        } else if (expr instanceof RtVar) {
+            return name + "[" + ((RtVar) expr).getId() + "]";
+        } else if (expr instanceof RtLogicalOp && ((RtLogicalOp) expr).isAdaptive()) {
+            return name + "[adaptive]";
+        } else if (expr instanceof RtCommonExpr) {
+            return name + "[#" + ((RtCommonExpr) expr).getSlot() + "]";
+        }
+        return name;
+    }
+
+    /**
+     * Create a profiled copy of an RtExpr tree.
+     *
+     * @param expr the RtExpr
+     * @return the root of the profiled tree
+     * @throws IllegalArgumentException if the tree cannot be copied
+     */
+    @Nonnull
+    public RtProfileNode instrument(@Nonnull RtExpr expr) {
+        RtExpr origin = expr instanceof RtCompiledExpr ? ((RtCompiledExpr) expr).getOrigin() : expr;
+        if (origin instanceof RtProfileNode) {
+            throw new IllegalArgumentException("The RtExpr is already profiled.");
+        }
+        RtExpr copy;
+        try {
+            copy = RtExprCodec.INS.decode(RtExprCodec.INS.encode(origin));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Failed to copy the RtExpr tree.", e);
+        }
+        return new Instrumenter().wrap(copy);
+    }
+
+    private final class Instrumenter {
+        private final Map<RtExpr, RtProfileNode> nodes = new IdentityHashMap<>();
+        private final Set<RtExpr> expanded = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        // Shared nodes are wrapped once, so that their figures are not split.
+        @Nonnull
+        private RtProfileNode wrap(@Nonnull RtExpr expr) {
+            RtProfileNode node = nodes.get(expr);
+            if (node == null) {
+                expand(expr);
+                node = new RtProfileNode(expr, sampleInterval);
+                nodes.put(expr, node);
+            }
+            return node;
+        }
+
+        // Wrap the children in place, the fields of nodes other than RtOps cannot be replaced so they are expanded.
+        private void expand(@Nonnull RtExpr expr) {
+            if (!expanded.add(expr)) {
+                return;
+            }
+            if (expr instanceof RtOp) {
+                RtExpr[] paras = ((RtOp) expr).getParas();
+                for (int i = 0; i < paras.length; ++i) {
+                    paras[i] = wrap(paras[i]);
+                }
+            } else if (expr instanceof RtCseExpr) {
+                for (RtCommonExpr common : ((RtCseExpr) expr).getCommons()) {
+                    expand(common);
+                }
+                expand(((RtCseExpr) expr).getExpr());
+            } else if (expr instanceof RtCommonExpr) {
+                expand(((RtCommonExpr) expr).getExpr());
+            }
+        }
+    }
+}
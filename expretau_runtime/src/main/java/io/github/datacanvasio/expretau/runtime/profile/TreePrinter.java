@@ -0,0 +1,118 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.runtime.profile;
+
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+import io.github.datacanvasio.expretau.runtime.op.RtOp;
+import io.github.datacanvasio.expretau.runtime.optimizer.RtCommonExpr;
+import io.github.datacanvasio.expretau.runtime.optimizer.RtCseExpr;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nonnull;
+
+/**
+ * Print a profiled tree, one node per line. A node shared by several parents is printed in full only at the first
+ * place.
+ */
+final class TreePrinter {
+    private final RtProfileNode root;
+    private final StringBuilder builder = new StringBuilder();
+    private final Set<RtExpr> printed = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    TreePrinter(@Nonnull RtProfileNode root) {
+        this.root = root;
+    }
+
+    @Nonnull
+    private static List<RtExpr> childrenOf(@Nonnull RtExpr expr) {
+        if (expr instanceof RtOp) {
+            return Arrays.asList(((RtOp) expr).getParas());
+        } else if (expr instanceof RtCseExpr) {
+            List<RtExpr> children = new ArrayList<>(Arrays.asList(((RtCseExpr) expr).getCommons()));
+            children.add(((RtCseExpr) expr).getExpr());
+            return children;
+        } else if (expr instanceof RtCommonExpr) {
+            return Collections.singletonList(((RtCommonExpr) expr).getExpr());
+        }
+        return Collections.emptyList();
+    }
+
+    @Nonnull
+    private static String formatNanos(long nanos) {
+        if (nanos < 1_000L) {
+            return nanos + "ns";
+        } else if (nanos < 1_000_000L) {
+            return String.format("%.2fus", nanos / 1e3);
+        } else if (nanos < 1_000_000_000L) {
+            return String.format("%.2fms", nanos / 1e6);
+        }
+        return String.format("%.2fs", nanos / 1e9);
+    }
+
+    private void appendFigures(@Nonnull RtProfileNode node, long rootNanos) {
+        long nanos = node.getEstimatedNanos();
+        builder.append(" (calls=").append(node.getInvocations())
+            .append(", time=").append(formatNanos(nanos));
+        if (rootNanos > 0) {
+            builder.append(String.format(", %.1f%%", 100.0 * nanos / rootNanos));
+        }
+        if (node.getExceptions() > 0) {
+            builder.append(", exceptions=").append(node.getExceptions());
+        }
+        Map<String, Long> resultTypes = node.getResultTypes();
+        if (!resultTypes.isEmpty()) {
+            builder.append(", results=").append(resultTypes);
+        }
+        builder.append(')');
+    }
+
+    private void print(@Nonnull RtExpr expr, int depth, long rootNanos) {
+        for (int i = 0; i < depth; ++i) {
+            builder.append("  ");
+        }
+        RtExpr inner = expr;
+        if (expr instanceof RtProfileNode) {
+            RtProfileNode node = (RtProfileNode) expr;
+            builder.append(node.getLabel());
+            if (!printed.add(node)) {
+                builder.append(" (shared)\n");
+                return;
+            }
+            appendFigures(node, rootNanos);
+            inner = node.getExpr();
+        } else {
+            builder.append(RtProfiler.labelOf(expr));
+        }
+        builder.append('\n');
+        for (RtExpr child : childrenOf(inner)) {
+            print(child, depth + 1, rootNanos);
+        }
+    }
+
+    @Nonnull
+    String print() {
+        print(root, 0, root.getEstimatedNanos());
+        return builder.toString();
+    }
+}
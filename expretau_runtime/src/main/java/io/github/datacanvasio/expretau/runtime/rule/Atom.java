@@ -0,0 +1,180 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.runtime.rule;
+
+import io.github.datacanvasio.expretau.runtime.RtConst;
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+import io.github.datacanvasio.expretau.runtime.TypeCode;
+import io.github.datacanvasio.expretau.runtime.evaluator.base.Evaluator;
+import io.github.datacanvasio.expretau.runtime.evaluator.base.EvaluatorFactory;
+import io.github.datacanvasio.expretau.runtime.evaluator.base.EvaluatorKey;
+import io.github.datacanvasio.expretau.runtime.evaluator.relational.EqEvaluatorFactory;
+import io.github.datacanvasio.expretau.runtime.evaluator.relational.GeEvaluatorFactory;
+import io.github.datacanvasio.expretau.runtime.evaluator.relational.GtEvaluatorFactory;
+import io.github.datacanvasio.expretau.runtime.evaluator.relational.LeEvaluatorFactory;
+import io.github.datacanvasio.expretau.runtime.evaluator.relational.LtEvaluatorFactory;
+import io.github.datacanvasio.expretau.runtime.exception.FailGetEvaluator;
+import io.github.datacanvasio.expretau.runtime.op.RtEvaluatorOp;
+import io.github.datacanvasio.expretau.runtime.var.RtVar;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * A predicate comparing a variable with a constant, which can be indexed.
+ */
+@RequiredArgsConstructor
+final class Atom {
+    @Getter
+    private final RtVar var;
+    @Getter
+    private final Kind kind;
+    @Getter
+    private final Object value;
+
+    /**
+     * Convert a value to the class of values of a type, so that it can be hashed and compared with other values of the
+     * type.
+     *
+     * @param value    the value
+     * @param typeCode the type code
+     * @return the converted value, or {@code null} if it cannot be converted without loss
+     */
+    @Nullable
+    static Object toType(@Nullable Object value, int typeCode) {
+        switch (typeCode) {
+            case TypeCode.INTEGER:
+                if (value instanceof Integer) {
+                    return value;
+                } else if (value instanceof Long && (long) (int) (long) value == (long) value) {
+                    return (int) (long) value;
+                }
+                return null;
+            case TypeCode.LONG:
+                if (value instanceof Long) {
+                    return value;
+                } else if (value instanceof Integer) {
+                    return (long) (int) value;
+                }
+                return null;
+            case TypeCode.DOUBLE:
+                if (value instanceof Double) {
+                    double d = (double) value;
+                    // `-0.0 == 0.0` for the operators, but not for `equals` and `compareTo`.
+                    return Double.isNaN(d) ? null : d == 0.0 ? 0.0 : value;
+                } else if (value instanceof Integer || value instanceof Long) {
+                    double d = ((Number) value).doubleValue();
+                    return (long) d == ((Number) value).longValue() ? d : null;
+                }
+                return null;
+            case TypeCode.STRING:
+                return value instanceof String ? value : null;
+            case TypeCode.BOOLEAN:
+                return value instanceof Boolean ? value : null;
+            default:
+                return null;
+        }
+    }
+
+    private static boolean isOp(@Nonnull RtEvaluatorOp op, @Nonnull EvaluatorFactory factory) {
+        RtExpr[] paras = op.getParas();
+        try {
+            Evaluator evaluator = factory.getEvaluator(EvaluatorKey.of(paras[0].typeCode(), paras[1].typeCode()));
+            return op.getEvaluator().equals(evaluator);
+        } catch (FailGetEvaluator e) {
+            return false;
+        }
+    }
+
+    @Nullable
+    private static Kind kindOf(@Nonnull RtEvaluatorOp op) {
+        for (Kind kind : Kind.values()) {
+            if (isOp(op, kind.factory)) {
+                return kind;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get an Atom from a predicate.
+     *
+     * @param expr the predicate
+     * @return the Atom, or {@code null} if the predicate is not an indexable comparison
+     */
+    @Nullable
+    static Atom of(@Nonnull RtExpr expr) {
+        if (!(expr instanceof RtEvaluatorOp) || ((RtEvaluatorOp) expr).getParas().length != 2) {
+            return null;
+        }
+        RtEvaluatorOp op = (RtEvaluatorOp) expr;
+        RtExpr[] paras = op.getParas();
+        boolean flipped;
+        if (paras[0] instanceof RtVar && paras[1] instanceof RtConst) {
+            flipped = false;
+        } else if (paras[0] instanceof RtConst && paras[1] instanceof RtVar) {
+            flipped = true;
+        } else {
+            return null;
+        }
+        Kind kind = kindOf(op);
+        if (kind == null) {
+            return null;
+        }
+        RtVar var = (RtVar) paras[flipped ? 1 : 0];
+        Object value = toType(((RtConst) paras[flipped ? 0 : 1]).getValue(), var.typeCode());
+        if (value == null) {
+            return null;
+        }
+        return new Atom(var, flipped ? kind.flip() : kind, value);
+    }
+
+    @RequiredArgsConstructor
+    enum Kind {
+        EQ(EqEvaluatorFactory.INS),
+        LT(LtEvaluatorFactory.INS),
+        LE(LeEvaluatorFactory.INS),
+        GT(GtEvaluatorFactory.INS),
+        GE(GeEvaluatorFactory.INS);
+
+        private final EvaluatorFactory factory;
+
+        /**
+         * Get the kind with the operands swapped.
+         *
+         * @return the flipped kind
+         */
+        @Nonnull
+        Kind flip() {
+            switch (this) {
+                case LT:
+                    return GT;
+                case LE:
+                    return GE;
+                case GT:
+                    return LT;
+                case GE:
+                    return LE;
+                default:
+                    return this;
+            }
+        }
+    }
+}
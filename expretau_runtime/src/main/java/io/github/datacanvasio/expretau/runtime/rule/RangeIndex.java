@@ -0,0 +1,151 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.runtime.rule;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntConsumer;
+import javax.annotation.Nonnull;
+
+/**
+ * The index of range predicates on one variable. For each kind of comparison, the constants are sorted, so that the
+ * matched rules are a prefix or a suffix of them.
+ */
+final class RangeIndex implements Serializable {
+    private static final long serialVersionUID = 3265173039614806259L;
+
+    private final int typeCode;
+    private final Sorted[] sorted = new Sorted[Atom.Kind.values().length];
+    private transient List<List<Entry>> entries = new ArrayList<>();
+
+    RangeIndex(int typeCode) {
+        this.typeCode = typeCode;
+        for (int i = 0; i < sorted.length; ++i) {
+            entries.add(new ArrayList<>());
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compare(Object value0, Object value1) {
+        return ((Comparable) value0).compareTo(value1);
+    }
+
+    void add(@Nonnull Atom.Kind kind, @Nonnull Object value, int rule) {
+        entries.get(kind.ordinal()).add(new Entry(value, rule));
+    }
+
+    void build() {
+        for (int i = 0; i < sorted.length; ++i) {
+            List<Entry> list = entries.get(i);
+            list.sort(Comparator.comparing(e -> e.value, RangeIndex::compare));
+            Object[] values = new Object[list.size()];
+            int[] rules = new int[list.size()];
+            for (int j = 0; j < values.length; ++j) {
+                values[j] = list.get(j).value;
+                rules[j] = list.get(j).rule;
+            }
+            sorted[i] = new Sorted(values, rules);
+        }
+        entries = null;
+    }
+
+    /**
+     * Find the rules whose range predicate is matched by a value of the variable.
+     *
+     * @param varValue the value of the variable
+     * @param consumer the consumer of the matched rules
+     */
+    void match(Object varValue, IntConsumer consumer) {
+        Object value = Atom.toType(varValue, typeCode);
+        if (value == null) {
+            return;
+        }
+        // `x > c` and `x >= c` are matched by all `c` less than (or equal to) `x`.
+        sorted[Atom.Kind.GT.ordinal()].forEach(0, sorted[Atom.Kind.GT.ordinal()].lowerBound(value), consumer);
+        sorted[Atom.Kind.GE.ordinal()].forEach(0, sorted[Atom.Kind.GE.ordinal()].upperBound(value), consumer);
+        // `x < c` and `x <= c` are matched by all `c` greater than (or equal to) `x`.
+        Sorted lt = sorted[Atom.Kind.LT.ordinal()];
+        lt.forEach(lt.upperBound(value), lt.rules.length, consumer);
+        Sorted le = sorted[Atom.Kind.LE.ordinal()];
+        le.forEach(le.lowerBound(value), le.rules.length, consumer);
+    }
+
+    private static final class Entry {
+        private final Object value;
+        private final int rule;
+
+        private Entry(Object value, int rule) {
+            this.value = value;
+            this.rule = rule;
+        }
+    }
+
+    private static final class Sorted implements Serializable {
+        private static final long serialVersionUID = 1210875716280793709L;
+
+        private final Object[] values;
+        private final int[] rules;
+
+        private Sorted(Object[] values, int[] rules) {
+            this.values = values;
+            this.rules = rules;
+        }
+
+        /**
+         * Get the position of the first value not less than a specified value.
+         */
+        private int lowerBound(Object value) {
+            int low = 0;
+            int high = values.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (compare(values[mid], value) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Get the position of the first value greater than a specified value.
+         */
+        private int upperBound(Object value) {
+            int low = 0;
+            int high = values.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (compare(values[mid], value) <= 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private void forEach(int from, int to, IntConsumer consumer) {
+            for (int i = from; i < to; ++i) {
+                consumer.accept(rules[i]);
+            }
+        }
+    }
+}
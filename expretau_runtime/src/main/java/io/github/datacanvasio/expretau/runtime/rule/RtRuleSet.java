@@ -0,0 +1,222 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.runtime.rule;
+
+import io.github.datacanvasio.expretau.runtime.EvalContext;
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+import io.github.datacanvasio.expretau.runtime.exception.FailGetEvaluator;
+import io.github.datacanvasio.expretau.runtime.op.logical.RtAndOp;
+import io.github.datacanvasio.expretau.runtime.var.RtVar;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * A set of boolean rules indexed by their comparisons of variables with constants, so that matching a large set of
+ * rules does not evaluate each of them.
+ *
+ * <p>One conjunct of each rule, {@code x = c}, {@code x < c}, {@code x <= c}, {@code x > c} or {@code x >= c}, is put
+ * into a hash index (for equality) or a sorted index (for ranges) of the variable. In matching, the values of the
+ * variables are looked up to find the candidate rules, and only the remaining conjuncts of the candidates are
+ * evaluated. Rules without such a conjunct are evaluated as a whole.
+ */
+public final class RtRuleSet implements Serializable {
+    private static final long serialVersionUID = 1592812128629634739L;
+
+    // Per-thread buffer of candidates and matched rules, so matching allocates nothing but the result.
+    private static final ThreadLocal<int[]> SCRATCH = ThreadLocal.withInitial(() -> new int[16]);
+
+    private final RtExpr[] rules;
+    private final RtExpr[] remainders;
+    private final Map<Object, VarIndex> indexes;
+    private final int[] unindexed;
+
+    private RtRuleSet(
+        @Nonnull RtExpr[] rules,
+        @Nonnull RtExpr[] remainders,
+        @Nonnull Map<Object, VarIndex> indexes,
+        @Nonnull int[] unindexed
+    ) {
+        this.rules = rules;
+        this.remainders = remainders;
+        this.indexes = indexes;
+        this.unindexed = unindexed;
+    }
+
+    @Nonnull
+    private static RtExpr[] conjunctsOf(@Nonnull RtExpr rule) {
+        if (rule instanceof RtAndOp) {
+            return ((RtAndOp) rule).getParas();
+        }
+        return new RtExpr[]{rule};
+    }
+
+    @Nullable
+    private static RtExpr remainderOf(@Nonnull RtExpr[] conjuncts, int pos) {
+        if (conjuncts.length == 1) {
+            return null;
+        }
+        RtExpr[] rest = new RtExpr[conjuncts.length - 1];
+        System.arraycopy(conjuncts, 0, rest, 0, pos);
+        System.arraycopy(conjuncts, pos + 1, rest, pos, rest.length - pos);
+        return rest.length == 1 ? rest[0] : new RtAndOp(rest);
+    }
+
+    /**
+     * Create an RtRuleSet from boolean rules.
+     *
+     * @param rules the rules
+     * @return the RtRuleSet
+     */
+    @Nonnull
+    public static RtRuleSet of(@Nonnull RtExpr[] rules) {
+        RtExpr[] remainders = new RtExpr[rules.length];
+        Map<Object, VarIndex> indexes = new LinkedHashMap<>();
+        List<Integer> unindexed = new ArrayList<>();
+        for (int i = 0; i < rules.length; ++i) {
+            RtExpr[] conjuncts = conjunctsOf(rules[i]);
+            Atom atom = null;
+            int pos = -1;
+            for (int j = 0; j < conjuncts.length; ++j) {
+                Atom a = Atom.of(conjuncts[j]);
+                // Equality is more selective than ranges.
+                if (a != null && (atom == null || atom.getKind() != Atom.Kind.EQ && a.getKind() == Atom.Kind.EQ)) {
+                    atom = a;
+                    pos = j;
+                }
+            }
+            if (atom == null) {
+                unindexed.add(i);
+                continue;
+            }
+            remainders[i] = remainderOf(conjuncts, pos);
+            RtVar var = atom.getVar();
+            indexes.computeIfAbsent(var.getId(), k -> new VarIndex(var)).add(atom, i);
+        }
+        indexes.values().forEach(VarIndex::build);
+        return new RtRuleSet(
+            rules,
+            remainders,
+            indexes,
+            unindexed.stream().mapToInt(Integer::intValue).toArray()
+        );
+    }
+
+    /**
+     * Get the number of rules in this set.
+     *
+     * @return the number of rules
+     */
+    public int size() {
+        return rules.length;
+    }
+
+    /**
+     * Get the rules matched in a specified EvalContext.
+     *
+     * @param etx the EvalContext
+     * @return the indices of the matched rules, in ascending order
+     * @throws FailGetEvaluator if there is no appropriate Evaluator
+     */
+    @Nonnull
+    public int[] match(@Nullable EvalContext etx) throws FailGetEvaluator {
+        // Each rule is in at most one index, so there are no duplicated candidates.
+        int[] buffer = scratch(rules.length);
+        int count = 0;
+        for (VarIndex index : indexes.values()) {
+            count = index.match(etx, buffer, count);
+        }
+        // Matched rules are compacted into the head of the buffer, never overtaking the candidates.
+        int size = 0;
+        for (int i = 0; i < count; ++i) {
+            int rule = buffer[i];
+            RtExpr remainder = remainders[rule];
+            if (remainder == null || remainder.evalBoolean(etx)) {
+                buffer[size++] = rule;
+            }
+        }
+        for (int rule : unindexed) {
+            if (rules[rule].evalBoolean(etx)) {
+                buffer[size++] = rule;
+            }
+        }
+        Arrays.sort(buffer, 0, size);
+        return Arrays.copyOf(buffer, size);
+    }
+
+    @Nonnull
+    private static int[] scratch(int length) {
+        int[] buffer = SCRATCH.get();
+        if (buffer.length < length) {
+            buffer = new int[Math.max(length, buffer.length * 2)];
+            SCRATCH.set(buffer);
+        }
+        return buffer;
+    }
+
+    private static final class VarIndex implements Serializable {
+        private static final long serialVersionUID = -3812946172295316085L;
+
+        private final RtVar var;
+        private final Map<Object, int[]> eqIndex = new HashMap<>();
+        private final RangeIndex rangeIndex;
+
+        private VarIndex(@Nonnull RtVar var) {
+            this.var = var;
+            rangeIndex = new RangeIndex(var.typeCode());
+        }
+
+        private void add(@Nonnull Atom atom, int rule) {
+            if (atom.getKind() == Atom.Kind.EQ) {
+                eqIndex.merge(atom.getValue(), new int[]{rule}, (rules0, rules1) -> {
+                    int[] rules = Arrays.copyOf(rules0, rules0.length + 1);
+                    rules[rules0.length] = rules1[0];
+                    return rules;
+                });
+            } else {
+                rangeIndex.add(atom.getKind(), atom.getValue(), rule);
+            }
+        }
+
+        private void build() {
+            rangeIndex.build();
+        }
+
+        private int match(@Nullable EvalContext etx, @Nonnull int[] candidates, int count) {
+            Object value = var.eval(etx);
+            if (value == null) {
+                return count;
+            }
+            int[] eqRules = eqIndex.get(Atom.toType(value, var.typeCode()));
+            if (eqRules != null) {
+                System.arraycopy(eqRules, 0, candidates, count, eqRules.length);
+                count += eqRules.length;
+            }
+            int[] pos = {count};
+            rangeIndex.match(value, rule -> candidates[pos[0]++] = rule);
+            return pos[0];
+        }
+    }
+}
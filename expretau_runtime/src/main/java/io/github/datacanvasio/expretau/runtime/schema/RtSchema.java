@@ -37,4 +37,11 @@ public abstract class RtSchema implements CompileContext, Serializable {
      * @return the index or -1
      */
     public abstract int getIndex();
+
+    /**
+     * Put the leaf schemas in this RtSchema into an array, at their indices.
+     *
+     * @param leaves the array
+     */
+    public abstract void fillLeaves(RtSchemaLeaf[] leaves);
 }
@@ -38,6 +38,13 @@ public class RtSchemaDict extends RtSchema {
         return start;
     }
 
+    @Override
+    public void fillLeaves(RtSchemaLeaf[] leaves) {
+        for (RtSchema s : children.values()) {
+            s.fillLeaves(leaves);
+        }
+    }
+
     @Override
     public int getIndex() {
         return -1;
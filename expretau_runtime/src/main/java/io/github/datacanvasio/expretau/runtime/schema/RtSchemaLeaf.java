@@ -38,6 +38,11 @@ public final class RtSchemaLeaf extends RtSchema {
         return start;
     }
 
+    @Override
+    public void fillLeaves(@Nonnull RtSchemaLeaf[] leaves) {
+        leaves[index] = this;
+    }
+
     @Override
     public Object getId() {
         return index;
@@ -19,6 +19,9 @@ package io.github.datacanvasio.expretau.runtime.schema;
 import lombok.Getter;
 
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
 import javax.annotation.Nonnull;
 
 public class RtSchemaRoot implements Serializable {
@@ -29,6 +32,8 @@ public class RtSchemaRoot implements Serializable {
     @Getter
     private final int maxIndex;
 
+    private transient volatile long fingerprint;
+
     /**
      * Create an RtSchemaRoot.
      * RtSchemaRoot is container of RtSchema. This constructor also calls {@code RtSchema::createIndex}, which will
@@ -40,4 +45,61 @@ public class RtSchemaRoot implements Serializable {
         this.schema = schema;
         this.maxIndex = schema.createIndex(0);
     }
+
+    /**
+     * Get all the leaf schemas, indexed by their indices.
+     *
+     * @return the leaf schemas
+     */
+    @Nonnull
+    public RtSchemaLeaf[] getLeaves() {
+        RtSchemaLeaf[] leaves = new RtSchemaLeaf[maxIndex];
+        schema.fillLeaves(leaves);
+        return leaves;
+    }
+
+    private static void describe(@Nonnull StringBuilder builder, @Nonnull RtSchema schema) {
+        if (schema instanceof RtSchemaDict) {
+            builder.append('{');
+            // Sorted by keys, so that the description does not depend on the order of the map.
+            for (Map.Entry<String, RtSchema> entry : new TreeMap<>(((RtSchemaDict) schema).getChildren()).entrySet()) {
+                builder.append(entry.getKey()).append(':');
+                describe(builder, entry.getValue());
+                builder.append(',');
+            }
+            builder.append('}');
+        } else if (schema instanceof RtSchemaTuple) {
+            builder.append('[');
+            for (RtSchema child : ((RtSchemaTuple) schema).getChildren()) {
+                describe(builder, child);
+                builder.append(',');
+            }
+            builder.append(']');
+        } else {
+            builder.append(schema);
+        }
+    }
+
+    /**
+     * Get a fingerprint of the structure of this RtSchemaRoot, i.e. the names, types and indices of the variables.
+     * RtSchemaRoots of the same structure have the same fingerprint, so an RtExpr compiled in one of them can be used
+     * in the others.
+     *
+     * @return the fingerprint
+     */
+    public long getFingerprint() {
+        long result = fingerprint;
+        if (result == 0) {
+            StringBuilder builder = new StringBuilder();
+            describe(builder, schema);
+            // 64-bit FNV-1a.
+            result = 0xcbf29ce484222325L;
+            for (byte b : builder.toString().getBytes(StandardCharsets.UTF_8)) {
+                result ^= b & 0xff;
+                result *= 0x100000001b3L;
+            }
+            fingerprint = result;
+        }
+        return result;
+    }
 }
@@ -39,6 +39,13 @@ public class RtSchemaTuple extends RtSchema {
         return start;
     }
 
+    @Override
+    public void fillLeaves(RtSchemaLeaf[] leaves) {
+        for (RtSchema s : children) {
+            s.fillLeaves(leaves);
+        }
+    }
+
     @Override
     public int getIndex() {
         return -1;
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.runtime.var;
+
+import io.github.datacanvasio.expretau.runtime.EvalContext;
+import io.github.datacanvasio.expretau.runtime.TypeCode;
+
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * An EvalContext giving the values of bind parameters ({@link RtParam}), and delegating other variables to an
+ * underlying EvalContext. The values of parameters are read-only, so the values can be shared by threads.
+ */
+public final class ParamEvalContext implements EvalContext {
+    private static final long serialVersionUID = -5157053634791044379L;
+
+    @Nullable
+    private final EvalContext etx;
+    @Nonnull
+    private final Object[] values;
+
+    /**
+     * Create a ParamEvalContext.
+     *
+     * @param etx    the underlying EvalContext
+     * @param values the values of the parameters, which should be of the types of the parameters
+     */
+    public ParamEvalContext(@Nullable EvalContext etx, @Nonnull Object[] values) {
+        this.etx = etx;
+        this.values = values;
+    }
+
+    /**
+     * Convert a parameter value to a specified type, for numbers given as other Java types.
+     *
+     * @param value    the value
+     * @param typeCode the type code of the parameter
+     * @return the converted value
+     */
+    @Nullable
+    public static Object toType(@Nullable Object value, int typeCode) {
+        if (!(value instanceof Number)) {
+            return value;
+        }
+        switch (typeCode) {
+            case TypeCode.INTEGER:
+                return ((Number) value).intValue();
+            case TypeCode.LONG:
+                return ((Number) value).longValue();
+            case TypeCode.DOUBLE:
+                return ((Number) value).doubleValue();
+            default:
+                return value;
+        }
+    }
+
+    @Override
+    public Object get(Object id) {
+        if (id instanceof RtParam.Id) {
+            return values[((RtParam.Id) id).getSlot()];
+        }
+        return Objects.requireNonNull(etx).get(id);
+    }
+
+    @Override
+    public void set(Object id, Object value) {
+        if (id instanceof RtParam.Id) {
+            throw new UnsupportedOperationException("Bind parameters are read-only.");
+        }
+        Objects.requireNonNull(etx).set(id, value);
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.runtime.var;
+
+import io.github.datacanvasio.expretau.runtime.EvalContext;
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+import io.github.datacanvasio.expretau.runtime.exception.FailGetEvaluator;
+import lombok.Getter;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * An RtExpr with bind parameters, bound to a set of parameter values. Many RtBoundExprs can share one RtExpr.
+ */
+public final class RtBoundExpr implements RtExpr {
+    private static final long serialVersionUID = -3519759206500143340L;
+
+    @Getter
+    @Nonnull
+    private final RtExpr expr;
+    @Nonnull
+    private final Object[] values;
+
+    /**
+     * Create an RtBoundExpr.
+     *
+     * @param expr   the RtExpr with bind parameters
+     * @param values the values of the parameters, which should be of the types of the parameters
+     */
+    public RtBoundExpr(@Nonnull RtExpr expr, @Nonnull Object[] values) {
+        this.expr = expr;
+        this.values = values;
+    }
+
+    @Nonnull
+    private EvalContext bind(@Nullable EvalContext etx) {
+        return new ParamEvalContext(etx, values);
+    }
+
+    @Override
+    public Object eval(@Nullable EvalContext etx) throws FailGetEvaluator {
+        return expr.eval(bind(etx));
+    }
+
+    @Override
+    public int evalInt(@Nullable EvalContext etx) throws FailGetEvaluator {
+        return expr.evalInt(bind(etx));
+    }
+
+    @Override
+    public long evalLong(@Nullable EvalContext etx) throws FailGetEvaluator {
+        return expr.evalLong(bind(etx));
+    }
+
+    @Override
+    public double evalDouble(@Nullable EvalContext etx) throws FailGetEvaluator {
+        return expr.evalDouble(bind(etx));
+    }
+
+    @Override
+    public boolean evalBoolean(@Nullable EvalContext etx) throws FailGetEvaluator {
+        return expr.evalBoolean(bind(etx));
+    }
+
+    @Override
+    public int typeCode() {
+        return expr.typeCode();
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.runtime.var;
+
+import lombok.Getter;
+
+import java.io.Serializable;
+import javax.annotation.Nonnull;
+
+/**
+ * A bind parameter, which is a variable whose value is given by a {@link ParamEvalContext} in evaluating.
+ */
+public final class RtParam extends RtVar {
+    private static final long serialVersionUID = -3250190910112956997L;
+
+    /**
+     * Create an RtParam.
+     *
+     * @param slot     the position of the parameter in the parameter values
+     * @param typeCode the type code of the parameter
+     */
+    public RtParam(int slot, int typeCode) {
+        super(new Id(slot), typeCode);
+    }
+
+    /**
+     * Get the position of this parameter in the parameter values.
+     *
+     * @return the position
+     */
+    public int getSlot() {
+        return ((Id) getId()).getSlot();
+    }
+
+    @Nonnull
+    @Override
+    public String toString() {
+        return "?" + getSlot();
+    }
+
+    /**
+     * The variable id of a bind parameter, which is distinguished from ids of data variables.
+     */
+    public static final class Id implements Serializable {
+        private static final long serialVersionUID = -5849784626970925317L;
+
+        @Getter
+        private final int slot;
+
+        private Id(int slot) {
+            this.slot = slot;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Id && ((Id) obj).slot == slot;
+        }
+
+        @Override
+        public int hashCode() {
+            return slot;
+        }
+    }
+}
@@ -18,14 +18,20 @@ package io.github.datacanvasio.expretau.runtime.var;
 
 import io.github.datacanvasio.expretau.runtime.EvalContext;
 import io.github.datacanvasio.expretau.runtime.RtExpr;
+import io.github.datacanvasio.expretau.runtime.exception.FailGetEvaluator;
+import io.github.datacanvasio.expretau.runtime.vector.ColumnBatch;
+import io.github.datacanvasio.expretau.runtime.vector.ColumnVector;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 
 import java.util.Objects;
+import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 @RequiredArgsConstructor
 public class RtVar implements RtExpr {
     private static final long serialVersionUID = -7434384449038456900L;
+    @Getter
     private final Object id;
     private final int typeCode;
 
@@ -34,11 +40,67 @@ public class RtVar implements RtExpr {
         return Objects.requireNonNull(etx).get(id);
     }
 
+    @Override
+    public int evalInt(@Nullable EvalContext etx) {
+        return ((Number) Objects.requireNonNull(etx).get(id)).intValue();
+    }
+
+    @Override
+    public long evalLong(@Nullable EvalContext etx) {
+        return ((Number) Objects.requireNonNull(etx).get(id)).longValue();
+    }
+
+    @Override
+    public double evalDouble(@Nullable EvalContext etx) {
+        return ((Number) Objects.requireNonNull(etx).get(id)).doubleValue();
+    }
+
+    @Override
+    public boolean evalBoolean(@Nullable EvalContext etx) {
+        return (boolean) Objects.requireNonNull(etx).get(id);
+    }
+
+    @Override
+    public void evalBatch(
+        @Nonnull ColumnBatch batch,
+        @Nullable int[] sel,
+        int size,
+        @Nonnull ColumnVector out
+    ) throws FailGetEvaluator {
+        if (id instanceof Integer) {
+            out.copyFrom(batch.getColumn((int) id), batch.getSize());
+            return;
+        }
+        RtExpr.super.evalBatch(batch, sel, size, out);
+    }
+
     @Override
     public int typeCode() {
         return typeCode;
     }
 
+    @Override
+    public boolean isPure() {
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        RtVar var = (RtVar) obj;
+        return id.equals(var.id) && typeCode == var.typeCode;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * id.hashCode() + typeCode;
+    }
+
     /**
      * Set the value of this variable in a specified EvalContext.
      *
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.datacanvasio.expretau.runtime.vector;
+
+import io.github.datacanvasio.expretau.runtime.evaluator.base.Evaluator;
+
+import javax.annotation.Nonnull;
+
+/**
+ * A specialized implementation of {@link Evaluator#evalBatch} on all rows of a batch, for example, by explicit SIMD
+ * instructions. The parameter columns are of the types of the Evaluator it replaces.
+ */
+@FunctionalInterface
+public interface BatchKernel {
+    /**
+     * Calculate the results of the first {@code size} rows of given parameter columns.
+     *
+     * @param paras the parameter columns
+     * @param size  the number of rows
+     * @param out   the column to put the results in
+     */
+    void evalBatch(@Nonnull ColumnVector[] paras, int size, @Nonnull ColumnVector out);
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.datacanvasio.expretau.runtime.vector;
+
+import io.github.datacanvasio.expretau.runtime.evaluator.base.Evaluator;
+
+import java.util.Map;
+import javax.annotation.Nonnull;
+
+/**
+ * The service interface to provide BatchKernels, loaded by {@link java.util.ServiceLoader}.
+ */
+public interface BatchKernelProvider {
+    /**
+     * Get the BatchKernels provided, keyed by the classes of Evaluators they replace. Return an empty map if the
+     * kernels are not supported in the current environment.
+     *
+     * @return the BatchKernels
+     */
+    @Nonnull
+    Map<Class<? extends Evaluator>, BatchKernel> getKernels();
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.datacanvasio.expretau.runtime.vector;
+
+import io.github.datacanvasio.expretau.runtime.evaluator.base.Evaluator;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * The registry of BatchKernels from all BatchKernelProviders in the class path.
+ */
+public final class BatchKernels {
+    private static final Map<Class<? extends Evaluator>, BatchKernel> KERNELS = loadKernels();
+
+    private BatchKernels() {
+    }
+
+    @Nonnull
+    private static Map<Class<? extends Evaluator>, BatchKernel> loadKernels() {
+        Map<Class<? extends Evaluator>, BatchKernel> kernels = new HashMap<>();
+        for (BatchKernelProvider provider : ServiceLoader.load(
+            BatchKernelProvider.class,
+            BatchKernels.class.getClassLoader()
+        )) {
+            kernels.putAll(provider.getKernels());
+        }
+        return kernels;
+    }
+
+    /**
+     * Get the BatchKernel to replace the {@code evalBatch} of an Evaluator.
+     *
+     * @param evaluator the Evaluator
+     * @return the BatchKernel, or {@code null} if there is not one
+     */
+    @Nullable
+    public static BatchKernel get(@Nonnull Evaluator evaluator) {
+        return KERNELS.get(evaluator.getClass());
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.datacanvasio.expretau.runtime.vector;
+
+import io.github.datacanvasio.expretau.runtime.EvalContext;
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+import io.github.datacanvasio.expretau.runtime.exception.FailGetEvaluator;
+import io.github.datacanvasio.expretau.runtime.schema.RtSchemaLeaf;
+import io.github.datacanvasio.expretau.runtime.schema.RtSchemaRoot;
+import io.github.datacanvasio.expretau.runtime.var.RtVar;
+import lombok.Getter;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * A batch of rows stored by columns. Each leaf of the schema is a ColumnVector, indexed by the index of the leaf, so
+ * that RtExprs compiled in the schema can be evaluated on the whole batch by {@link RtExpr#evalBatch}.
+ */
+public final class ColumnBatch {
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    @Getter
+    private final int capacity;
+    private final ColumnVector[] columns;
+    @Getter
+    private int size;
+
+    /**
+     * Create a ColumnBatch for a specified schema.
+     *
+     * @param schemaRoot the RtSchemaRoot
+     * @param capacity   the max number of rows
+     */
+    public ColumnBatch(@Nonnull RtSchemaRoot schemaRoot, int capacity) {
+        this.capacity = capacity;
+        RtSchemaLeaf[] leaves = schemaRoot.getLeaves();
+        columns = new ColumnVector[leaves.length];
+        for (int i = 0; i < leaves.length; ++i) {
+            columns[i] = new ColumnVector(leaves[i].getTypeCode(), capacity);
+        }
+        size = 0;
+    }
+
+    /**
+     * Create a ColumnBatch for a specified schema, with the default capacity.
+     *
+     * @param schemaRoot the RtSchemaRoot
+     */
+    public ColumnBatch(@Nonnull RtSchemaRoot schemaRoot) {
+        this(schemaRoot, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Get the column of a specified index.
+     *
+     * @param index the index of the schema leaf
+     * @return the column
+     */
+    public ColumnVector getColumn(int index) {
+        return columns[index];
+    }
+
+    /**
+     * Set the number of rows, after the columns are filled.
+     *
+     * @param size the number of rows
+     */
+    public void setSize(int size) {
+        if (size < 0 || size > capacity) {
+            throw new IllegalArgumentException("Size must be in [0, " + capacity + "], but is " + size + ".");
+        }
+        this.size = size;
+    }
+
+    /**
+     * Append a row, whose values are got from an EvalContext (for example, an RtData) by the indices of columns.
+     *
+     * @param etx the EvalContext
+     */
+    public void addRow(@Nonnull EvalContext etx) {
+        if (size >= capacity) {
+            throw new IllegalStateException("The batch is full, capacity = " + capacity + ".");
+        }
+        for (int i = 0; i < columns.length; ++i) {
+            columns[i].set(size, etx.get(i));
+        }
+        ++size;
+    }
+
+    /**
+     * Evaluate an RtExpr on this batch and return the result column. A variable is not copied but returns the column
+     * of it.
+     *
+     * @param expr the RtExpr
+     * @return the result column
+     * @throws FailGetEvaluator if there is no appropriate Evaluator
+     */
+    @Nonnull
+    public ColumnVector evalColumn(@Nonnull RtExpr expr) throws FailGetEvaluator {
+        return evalColumn(expr, null, size);
+    }
+
+    /**
+     * Evaluate an RtExpr on selected rows of this batch and return the result column.
+     *
+     * @param expr    the RtExpr
+     * @param sel     the ascending positions of selected rows, or {@code null} for the first {@code selSize} rows
+     * @param selSize the number of selected rows
+     * @return the result column
+     * @throws FailGetEvaluator if there is no appropriate Evaluator
+     */
+    @Nonnull
+    public ColumnVector evalColumn(@Nonnull RtExpr expr, @Nullable int[] sel, int selSize) throws FailGetEvaluator {
+        if (expr instanceof RtVar) {
+            Object id = ((RtVar) expr).getId();
+            if (id instanceof Integer) {
+                return columns[(int) id];
+            }
+        }
+        ColumnVector result = new ColumnVector(expr.typeCode(), size);
+        expr.evalBatch(this, sel, selSize, result);
+        return result;
+    }
+
+    /**
+     * Create an EvalContext to access the values of a row, for RtExprs cannot be evaluated by columns.
+     *
+     * @return the EvalContext
+     */
+    @Nonnull
+    public RowContext rowContext() {
+        return new RowContext();
+    }
+
+    /**
+     * An EvalContext on a row of the batch, the row can be moved without creating new object.
+     */
+    public final class RowContext implements EvalContext {
+        private static final long serialVersionUID = -6105863622455424431L;
+
+        @Getter
+        private int row;
+
+        private RowContext() {
+            row = 0;
+        }
+
+        /**
+         * Move to a specified row.
+         *
+         * @param row the row index
+         */
+        public void setRow(int row) {
+            this.row = row;
+        }
+
+        @Override
+        public Object get(Object id) {
+            return columns[(int) id].get(row);
+        }
+
+        @Override
+        public void set(Object id, Object value) {
+            columns[(int) id].set(row, value);
+        }
+    }
+}
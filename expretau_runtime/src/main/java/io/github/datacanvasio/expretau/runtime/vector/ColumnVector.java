@@ -0,0 +1,179 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.datacanvasio.expretau.runtime.vector;
+
+import io.github.datacanvasio.expretau.runtime.TypeCode;
+import lombok.Getter;
+
+import java.util.Arrays;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * A column of values of the same type, stored in a primitive array if the type is {@code int}, {@code long},
+ * {@code double} or {@code boolean}, else in an {@code Object} array. Only the array of the type is allocated, the
+ * others are {@code null}.
+ */
+public final class ColumnVector {
+    @Getter
+    private final int typeCode;
+    @Getter
+    private final int capacity;
+    @Getter
+    private int[] ints;
+    @Getter
+    private long[] longs;
+    @Getter
+    private double[] doubles;
+    @Getter
+    private boolean[] booleans;
+    @Getter
+    private Object[] objects;
+
+    /**
+     * Create a ColumnVector.
+     *
+     * @param typeCode the type code of the values
+     * @param capacity the max number of values
+     */
+    public ColumnVector(int typeCode, int capacity) {
+        this.typeCode = typeCode;
+        this.capacity = capacity;
+        switch (typeCode) {
+            case TypeCode.INTEGER:
+                ints = new int[capacity];
+                break;
+            case TypeCode.LONG:
+                longs = new long[capacity];
+                break;
+            case TypeCode.DOUBLE:
+                doubles = new double[capacity];
+                break;
+            case TypeCode.BOOLEAN:
+                booleans = new boolean[capacity];
+                break;
+            default:
+                objects = new Object[capacity];
+                break;
+        }
+    }
+
+    /**
+     * Get the value at a specified position, boxed if it is primitive.
+     *
+     * @param index the position
+     * @return the value
+     */
+    public Object get(int index) {
+        switch (typeCode) {
+            case TypeCode.INTEGER:
+                return ints[index];
+            case TypeCode.LONG:
+                return longs[index];
+            case TypeCode.DOUBLE:
+                return doubles[index];
+            case TypeCode.BOOLEAN:
+                return booleans[index];
+            default:
+                return objects[index];
+        }
+    }
+
+    /**
+     * Set the value at a specified position.
+     *
+     * @param index the position
+     * @param value the value
+     */
+    public void set(int index, @Nullable Object value) {
+        switch (typeCode) {
+            case TypeCode.INTEGER:
+                ints[index] = ((Number) value).intValue();
+                break;
+            case TypeCode.LONG:
+                longs[index] = ((Number) value).longValue();
+                break;
+            case TypeCode.DOUBLE:
+                doubles[index] = ((Number) value).doubleValue();
+                break;
+            case TypeCode.BOOLEAN:
+                booleans[index] = (boolean) value;
+                break;
+            default:
+                objects[index] = value;
+                break;
+        }
+    }
+
+    /**
+     * Set the first {@code size} values to a specified value.
+     *
+     * @param value the value
+     * @param size  the number of values
+     */
+    public void fill(@Nullable Object value, int size) {
+        switch (typeCode) {
+            case TypeCode.INTEGER:
+                Arrays.fill(ints, 0, size, ((Number) value).intValue());
+                break;
+            case TypeCode.LONG:
+                Arrays.fill(longs, 0, size, ((Number) value).longValue());
+                break;
+            case TypeCode.DOUBLE:
+                Arrays.fill(doubles, 0, size, ((Number) value).doubleValue());
+                break;
+            case TypeCode.BOOLEAN:
+                Arrays.fill(booleans, 0, size, (boolean) value);
+                break;
+            default:
+                Arrays.fill(objects, 0, size, value);
+                break;
+        }
+    }
+
+    /**
+     * Copy the first {@code size} values from another ColumnVector of the same type.
+     *
+     * @param src  the source ColumnVector
+     * @param size the number of values
+     */
+    public void copyFrom(@Nonnull ColumnVector src, int size) {
+        if (src.typeCode != typeCode) {
+            for (int i = 0; i < size; ++i) {
+                set(i, src.get(i));
+            }
+            return;
+        }
+        switch (typeCode) {
+            case TypeCode.INTEGER:
+                System.arraycopy(src.ints, 0, ints, 0, size);
+                break;
+            case TypeCode.LONG:
+                System.arraycopy(src.longs, 0, longs, 0, size);
+                break;
+            case TypeCode.DOUBLE:
+                System.arraycopy(src.doubles, 0, doubles, 0, size);
+                break;
+            case TypeCode.BOOLEAN:
+                System.arraycopy(src.booleans, 0, booleans, 0, size);
+                break;
+            default:
+                System.arraycopy(src.objects, 0, objects, 0, size);
+                break;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.datacanvasio.expretau.runtime.evaluator.base;
+
+import io.github.datacanvasio.expretau.runtime.TypeCode;
+import io.github.datacanvasio.expretau.runtime.TypeCodes;
+import io.github.datacanvasio.expretau.runtime.evaluator.arithmetic.AbsEvaluatorFactory;
+import io.github.datacanvasio.expretau.runtime.evaluator.arithmetic.AddEvaluatorFactory;
+import io.github.datacanvasio.expretau.runtime.evaluator.relational.LtEvaluatorFactory;
+import io.github.datacanvasio.expretau.runtime.evaluator.string.SubstringEvaluatorFactory;
+import io.github.datacanvasio.expretau.runtime.exception.FailGetEvaluator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+public class TestEvaluatorDispatch {
+    private static final int[] TYPE_CODES = {
+        TypeCode.INTEGER,
+        TypeCode.LONG,
+        TypeCode.DOUBLE,
+        TypeCode.DECIMAL,
+        TypeCode.STRING,
+        TypeCode.BOOLEAN,
+        TypeCode.OBJECT,
+        TypeCode.LIST,
+    };
+
+    @Nonnull
+    private static Stream<Arguments> getParameters() {
+        return Stream.of(
+            arguments(AbsEvaluatorFactory.INS, 1),
+            arguments(AddEvaluatorFactory.INS, 2),
+            arguments(LtEvaluatorFactory.INS, 2),
+            arguments(SubstringEvaluatorFactory.INS, 2),
+            arguments(SubstringEvaluatorFactory.INS, 3)
+        );
+    }
+
+    private static void combine(List<int[]> result, @Nonnull int[] typeCodes, int pos) {
+        if (pos == typeCodes.length) {
+            result.add(typeCodes.clone());
+            return;
+        }
+        for (int typeCode : TYPE_CODES) {
+            typeCodes[pos] = typeCode;
+            combine(result, typeCodes, pos + 1);
+        }
+    }
+
+    @Nullable
+    private static Evaluator lookUp(@Nonnull EvaluatorFactory factory, EvaluatorKey key) {
+        for (EvaluatorKey k : key.generalize()) {
+            Evaluator evaluator = factory.evaluators.get(k);
+            if (evaluator != null) {
+                return evaluator;
+            }
+        }
+        return null;
+    }
+
+    @ParameterizedTest
+    @MethodSource("getParameters")
+    public void test(EvaluatorFactory factory, int arity) throws FailGetEvaluator {
+        List<int[]> combinations = new ArrayList<>();
+        combine(combinations, new int[arity], 0);
+        for (int[] typeCodes : combinations) {
+            EvaluatorKey key = EvaluatorKey.of(typeCodes);
+            Evaluator expected = lookUp(factory, key);
+            if (expected != null) {
+                assertThat(factory.getEvaluator(key)).isSameAs(expected);
+            } else {
+                assertThrows(FailGetEvaluator.class, () -> factory.getEvaluator(key));
+            }
+        }
+    }
+
+    @Test
+    public void testTypeWithoutTypeCode() throws FailGetEvaluator {
+        CustomEvaluatorFactory factory = new CustomEvaluatorFactory();
+        assertThat(factory.getEvaluator(EvaluatorKey.of(TypeCode.LONG))).isSameAs(factory.longEvaluator);
+        assertThat(factory.getEvaluator(EvaluatorKey.of(CustomEvaluatorFactory.DATE))).isSameAs(factory.dateEvaluator);
+        assertThat(factory.getEvaluator(new Object[]{LocalDate.now()})).isSameAs(factory.dateEvaluator);
+        // Another type without a predefined type code must not be dispatched to the Evaluator of `LocalDate`.
+        int time = TypeCodes.getTypeCode(LocalTime.class);
+        assertThrows(FailGetEvaluator.class, () -> factory.getEvaluator(EvaluatorKey.of(time)));
+        assertThrows(FailGetEvaluator.class, () -> factory.getEvaluator(new Object[]{LocalTime.now()}));
+    }
+
+    private static final class CustomEvaluatorFactory extends EvaluatorFactory {
+        private static final long serialVersionUID = 2415096227387924381L;
+        private static final int DATE = TypeCodes.getTypeCode(LocalDate.class);
+
+        private final Evaluator longEvaluator = new ConstEvaluator(TypeCode.LONG);
+        private final Evaluator dateEvaluator = new ConstEvaluator(DATE);
+
+        private CustomEvaluatorFactory() {
+            evaluators.put(EvaluatorKey.of(TypeCode.LONG), longEvaluator);
+            evaluators.put(EvaluatorKey.of(DATE), dateEvaluator);
+            // As the generated code of a factory with a parameter type without a predefined type code.
+            initDispatchTypes(TypeCode.LONG, DATE);
+            initDispatchTable(
+                1,
+                new EvaluatorKey[]{EvaluatorKey.of(TypeCode.LONG), EvaluatorKey.of(DATE)},
+                new int[]{0, 1, -1}
+            );
+        }
+    }
+
+    private static final class ConstEvaluator implements Evaluator {
+        private static final long serialVersionUID = -1208834569137213554L;
+
+        private final int typeCode;
+
+        private ConstEvaluator(int typeCode) {
+            this.typeCode = typeCode;
+        }
+
+        @Override
+        public Object eval(Object[] paras) {
+            return null;
+        }
+
+        @Override
+        public int typeCode() {
+            return typeCode;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.datacanvasio.expretau.runtime.evaluator.base;
+
+import io.github.datacanvasio.expretau.runtime.evaluator.arithmetic.AddEvaluatorFactory;
+import io.github.datacanvasio.expretau.runtime.exception.FailGetEvaluator;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TestUniversalEvaluator {
+    private static UniversalEvaluator newEvaluator() throws FailGetEvaluator {
+        Evaluator evaluator = AddEvaluatorFactory.INS.getEvaluator(EvaluatorKey.UNIVERSAL);
+        return ((UniversalEvaluator) evaluator).forCallSite();
+    }
+
+    @Test
+    public void testMonomorphic() throws Exception {
+        UniversalEvaluator evaluator = newEvaluator();
+        for (long i = 0; i < 10; ++i) {
+            assertThat(evaluator.eval(i, 1L)).isEqualTo(i + 1);
+            assertThat(evaluator.eval(new Object[]{i, 2L})).isEqualTo(i + 2);
+        }
+        assertThat(evaluator.isMegamorphic()).isFalse();
+    }
+
+    @Test
+    public void testPolymorphic() throws Exception {
+        UniversalEvaluator evaluator = newEvaluator();
+        for (int i = 0; i < 3; ++i) {
+            assertThat(evaluator.eval(1L, 2L)).isEqualTo(3L);
+            assertThat(evaluator.eval(1L, 2.0)).isEqualTo(3.0);
+            assertThat(evaluator.eval("a", "b")).isEqualTo("ab");
+        }
+        assertThat(evaluator.isMegamorphic()).isFalse();
+    }
+
+    @Test
+    public void testMegamorphic() throws Exception {
+        UniversalEvaluator evaluator = newEvaluator();
+        for (int i = 0; i < 3; ++i) {
+            assertThat(evaluator.eval(1, 2)).isEqualTo(3);
+            assertThat(evaluator.eval(1L, 2L)).isEqualTo(3L);
+            assertThat(evaluator.eval(1L, 2.0)).isEqualTo(3.0);
+            assertThat(evaluator.eval(1.0, 2L)).isEqualTo(3.0);
+            assertThat(evaluator.eval("a", "b")).isEqualTo("ab");
+            assertThat(evaluator.eval(BigDecimal.ONE, 1L)).isEqualTo(BigDecimal.valueOf(2));
+        }
+        assertThat(evaluator.isMegamorphic()).isTrue();
+    }
+
+    @Test
+    public void testFail() throws Exception {
+        UniversalEvaluator evaluator = newEvaluator();
+        assertThrows(FailGetEvaluator.class, () -> evaluator.eval(true, 1L));
+        assertThrows(FailGetEvaluator.class, () -> evaluator.eval(null, 1L));
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.datacanvasio.expretau.runtime.op;
+
+import io.github.datacanvasio.expretau.runtime.RtConst;
+import io.github.datacanvasio.expretau.runtime.RtExpr;
+import io.github.datacanvasio.expretau.runtime.TypeCode;
+import io.github.datacanvasio.expretau.runtime.codegen.RtBytecodeCompiler;
+import io.github.datacanvasio.expretau.runtime.codegen.RtCompiledExpr;
+import io.github.datacanvasio.expretau.runtime.evaluator.arithmetic.AddEvaluatorFactory;
+import io.github.datacanvasio.expretau.runtime.evaluator.base.Evaluator;
+import io.github.datacanvasio.expretau.runtime.evaluator.base.EvaluatorKey;
+import io.github.datacanvasio.expretau.runtime.evaluator.index.IndexEvaluatorFactory;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestRtEvaluatorOp {
+    @Test
+    public void testPrimitive() throws Exception {
+        Evaluator evaluator = AddEvaluatorFactory.INS.getEvaluator(EvaluatorKey.of(TypeCode.LONG, TypeCode.LONG));
+        assertThat(evaluator.isPrimitive()).isTrue();
+        RtEvaluatorOp op = RtEvaluatorOp.of(evaluator, new RtExpr[]{new RtConst(1L), new RtConst(2L)});
+        assertThat(op.eval(null)).isEqualTo(3L);
+        assertThat(op.evalLong(null)).isEqualTo(3L);
+    }
+
+    @Test
+    public void testBoxedNull() throws Exception {
+        Evaluator evaluator = IndexEvaluatorFactory.INS.getEvaluator(
+            EvaluatorKey.of(TypeCode.LONG_ARRAY, TypeCode.INTEGER)
+        );
+        assertThat(evaluator.typeCode()).isEqualTo(TypeCode.LONG);
+        assertThat(evaluator.isPrimitive()).isFalse();
+        RtEvaluatorOp op = RtEvaluatorOp.of(evaluator, new RtExpr[]{
+            new RtConst(new Long[]{null, 2L}),
+            new RtConst(0)
+        });
+        assertThat(op.eval(null)).isNull();
+        RtExpr compiled = RtBytecodeCompiler.INS.compile(op);
+        assertThat(compiled).isInstanceOf(RtCompiledExpr.class);
+        assertThat(compiled.eval(null)).isNull();
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.datacanvasio.expretau.simd;
+
+import com.google.auto.service.AutoService;
+import io.github.datacanvasio.expretau.runtime.evaluator.base.Evaluator;
+import io.github.datacanvasio.expretau.runtime.vector.BatchKernel;
+import io.github.datacanvasio.expretau.runtime.vector.BatchKernelProvider;
+
+import java.util.Collections;
+import java.util.Map;
+import javax.annotation.Nonnull;
+
+/**
+ * Provide BatchKernels implemented by the Vector API ({@code jdk.incubator.vector}). The kernels are in
+ * {@code META-INF/versions/17} of the multi-release jar, so nothing is provided on Java 8 or if the module
+ * {@code jdk.incubator.vector} is not added, then the scalar loops of Evaluators are used.
+ */
+@AutoService(BatchKernelProvider.class)
+public final class SimdBatchKernelProvider implements BatchKernelProvider {
+    private static final String KERNELS_CLASS_NAME = "io.github.datacanvasio.expretau.simd.VectorKernels";
+
+    @SuppressWarnings("unchecked")
+    @Nonnull
+    @Override
+    public Map<Class<? extends Evaluator>, BatchKernel> getKernels() {
+        try {
+            Class<?> kernelsClass = Class.forName(KERNELS_CLASS_NAME);
+            return (Map<Class<? extends Evaluator>, BatchKernel>) kernelsClass.getMethod("kernels").invoke(null);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return Collections.emptyMap();
+        }
+    }
+}
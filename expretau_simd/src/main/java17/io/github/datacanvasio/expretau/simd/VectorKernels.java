@@ -0,0 +1,616 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.datacanvasio.expretau.simd;
+
+import io.github.datacanvasio.expretau.runtime.evaluator.arithmetic.AbsDouble;
+import io.github.datacanvasio.expretau.runtime.evaluator.arithmetic.AbsInteger;
+import io.github.datacanvasio.expretau.runtime.evaluator.arithmetic.AbsLong;
+import io.github.datacanvasio.expretau.runtime.evaluator.arithmetic.AddDoubleDouble;
+import io.github.datacanvasio.expretau.runtime.evaluator.arithmetic.AddIntegerInteger;
+import io.github.datacanvasio.expretau.runtime.evaluator.arithmetic.AddLongLong;
+import io.github.datacanvasio.expretau.runtime.evaluator.arithmetic.DivDoubleDouble;
+import io.github.datacanvasio.expretau.runtime.evaluator.arithmetic.MulDoubleDouble;
+import io.github.datacanvasio.expretau.runtime.evaluator.arithmetic.MulIntegerInteger;
+import io.github.datacanvasio.expretau.runtime.evaluator.arithmetic.MulLongLong;
+import io.github.datacanvasio.expretau.runtime.evaluator.arithmetic.NegDouble;
+import io.github.datacanvasio.expretau.runtime.evaluator.arithmetic.NegInteger;
+import io.github.datacanvasio.expretau.runtime.evaluator.arithmetic.NegLong;
+import io.github.datacanvasio.expretau.runtime.evaluator.arithmetic.SubDoubleDouble;
+import io.github.datacanvasio.expretau.runtime.evaluator.arithmetic.SubIntegerInteger;
+import io.github.datacanvasio.expretau.runtime.evaluator.arithmetic.SubLongLong;
+import io.github.datacanvasio.expretau.runtime.evaluator.base.Evaluator;
+import io.github.datacanvasio.expretau.runtime.evaluator.relational.EqDoubleDouble;
+import io.github.datacanvasio.expretau.runtime.evaluator.relational.EqIntegerInteger;
+import io.github.datacanvasio.expretau.runtime.evaluator.relational.EqLongLong;
+import io.github.datacanvasio.expretau.runtime.evaluator.relational.GeDoubleDouble;
+import io.github.datacanvasio.expretau.runtime.evaluator.relational.GeIntegerInteger;
+import io.github.datacanvasio.expretau.runtime.evaluator.relational.GeLongLong;
+import io.github.datacanvasio.expretau.runtime.evaluator.relational.GtDoubleDouble;
+import io.github.datacanvasio.expretau.runtime.evaluator.relational.GtIntegerInteger;
+import io.github.datacanvasio.expretau.runtime.evaluator.relational.GtLongLong;
+import io.github.datacanvasio.expretau.runtime.evaluator.relational.LeDoubleDouble;
+import io.github.datacanvasio.expretau.runtime.evaluator.relational.LeIntegerInteger;
+import io.github.datacanvasio.expretau.runtime.evaluator.relational.LeLongLong;
+import io.github.datacanvasio.expretau.runtime.evaluator.relational.LtDoubleDouble;
+import io.github.datacanvasio.expretau.runtime.evaluator.relational.LtIntegerInteger;
+import io.github.datacanvasio.expretau.runtime.evaluator.relational.LtLongLong;
+import io.github.datacanvasio.expretau.runtime.evaluator.relational.NeDoubleDouble;
+import io.github.datacanvasio.expretau.runtime.evaluator.relational.NeIntegerInteger;
+import io.github.datacanvasio.expretau.runtime.evaluator.relational.NeLongLong;
+import io.github.datacanvasio.expretau.runtime.vector.BatchKernel;
+import io.github.datacanvasio.expretau.runtime.vector.ColumnVector;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.Nonnull;
+
+/**
+ * BatchKernels implemented by the Vector API. Each kernel is a separate method with a constant operator, so that it can
+ * be intrinsified by the JIT. The tails of columns shorter than a vector are calculated by scalar operations.
+ *
+ * <p>Integer division is not included, for there is no SIMD instruction of it on most CPUs.
+ */
+public final class VectorKernels {
+    private static final VectorSpecies<Integer> INT_SPECIES = IntVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Long> LONG_SPECIES = LongVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Double> DOUBLE_SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    private VectorKernels() {
+    }
+
+    /**
+     * Get all the kernels, keyed by the classes of Evaluators they replace.
+     *
+     * @return the kernels
+     */
+    @Nonnull
+    public static Map<Class<? extends Evaluator>, BatchKernel> kernels() {
+        Map<Class<? extends Evaluator>, BatchKernel> kernels = new HashMap<>();
+        kernels.put(AddIntegerInteger.class, VectorKernels::addInts);
+        kernels.put(AddLongLong.class, VectorKernels::addLongs);
+        kernels.put(AddDoubleDouble.class, VectorKernels::addDoubles);
+        kernels.put(SubIntegerInteger.class, VectorKernels::subInts);
+        kernels.put(SubLongLong.class, VectorKernels::subLongs);
+        kernels.put(SubDoubleDouble.class, VectorKernels::subDoubles);
+        kernels.put(MulIntegerInteger.class, VectorKernels::mulInts);
+        kernels.put(MulLongLong.class, VectorKernels::mulLongs);
+        kernels.put(MulDoubleDouble.class, VectorKernels::mulDoubles);
+        kernels.put(DivDoubleDouble.class, VectorKernels::divDoubles);
+        kernels.put(AbsInteger.class, VectorKernels::absInts);
+        kernels.put(AbsLong.class, VectorKernels::absLongs);
+        kernels.put(AbsDouble.class, VectorKernels::absDoubles);
+        kernels.put(NegInteger.class, VectorKernels::negInts);
+        kernels.put(NegLong.class, VectorKernels::negLongs);
+        kernels.put(NegDouble.class, VectorKernels::negDoubles);
+        kernels.put(EqIntegerInteger.class, VectorKernels::eqInts);
+        kernels.put(EqLongLong.class, VectorKernels::eqLongs);
+        kernels.put(EqDoubleDouble.class, VectorKernels::eqDoubles);
+        kernels.put(NeIntegerInteger.class, VectorKernels::neInts);
+        kernels.put(NeLongLong.class, VectorKernels::neLongs);
+        kernels.put(NeDoubleDouble.class, VectorKernels::neDoubles);
+        kernels.put(GtIntegerInteger.class, VectorKernels::gtInts);
+        kernels.put(GtLongLong.class, VectorKernels::gtLongs);
+        kernels.put(GtDoubleDouble.class, VectorKernels::gtDoubles);
+        kernels.put(GeIntegerInteger.class, VectorKernels::geInts);
+        kernels.put(GeLongLong.class, VectorKernels::geLongs);
+        kernels.put(GeDoubleDouble.class, VectorKernels::geDoubles);
+        kernels.put(LtIntegerInteger.class, VectorKernels::ltInts);
+        kernels.put(LtLongLong.class, VectorKernels::ltLongs);
+        kernels.put(LtDoubleDouble.class, VectorKernels::ltDoubles);
+        kernels.put(LeIntegerInteger.class, VectorKernels::leInts);
+        kernels.put(LeLongLong.class, VectorKernels::leLongs);
+        kernels.put(LeDoubleDouble.class, VectorKernels::leDoubles);
+        return kernels;
+    }
+
+    private static void addInts(ColumnVector[] paras, int size, ColumnVector out) {
+        int[] values0 = paras[0].getInts();
+        int[] values1 = paras[1].getInts();
+        int[] results = out.getInts();
+        int i = 0;
+        for (int bound = INT_SPECIES.loopBound(size); i < bound; i += INT_SPECIES.length()) {
+            IntVector.fromArray(INT_SPECIES, values0, i)
+                .lanewise(VectorOperators.ADD, IntVector.fromArray(INT_SPECIES, values1, i))
+                .intoArray(results, i);
+        }
+        for (; i < size; ++i) {
+            results[i] = values0[i] + values1[i];
+        }
+    }
+
+    private static void addLongs(ColumnVector[] paras, int size, ColumnVector out) {
+        long[] values0 = paras[0].getLongs();
+        long[] values1 = paras[1].getLongs();
+        long[] results = out.getLongs();
+        int i = 0;
+        for (int bound = LONG_SPECIES.loopBound(size); i < bound; i += LONG_SPECIES.length()) {
+            LongVector.fromArray(LONG_SPECIES, values0, i)
+                .lanewise(VectorOperators.ADD, LongVector.fromArray(LONG_SPECIES, values1, i))
+                .intoArray(results, i);
+        }
+        for (; i < size; ++i) {
+            results[i] = values0[i] + values1[i];
+        }
+    }
+
+    private static void addDoubles(ColumnVector[] paras, int size, ColumnVector out) {
+        double[] values0 = paras[0].getDoubles();
+        double[] values1 = paras[1].getDoubles();
+        double[] results = out.getDoubles();
+        int i = 0;
+        for (int bound = DOUBLE_SPECIES.loopBound(size); i < bound; i += DOUBLE_SPECIES.length()) {
+            DoubleVector.fromArray(DOUBLE_SPECIES, values0, i)
+                .lanewise(VectorOperators.ADD, DoubleVector.fromArray(DOUBLE_SPECIES, values1, i))
+                .intoArray(results, i);
+        }
+        for (; i < size; ++i) {
+            results[i] = values0[i] + values1[i];
+        }
+    }
+
+    private static void subInts(ColumnVector[] paras, int size, ColumnVector out) {
+        int[] values0 = paras[0].getInts();
+        int[] values1 = paras[1].getInts();
+        int[] results = out.getInts();
+        int i = 0;
+        for (int bound = INT_SPECIES.loopBound(size); i < bound; i += INT_SPECIES.length()) {
+            IntVector.fromArray(INT_SPECIES, values0, i)
+                .lanewise(VectorOperators.SUB, IntVector.fromArray(INT_SPECIES, values1, i))
+                .intoArray(results, i);
+        }
+        for (; i < size; ++i) {
+            results[i] = values0[i] - values1[i];
+        }
+    }
+
+    private static void subLongs(ColumnVector[] paras, int size, ColumnVector out) {
+        long[] values0 = paras[0].getLongs();
+        long[] values1 = paras[1].getLongs();
+        long[] results = out.getLongs();
+        int i = 0;
+        for (int bound = LONG_SPECIES.loopBound(size); i < bound; i += LONG_SPECIES.length()) {
+            LongVector.fromArray(LONG_SPECIES, values0, i)
+                .lanewise(VectorOperators.SUB, LongVector.fromArray(LONG_SPECIES, values1, i))
+                .intoArray(results, i);
+        }
+        for (; i < size; ++i) {
+            results[i] = values0[i] - values1[i];
+        }
+    }
+
+    private static void subDoubles(ColumnVector[] paras, int size, ColumnVector out) {
+        double[] values0 = paras[0].getDoubles();
+        double[] values1 = paras[1].getDoubles();
+        double[] results = out.getDoubles();
+        int i = 0;
+        for (int bound = DOUBLE_SPECIES.loopBound(size); i < bound; i += DOUBLE_SPECIES.length()) {
+            DoubleVector.fromArray(DOUBLE_SPECIES, values0, i)
+                .lanewise(VectorOperators.SUB, DoubleVector.fromArray(DOUBLE_SPECIES, values1, i))
+                .intoArray(results, i);
+        }
+        for (; i < size; ++i) {
+            results[i] = values0[i] - values1[i];
+        }
+    }
+
+    private static void mulInts(ColumnVector[] paras, int size, ColumnVector out) {
+        int[] values0 = paras[0].getInts();
+        int[] values1 = paras[1].getInts();
+        int[] results = out.getInts();
+        int i = 0;
+        for (int bound = INT_SPECIES.loopBound(size); i < bound; i += INT_SPECIES.length()) {
+            IntVector.fromArray(INT_SPECIES, values0, i)
+                .lanewise(VectorOperators.MUL, IntVector.fromArray(INT_SPECIES, values1, i))
+                .intoArray(results, i);
+        }
+        for (; i < size; ++i) {
+            results[i] = values0[i] * values1[i];
+        }
+    }
+
+    private static void mulLongs(ColumnVector[] paras, int size, ColumnVector out) {
+        long[] values0 = paras[0].getLongs();
+        long[] values1 = paras[1].getLongs();
+        long[] results = out.getLongs();
+        int i = 0;
+        for (int bound = LONG_SPECIES.loopBound(size); i < bound; i += LONG_SPECIES.length()) {
+            LongVector.fromArray(LONG_SPECIES, values0, i)
+                .lanewise(VectorOperators.MUL, LongVector.fromArray(LONG_SPECIES, values1, i))
+                .intoArray(results, i);
+        }
+        for (; i < size; ++i) {
+            results[i] = values0[i] * values1[i];
+        }
+    }
+
+    private static void mulDoubles(ColumnVector[] paras, int size, ColumnVector out) {
+        double[] values0 = paras[0].getDoubles();
+        double[] values1 = paras[1].getDoubles();
+        double[] results = out.getDoubles();
+        int i = 0;
+        for (int bound = DOUBLE_SPECIES.loopBound(size); i < bound; i += DOUBLE_SPECIES.length()) {
+            DoubleVector.fromArray(DOUBLE_SPECIES, values0, i)
+                .lanewise(VectorOperators.MUL, DoubleVector.fromArray(DOUBLE_SPECIES, values1, i))
+                .intoArray(results, i);
+        }
+        for (; i < size; ++i) {
+            results[i] = values0[i] * values1[i];
+        }
+    }
+
+    private static void divDoubles(ColumnVector[] paras, int size, ColumnVector out) {
+        double[] values0 = paras[0].getDoubles();
+        double[] values1 = paras[1].getDoubles();
+        double[] results = out.getDoubles();
+        int i = 0;
+        for (int bound = DOUBLE_SPECIES.loopBound(size); i < bound; i += DOUBLE_SPECIES.length()) {
+            DoubleVector.fromArray(DOUBLE_SPECIES, values0, i)
+                .lanewise(VectorOperators.DIV, DoubleVector.fromArray(DOUBLE_SPECIES, values1, i))
+                .intoArray(results, i);
+        }
+        for (; i < size; ++i) {
+            results[i] = values0[i] / values1[i];
+        }
+    }
+
+    private static void absInts(ColumnVector[] paras, int size, ColumnVector out) {
+        int[] values0 = paras[0].getInts();
+        int[] results = out.getInts();
+        int i = 0;
+        for (int bound = INT_SPECIES.loopBound(size); i < bound; i += INT_SPECIES.length()) {
+            IntVector.fromArray(INT_SPECIES, values0, i).lanewise(VectorOperators.ABS).intoArray(results, i);
+        }
+        for (; i < size; ++i) {
+            results[i] = Math.abs(values0[i]);
+        }
+    }
+
+    private static void absLongs(ColumnVector[] paras, int size, ColumnVector out) {
+        long[] values0 = paras[0].getLongs();
+        long[] results = out.getLongs();
+        int i = 0;
+        for (int bound = LONG_SPECIES.loopBound(size); i < bound; i += LONG_SPECIES.length()) {
+            LongVector.fromArray(LONG_SPECIES, values0, i).lanewise(VectorOperators.ABS).intoArray(results, i);
+        }
+        for (; i < size; ++i) {
+            results[i] = Math.abs(values0[i]);
+        }
+    }
+
+    private static void absDoubles(ColumnVector[] paras, int size, ColumnVector out) {
+        double[] values0 = paras[0].getDoubles();
+        double[] results = out.getDoubles();
+        int i = 0;
+        for (int bound = DOUBLE_SPECIES.loopBound(size); i < bound; i += DOUBLE_SPECIES.length()) {
+            DoubleVector.fromArray(DOUBLE_SPECIES, values0, i).lanewise(VectorOperators.ABS).intoArray(results, i);
+        }
+        for (; i < size; ++i) {
+            results[i] = Math.abs(values0[i]);
+        }
+    }
+
+    private static void negInts(ColumnVector[] paras, int size, ColumnVector out) {
+        int[] values0 = paras[0].getInts();
+        int[] results = out.getInts();
+        int i = 0;
+        for (int bound = INT_SPECIES.loopBound(size); i < bound; i += INT_SPECIES.length()) {
+            IntVector.fromArray(INT_SPECIES, values0, i).lanewise(VectorOperators.NEG).intoArray(results, i);
+        }
+        for (; i < size; ++i) {
+            results[i] = -values0[i];
+        }
+    }
+
+    private static void negLongs(ColumnVector[] paras, int size, ColumnVector out) {
+        long[] values0 = paras[0].getLongs();
+        long[] results = out.getLongs();
+        int i = 0;
+        for (int bound = LONG_SPECIES.loopBound(size); i < bound; i += LONG_SPECIES.length()) {
+            LongVector.fromArray(LONG_SPECIES, values0, i).lanewise(VectorOperators.NEG).intoArray(results, i);
+        }
+        for (; i < size; ++i) {
+            results[i] = -values0[i];
+        }
+    }
+
+    private static void negDoubles(ColumnVector[] paras, int size, ColumnVector out) {
+        double[] values0 = paras[0].getDoubles();
+        double[] results = out.getDoubles();
+        int i = 0;
+        for (int bound = DOUBLE_SPECIES.loopBound(size); i < bound; i += DOUBLE_SPECIES.length()) {
+            DoubleVector.fromArray(DOUBLE_SPECIES, values0, i).lanewise(VectorOperators.NEG).intoArray(results, i);
+        }
+        for (; i < size; ++i) {
+            results[i] = -values0[i];
+        }
+    }
+
+    private static void eqInts(ColumnVector[] paras, int size, ColumnVector out) {
+        int[] values0 = paras[0].getInts();
+        int[] values1 = paras[1].getInts();
+        boolean[] results = out.getBooleans();
+        int i = 0;
+        for (int bound = INT_SPECIES.loopBound(size); i < bound; i += INT_SPECIES.length()) {
+            IntVector.fromArray(INT_SPECIES, values0, i)
+                .compare(VectorOperators.EQ, IntVector.fromArray(INT_SPECIES, values1, i))
+                .intoArray(results, i);
+        }
+        for (; i < size; ++i) {
+            results[i] = values0[i] == values1[i];
+        }
+    }
+
+    private static void eqLongs(ColumnVector[] paras, int size, ColumnVector out) {
+        long[] values0 = paras[0].getLongs();
+        long[] values1 = paras[1].getLongs();
+        boolean[] results = out.getBooleans();
+        int i = 0;
+        for (int bound = LONG_SPECIES.loopBound(size); i < bound; i += LONG_SPECIES.length()) {
+            LongVector.fromArray(LONG_SPECIES, values0, i)
+                .compare(VectorOperators.EQ, LongVector.fromArray(LONG_SPECIES, values1, i))
+                .intoArray(results, i);
+        }
+        for (; i < size; ++i) {
+            results[i] = values0[i] == values1[i];
+        }
+    }
+
+    private static void eqDoubles(ColumnVector[] paras, int size, ColumnVector out) {
+        double[] values0 = paras[0].getDoubles();
+        double[] values1 = paras[1].getDoubles();
+        boolean[] results = out.getBooleans();
+        int i = 0;
+        for (int bound = DOUBLE_SPECIES.loopBound(size); i < bound; i += DOUBLE_SPECIES.length()) {
+            DoubleVector.fromArray(DOUBLE_SPECIES, values0, i)
+                .compare(VectorOperators.EQ, DoubleVector.fromArray(DOUBLE_SPECIES, values1, i))
+                .intoArray(results, i);
+        }
+        for (; i < size; ++i) {
+            results[i] = values0[i] == values1[i];
+        }
+    }
+
+    private static void neInts(ColumnVector[] paras, int size, ColumnVector out) {
+        int[] values0 = paras[0].getInts();
+        int[] values1 = paras[1].getInts();
+        boolean[] results = out.getBooleans();
+        int i = 0;
+        for (int bound = INT_SPECIES.loopBound(size); i < bound; i += INT_SPECIES.length()) {
+            IntVector.fromArray(INT_SPECIES, values0, i)
+                .compare(VectorOperators.NE, IntVector.fromArray(INT_SPECIES, values1, i))
+                .intoArray(results, i);
+        }
+        for (; i < size; ++i) {
+            results[i] = values0[i] != values1[i];
+        }
+    }
+
+    private static void neLongs(ColumnVector[] paras, int size, ColumnVector out) {
+        long[] values0 = paras[0].getLongs();
+        long[] values1 = paras[1].getLongs();
+        boolean[] results = out.getBooleans();
+        int i = 0;
+        for (int bound = LONG_SPECIES.loopBound(size); i < bound; i += LONG_SPECIES.length()) {
+            LongVector.fromArray(LONG_SPECIES, values0, i)
+                .compare(VectorOperators.NE, LongVector.fromArray(LONG_SPECIES, values1, i))
+                .intoArray(results, i);
+        }
+        for (; i < size; ++i) {
+            results[i] = values0[i] != values1[i];
+        }
+    }
+
+    private static void neDoubles(ColumnVector[] paras, int size, ColumnVector out) {
+        double[] values0 = paras[0].getDoubles();
+        double[] values1 = paras[1].getDoubles();
+        boolean[] results = out.getBooleans();
+        int i = 0;
+        for (int bound = DOUBLE_SPECIES.loopBound(size); i < bound; i += DOUBLE_SPECIES.length()) {
+            DoubleVector.fromArray(DOUBLE_SPECIES, values0, i)
+                .compare(VectorOperators.NE, DoubleVector.fromArray(DOUBLE_SPECIES, values1, i))
+                .intoArray(results, i);
+        }
+        for (; i < size; ++i) {
+            results[i] = values0[i] != values1[i];
+        }
+    }
+
+    private static void gtInts(ColumnVector[] paras, int size, ColumnVector out) {
+        int[] values0 = paras[0].getInts();
+        int[] values1 = paras[1].getInts();
+        boolean[] results = out.getBooleans();
+        int i = 0;
+        for (int bound = INT_SPECIES.loopBound(size); i < bound; i += INT_SPECIES.length()) {
+            IntVector.fromArray(INT_SPECIES, values0, i)
+                .compare(VectorOperators.GT, IntVector.fromArray(INT_SPECIES, values1, i))
+                .intoArray(results, i);
+        }
+        for (; i < size; ++i) {
+            results[i] = values0[i] > values1[i];
+        }
+    }
+
+    private static void gtLongs(ColumnVector[] paras, int size, ColumnVector out) {
+        long[] values0 = paras[0].getLongs();
+        long[] values1 = paras[1].getLongs();
+        boolean[] results = out.getBooleans();
+        int i = 0;
+        for (int bound = LONG_SPECIES.loopBound(size); i < bound; i += LONG_SPECIES.length()) {
+            LongVector.fromArray(LONG_SPECIES, values0, i)
+                .compare(VectorOperators.GT, LongVector.fromArray(LONG_SPECIES, values1, i))
+                .intoArray(results, i);
+        }
+        for (; i < size; ++i) {
+            results[i] = values0[i] > values1[i];
+        }
+    }
+
+    private static void gtDoubles(ColumnVector[] paras, int size, ColumnVector out) {
+        double[] values0 = paras[0].getDoubles();
+        double[] values1 = paras[1].getDoubles();
+        boolean[] results = out.getBooleans();
+        int i = 0;
+        for (int bound = DOUBLE_SPECIES.loopBound(size); i < bound; i += DOUBLE_SPECIES.length()) {
+            DoubleVector.fromArray(DOUBLE_SPECIES, values0, i)
+                .compare(VectorOperators.GT, DoubleVector.fromArray(DOUBLE_SPECIES, values1, i))
+                .intoArray(results, i);
+        }
+        for (; i < size; ++i) {
+            results[i] = values0[i] > values1[i];
+        }
+    }
+
+    private static void geInts(ColumnVector[] paras, int size, ColumnVector out) {
+        int[] values0 = paras[0].getInts();
+        int[] values1 = paras[1].getInts();
+        boolean[] results = out.getBooleans();
+        int i = 0;
+        for (int bound = INT_SPECIES.loopBound(size); i < bound; i += INT_SPECIES.length()) {
+            IntVector.fromArray(INT_SPECIES, values0, i)
+                .compare(VectorOperators.GE, IntVector.fromArray(INT_SPECIES, values1, i))
+                .intoArray(results, i);
+        }
+        for (; i < size; ++i) {
+            results[i] = values0[i] >= values1[i];
+        }
+    }
+
+    private static void geLongs(ColumnVector[] paras, int size, ColumnVector out) {
+        long[] values0 = paras[0].getLongs();
+        long[] values1 = paras[1].getLongs();
+        boolean[] results = out.getBooleans();
+        int i = 0;
+        for (int bound = LONG_SPECIES.loopBound(size); i < bound; i += LONG_SPECIES.length()) {
+            LongVector.fromArray(LONG_SPECIES, values0, i)
+                .compare(VectorOperators.GE, LongVector.fromArray(LONG_SPECIES, values1, i))
+                .intoArray(results, i);
+        }
+        for (; i < size; ++i) {
+            results[i] = values0[i] >= values1[i];
+        }
+    }
+
+    private static void geDoubles(ColumnVector[] paras, int size, ColumnVector out) {
+        double[] values0 = paras[0].getDoubles();
+        double[] values1 = paras[1].getDoubles();
+        boolean[] results = out.getBooleans();
+        int i = 0;
+        for (int bound = DOUBLE_SPECIES.loopBound(size); i < bound; i += DOUBLE_SPECIES.length()) {
+            DoubleVector.fromArray(DOUBLE_SPECIES, values0, i)
+                .compare(VectorOperators.GE, DoubleVector.fromArray(DOUBLE_SPECIES, values1, i))
+                .intoArray(results, i);
+        }
+        for (; i < size; ++i) {
+            results[i] = values0[i] >= values1[i];
+        }
+    }
+
+    private static void ltInts(ColumnVector[] paras, int size, ColumnVector out) {
+        int[] values0 = paras[0].getInts();
+        int[] values1 = paras[1].getInts();
+        boolean[] results = out.getBooleans();
+        int i = 0;
+        for (int bound = INT_SPECIES.loopBound(size); i < bound; i += INT_SPECIES.length()) {
+            IntVector.fromArray(INT_SPECIES, values0, i)
+                .compare(VectorOperators.LT, IntVector.fromArray(INT_SPECIES, values1, i))
+                .intoArray(results, i);
+        }
+        for (; i < size; ++i) {
+            results[i] = values0[i] < values1[i];
+        }
+    }
+
+    private static void ltLongs(ColumnVector[] paras, int size, ColumnVector out) {
+        long[] values0 = paras[0].getLongs();
+        long[] values1 = paras[1].getLongs();
+        boolean[] results = out.getBooleans();
+        int i = 0;
+        for (int bound = LONG_SPECIES.loopBound(size); i < bound; i += LONG_SPECIES.length()) {
+            LongVector.fromArray(LONG_SPECIES, values0, i)
+                .compare(VectorOperators.LT, LongVector.fromArray(LONG_SPECIES, values1, i))
+                .intoArray(results, i);
+        }
+        for (; i < size; ++i) {
+            results[i] = values0[i] < values1[i];
+        }
+    }
+
+    private static void ltDoubles(ColumnVector[] paras, int size, ColumnVector out) {
+        double[] values0 = paras[0].getDoubles();
+        double[] values1 = paras[1].getDoubles();
+        boolean[] results = out.getBooleans();
+        int i = 0;
+        for (int bound = DOUBLE_SPECIES.loopBound(size); i < bound; i += DOUBLE_SPECIES.length()) {
+            DoubleVector.fromArray(DOUBLE_SPECIES, values0, i)
+                .compare(VectorOperators.LT, DoubleVector.fromArray(DOUBLE_SPECIES, values1, i))
+                .intoArray(results, i);
+        }
+        for (; i < size; ++i) {
+            results[i] = values0[i] < values1[i];
+        }
+    }
+
+    private static void leInts(ColumnVector[] paras, int size, ColumnVector out) {
+        int[] values0 = paras[0].getInts();
+        int[] values1 = paras[1].getInts();
+        boolean[] results = out.getBooleans();
+        int i = 0;
+        for (int bound = INT_SPECIES.loopBound(size); i < bound; i += INT_SPECIES.length()) {
+            IntVector.fromArray(INT_SPECIES, values0, i)
+                .compare(VectorOperators.LE, IntVector.fromArray(INT_SPECIES, values1, i))
+                .intoArray(results, i);
+        }
+        for (; i < size; ++i) {
+            results[i] = values0[i] <= values1[i];
+        }
+    }
+
+    private static void leLongs(ColumnVector[] paras, int size, ColumnVector out) {
+        long[] values0 = paras[0].getLongs();
+        long[] values1 = paras[1].getLongs();
+        boolean[] results = out.getBooleans();
+        int i = 0;
+        for (int bound = LONG_SPECIES.loopBound(size); i < bound; i += LONG_SPECIES.length()) {
+            LongVector.fromArray(LONG_SPECIES, values0, i)
+                .compare(VectorOperators.LE, LongVector.fromArray(LONG_SPECIES, values1, i))
+                .intoArray(results, i);
+        }
+        for (; i < size; ++i) {
+            results[i] = values0[i] <= values1[i];
+        }
+    }
+
+    private static void leDoubles(ColumnVector[] paras, int size, ColumnVector out) {
+        double[] values0 = paras[0].getDoubles();
+        double[] values1 = paras[1].getDoubles();
+        boolean[] results = out.getBooleans();
+        int i = 0;
+        for (int bound = DOUBLE_SPECIES.loopBound(size); i < bound; i += DOUBLE_SPECIES.length()) {
+            DoubleVector.fromArray(DOUBLE_SPECIES, values0, i)
+                .compare(VectorOperators.LE, DoubleVector.fromArray(DOUBLE_SPECIES, values1, i))
+                .intoArray(results, i);
+        }
+        for (; i < size; ++i) {
+            results[i] = values0[i] <= values1[i];
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2020 DataCanvas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.datacanvasio.expretau.simd;
+
+import io.github.datacanvasio.expretau.runtime.TypeCode;
+import io.github.datacanvasio.expretau.runtime.evaluator.arithmetic.AbsDouble;
+import io.github.datacanvasio.expretau.runtime.evaluator.arithmetic.AbsInteger;
+import io.github.datacanvasio.expretau.runtime.evaluator.arithmetic.AddDoubleDouble;
+import io.github.datacanvasio.expretau.runtime.evaluator.arithmetic.AddIntegerInteger;
+import io.github.datacanvasio.expretau.runtime.evaluator.arithmetic.DivDoubleDouble;
+import io.github.datacanvasio.expretau.runtime.evaluator.arithmetic.MulLongLong;
+import io.github.datacanvasio.expretau.runtime.evaluator.arithmetic.NegLong;
+import io.github.datacanvasio.expretau.runtime.evaluator.arithmetic.SubLongLong;
+import io.github.datacanvasio.expretau.runtime.evaluator.base.Evaluator;
+import io.github.datacanvasio.expretau.runtime.evaluator.relational.EqIntegerInteger;
+import io.github.datacanvasio.expretau.runtime.evaluator.relational.GeLongLong;
+import io.github.datacanvasio.expretau.runtime.evaluator.relational.LtDoubleDouble;
+import io.github.datacanvasio.expretau.runtime.evaluator.relational.NeDoubleDouble;
+import io.github.datacanvasio.expretau.runtime.vector.BatchKernel;
+import io.github.datacanvasio.expretau.runtime.vector.BatchKernels;
+import io.github.datacanvasio.expretau.runtime.vector.ColumnVector;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.Random;
+import java.util.stream.Stream;
+import javax.annotation.Nonnull;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+public class TestVectorKernels {
+    // Not a multiple of vector lengths, to test the tail.
+    private static final int SIZE = 1027;
+
+    @Nonnull
+    private static Stream<Arguments> getParameters() {
+        return Stream.of(
+            arguments(new AddIntegerInteger(), TypeCode.INTEGER, 2),
+            arguments(new SubLongLong(), TypeCode.LONG, 2),
+            arguments(new MulLongLong(), TypeCode.LONG, 2),
+            arguments(new AddDoubleDouble(), TypeCode.DOUBLE, 2),
+            arguments(new DivDoubleDouble(), TypeCode.DOUBLE, 2),
+            arguments(new AbsInteger(), TypeCode.INTEGER, 1),
+            arguments(new AbsDouble(), TypeCode.DOUBLE, 1),
+            arguments(new NegLong(), TypeCode.LONG, 1),
+            arguments(new EqIntegerInteger(), TypeCode.INTEGER, 2),
+            arguments(new GeLongLong(), TypeCode.LONG, 2),
+            arguments(new LtDoubleDouble(), TypeCode.DOUBLE, 2),
+            arguments(new NeDoubleDouble(), TypeCode.DOUBLE, 2)
+        );
+    }
+
+    @Nonnull
+    private static ColumnVector randomColumn(@Nonnull Random random, int typeCode) {
+        ColumnVector column = new ColumnVector(typeCode, SIZE);
+        for (int i = 0; i < SIZE; ++i) {
+            // Small ranges, so that there are equal values.
+            switch (typeCode) {
+                case TypeCode.INTEGER:
+                    column.getInts()[i] = random.nextInt(20) - 10;
+                    break;
+                case TypeCode.LONG:
+                    column.getLongs()[i] = random.nextInt(20) - 10;
+                    break;
+                default:
+                    column.getDoubles()[i] = (random.nextInt(40) - 20) / 4.0;
+                    break;
+            }
+        }
+        return column;
+    }
+
+    @Test
+    public void testLoaded() {
+        // Set by the build if the kernels should be available.
+        assumeTrue(Boolean.getBoolean("expretau.simd.expected"));
+        assertThat(BatchKernels.get(new AddDoubleDouble())).isNotNull();
+    }
+
+    @ParameterizedTest
+    @MethodSource("getParameters")
+    public void test(Evaluator evaluator, int typeCode, int arity) throws Exception {
+        BatchKernel kernel = BatchKernels.get(evaluator);
+        assumeTrue(kernel != null);
+        Random random = new Random(arity * 31L + typeCode);
+        ColumnVector[] paras = new ColumnVector[arity];
+        for (int i = 0; i < arity; ++i) {
+            paras[i] = randomColumn(random, typeCode);
+        }
+        ColumnVector expected = new ColumnVector(evaluator.typeCode(), SIZE);
+        evaluator.evalBatch(paras, null, SIZE, expected);
+        ColumnVector actual = new ColumnVector(evaluator.typeCode(), SIZE);
+        kernel.evalBatch(paras, SIZE, actual);
+        for (int i = 0; i < SIZE; ++i) {
+            assertThat(actual.get(i)).isEqualTo(expected.get(i));
+        }
+    }
+}